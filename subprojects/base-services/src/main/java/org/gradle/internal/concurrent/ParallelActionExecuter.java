@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.concurrent;
+
+import org.gradle.api.Action;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executes an action for each of a number of elements, using up to a given number of threads. Each thread takes the next element as soon as it
+ * has finished with the previous one, so that a few expensive elements do not hold up the others.
+ */
+public class ParallelActionExecuter {
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+
+    public ParallelActionExecuter(ExecutorFactory executorFactory, int maxThreads) {
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Executes the given action for each of the given elements, in no specific order. Blocks until all elements have been processed. Stops
+     * handing out elements once the action has failed for one of them, and rethrows that failure.
+     */
+    public <T> void execute(String displayName, Iterable<? extends T> elements, final Action<? super T> action) {
+        final Queue<T> queue = new ConcurrentLinkedQueue<T>();
+        for (T element : elements) {
+            queue.add(element);
+        }
+        int threads = Math.min(maxThreads, queue.size());
+        if (threads <= 1) {
+            for (T element : queue) {
+                action.execute(element);
+            }
+            return;
+        }
+
+        final AtomicBoolean failed = new AtomicBoolean();
+        StoppableExecutor executor = executorFactory.create(displayName);
+        try {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        T element;
+                        while (!failed.get() && (element = queue.poll()) != null) {
+                            try {
+                                action.execute(element);
+                            } catch (RuntimeException e) {
+                                failed.set(true);
+                                throw e;
+                            } catch (Error e) {
+                                failed.set(true);
+                                throw e;
+                            }
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.stop();
+        }
+    }
+}
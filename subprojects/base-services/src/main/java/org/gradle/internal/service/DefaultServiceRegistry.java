@@ -25,6 +25,9 @@ import org.gradle.internal.reflect.JavaReflectionUtil;
 
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A hierarchical {@link ServiceRegistry} implementation.
@@ -49,14 +52,28 @@ import java.util.*;
  * <p>Service instances are created on demand. {@link #getFactory(Class)} looks for a service instance which implements {@code Factory<T>} where {@code T} is the expected type.</p>
  *
  * <p>Service registries are arranged in a hierarchy. If a service of a given type cannot be located, the registry uses its parent registry, if any, to locate the service.</p>
+ *
+ * <p>Located services and factories are remembered by requested type, so that subsequent lookups of the same type do not need to search the providers or
+ * acquire the registry lock. These are discarded whenever a service is added to this registry. Services located in a parent registry are remembered only when
+ * all parents are {@code DefaultServiceRegistry} instances, and are discarded whenever a service is added to, or a registry is closed, that is the parent
+ * of any registry in the process.</p>
  */
 public class DefaultServiceRegistry implements ServiceRegistry {
+    // Counts the changes to all parent registries, so that a registry can tell whether the services it located in its parents may have changed
+    private static final AtomicLong REGISTRY_CHANGES = new AtomicLong();
     private final Object lock = new Object();
     private final CompositeProvider allServices = new CompositeProvider();
+    private final ConcurrentMap<Type, Object> locatedServices = new ConcurrentHashMap<Type, Object>();
+    private final ConcurrentMap<Class<?>, Factory<?>> locatedFactories = new ConcurrentHashMap<Class<?>, Factory<?>>();
+    private final ConcurrentMap<Type, Object> parentLocatedServices = new ConcurrentHashMap<Type, Object>();
+    private final ConcurrentMap<Class<?>, Factory<?>> parentLocatedFactories = new ConcurrentHashMap<Class<?>, Factory<?>>();
+    private final boolean rememberParentServices;
+    private volatile long parentLocatedChanges = -1;
+    private volatile boolean usedAsParent;
     private final OwnServices ownServices;
     private final CompositeProvider parentServices;
     private final String displayName;
-    private boolean closed;
+    private volatile boolean closed;
 
     public DefaultServiceRegistry() {
         this(null, Collections.<ServiceRegistry>emptyList());
@@ -78,6 +95,15 @@ public class DefaultServiceRegistry implements ServiceRegistry {
         this.displayName = displayName != null ? displayName : getClass().getSimpleName();
         this.parentServices = parents.isEmpty() ? null : new CompositeProvider();
         this.ownServices = new OwnServices();
+        boolean parentsAreDefaultRegistries = true;
+        for (ServiceRegistry parent : parents) {
+            if (parent instanceof DefaultServiceRegistry) {
+                ((DefaultServiceRegistry) parent).usedAsParent = true;
+            } else {
+                parentsAreDefaultRegistries = false;
+            }
+        }
+        this.rememberParentServices = parentsAreDefaultRegistries;
         allServices.providers.add(ownServices);
         if (parentServices != null) {
             allServices.providers.add(parentServices);
@@ -232,6 +258,8 @@ public class DefaultServiceRegistry implements ServiceRegistry {
                 CompositeStoppable.stoppable(allServices).stop();
             } finally {
                 closed = true;
+                parentChanged();
+                discardLocatedServices();
             }
         }
     }
@@ -240,6 +268,47 @@ public class DefaultServiceRegistry implements ServiceRegistry {
         return closed;
     }
 
+    private void discardLocatedServices() {
+        locatedServices.clear();
+        locatedFactories.clear();
+        parentLocatedServices.clear();
+        parentLocatedFactories.clear();
+    }
+
+    /**
+     * Discards the services that child registries have located in this registry. Registries that are not a parent do not need to do this, so that
+     * short-lived registries, such as those of tasks, do not discard the services located by all other registries.
+     */
+    private void parentChanged() {
+        if (usedAsParent) {
+            REGISTRY_CHANGES.incrementAndGet();
+        }
+    }
+
+    @Nullable
+    private <K, V> V getParentLocated(ConcurrentMap<K, V> parentLocated, K key) {
+        if (parentLocatedChanges != REGISTRY_CHANGES.get()) {
+            return null;
+        }
+        return parentLocated.get(key);
+    }
+
+    /**
+     * Remembers a service located in a parent registry, provided that no registry has changed since the given count of changes was taken, before the lookup.
+     * Must be called while holding the registry lock.
+     */
+    private <K, V> void rememberParentLocated(ConcurrentMap<K, V> parentLocated, K key, V value, long changesBeforeLookup) {
+        if (!rememberParentServices || changesBeforeLookup != REGISTRY_CHANGES.get()) {
+            return;
+        }
+        if (parentLocatedChanges != changesBeforeLookup) {
+            parentLocatedServices.clear();
+            parentLocatedFactories.clear();
+            parentLocatedChanges = changesBeforeLookup;
+        }
+        parentLocated.put(key, value);
+    }
+
     private static String format(Type type) {
         if (type instanceof Class) {
             Class<?> aClass = (Class) type;
@@ -284,15 +353,30 @@ public class DefaultServiceRegistry implements ServiceRegistry {
     }
 
     private Object doGet(Type serviceType) throws IllegalArgumentException {
+        Object located = locatedServices.get(serviceType);
+        if (located == null) {
+            located = getParentLocated(parentLocatedServices, serviceType);
+        }
+        if (located != null && !closed) {
+            return located;
+        }
+
         synchronized (lock) {
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate service of type %s, as %s has been closed.", format(serviceType), displayName));
             }
 
+            long changes = REGISTRY_CHANGES.get();
             DefaultLookupContext context = new DefaultLookupContext();
             ServiceProvider provider = context.find(serviceType, allServices);
             if (provider != null) {
-                return provider.get();
+                Object service = provider.get();
+                if (provider instanceof ParentServiceProvider) {
+                    rememberParentLocated(parentLocatedServices, serviceType, service, changes);
+                } else {
+                    locatedServices.put(serviceType, service);
+                }
+                return service;
             }
 
             throw new UnknownServiceException(serviceType, String.format("No service of type %s available in %s.", format(serviceType), displayName));
@@ -300,15 +384,30 @@ public class DefaultServiceRegistry implements ServiceRegistry {
     }
 
     public <T> Factory<T> getFactory(Class<T> type) {
+        Factory<?> located = locatedFactories.get(type);
+        if (located == null) {
+            located = getParentLocated(parentLocatedFactories, type);
+        }
+        if (located != null && !closed) {
+            return (Factory<T>) located;
+        }
+
         synchronized (lock) {
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate factory for objects of type %s, as %s has been closed.", format(type), displayName));
             }
 
+            long changes = REGISTRY_CHANGES.get();
             DefaultLookupContext context = new DefaultLookupContext();
             ServiceProvider factory = allServices.getFactory(context, type);
             if (factory != null) {
-                return (Factory<T>) factory.get();
+                Factory<T> result = (Factory<T>) factory.get();
+                if (factory instanceof ParentServiceProvider) {
+                    rememberParentLocated(parentLocatedFactories, type, result, changes);
+                } else {
+                    locatedFactories.put(type, result);
+                }
+                return result;
             }
 
             throw new UnknownServiceException(type, String.format("No factory for objects of type %s available in %s.", format(type), displayName));
@@ -417,7 +516,12 @@ public class DefaultServiceRegistry implements ServiceRegistry {
         }
 
         public void add(Provider provider) {
-            this.providers.add(provider);
+            synchronized (lock) {
+                this.providers.add(provider);
+                // A new provider may change the result of a lookup, for example by making it ambiguous, here or in a child registry
+                parentChanged();
+                discardLocatedServices();
+            }
         }
     }
 
@@ -854,20 +958,8 @@ public class DefaultServiceRegistry implements ServiceRegistry {
             return null;
         }
 
-        private ServiceProvider wrap(final Object instance) {
-            return new ServiceProvider() {
-                public String getDisplayName() {
-                    return String.format("ServiceRegistry %s", parent);
-                }
-
-                public Object get() {
-                    return instance;
-                }
-
-                public void requiredBy(Provider provider) {
-                    // Ignore
-                }
-            };
+        private ServiceProvider wrap(Object instance) {
+            return new ParentServiceProvider(parent, instance);
         }
 
         public <T> void getAll(LookupContext context, Class<T> serviceType, List<T> result) {
@@ -880,6 +972,28 @@ public class DefaultServiceRegistry implements ServiceRegistry {
         }
     }
 
+    private static class ParentServiceProvider implements ServiceProvider {
+        private final ServiceRegistry parent;
+        private final Object instance;
+
+        private ParentServiceProvider(ServiceRegistry parent, Object instance) {
+            this.parent = parent;
+            this.instance = instance;
+        }
+
+        public String getDisplayName() {
+            return String.format("ServiceRegistry %s", parent);
+        }
+
+        public Object get() {
+            return instance;
+        }
+
+        public void requiredBy(Provider provider) {
+            // Ignore
+        }
+    }
+
     interface LookupContext {
         @Nullable
         ServiceProvider find(Type type, Provider provider);
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.concurrent
+
+import org.gradle.api.Action
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class ParallelActionExecuterTest extends ConcurrentSpec {
+    def factory = new DefaultExecutorFactory()
+
+    def cleanup() {
+        factory.stop()
+    }
+
+    def "executes action for each element"() {
+        def executer = new ParallelActionExecuter(factory, 3)
+        def processed = new CopyOnWriteArrayList()
+
+        when:
+        executer.execute("test", ["a", "b", "c", "d", "e"], { processed << it } as Action)
+
+        then:
+        processed.sort() == ["a", "b", "c", "d", "e"]
+    }
+
+    def "executes elements concurrently"() {
+        def executer = new ParallelActionExecuter(factory, 2)
+
+        when:
+        executer.execute("test", ["a", "b"], { element ->
+            if (element == "a") {
+                instant.aStarted
+                thread.blockUntil.bStarted
+            } else {
+                instant.bStarted
+                thread.blockUntil.aStarted
+            }
+        } as Action)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "rethrows failure of action"() {
+        def executer = new ParallelActionExecuter(factory, 2)
+        def failure = new RuntimeException("broken")
+
+        when:
+        executer.execute("test", ["a", "b", "c"], { if (it == "b") { throw failure } } as Action)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+    }
+
+    def "executes in calling thread when limited to a single thread"() {
+        def executer = new ParallelActionExecuter(factory, 1)
+        def threads = []
+
+        when:
+        executer.execute("test", ["a", "b"], { threads << Thread.currentThread() } as Action)
+
+        then:
+        threads == [Thread.currentThread(), Thread.currentThread()]
+    }
+}
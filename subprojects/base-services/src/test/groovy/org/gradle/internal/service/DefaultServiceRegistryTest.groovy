@@ -83,6 +83,117 @@ class DefaultServiceRegistryTest extends Specification {
         e.message == "No service of type StringBuilder available in TestRegistry."
     }
 
+    def doesNotRememberServicesLocatedInParentOfOtherType() {
+        def parent = Mock(ServiceRegistry)
+        def registry = new TestRegistry(parent)
+
+        when:
+        def first = registry.get(BigDecimal)
+        def second = registry.get(BigDecimal)
+
+        then:
+        first == BigDecimal.ONE
+        second == BigDecimal.TEN
+
+        and:
+        2 * parent.get(BigDecimal) >>> [BigDecimal.ONE, BigDecimal.TEN]
+    }
+
+    def remembersServicesLocatedInParent() {
+        def parent = new CountingRegistry()
+        parent.add(BigDecimal, BigDecimal.TEN)
+        parent.add(TestFactory, new TestFactory())
+        def registry = new DefaultServiceRegistry(parent)
+
+        when:
+        def services = (1..3).collect { registry.get(BigDecimal) }
+        def factories = (1..3).collect { registry.getFactory(BigDecimal) }
+
+        then:
+        services.every { it.is(BigDecimal.TEN) }
+        factories.every { it.is(factories[0]) }
+        parent.lookups == 1
+        parent.factoryLookups == 1
+    }
+
+    def discardsServicesLocatedInParentWhenParentChanges() {
+        def parent = new CountingRegistry()
+        parent.add(Number, BigDecimal.TEN)
+        def registry = new DefaultServiceRegistry(parent)
+        registry.get(Number)
+
+        when:
+        parent.add(Integer, 12)
+        registry.get(Number)
+
+        then:
+        ServiceLookupException e = thrown()
+        e.message.startsWith("Multiple services of type Number available in CountingRegistry:")
+        parent.lookups == 2
+    }
+
+    def discardsServicesLocatedInParentWhenGrandparentChanges() {
+        def grandparent = new DefaultServiceRegistry()
+        def parent = new CountingRegistry(grandparent)
+        parent.add(BigDecimal, BigDecimal.TEN)
+        def registry = new DefaultServiceRegistry(parent)
+        registry.get(BigDecimal)
+
+        when:
+        grandparent.add(Integer, 12)
+        registry.get(BigDecimal)
+
+        then:
+        parent.lookups == 2
+    }
+
+    def discardsServicesLocatedInParentWhenParentIsClosed() {
+        def parent = new CountingRegistry()
+        parent.add(BigDecimal, BigDecimal.TEN)
+        def registry = new DefaultServiceRegistry(parent)
+        registry.get(BigDecimal)
+
+        when:
+        parent.close()
+        registry.get(BigDecimal)
+
+        then:
+        IllegalStateException e = thrown()
+        e.message == "Cannot locate service of type BigDecimal, as CountingRegistry has been closed."
+    }
+
+    def doesNotDiscardServicesLocatedInParentWhenRegistryThatIsNotAParentChanges() {
+        def parent = new CountingRegistry()
+        parent.add(BigDecimal, BigDecimal.TEN)
+        def registry = new DefaultServiceRegistry(parent)
+        registry.get(BigDecimal)
+
+        when:
+        def other = new DefaultServiceRegistry()
+        other.add(Integer, 12)
+        other.close()
+        registry.get(BigDecimal)
+
+        then:
+        parent.lookups == 1
+    }
+
+    def discardsLocatedServicesWhenServiceIsAdded() {
+        def registry = new DefaultServiceRegistry()
+
+        given:
+        registry.add(BigDecimal, BigDecimal.TEN)
+        registry.get(Number)
+
+        when:
+        registry.add(Integer, 12)
+        registry.get(Number)
+
+        then:
+        ServiceLookupException e = thrown()
+        e.message.startsWith("Multiple services of type Number available in DefaultServiceRegistry:")
+    }
+
     def returnsServiceInstanceThatHasBeenRegistered() {
         def value = BigDecimal.TEN
         def registry = new DefaultServiceRegistry()
@@ -1028,6 +1139,27 @@ class DefaultServiceRegistryTest extends Specification {
     private interface StringFactory extends Factory<String> {
     }
 
+    private static class CountingRegistry extends DefaultServiceRegistry {
+        int lookups
+        int factoryLookups
+
+        CountingRegistry(ServiceRegistry... parents) {
+            super(parents)
+        }
+
+        @Override
+        Object get(Type serviceType) {
+            lookups++
+            return super.get(serviceType)
+        }
+
+        @Override
+        def <T> Factory<T> getFactory(Class<T> type) {
+            factoryLookups++
+            return super.getFactory(type)
+        }
+    }
+
     private static class TestRegistry extends DefaultServiceRegistry {
         public TestRegistry() {
         }
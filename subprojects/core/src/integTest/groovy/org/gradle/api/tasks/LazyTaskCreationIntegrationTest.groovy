@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.tasks
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class LazyTaskCreationIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        settingsFile << "include 'a', 'b'"
+        buildFile << """
+            allprojects {
+                tasks.createLater("lazy", DefaultTask) { task ->
+                    println "configuring \${task.path}"
+                    task.doLast { println "executing \${task.path}" }
+                }
+            }
+            task other
+        """
+    }
+
+    def "does not create the tasks that are not needed"() {
+        when:
+        run "other"
+
+        then:
+        !output.contains("configuring")
+        !output.contains("executing")
+    }
+
+    def "creates the tasks selected on the command-line"() {
+        when:
+        run "a:lazy"
+
+        then:
+        output.contains("configuring :a:lazy")
+        output.contains("executing :a:lazy")
+        !output.contains("configuring :lazy")
+        !output.contains("configuring :b:lazy")
+    }
+
+    def "creates the tasks selected by name in all projects"() {
+        when:
+        run "lazy"
+
+        then:
+        output.contains("executing :lazy")
+        output.contains("executing :a:lazy")
+        output.contains("executing :b:lazy")
+    }
+
+    def "creates the tasks that tasks in the task graph depend on"() {
+        buildFile << """
+            other.dependsOn ':b:lazy'
+            project(':a') {
+                task dependent(dependsOn: 'lazy')
+            }
+        """
+
+        when:
+        run "other", "a:dependent"
+
+        then:
+        executedTasks == [":b:lazy", ":other", ":a:lazy", ":a:dependent"]
+        !output.contains("configuring :lazy")
+    }
+
+    def "creates the task when it is referenced in the build script"() {
+        buildFile << """
+            lazy.doLast { println "referenced" }
+        """
+
+        when:
+        run "other"
+
+        then:
+        output.contains("configuring :lazy")
+        !output.contains("configuring :a:lazy")
+    }
+
+    def "applies the actions registered for all tasks when the task is created"() {
+        buildFile << """
+            tasks.withType(DefaultTask) { task ->
+                if (task.name == 'lazy') {
+                    task.doLast { println "all tasks action" }
+                }
+            }
+        """
+
+        when:
+        run "lazy"
+
+        then:
+        output.contains("all tasks action")
+    }
+
+    def "lists the tasks in the task report"() {
+        when:
+        run "tasks", "--all"
+
+        then:
+        output.contains("lazy")
+        output.contains("configuring :lazy")
+    }
+}
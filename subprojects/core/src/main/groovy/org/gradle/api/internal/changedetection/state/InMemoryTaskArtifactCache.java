@@ -44,6 +44,9 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
         CACHE_CAPS.put("outputFileStates", 3000);
         CACHE_CAPS.put("fileHashes", 140000);
         CACHE_CAPS.put("compilationState", 1000);
+        CACHE_CAPS.put("testClassDetection", 100000);
+        CACHE_CAPS.put("jarPackages", 2000);
+        CACHE_CAPS.put("jarApiSnapshots", 2000);
 
         //In general, the in-memory cache must be capped at some level, otherwise it is reduces performance in truly gigantic builds
     }
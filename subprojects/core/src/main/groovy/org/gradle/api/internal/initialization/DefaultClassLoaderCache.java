@@ -18,28 +18,69 @@ package org.gradle.api.internal.initialization;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import org.gradle.api.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
 
+import java.io.File;
+import java.net.URL;
 import java.net.URLClassLoader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Caches class loaders by parent, class path and filter, so that scripts with identical class paths share a single class loader, and the classes
+ * it loads.
+ *
+ * <p>By default, the class loaders are discarded and closed when the build finishes, see {@link #buildFinished()}. A cache can instead be shared
+ * by the builds run by a process, in which case it holds at most the given number of class loaders and the class path entries are identified by
+ * the hash of their content, so that a class loader is not reused when one of its files changes. The class path entries are only hashed once per build.
+ * Class loaders that are evicted from a shared cache are closed when the build finishes, as they may still be in use until then.</p>
+ */
 public class DefaultClassLoaderCache implements ClassLoaderCache {
+    /**
+     * The system property which enables sharing the class loaders between the builds run by a process.
+     */
+    public static final String SHARE_ACROSS_BUILDS_PROPERTY = "org.gradle.classloadercache.shared";
+
+    private static final Logger LOGGER = Logging.getLogger(DefaultClassLoaderCache.class);
 
     public static class Key {
         private final ClassLoader parent;
         private final ClassPath classPath;
+        private final HashValue fingerprint;
         private final FilteringClassLoader.Spec filterSpec;
 
-        private Key(ClassLoader parent, ClassPath classPath, FilteringClassLoader.Spec filterSpec) {
+        private Key(ClassLoader parent, ClassPath classPath, @Nullable HashValue fingerprint, @Nullable FilteringClassLoader.Spec filterSpec) {
             this.parent = parent;
             this.classPath = classPath;
+            this.fingerprint = fingerprint;
             this.filterSpec = filterSpec;
         }
 
+        private boolean sameClassPath(Key other) {
+            return parent.equals(other.parent) && classPath.equals(other.classPath) && (fingerprint != null ? fingerprint.equals(other.fingerprint) : other.fingerprint == null);
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
@@ -54,6 +95,9 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
             if (!classPath.equals(key.classPath)) {
                 return false;
             }
+            if (fingerprint != null ? !fingerprint.equals(key.fingerprint) : key.fingerprint != null) {
+                return false;
+            }
             if (filterSpec != null ? !filterSpec.equals(key.filterSpec) : key.filterSpec != null) {
                 return false;
             }
@@ -73,22 +117,50 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         }
     }
 
+    private final boolean shareAcrossBuilds;
+    private final Queue<Map.Entry<Key, ClassLoader>> removed = new ConcurrentLinkedQueue<Map.Entry<Key, ClassLoader>>();
     private final Cache<Key, ClassLoader> cache;
+    private final ConcurrentMap<ClassPath, HashValue> fingerprints = new ConcurrentHashMap<ClassPath, HashValue>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong closed = new AtomicLong();
+    private final AtomicLong loadedClasses = new AtomicLong();
 
+    /**
+     * Creates a cache whose class loaders are discarded when the build finishes.
+     */
     public DefaultClassLoaderCache() {
-        this(CacheBuilder.newBuilder().<Key, ClassLoader>build());
+        this(false, 0);
     }
 
-    public DefaultClassLoaderCache(Cache<Key, ClassLoader> cache) {
-        this.cache = cache;
+    /**
+     * Creates a cache.
+     *
+     * @param shareAcrossBuilds whether the class loaders are kept for the later builds run by this process.
+     * @param maximumSize the maximum number of class loaders kept for later builds. Ignored when the class loaders are not shared.
+     */
+    public DefaultClassLoaderCache(boolean shareAcrossBuilds, int maximumSize) {
+        this.shareAcrossBuilds = shareAcrossBuilds;
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+        if (shareAcrossBuilds) {
+            builder.maximumSize(maximumSize);
+        }
+        cache = builder.removalListener(new RemovalListener<Key, ClassLoader>() {
+            public void onRemoval(RemovalNotification<Key, ClassLoader> notification) {
+                removed.add(notification);
+            }
+        }).build();
     }
 
     public ClassLoader get(final ClassLoader parent, final ClassPath classPath, @Nullable final FilteringClassLoader.Spec filterSpec) {
+        requested.incrementAndGet();
         try {
-            return cache.get(new Key(parent, classPath, filterSpec), new Callable<ClassLoader>() {
+            return cache.get(new Key(parent, classPath, fingerprint(classPath), filterSpec), new Callable<ClassLoader>() {
                 public ClassLoader call() throws Exception {
+                    created.incrementAndGet();
+                    LOGGER.debug("Creating class loader for {}.", classPath.getAsFiles());
                     if (filterSpec == null) {
-                        return new URLClassLoader(classPath.getAsURLArray(), parent);
+                        return new CountingClassLoader(classPath.getAsURLArray(), parent);
                     } else {
                         return new FilteringClassLoader(get(parent, classPath, null), filterSpec);
                     }
@@ -99,4 +171,117 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         }
     }
 
+    @Nullable
+    private HashValue fingerprint(ClassPath classPath) {
+        if (!shareAcrossBuilds) {
+            // The class loaders are discarded before the class path can change
+            return null;
+        }
+        HashValue fingerprint = fingerprints.get(classPath);
+        if (fingerprint == null) {
+            MessageDigest digest = createDigest();
+            for (File file : classPath.getAsFiles()) {
+                addContent(file, digest);
+            }
+            fingerprint = new HashValue(digest.digest());
+            fingerprints.put(classPath, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static void addContent(File file, MessageDigest digest) {
+        digest.update(file.getName().getBytes());
+        if (file.isFile()) {
+            digest.update(HashUtil.createHash(file, "MD5").asByteArray());
+            return;
+        }
+        File[] children = file.listFiles();
+        if (children != null) {
+            // The order of the files returned by listFiles() is not specified
+            Arrays.sort(children);
+            for (File child : children) {
+                addContent(child, digest);
+            }
+        }
+    }
+
+    /**
+     * Called when a build finishes. Discards the class loaders that are not shared with later builds and closes the class loaders that are no longer
+     * cached, then reports the totals of this cache for the build. A shared cache also forgets the content of the class path entries, so that the next
+     * build checks them for changes.
+     */
+    public void buildFinished() {
+        if (shareAcrossBuilds) {
+            fingerprints.clear();
+        } else {
+            cache.invalidateAll();
+        }
+        closeRemovedClassLoaders();
+        LOGGER.info("{}", this);
+        requested.set(0);
+        created.set(0);
+        closed.set(0);
+        loadedClasses.set(0);
+    }
+
+    private void closeRemovedClassLoaders() {
+        List<ClassLoader> classLoaders = new ArrayList<ClassLoader>();
+        Map.Entry<Key, ClassLoader> entry;
+        while ((entry = removed.poll()) != null) {
+            if (entry.getKey().filterSpec != null) {
+                continue;
+            }
+            // Filtering class loaders delegate to the class loader being closed, so discard them as well
+            for (Key key : cache.asMap().keySet()) {
+                if (key.sameClassPath(entry.getKey())) {
+                    cache.invalidate(key);
+                }
+            }
+            classLoaders.add(entry.getValue());
+        }
+        closed.addAndGet(classLoaders.size());
+        CompositeStoppable.stoppable(classLoaders).stop();
+    }
+
+    /**
+     * Returns the number of class loaders currently held by this cache.
+     */
+    public long getSize() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the number of classes loaded by the class loaders of this cache during the current build.
+     */
+    public long getLoadedClassCount() {
+        return loadedClasses.get();
+    }
+
+    @Override
+    public String toString() {
+        long misses = created.get();
+        return String.format("Class loader cache: %s hits, %s misses, %s class loaders closed, %s cached, %s classes loaded.", requested.get() - misses, misses, closed.get(), cache.size(), loadedClasses.get());
+    }
+
+    private class CountingClassLoader extends URLClassLoader {
+        private CountingClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            Class<?> loadedClass = super.findClass(name);
+            loadedClasses.incrementAndGet();
+            return loadedClass;
+        }
+    }
+
 }
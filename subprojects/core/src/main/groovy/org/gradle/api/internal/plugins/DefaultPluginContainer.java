@@ -26,11 +26,13 @@ import org.gradle.api.plugins.UnknownPluginException;
 public class DefaultPluginContainer<T extends PluginAware> extends DefaultPluginCollection<Plugin> implements PluginContainer {
     private PluginRegistry pluginRegistry;
     private final T pluginAware;
+    private final PluginApplicationListener applicationListener;
 
-    public DefaultPluginContainer(PluginRegistry pluginRegistry, T pluginAware) {
+    public DefaultPluginContainer(PluginRegistry pluginRegistry, T pluginAware, PluginApplicationListener applicationListener) {
         super(Plugin.class);
         this.pluginRegistry = pluginRegistry;
         this.pluginAware = pluginAware;
+        this.applicationListener = applicationListener;
     }
 
     public Plugin apply(String id) {
@@ -113,7 +115,12 @@ public class DefaultPluginContainer<T extends PluginAware> extends DefaultPlugin
 
     private Plugin<T> providePlugin(Class<? extends Plugin> type) {
         Plugin<T> plugin = pluginRegistry.loadPlugin(type);
-        plugin.apply(pluginAware);
+        applicationListener.beforeApply(pluginAware, type);
+        try {
+            plugin.apply(pluginAware);
+        } finally {
+            applicationListener.afterApply(pluginAware, type);
+        }
         return plugin;
     }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.plugins;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.plugins.PluginAware;
+
+/**
+ * Receives notifications as plugins are applied to a target.
+ */
+public interface PluginApplicationListener {
+    /**
+     * Called immediately before a plugin of the given type is applied to the given target.
+     */
+    void beforeApply(PluginAware target, Class<? extends Plugin> pluginType);
+
+    /**
+     * Called once the plugin has been applied, regardless of whether application failed or not.
+     */
+    void afterApply(PluginAware target, Class<? extends Plugin> pluginType);
+}
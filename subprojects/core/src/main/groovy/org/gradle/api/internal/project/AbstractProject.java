@@ -57,8 +57,11 @@ import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.ServiceRegistryFactory;
 import org.gradle.listener.ClosureBackedMethodInvocationDispatch;
 import org.gradle.listener.ListenerBroadcast;
+import org.gradle.listener.ListenerManager;
 import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.logging.StandardOutputCapture;
+import org.gradle.messaging.dispatch.Dispatch;
+import org.gradle.messaging.dispatch.MethodInvocation;
 import org.gradle.model.ModelPath;
 import org.gradle.model.ModelRules;
 import org.gradle.model.dsl.internal.GroovyModelDsl;
@@ -150,6 +153,12 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
 
     private ProjectConfigurationActionContainer configurationActions;
 
+    private final ConfigurationActionListener configurationActionListener;
+
+    private int afterEvaluateActionCount;
+
+    private int crossProjectActionCount;
+
     private final ModelRegistry modelRegistry;
     private final ModelRules modelRules;
 
@@ -208,6 +217,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
         configurationActions = services.get(ProjectConfigurationActionContainer.class);
         modelRegistry = services.get(ModelRegistry.class);
         modelRules = services.get(ModelRules.class);
+        configurationActionListener = services.get(ListenerManager.class).getBroadcaster(ConfigurationActionListener.class);
 
         extensibleDynamicObject = new ExtensibleDynamicObject(this, services.get(Instantiator.class));
         if (parent != null) {
@@ -457,11 +467,36 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     public void subprojects(Action<? super Project> action) {
-        configure(getSubprojects(), action);
+        configure(getSubprojects(), notifying(nextCrossProjectActionDescription("subprojects"), action));
     }
 
     public void allprojects(Action<? super Project> action) {
-        configure(getAllprojects(), action);
+        configure(getAllprojects(), notifying(nextCrossProjectActionDescription("allprojects"), action));
+    }
+
+    private String nextCrossProjectActionDescription(String kind) {
+        return String.format("%s action %s from %s", kind, ++crossProjectActionCount, this);
+    }
+
+    private Action<Project> notifying(final String description, final Action<? super Project> action) {
+        return new Action<Project>() {
+            public void execute(Project project) {
+                configurationActionListener.beforeAction(project, description);
+                try {
+                    action.execute(project);
+                } finally {
+                    configurationActionListener.afterAction(project, description);
+                }
+            }
+        };
+    }
+
+    private Action<Project> configuring(final Closure configureClosure) {
+        return new Action<Project>() {
+            public void execute(Project project) {
+                ConfigureUtil.configure(configureClosure, project);
+            }
+        };
     }
 
     public <T> Iterable<T> configure(Iterable<T> objects, Action<? super T> configureAction) {
@@ -649,7 +684,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
             }
         };
         if (recursive) {
-            allprojects(action);
+            configure(getAllprojects(), action);
         } else {
             action.execute(this);
         }
@@ -670,7 +705,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
             }
         };
         if (recursive) {
-            allprojects(action);
+            configure(getAllprojects(), action);
         } else {
             action.execute(this);
         }
@@ -790,7 +825,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     public void afterEvaluate(Action<? super Project> action) {
-        evaluationListener.add("afterEvaluate", action);
+        evaluationListener.add("afterEvaluate", notifying(nextAfterEvaluateActionDescription(), action));
     }
 
     public void beforeEvaluate(Closure closure) {
@@ -798,7 +833,26 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     public void afterEvaluate(Closure closure) {
-        evaluationListener.add(new ClosureBackedMethodInvocationDispatch("afterEvaluate", closure));
+        final String description = nextAfterEvaluateActionDescription();
+        final Dispatch<MethodInvocation> closureDispatch = new ClosureBackedMethodInvocationDispatch("afterEvaluate", closure);
+        evaluationListener.add(new Dispatch<MethodInvocation>() {
+            public void dispatch(MethodInvocation message) {
+                if (!message.getMethod().getName().equals("afterEvaluate")) {
+                    return;
+                }
+                Project project = (Project) message.getArguments()[0];
+                configurationActionListener.beforeAction(project, description);
+                try {
+                    closureDispatch.dispatch(message);
+                } finally {
+                    configurationActionListener.afterAction(project, description);
+                }
+            }
+        });
+    }
+
+    private String nextAfterEvaluateActionDescription() {
+        return String.format("afterEvaluate action %s", ++afterEvaluateActionCount);
     }
 
     public Logger getLogger() {
@@ -878,11 +932,11 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     public void subprojects(Closure configureClosure) {
-        configure(getSubprojects(), configureClosure);
+        subprojects(configuring(configureClosure));
     }
 
     public void allprojects(Closure configureClosure) {
-        configure(getAllprojects(), configureClosure);
+        allprojects(configuring(configureClosure));
     }
 
     public Project project(String path, Closure configureClosure) {
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project;
+
+import org.gradle.api.Project;
+
+/**
+ * Receives notifications as configuration actions registered by build logic, such as {@code afterEvaluate} or {@code allprojects} actions, are executed
+ * against a project.
+ */
+public interface ConfigurationActionListener {
+    /**
+     * Called immediately before the described action is executed against the given project.
+     */
+    void beforeAction(Project project, String description);
+
+    /**
+     * Called once the action has been executed, regardless of whether execution failed or not.
+     */
+    void afterAction(Project project, String description);
+}
@@ -37,6 +37,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     private final ITaskFactory taskFactory;
     private final ProjectAccessListener projectAccessListener;
     private Map<String, Runnable> placeholders = new HashMap<String, Runnable>();
+    private final Map<String, Runnable> tasksToCreate = new HashMap<String, Runnable>();
 
     public DefaultTaskContainer(ProjectInternal project, Instantiator instantiator, ITaskFactory taskFactory, ProjectAccessListener projectAccessListener) {
         super(Task.class, instantiator, project);
@@ -61,6 +62,13 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
                 throw new InvalidUserDataException(String.format(
                         "Cannot add %s as a task with that name already exists.", task));
             }
+        } else if (tasksToCreate.containsKey(name)) {
+            if (replace) {
+                tasksToCreate.remove(name);
+            } else {
+                throw new InvalidUserDataException(String.format(
+                        "Cannot add %s as a task with that name already exists.", task));
+            }
         }
 
         add(task);
@@ -109,6 +117,18 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return task;
     }
 
+    public <T extends Task> void createLater(final String name, final Class<T> type, final Action<? super T> configuration) {
+        if (findByNameWithoutRules(name) != null || tasksToCreate.containsKey(name)) {
+            throw new InvalidUserDataException(String.format(
+                    "Cannot add task '%s' as a task with that name already exists.", name));
+        }
+        tasksToCreate.put(name, new Runnable() {
+            public void run() {
+                configuration.execute(create(name, type));
+            }
+        });
+    }
+
     public Task maybeCreate(String name) {
         Task task = findByName(name);
         if (task != null) {
@@ -201,10 +221,15 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         for (String placeHolderName : placeholders.keySet()) {
             set.add(placeHolderName);
         }
+        set.addAll(tasksToCreate.keySet());
         return set;
     }
 
     public void actualize() {
+        while (!tasksToCreate.isEmpty()) {
+            maybeCreateLaterTask(tasksToCreate.keySet().iterator().next());
+        }
+
         new CachingDirectedGraphWalker<Task, Void>(new DirectedGraph<Task, Void>() {
             public void getNodeValues(Task node, Collection<? super Void> values, Collection<? super Task> connectedNodes) {
                 connectedNodes.addAll(node.getTaskDependencies().getDependencies(node));
@@ -228,10 +253,18 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         if (task != null) {
             return task;
         }
+        maybeCreateLaterTask(name);
         maybeMaterializePlaceholder(name);
         return super.findByName(name);
     }
 
+    private void maybeCreateLaterTask(String name) {
+        Runnable createAction = tasksToCreate.remove(name);
+        if (createAction != null) {
+            createAction.run();
+        }
+    }
+
     private void maybeMaterializePlaceholder(String name) {
         if (placeholders.containsKey(name)) {
             if (super.findByName(name) == null) {
@@ -244,4 +277,5 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
     public void addPlaceholderAction(String placeholderName, Runnable runnable) {
         placeholders.put(placeholderName, runnable);
     }
+
 }
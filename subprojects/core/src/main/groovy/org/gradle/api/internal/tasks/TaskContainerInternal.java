@@ -44,7 +44,8 @@ public interface TaskContainerInternal extends TaskContainer, TaskResolver {
      * Calling this method will force all task dependencies to be actualised, which may mean new tasks are
      * created because of things like task rules etc.
      *
-     * As part of this, all placeholder actions are materialized to show up in 'tasks' and 'tasks --all' overview.
+     * As part of this, all placeholder actions are materialized and all tasks registered with {@link #createLater} are created,
+     * to show up in 'tasks' and 'tasks --all' overview.
      */
     void actualize();
 
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks;
+
+import org.gradle.api.Task;
+
+import java.util.Map;
+
+/**
+ * Receives the metrics that tasks measure while they execute, such as the profile report.
+ */
+public interface TaskMetricsListener {
+    /**
+     * Called by a task when it has measured its execution.
+     *
+     * @param metrics the metrics, by description, in the order they should be reported.
+     * @param phaseTimes the elapsed times in milliseconds of the phases of the execution, by description.
+     */
+    void taskMeasured(Task task, Map<String, String> metrics, Map<String, Long> phaseTimes);
+}
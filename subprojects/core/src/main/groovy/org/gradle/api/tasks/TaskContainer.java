@@ -254,6 +254,23 @@ public interface TaskContainer extends TaskCollection<Task>, PolymorphicDomainOb
      */
     <T extends Task> T create(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
 
+    /**
+     * <p>Registers a {@link Task} with the given name and type, which is created and configured with the given action only when it is
+     * needed. No task object is created by this method.</p>
+     *
+     * <p>The task is created the first time it is looked up by name or by path, for example when it is selected on the command-line, when
+     * another task in the task graph depends on it by name, or when it is referenced by name in your build file. Until then, the task is not
+     * an element of this container, so it is not visible to methods such as {@link #withType(Class)}, {@link #matching(Closure)}
+     * or {@link #all(Action)}. Actions registered with these methods are applied to the task when it is created.</p>
+     *
+     * @param name The name of the task to be created.
+     * @param type The type of task to create.
+     * @param configuration The action to configure the task with once it is created.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     */
+    @Incubating
+    <T extends Task> void createLater(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
+
     /**
      * <p>Creates a {@link Task} with the given name and adds it to this container, replacing any existing task with the
      * same name.</p>
@@ -50,6 +50,7 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
     private final ScriptHandlerFactory scriptHandlerFactory;
     private final PluginResolverFactory pluginResolverFactory;
     private final FileLookup fileLookup;
+    private final ScriptEvaluationListener evaluationListener;
 
     public DefaultScriptPluginFactory(ScriptCompilerFactory scriptCompilerFactory,
                                       ImportsReader importsReader,
@@ -57,7 +58,8 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
                                       Instantiator instantiator,
                                       ScriptHandlerFactory scriptHandlerFactory,
                                       PluginResolverFactory pluginResolverFactory,
-                                      FileLookup fileLookup) {
+                                      FileLookup fileLookup,
+                                      ScriptEvaluationListener evaluationListener) {
         this.scriptCompilerFactory = scriptCompilerFactory;
         this.importsReader = importsReader;
         this.loggingManagerFactory = loggingManagerFactory;
@@ -65,6 +67,7 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
         this.scriptHandlerFactory = scriptHandlerFactory;
         this.pluginResolverFactory = pluginResolverFactory;
         this.fileLookup = fileLookup;
+        this.evaluationListener = evaluationListener;
     }
 
     public ScriptPlugin create(ScriptSource scriptSource, ScriptHandler scriptHandler, ClassLoaderScope classLoaderScope, String classpathClosureName, Class<? extends BasicScript> scriptClass) {
@@ -92,6 +95,15 @@ public class DefaultScriptPluginFactory implements ScriptPluginFactory {
         }
 
         public void apply(final Object target) {
+            evaluationListener.beforeScript(target, scriptSource);
+            try {
+                doApply(target);
+            } finally {
+                evaluationListener.afterScript(target, scriptSource);
+            }
+        }
+
+        private void doApply(final Object target) {
             DefaultServiceRegistry services = new DefaultServiceRegistry();
             services.add(ScriptPluginFactory.class, DefaultScriptPluginFactory.this);
             services.add(ScriptHandlerFactory.class, scriptHandlerFactory);
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.groovy.scripts.ScriptSource;
+
+/**
+ * Receives notifications as scripts are applied to a target, such as a project, the settings or the build.
+ */
+public interface ScriptEvaluationListener {
+    /**
+     * Called immediately before the given script is compiled and executed against the given target.
+     */
+    void beforeScript(Object target, ScriptSource scriptSource);
+
+    /**
+     * Called once the script has been executed, regardless of whether execution failed or not.
+     */
+    void afterScript(Object target, ScriptSource scriptSource);
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.initialization;
+
+import org.gradle.util.GUtil;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Loads properties files, such as {@code gradle.properties}. The content of each file is kept in memory, and is reused by later loads of the file,
+ * possibly by later builds, for as long as the size and modification time of the file remain the same.
+ */
+public class CachingPropertiesFileLoader {
+    // Some file systems only record modification times to the nearest few seconds
+    private static final long MODIFICATION_TIME_RESOLUTION = 2000;
+
+    private final ConcurrentMap<File, LoadedProperties> loaded = new ConcurrentHashMap<File, LoadedProperties>();
+
+    /**
+     * Returns the properties defined in the given file, or an empty map if the file does not exist.
+     */
+    public Map<String, String> load(File propertiesFile) {
+        File file = propertiesFile.getAbsoluteFile();
+        if (!file.isFile()) {
+            loaded.remove(file);
+            return Collections.emptyMap();
+        }
+
+        long length = file.length();
+        long lastModified = file.lastModified();
+        LoadedProperties properties = loaded.get(file);
+        if (properties == null || properties.length != length || properties.lastModified != lastModified) {
+            properties = new LoadedProperties(length, lastModified, GUtil.loadProperties(file));
+            if (System.currentTimeMillis() - lastModified > MODIFICATION_TIME_RESOLUTION) {
+                loaded.put(file, properties);
+            } else {
+                // The file may change again without its modification time changing
+                loaded.remove(file);
+            }
+        }
+        return properties.properties;
+    }
+
+    private static class LoadedProperties {
+        final long length;
+        final long lastModified;
+        final Map<String, String> properties;
+
+        LoadedProperties(long length, long lastModified, Map<?, ?> properties) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.properties = Collections.unmodifiableMap(new HashMap(properties));
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.gradle.*;
 import org.gradle.api.internal.ExceptionAnalyser;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.initialization.ClassLoaderScope;
+import org.gradle.api.internal.initialization.DefaultClassLoaderCache;
 import org.gradle.internal.progress.BuildProgressFilter;
 import org.gradle.internal.progress.BuildProgressLogger;
 import org.gradle.internal.progress.LoggerProvider;
@@ -116,6 +117,9 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         }
         listenerManager.addListener(tracker);
         listenerManager.addListener(new BuildCleanupListener(serviceRegistry));
+        if (tracker.getCurrentBuild() == null) {
+            listenerManager.addListener(new ClassLoaderCacheListener(serviceRegistry.get(DefaultClassLoaderCache.class)));
+        }
 
         listenerManager.addListener(serviceRegistry.get(ProfileEventAdapter.class));
         if (startParameter.isProfile()) {
@@ -152,6 +156,19 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         this.commandLineConverter = commandLineConverter;
     }
 
+    private static class ClassLoaderCacheListener extends BuildAdapter {
+        private final DefaultClassLoaderCache classLoaderCache;
+
+        private ClassLoaderCacheListener(DefaultClassLoaderCache classLoaderCache) {
+            this.classLoaderCache = classLoaderCache;
+        }
+
+        @Override
+        public void buildFinished(BuildResult result) {
+            classLoaderCache.buildFinished();
+        }
+    }
+
     private static class BuildCleanupListener extends BuildAdapter {
         private final BuildScopeServices services;
 
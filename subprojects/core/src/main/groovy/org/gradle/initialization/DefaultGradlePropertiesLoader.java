@@ -17,14 +17,12 @@ package org.gradle.initialization;
 
 import org.gradle.StartParameter;
 import org.gradle.api.Project;
-import org.gradle.util.GUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Properties;
 
 public class DefaultGradlePropertiesLoader implements IGradlePropertiesLoader {
     private static Logger logger = LoggerFactory.getLogger(DefaultGradlePropertiesLoader.class);
@@ -32,9 +30,11 @@ public class DefaultGradlePropertiesLoader implements IGradlePropertiesLoader {
     private Map<String, String> defaultProperties = new HashMap<String, String>();
     private Map<String, String> overrideProperties = new HashMap<String, String>();
     private final StartParameter startParameter;
+    private final CachingPropertiesFileLoader propertiesFileLoader;
 
-    public DefaultGradlePropertiesLoader(StartParameter startParameter) {
+    public DefaultGradlePropertiesLoader(StartParameter startParameter, CachingPropertiesFileLoader propertiesFileLoader) {
         this.startParameter = startParameter;
+        this.propertiesFileLoader = propertiesFileLoader;
     }
 
     public void loadProperties(File settingsDir) {
@@ -62,10 +62,7 @@ public class DefaultGradlePropertiesLoader implements IGradlePropertiesLoader {
 
     private void addGradleProperties(Map<String, String> target, File... files) {
         for (File propertyFile : files) {
-            if (propertyFile.isFile()) {
-                Properties properties = GUtil.loadProperties(propertyFile);
-                target.putAll(new HashMap(properties));
-            }
+            target.putAll(propertiesFileLoader.load(propertyFile));
         }
     }
 
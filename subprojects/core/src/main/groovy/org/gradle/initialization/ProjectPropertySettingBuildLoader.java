@@ -22,24 +22,23 @@ import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.initialization.ClassLoaderScope;
 import org.gradle.api.internal.plugins.DslObject;
 import org.gradle.api.plugins.ExtraPropertiesExtension;
-import org.gradle.util.GUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Properties;
 
 public class ProjectPropertySettingBuildLoader implements BuildLoader {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProjectPropertySettingBuildLoader.class);
 
     private final IGradlePropertiesLoader propertiesLoader;
     private final BuildLoader buildLoader;
+    private final CachingPropertiesFileLoader propertiesFileLoader;
 
-    public ProjectPropertySettingBuildLoader(IGradlePropertiesLoader propertiesLoader, BuildLoader buildLoader) {
+    public ProjectPropertySettingBuildLoader(IGradlePropertiesLoader propertiesLoader, BuildLoader buildLoader, CachingPropertiesFileLoader propertiesFileLoader) {
         this.buildLoader = buildLoader;
         this.propertiesLoader = propertiesLoader;
+        this.propertiesFileLoader = propertiesFileLoader;
     }
 
     public void load(ProjectDescriptor rootProjectDescriptor, GradleInternal gradle, ClassLoaderScope classLoaderScope) {
@@ -55,18 +54,17 @@ public class ProjectPropertySettingBuildLoader implements BuildLoader {
     }
 
     private void addPropertiesToProject(Project project) {
-        Properties projectProperties = new Properties();
         File projectPropertiesFile = new File(project.getProjectDir(), Project.GRADLE_PROPERTIES);
         LOGGER.debug("Looking for project properties from: {}", projectPropertiesFile);
-        if (projectPropertiesFile.isFile()) {
-            projectProperties = GUtil.loadProperties(projectPropertiesFile);
+        Map<String, String> projectProperties = propertiesFileLoader.load(projectPropertiesFile);
+        if (!projectProperties.isEmpty()) {
             LOGGER.debug("Adding project properties (if not overwritten by user properties): {}",
                     projectProperties.keySet());
         } else {
             LOGGER.debug("project property file does not exists. We continue!");
         }
-        
-        Map<String, String> mergedProperties = propertiesLoader.mergeProperties(new HashMap(projectProperties));
+
+        Map<String, String> mergedProperties = propertiesLoader.mergeProperties(projectProperties);
         ExtraPropertiesExtension extraProperties = new DslObject(project).getExtensions().getExtraProperties();
         for (Map.Entry<String, String> entry: mergedProperties.entrySet()) {
             if (project.hasProperty(entry.getKey())) {
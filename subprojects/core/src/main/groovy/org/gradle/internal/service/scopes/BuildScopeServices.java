@@ -16,7 +16,6 @@
 
 package org.gradle.internal.service.scopes;
 
-import com.google.common.cache.CacheBuilder;
 import org.gradle.StartParameter;
 import org.gradle.api.Action;
 import org.gradle.api.Project;
@@ -68,6 +67,7 @@ import org.gradle.messaging.remote.MessagingServer;
 import org.gradle.plugin.internal.PluginResolverFactory;
 import org.gradle.process.internal.DefaultWorkerProcessFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.WorkerProcessPool;
 import org.gradle.process.internal.child.WorkerProcessClassPathProvider;
 import org.gradle.profile.ProfileEventAdapter;
 import org.gradle.profile.ProfileListener;
@@ -130,13 +130,14 @@ public class BuildScopeServices extends DefaultServiceRegistry {
     }
 
     protected IGradlePropertiesLoader createGradlePropertiesLoader() {
-        return new DefaultGradlePropertiesLoader(get(StartParameter.class));
+        return new DefaultGradlePropertiesLoader(get(StartParameter.class), get(CachingPropertiesFileLoader.class));
     }
 
     protected BuildLoader createBuildLoader() {
         return new ProjectPropertySettingBuildLoader(
                 get(IGradlePropertiesLoader.class),
-                new InstantiatingBuildLoader(get(IProjectFactory.class)));
+                new InstantiatingBuildLoader(get(IProjectFactory.class)),
+                get(CachingPropertiesFileLoader.class));
     }
 
     protected CacheRepository createCacheRepository() {
@@ -204,7 +205,8 @@ public class BuildScopeServices extends DefaultServiceRegistry {
                 get(Instantiator.class),
                 get(ScriptHandlerFactory.class),
                 get(PluginResolverFactory.class),
-                get(FileLookup.class)
+                get(FileLookup.class),
+                get(ListenerManager.class).getBroadcaster(ScriptEvaluationListener.class)
         );
     }
 
@@ -254,13 +256,14 @@ public class BuildScopeServices extends DefaultServiceRegistry {
     }
 
     protected Factory<WorkerProcessBuilder> createWorkerProcessFactory(StartParameter startParameter, MessagingServer messagingServer, ClassPathRegistry classPathRegistry,
-                                                                       FileResolver fileResolver) {
+                                                                       FileResolver fileResolver, WorkerProcessPool workerProcessPool) {
         return new DefaultWorkerProcessFactory(
                 startParameter.getLogLevel(),
                 messagingServer,
                 classPathRegistry,
                 fileResolver,
-                new LongIdGenerator());
+                new LongIdGenerator(),
+                workerProcessPool);
     }
 
     protected BuildConfigurer createBuildConfigurer() {
@@ -283,10 +286,6 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         return new BuildScopeServiceRegistryFactory(services);
     }
 
-    protected ClassLoaderCache createClassLoaderCache() {
-        return new DefaultClassLoaderCache(CacheBuilder.newBuilder().<DefaultClassLoaderCache.Key, ClassLoader>build());
-    }
-
     protected ClassLoaderScope createClassLoaderScope(ClassLoaderRegistry classLoaderRegistry, ClassLoaderCache classLoaderCache) {
         return new RootClassLoaderScope(classLoaderRegistry.getGradleApiClassLoader(), classLoaderCache);
     }
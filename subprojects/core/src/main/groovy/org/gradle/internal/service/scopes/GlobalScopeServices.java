@@ -24,6 +24,7 @@ import org.gradle.api.internal.classpath.DefaultPluginModuleRegistry;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.classpath.PluginModuleRegistry;
 import org.gradle.api.internal.file.*;
+import org.gradle.api.internal.initialization.DefaultClassLoaderCache;
 import org.gradle.cache.internal.*;
 import org.gradle.cache.internal.locklistener.DefaultFileLockContentionHandler;
 import org.gradle.cache.internal.locklistener.FileLockContentionHandler;
@@ -46,6 +47,7 @@ import org.gradle.listener.ListenerManager;
 import org.gradle.messaging.remote.MessagingServer;
 import org.gradle.messaging.remote.internal.MessagingServices;
 import org.gradle.messaging.remote.internal.inet.InetAddressFactory;
+import org.gradle.process.internal.WorkerProcessPool;
 
 import java.util.List;
 
@@ -119,6 +121,19 @@ public class GlobalScopeServices {
         return new DefaultListenerManager();
     }
    
+    DefaultClassLoaderCache createClassLoaderCache() {
+        // Class loaders are discarded at the end of each build, unless sharing them with the later builds run by this process is enabled.
+        // Shared class loaders keep the static state of plugins and hold their jars open, so sharing is opt-in
+        if (Boolean.getBoolean(DefaultClassLoaderCache.SHARE_ACROSS_BUILDS_PROPERTY)) {
+            return new DefaultClassLoaderCache(true, 100);
+        }
+        return new DefaultClassLoaderCache();
+    }
+
+    CachingPropertiesFileLoader createPropertiesFileLoader() {
+        return new CachingPropertiesFileLoader();
+    }
+
     ClassLoaderFactory createClassLoaderFactory() {
         return new DefaultClassLoaderFactory();
     }
@@ -131,6 +146,11 @@ public class GlobalScopeServices {
         return messagingServices.get(MessagingServer.class);
     }
 
+    WorkerProcessPool createWorkerProcessPool() {
+        // Shared by all builds run by this process, so that worker processes can be reused by later builds
+        return new WorkerProcessPool();
+    }
+
     ClassGenerator createClassGenerator() {
         return new AsmBackedClassGenerator();
     }
@@ -20,6 +20,7 @@ import org.gradle.api.internal.DependencyInjectingInstantiator;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.artifacts.dsl.dependencies.ProjectFinder;
 import org.gradle.api.internal.plugins.DefaultPluginContainer;
+import org.gradle.api.internal.plugins.PluginApplicationListener;
 import org.gradle.api.internal.plugins.PluginRegistry;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.options.OptionReader;
@@ -108,8 +109,8 @@ public class GradleScopeServices extends DefaultServiceRegistry {
         return parentRegistry.createChild(get(GradleInternal.class).getClassLoaderScope(), new DependencyInjectingInstantiator(this));
     }
 
-    PluginContainer createPluginContainer(GradleInternal gradle, PluginRegistry pluginRegistry) {
-        return new DefaultPluginContainer<GradleInternal>(pluginRegistry, gradle);
+    PluginContainer createPluginContainer(GradleInternal gradle, PluginRegistry pluginRegistry, ListenerManager listenerManager) {
+        return new DefaultPluginContainer<GradleInternal>(pluginRegistry, gradle, listenerManager.getBroadcaster(PluginApplicationListener.class));
     }
 
     @Override
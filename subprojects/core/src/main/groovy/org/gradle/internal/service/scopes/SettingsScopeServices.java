@@ -21,6 +21,7 @@ import org.gradle.api.internal.SettingsInternal;
 import org.gradle.api.internal.file.BaseDirFileResolver;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.plugins.DefaultPluginContainer;
+import org.gradle.api.internal.plugins.PluginApplicationListener;
 import org.gradle.api.internal.plugins.PluginRegistry;
 import org.gradle.api.plugins.PluginContainer;
 import org.gradle.initialization.DefaultProjectDescriptorRegistry;
@@ -28,6 +29,7 @@ import org.gradle.initialization.ProjectDescriptorRegistry;
 import org.gradle.internal.nativeplatform.filesystem.FileSystem;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.listener.ListenerManager;
 
 public class SettingsScopeServices extends DefaultServiceRegistry {
     private final SettingsInternal settings;
@@ -46,7 +48,7 @@ public class SettingsScopeServices extends DefaultServiceRegistry {
     }
 
     protected PluginContainer createPluginContainer() {
-        return new DefaultPluginContainer(get(PluginRegistry.class), settings);
+        return new DefaultPluginContainer(get(PluginRegistry.class), settings, get(ListenerManager.class).getBroadcaster(PluginApplicationListener.class));
     }
 
     protected ProjectDescriptorRegistry createProjectDescriptorRegistry() {
@@ -111,6 +111,15 @@ public class DefaultWorkerProcess implements WorkerProcess {
         return connection;
     }
 
+    public boolean isRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public void start() {
         try {
             doStart();
@@ -31,6 +31,7 @@ import org.gradle.process.internal.child.ApplicationClassesInIsolatedClassLoader
 import org.gradle.process.internal.child.ApplicationClassesInSystemClassLoaderWorkerFactory;
 import org.gradle.process.internal.child.EncodedStream;
 import org.gradle.process.internal.child.WorkerFactory;
+import org.gradle.process.internal.child.WorkerSessionHost;
 import org.gradle.util.GUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +40,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -49,15 +51,26 @@ public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder
     private final ClassPathRegistry classPathRegistry;
     private final FileResolver resolver;
     private final IdGenerator<?> idGenerator;
+    private final WorkerProcessPool workerProcessPool;
 
     public DefaultWorkerProcessFactory(LogLevel workerLogLevel, MessagingServer server,
                                        ClassPathRegistry classPathRegistry, FileResolver resolver,
                                        IdGenerator<?> idGenerator) {
+        this(workerLogLevel, server, classPathRegistry, resolver, idGenerator, null);
+    }
+
+    /**
+     * @param workerProcessPool the pool of reusable worker processes, or null when worker processes are never reused.
+     */
+    public DefaultWorkerProcessFactory(LogLevel workerLogLevel, MessagingServer server,
+                                       ClassPathRegistry classPathRegistry, FileResolver resolver,
+                                       IdGenerator<?> idGenerator, WorkerProcessPool workerProcessPool) {
         this.workerLogLevel = workerLogLevel;
         this.server = server;
         this.classPathRegistry = classPathRegistry;
         this.resolver = resolver;
         this.idGenerator = idGenerator;
+        this.workerProcessPool = workerProcessPool;
     }
 
     public WorkerProcessBuilder create() {
@@ -75,6 +88,9 @@ public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder
             if (getWorker() == null) {
                 throw new IllegalStateException("No worker action specified for this worker process.");
             }
+            if (isReuseProcess() && workerProcessPool != null) {
+                return buildSession();
+            }
 
             final DefaultWorkerProcess workerProcess = new DefaultWorkerProcess(120, TimeUnit.SECONDS);
             ConnectionAcceptor acceptor = server.accept(new Action<ObjectConnection>() {
@@ -114,6 +130,52 @@ public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder
             return workerProcess;
         }
 
+        private WorkerProcess buildSession() {
+            Object id = idGenerator.generateId();
+            String displayName = getBaseName() + " " + id;
+
+            // Worker processes can be reused by workers with the same java command
+            JavaExecHandleBuilder javaCommand = getJavaCommand();
+            Object key = Arrays.asList(javaCommand.getExecutable(), javaCommand.getAllJvmArgs(), javaCommand.getWorkingDir(),
+                    javaCommand.getEnvironment(), getLogLevel());
+
+            final WorkerProcessSession session = new WorkerProcessSession(displayName, workerProcessPool, key, new Factory<WorkerProcess>() {
+                public WorkerProcess create() {
+                    return buildReusableProcess();
+                }
+            }, 120, TimeUnit.SECONDS);
+            ConnectionAcceptor acceptor = server.accept(new Action<ObjectConnection>() {
+                public void execute(ObjectConnection connection) {
+                    session.onConnect(connection);
+                }
+            });
+            session.startAccepting(acceptor);
+
+            List<URL> implementationClassPath = ClasspathUtil.getClasspath(getWorker().getClass().getClassLoader());
+            ApplicationClassesInIsolatedClassLoaderWorkerFactory workerFactory = new ApplicationClassesInIsolatedClassLoaderWorkerFactory(id, displayName, this,
+                    implementationClassPath, acceptor.getAddress(), classPathRegistry);
+
+            LOGGER.debug("Creating {} in a reusable worker process", displayName);
+            LOGGER.debug("Using application classpath {}", getApplicationClasspath());
+            LOGGER.debug("Using implementation classpath {}", implementationClassPath);
+
+            session.setSession(GUtil.serialize(workerFactory.createSession()));
+            return session;
+        }
+
+        private WorkerProcess buildReusableProcess() {
+            DefaultWorkerProcessBuilder builder = new DefaultWorkerProcessBuilder();
+            builder.setBaseName("Gradle Reusable Worker");
+            builder.setLogLevel(getLogLevel());
+            builder.worker(new WorkerSessionHost());
+            JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+            javaCommand.setExecutable(getJavaCommand().getExecutable());
+            javaCommand.setWorkingDir(getJavaCommand().getWorkingDir());
+            javaCommand.setEnvironment(getJavaCommand().getEnvironment());
+            javaCommand.jvmArgs(getJavaCommand().getAllJvmArgs());
+            return builder.build();
+        }
+
         private void attachStdInContent(WorkerFactory workerFactory, JavaExecHandleBuilder javaCommand) {
             ByteArrayOutputStream bytes = new ByteArrayOutputStream();
             OutputStream encoded = new EncodedStream.EncodedOutput(bytes);
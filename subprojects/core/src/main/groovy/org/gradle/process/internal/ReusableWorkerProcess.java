@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal;
+
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.child.WorkerSessionClientProtocol;
+import org.gradle.process.internal.child.WorkerSessionHostProtocol;
+
+/**
+ * A worker process that is kept alive by a {@link WorkerProcessPool} and runs one worker session at a time.
+ */
+class ReusableWorkerProcess implements WorkerSessionClientProtocol, Stoppable {
+    private final Object key;
+    private final WorkerProcess workerProcess;
+    private final WorkerSessionHostProtocol host;
+    private volatile WorkerSessionClientProtocol currentSession;
+    private volatile boolean retired;
+    private int sessionCount;
+
+    public ReusableWorkerProcess(Object key, WorkerProcess workerProcess, WorkerSessionHostProtocol host) {
+        this.key = key;
+        this.workerProcess = workerProcess;
+        this.host = host;
+    }
+
+    public boolean isCompatibleWith(Object required) {
+        return key.equals(required);
+    }
+
+    public boolean isRunning() {
+        return workerProcess.isRunning();
+    }
+
+    /**
+     * Returns true when this worker process can run another session: it is still running, is not running a session,
+     * has not had a failed or non-reusable session and has not reached the given number of sessions.
+     */
+    public boolean canBeReused(int maxSessions) {
+        return !retired && currentSession == null && sessionCount < maxSessions && workerProcess.isRunning();
+    }
+
+    public void runSession(byte[] serializedSession, WorkerSessionClientProtocol session) {
+        currentSession = session;
+        sessionCount++;
+        host.runSession(serializedSession);
+    }
+
+    public void sessionCompleted(boolean successful, boolean reusable) {
+        if (!successful || !reusable) {
+            retired = true;
+        }
+        WorkerSessionClientProtocol session = currentSession;
+        currentSession = null;
+        if (session != null) {
+            session.sessionCompleted(successful, reusable);
+        }
+    }
+
+    public void stop() {
+        host.stop();
+        workerProcess.waitForStop();
+    }
+
+    @Override
+    public String toString() {
+        return workerProcess.toString();
+    }
+}
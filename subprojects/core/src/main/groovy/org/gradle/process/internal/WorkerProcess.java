@@ -31,5 +31,10 @@ public interface WorkerProcess {
      */
     ObjectConnection getConnection();
 
+    /**
+     * Returns true if the worker process has been started and has not yet stopped. Does not block.
+     */
+    boolean isRunning();
+
     ExecResult waitForStop();
 }
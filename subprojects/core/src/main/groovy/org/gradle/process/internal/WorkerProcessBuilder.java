@@ -42,6 +42,7 @@ public abstract class WorkerProcessBuilder {
     private Action<? super WorkerProcessContext> action;
     private LogLevel logLevel = LogLevel.LIFECYCLE;
     private boolean loadApplicationInSystemClassLoader;
+    private boolean reuseProcess;
     private String baseName = "Gradle Worker";
 
     public WorkerProcessBuilder(FileResolver fileResolver) {
@@ -109,5 +110,17 @@ public abstract class WorkerProcessBuilder {
         this.loadApplicationInSystemClassLoader = loadApplicationInSystemClassLoader;
     }
 
+    public boolean isReuseProcess() {
+        return reuseProcess;
+    }
+
+    /**
+     * Requests that the worker runs in a worker process that is kept alive and reused by later workers with the same
+     * java command. The application classes of a reused worker process are always loaded in an isolated ClassLoader.
+     */
+    public void setReuseProcess(boolean reuseProcess) {
+        this.reuseProcess = reuseProcess;
+    }
+
     public abstract WorkerProcess build();
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.messaging.remote.ObjectConnection;
+import org.gradle.process.internal.child.WorkerSessionClientProtocol;
+import org.gradle.process.internal.child.WorkerSessionHostProtocol;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps worker processes alive once their worker has completed, so that a later worker with the same java command can
+ * run in a warm worker process instead of starting a new one. Shared by all builds run by this process.
+ *
+ * <p>A worker process is discarded when one of its sessions fails, once it has run {@link #MAX_SESSIONS_PER_PROCESS}
+ * sessions, or when it is the least recently used of more than {@link #MAX_IDLE_PROCESSES} idle worker processes.</p>
+ */
+public class WorkerProcessPool implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(WorkerProcessPool.class);
+    static final int MAX_SESSIONS_PER_PROCESS = 100;
+    static final int MAX_IDLE_PROCESSES = 4;
+
+    private final Lock lock = new ReentrantLock();
+    private final List<ReusableWorkerProcess> allWorkers = new ArrayList<ReusableWorkerProcess>();
+    private final LinkedList<ReusableWorkerProcess> idleWorkers = new LinkedList<ReusableWorkerProcess>();
+
+    /**
+     * Reserves an idle worker process started with the given key, or returns null if there is none.
+     */
+    ReusableWorkerProcess reserveIdleWorker(Object key) {
+        List<ReusableWorkerProcess> stopped = new ArrayList<ReusableWorkerProcess>();
+        ReusableWorkerProcess reserved = null;
+        lock.lock();
+        try {
+            for (ReusableWorkerProcess candidate : new ArrayList<ReusableWorkerProcess>(idleWorkers)) {
+                if (!candidate.isRunning()) {
+                    idleWorkers.remove(candidate);
+                    allWorkers.remove(candidate);
+                    stopped.add(candidate);
+                } else if (reserved == null && candidate.isCompatibleWith(key)) {
+                    idleWorkers.remove(candidate);
+                    reserved = candidate;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(stopped);
+        return reserved;
+    }
+
+    /**
+     * Starts and reserves a new worker process, using the given factory to create the worker process.
+     */
+    ReusableWorkerProcess reserveNewWorker(Object key, Factory<WorkerProcess> processFactory) {
+        WorkerProcess workerProcess = processFactory.create();
+        workerProcess.start();
+        ObjectConnection connection = workerProcess.getConnection();
+        WorkerSessionHostProtocol host = connection.addOutgoing(WorkerSessionHostProtocol.class);
+        ReusableWorkerProcess worker = new ReusableWorkerProcess(key, workerProcess, host);
+        connection.addIncoming(WorkerSessionClientProtocol.class, worker);
+        connection.connect();
+
+        lock.lock();
+        try {
+            allWorkers.add(worker);
+        } finally {
+            lock.unlock();
+        }
+        LOGGER.debug("Started reusable worker process {}.", worker);
+        return worker;
+    }
+
+    /**
+     * Returns the given worker process to the pool once its session has completed, or stops it when it cannot be reused.
+     */
+    void release(ReusableWorkerProcess worker) {
+        List<ReusableWorkerProcess> discarded = new ArrayList<ReusableWorkerProcess>();
+        lock.lock();
+        try {
+            if (worker.canBeReused(MAX_SESSIONS_PER_PROCESS)) {
+                idleWorkers.addFirst(worker);
+                while (idleWorkers.size() > MAX_IDLE_PROCESSES) {
+                    discarded.add(idleWorkers.removeLast());
+                }
+            } else {
+                discarded.add(worker);
+            }
+            allWorkers.removeAll(discarded);
+        } finally {
+            lock.unlock();
+        }
+        discard(discarded);
+    }
+
+    private void discard(List<ReusableWorkerProcess> workers) {
+        for (ReusableWorkerProcess worker : workers) {
+            LOGGER.debug("Stopping reusable worker process {}.", worker);
+            try {
+                worker.stop();
+            } catch (Exception e) {
+                // The failure has already been reported by the session that ran in the worker process
+                LOGGER.debug(String.format("Could not stop reusable worker process %s.", worker), e);
+            }
+        }
+    }
+
+    public void stop() {
+        List<ReusableWorkerProcess> workers;
+        lock.lock();
+        try {
+            workers = new ArrayList<ReusableWorkerProcess>(allWorkers);
+            allWorkers.clear();
+            idleWorkers.clear();
+        } finally {
+            lock.unlock();
+        }
+        CompositeStoppable.stoppable(workers).stop();
+    }
+}
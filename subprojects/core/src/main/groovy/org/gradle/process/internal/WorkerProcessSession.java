@@ -0,0 +1,238 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.messaging.remote.ConnectionAcceptor;
+import org.gradle.messaging.remote.ObjectConnection;
+import org.gradle.process.ExecResult;
+import org.gradle.process.internal.child.WorkerSessionClientProtocol;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.String.format;
+
+/**
+ * A worker which runs as a session in a worker process reserved from a {@link WorkerProcessPool}. The worker process is
+ * returned to the pool when the session has completed.
+ */
+class WorkerProcessSession implements WorkerProcess, WorkerSessionClientProtocol {
+    private final static Logger LOGGER = Logging.getLogger(WorkerProcessSession.class);
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final String displayName;
+    private final WorkerProcessPool workerProcessPool;
+    private final Object key;
+    private final Factory<WorkerProcess> processFactory;
+    private final long connectTimeout;
+    private byte[] serializedSession;
+    private ObjectConnection connection;
+    private ConnectionAcceptor acceptor;
+    private ReusableWorkerProcess workerProcess;
+    private boolean running;
+    private boolean successful;
+
+    public WorkerProcessSession(String displayName, WorkerProcessPool workerProcessPool, Object key, Factory<WorkerProcess> processFactory,
+                                int connectTimeoutValue, TimeUnit connectTimeoutUnits) {
+        this.displayName = displayName;
+        this.workerProcessPool = workerProcessPool;
+        this.key = key;
+        this.processFactory = processFactory;
+        this.connectTimeout = connectTimeoutUnits.toMillis(connectTimeoutValue);
+    }
+
+    public void setSession(byte[] serializedSession) {
+        this.serializedSession = serializedSession;
+    }
+
+    public void startAccepting(ConnectionAcceptor acceptor) {
+        lock.lock();
+        try {
+            this.acceptor = acceptor;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onConnect(ObjectConnection connection) {
+        ConnectionAcceptor stoppable;
+
+        lock.lock();
+        try {
+            LOGGER.debug("Received connection {} from {}", connection, displayName);
+            this.connection = connection;
+            condition.signalAll();
+            stoppable = acceptor;
+        } finally {
+            lock.unlock();
+        }
+
+        stoppable.requestStop();
+    }
+
+    public void sessionCompleted(boolean successful, boolean reusable) {
+        lock.lock();
+        try {
+            this.successful = successful;
+            running = false;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WorkerProcessSession{"
+                + "displayName=" + displayName
+                + ", running=" + running
+                + ", workerProcess=" + workerProcess
+                + '}';
+    }
+
+    public ObjectConnection getConnection() {
+        return connection;
+    }
+
+    public boolean isRunning() {
+        lock.lock();
+        try {
+            return running && workerProcess != null && workerProcess.isRunning();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void start() {
+        try {
+            doStart();
+        } catch (Throwable t) {
+            cleanup();
+            throw UncheckedException.throwAsUncheckedException(t);
+        }
+    }
+
+    private void doStart() {
+        ReusableWorkerProcess reserved = workerProcessPool.reserveIdleWorker(key);
+        if (reserved == null) {
+            reserved = workerProcessPool.reserveNewWorker(key, processFactory);
+        } else {
+            LOGGER.debug("Reusing worker process {} for {}.", reserved, displayName);
+        }
+
+        lock.lock();
+        try {
+            workerProcess = reserved;
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+
+        reserved.runSession(serializedSession, this);
+
+        long connectExpiry = System.currentTimeMillis() + connectTimeout;
+        lock.lock();
+        try {
+            while (connection == null && running && workerProcess.isRunning()) {
+                if (System.currentTimeMillis() >= connectExpiry) {
+                    throw new ExecException(format("Unable to connect to '%s' running in worker process %s.\n"
+                            + "The connection attempt hit a timeout after %.1f seconds.", displayName, workerProcess, ((double) connectTimeout) / 1000));
+                }
+                try {
+                    // Poll, as a crashed worker process does not notify the session
+                    condition.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            if (connection == null) {
+                throw new ExecException(format("Never received a connection from '%s' running in worker process %s.", displayName, workerProcess));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ExecResult waitForStop() {
+        try {
+            lock.lock();
+            try {
+                while (running && workerProcess.isRunning()) {
+                    try {
+                        condition.await(1, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+                if (running) {
+                    throw new ExecException(format("Worker process %s stopped unexpectedly while running '%s'.", workerProcess, displayName));
+                }
+                if (!successful) {
+                    throw new ExecException(format("'%s' failed in worker process %s.", displayName, workerProcess));
+                }
+                return new SessionResult();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            cleanup();
+        }
+    }
+
+    private void cleanup() {
+        CompositeStoppable stoppable;
+        ReusableWorkerProcess reserved;
+        lock.lock();
+        try {
+            stoppable = CompositeStoppable.stoppable(acceptor, connection);
+            reserved = workerProcess;
+        } finally {
+            this.connection = null;
+            this.acceptor = null;
+            this.workerProcess = null;
+            lock.unlock();
+        }
+        try {
+            stoppable.stop();
+        } finally {
+            if (reserved != null) {
+                workerProcessPool.release(reserved);
+            }
+        }
+    }
+
+    private static class SessionResult implements ExecResult {
+        public int getExitValue() {
+            return 0;
+        }
+
+        public ExecResult assertNormalExitValue() throws ExecException {
+            return this;
+        }
+
+        public ExecResult rethrowFailure() throws ExecException {
+            return this;
+        }
+    }
+}
@@ -82,4 +82,17 @@ public class ApplicationClassesInIsolatedClassLoaderWorkerFactory implements Wor
                 processBuilder.getSharedPackages(), implementationClassPath, injectedWorker);
         return new IsolatedApplicationClassLoaderWorker(applicationClassPath, worker);
     }
+
+    /**
+     * Creates the start-up stages of a session of a reusable worker process. The session uses its own application and
+     * implementation ClassLoaders, and relies on the logging already started by the worker process.
+     */
+    public Callable<?> createSession() {
+        Collection<URI> applicationClassPath = new DefaultClassPath(processBuilder.getApplicationClasspath()).getAsURIs();
+        ActionExecutionWorker injectedWorker = new ActionExecutionWorker(processBuilder.getWorker(), workerId,
+                displayName, serverAddress);
+        ImplementationClassLoaderWorker worker = new ImplementationClassLoaderWorker(processBuilder.getLogLevel(),
+                processBuilder.getSharedPackages(), implementationClassPath, injectedWorker, false);
+        return new IsolatedApplicationClassLoaderWorker(applicationClassPath, worker);
+    }
 }
@@ -43,19 +43,32 @@ public class ImplementationClassLoaderWorker implements Action<WorkerContext>, S
     private final Collection<String> sharedPackages;
     private final Collection<URL> implementationClassPath;
     private final byte[] serializedWorkerAction;
+    private final boolean startProcessLogging;
 
     protected ImplementationClassLoaderWorker(LogLevel logLevel, Collection<String> sharedPackages,
                                               Collection<URL> implementationClassPath,
                                               Action<WorkerContext> workerAction) {
+        this(logLevel, sharedPackages, implementationClassPath, workerAction, true);
+    }
+
+    /**
+     * @param startProcessLogging false when the worker process has already started logging, as is the case for the sessions of a reusable worker process.
+     */
+    protected ImplementationClassLoaderWorker(LogLevel logLevel, Collection<String> sharedPackages,
+                                              Collection<URL> implementationClassPath,
+                                              Action<WorkerContext> workerAction, boolean startProcessLogging) {
         this.logLevel = logLevel;
+        this.startProcessLogging = startProcessLogging;
         this.sharedPackages = sharedPackages;
         this.implementationClassPath = implementationClassPath;
         serializedWorkerAction = GUtil.serialize(workerAction);
     }
 
     public void execute(WorkerContext workerContext) {
-        LoggingManagerInternal loggingManager = createLoggingManager();
-        loggingManager.setLevel(logLevel).start();
+        if (startProcessLogging) {
+            LoggingManagerInternal loggingManager = createLoggingManager();
+            loggingManager.setLevel(logLevel).start();
+        }
 
         FilteringClassLoader filteredWorkerClassLoader = new FilteringClassLoader(getClass().getClassLoader());
         filteredWorkerClassLoader.allowPackage("org.slf4j");
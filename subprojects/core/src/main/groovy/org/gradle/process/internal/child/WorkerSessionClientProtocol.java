@@ -0,0 +1,28 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.child;
+
+/**
+ * Client part of the reusable worker process protocol. Used to notify the client about completed worker sessions.
+ */
+public interface WorkerSessionClientProtocol {
+    /**
+     * @param successful true when the session has run without failure.
+     * @param reusable true when the worker process has been reset and can run another session.
+     */
+    void sessionCompleted(boolean successful, boolean reusable);
+}
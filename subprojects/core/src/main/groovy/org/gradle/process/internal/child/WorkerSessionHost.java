@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.child;
+
+import org.gradle.api.Action;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.gradle.process.internal.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The worker action of a reusable worker process. Keeps the worker process alive and runs the worker sessions it
+ * receives one at a time. Each session creates its own application and implementation ClassLoaders, which are discarded
+ * once the session has completed. The system properties and security manager are reset after each session.
+ *
+ * <p>A session whose security manager cannot be removed is reported as not reusable, so that the worker process is stopped
+ * rather than handed to the next session. The same happens when threads left running by an earlier session are still alive
+ * once the next session has completed. Threads usually take a moment to stop after the session that started them has
+ * stopped them, so the host does not wait for them. Daemon threads are ignored, as they do not keep the worker process alive.</p>
+ */
+public class WorkerSessionHost implements Action<WorkerProcessContext>, WorkerSessionHostProtocol, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerSessionHost.class);
+
+    private volatile WorkerSessionClientProtocol client;
+    private volatile CountDownLatch stop;
+    private transient List<Thread> lingeringThreads;
+
+    public void execute(WorkerProcessContext context) {
+        stop = new CountDownLatch(1);
+        client = context.getServerConnection().addOutgoing(WorkerSessionClientProtocol.class);
+        context.getServerConnection().addIncoming(WorkerSessionHostProtocol.class, this);
+        context.getServerConnection().connect();
+        try {
+            stop.await();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    public void runSession(byte[] serializedSession) {
+        Properties systemProperties = (Properties) System.getProperties().clone();
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        Set<Thread> threadsBeforeSession = Thread.getAllStackTraces().keySet();
+        boolean successful = false;
+        boolean reusable = true;
+        try {
+            ObjectInputStream instr = new ClassLoaderObjectInputStream(new ByteArrayInputStream(serializedSession), getClass().getClassLoader());
+            Callable<?> session = (Callable<?>) instr.readObject();
+            session.call();
+            successful = true;
+        } catch (Throwable throwable) {
+            throwable.printStackTrace(System.err);
+        } finally {
+            try {
+                Thread.interrupted();
+                Thread.currentThread().setContextClassLoader(contextClassLoader);
+                System.setSecurityManager(null);
+                System.setProperties(systemProperties);
+            } catch (SecurityException e) {
+                LOGGER.debug("Could not reset the worker process after the session.", e);
+                reusable = false;
+            }
+            List<Thread> leakedThreads = checkSessionThreads(threadsBeforeSession);
+            if (!leakedThreads.isEmpty()) {
+                LOGGER.debug("The previous worker session left threads running: {}.", leakedThreads);
+                reusable = false;
+            }
+            LOGGER.debug("Completed worker session (successful: {}, reusable: {}).", successful, reusable);
+            client.sessionCompleted(successful, reusable);
+        }
+    }
+
+    /**
+     * Returns the threads left running by the previous session that are still alive, and remembers the non-daemon threads that
+     * this session has left running, so that they can be checked once the next session has completed.
+     */
+    private List<Thread> checkSessionThreads(Set<Thread> threadsBeforeSession) {
+        if (lingeringThreads == null) {
+            lingeringThreads = new ArrayList<Thread>();
+        }
+        List<Thread> leakedThreads = new ArrayList<Thread>();
+        for (Thread thread : lingeringThreads) {
+            if (thread.isAlive()) {
+                leakedThreads.add(thread);
+            }
+        }
+        lingeringThreads.clear();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (!threadsBeforeSession.contains(thread) && thread != Thread.currentThread() && !thread.isDaemon()) {
+                lingeringThreads.add(thread);
+            }
+        }
+        return leakedThreads;
+    }
+
+    public void stop() {
+        stop.countDown();
+    }
+}
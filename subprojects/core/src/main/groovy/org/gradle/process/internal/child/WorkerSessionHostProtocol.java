@@ -0,0 +1,29 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.child;
+
+import org.gradle.internal.concurrent.Stoppable;
+
+/**
+ * Host part of the reusable worker process protocol. Used to run worker sessions in a worker process that is kept alive.
+ */
+public interface WorkerSessionHostProtocol extends Stoppable {
+    /**
+     * Runs the given serialized start-up {@link java.util.concurrent.Callable} of a worker session, and notifies the client when it has completed.
+     */
+    void runSession(byte[] serializedSession);
+}
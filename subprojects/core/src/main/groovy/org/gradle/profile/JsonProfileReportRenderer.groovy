@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile
+
+import groovy.json.JsonBuilder
+import org.gradle.util.GFileUtils
+
+/**
+ * Renders a {@link BuildProfile} as JSON, so that profiles of successive builds can be collected and compared by tools.
+ * All times are in milliseconds. The metrics and phases of a task are those measured by the task itself, and are empty for most tasks.
+ * The structure is the following:
+ * <pre>
+ *     {
+ *         "buildDescription" : "...",
+ *         "buildStarted" : ...,
+ *         "successful" : true,
+ *         "summary" : { "total" : ..., "startup" : ..., "settings" : ..., "projectsLoading" : ..., "configuration" : ..., "taskExecution" : ... },
+ *         "projects" : [
+ *             {
+ *                 "path" : "...",
+ *                 "configuration" : ...,
+ *                 "configurationSteps" : [ { "description" : "...", "elapsed" : ... }, ... ],
+ *                 "tasks" : [ { "path" : "...", "elapsed" : ..., "status" : "...", "metrics" : { "..." : "...", ... }, "phases" : { "..." : ..., ... } }, ... ]
+ *             },
+ *             ...
+ *         ],
+ *         "dependencySets" : [ { "description" : "...", "elapsed" : ... }, ... ]
+ *     }
+ * </pre>
+ */
+class JsonProfileReportRenderer {
+    void writeTo(BuildProfile buildProfile, File file) {
+        GFileUtils.writeFile(render(buildProfile), file, "utf-8")
+    }
+
+    String render(BuildProfile buildProfile) {
+        def json = new JsonBuilder()
+        json buildDescription: buildProfile.buildDescription,
+             buildStarted: buildProfile.buildStarted,
+             successful: buildProfile.successful,
+             summary: [
+                 total: buildProfile.elapsedTotal,
+                 startup: buildProfile.elapsedStartup,
+                 settings: buildProfile.elapsedSettings,
+                 projectsLoading: buildProfile.elapsedProjectsLoading,
+                 configuration: buildProfile.projectConfiguration.elapsedTime,
+                 taskExecution: buildProfile.elapsedTotalExecutionTime
+             ],
+             projects: buildProfile.projects.collect { ProjectProfile project ->
+                 [
+                     path: project.path,
+                     configuration: project.configurationOperation.elapsedTime,
+                     configurationSteps: project.configurationSteps.collect { operation(it) },
+                     tasks: project.tasks.collect { TaskExecution task ->
+                         [path: task.path, elapsed: task.elapsedTime, status: task.status, metrics: task.metrics, phases: task.phaseTimes]
+                     }
+                 ]
+             },
+             dependencySets: buildProfile.dependencySets.collect { operation(it) }
+        json.toPrettyString()
+    }
+
+    private Map operation(Operation operation) {
+        [description: operation.description, elapsed: operation.elapsedTime]
+    }
+}
@@ -24,16 +24,26 @@ import org.gradle.api.Task;
 import org.gradle.api.artifacts.DependencyResolutionListener;
 import org.gradle.api.artifacts.ResolvableDependencies;
 import org.gradle.api.execution.TaskExecutionListener;
+import org.gradle.api.Plugin;
 import org.gradle.api.initialization.Settings;
+import org.gradle.api.internal.plugins.PluginApplicationListener;
+import org.gradle.api.internal.project.ConfigurationActionListener;
+import org.gradle.api.internal.tasks.TaskMetricsListener;
 import org.gradle.api.invocation.Gradle;
+import org.gradle.api.plugins.PluginAware;
 import org.gradle.api.tasks.TaskState;
+import org.gradle.configuration.ScriptEvaluationListener;
+import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.initialization.BuildRequestMetaData;
 import org.gradle.internal.TimeProvider;
 
+import java.util.Map;
+
 /**
  * Adapts various events to build a {@link BuildProfile} model, and then notifies a {@link ReportGeneratingProfileListener} when the model is ready.
  */
-public class ProfileEventAdapter implements BuildListener, ProjectEvaluationListener, TaskExecutionListener, DependencyResolutionListener {
+public class ProfileEventAdapter implements BuildListener, ProjectEvaluationListener, TaskExecutionListener, DependencyResolutionListener, PluginApplicationListener, ScriptEvaluationListener,
+                                            ConfigurationActionListener, TaskMetricsListener {
     private final BuildRequestMetaData buildMetaData;
     private final TimeProvider timeProvider;
     private final ProfileListener listener;
@@ -102,6 +112,15 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
         taskExecution.completed(state);
     }
 
+    // TaskMetricsListener
+    public void taskMeasured(Task task, Map<String, String> metrics, Map<String, Long> phaseTimes) {
+        if (buildProfile == null) {
+            return;
+        }
+        ProjectProfile projectProfile = buildProfile.getProjectProfile(task.getProject().getPath());
+        projectProfile.getTaskProfile(task.getPath()).measured(metrics, phaseTimes);
+    }
+
     // DependencyResolutionListener
     public void beforeResolve(ResolvableDependencies dependencies) {
         long now = timeProvider.getCurrentTime();
@@ -112,5 +131,61 @@ public class ProfileEventAdapter implements BuildListener, ProjectEvaluationList
         long now = timeProvider.getCurrentTime();
         buildProfile.getDependencySetProfile(dependencies.getPath()).setFinish(now);
     }
+
+    // PluginApplicationListener
+    public void beforeApply(PluginAware target, Class<? extends Plugin> pluginType) {
+        ContinuousOperation step = getConfigurationStep(target, "plugin " + pluginType.getName());
+        if (step != null) {
+            step.setStart(timeProvider.getCurrentTime());
+        }
+    }
+
+    public void afterApply(PluginAware target, Class<? extends Plugin> pluginType) {
+        ContinuousOperation step = getConfigurationStep(target, "plugin " + pluginType.getName());
+        if (step != null) {
+            step.setFinish(timeProvider.getCurrentTime());
+        }
+    }
+
+    // ScriptEvaluationListener
+    public void beforeScript(Object target, ScriptSource scriptSource) {
+        ContinuousOperation step = getConfigurationStep(target, scriptSource.getDisplayName());
+        if (step != null) {
+            step.setStart(timeProvider.getCurrentTime());
+        }
+    }
+
+    public void afterScript(Object target, ScriptSource scriptSource) {
+        ContinuousOperation step = getConfigurationStep(target, scriptSource.getDisplayName());
+        if (step != null) {
+            step.setFinish(timeProvider.getCurrentTime());
+        }
+    }
+
+    // ConfigurationActionListener
+    public void beforeAction(Project project, String description) {
+        ContinuousOperation step = getConfigurationStep(project, description);
+        if (step != null) {
+            step.setStart(timeProvider.getCurrentTime());
+        }
+    }
+
+    public void afterAction(Project project, String description) {
+        ContinuousOperation step = getConfigurationStep(project, description);
+        if (step != null) {
+            step.setFinish(timeProvider.getCurrentTime());
+        }
+    }
+
+    /**
+     * Locates the profile for a configuration step of a project. Returns null for steps that target something other than a project.
+     */
+    private ContinuousOperation getConfigurationStep(Object target, String description) {
+        if (buildProfile == null || !(target instanceof Project)) {
+            return null;
+        }
+        Project project = (Project) target;
+        return buildProfile.getProjectProfile(project.getPath()).getConfigurationStepProfile(description);
+    }
 }
 
@@ -23,6 +23,7 @@ import org.gradle.reporting.TabbedPageRenderer;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 
 public class ProfileReportRenderer {
     public void writeTo(BuildProfile buildProfile, File file) {
@@ -121,6 +122,12 @@ public class ProfileReportRenderer {
                                         htmlWriter.startElement("td").characters(operation.getDescription()).endElement();
                                         htmlWriter.startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(operation.getElapsedTime())).endElement();
                                     htmlWriter.endElement();
+                                    for (ContinuousOperation step : model.getProjectProfile(operation.getDescription()).getConfigurationSteps()) {
+                                        htmlWriter.startElement("tr");
+                                            htmlWriter.startElement("td").attribute("class", "indentPath").characters(step.getDescription()).endElement();
+                                            htmlWriter.startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(step.getElapsedTime())).endElement();
+                                        htmlWriter.endElement();
+                                    }
                                 }
                             htmlWriter.endElement()
                         .endElement();
@@ -168,6 +175,20 @@ public class ProfileReportRenderer {
                                             .startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(taskExecution.getElapsedTime())).endElement()
                                             .startElement("td").characters(taskExecution.getStatus()).endElement()
                                         .endElement();
+                                        for (Map.Entry<String, Long> phase : taskExecution.getPhaseTimes().entrySet()) {
+                                            htmlWriter.startElement("tr")
+                                                .startElement("td").attribute("class", "indentPath").characters(phase.getKey()).endElement()
+                                                .startElement("td").attribute("class", "numeric").characters(DURATION_FORMAT.format(phase.getValue())).endElement()
+                                                .startElement("td").endElement()
+                                            .endElement();
+                                        }
+                                        for (Map.Entry<String, String> metric : taskExecution.getMetrics().entrySet()) {
+                                            htmlWriter.startElement("tr")
+                                                .startElement("td").attribute("class", "indentPath").characters(metric.getKey()).endElement()
+                                                .startElement("td").endElement()
+                                                .startElement("td").characters(metric.getValue()).endElement()
+                                            .endElement();
+                                        }
                                     }
                                 }
                             htmlWriter.endElement()
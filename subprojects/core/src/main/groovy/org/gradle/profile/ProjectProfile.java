@@ -18,11 +18,14 @@ package org.gradle.profile;
 import org.gradle.util.CollectionUtils;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ProjectProfile extends Operation {
     private HashMap<String, TaskExecution> tasks = new HashMap<String, TaskExecution>();
     private final ContinuousOperation configurationOperation;
+    private final Map<String, ContinuousOperation> configurationSteps = new LinkedHashMap<String, ContinuousOperation>();
     private String projectPath;
 
     public ProjectProfile(String projectPath) {
@@ -64,6 +67,27 @@ public class ProjectProfile extends Operation {
         return configurationOperation;
     }
 
+    /**
+     * Gets the profiling container for the specified step of the configuration of this project, such as applying a plugin or a script.
+     */
+    public ContinuousOperation getConfigurationStepProfile(String description) {
+        ContinuousOperation result = configurationSteps.get(description);
+        if (result == null) {
+            result = new ContinuousOperation(description);
+            configurationSteps.put(description, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the steps of the configuration of this project, slowest first. Steps may be nested, for example a plugin may be applied by a script,
+     * so the elapsed time of each step includes the time of any steps it triggered.
+     */
+    public CompositeOperation<ContinuousOperation> getConfigurationSteps() {
+        List<ContinuousOperation> steps = CollectionUtils.sort(configurationSteps.values(), Operation.slowestFirst());
+        return new CompositeOperation<ContinuousOperation>(steps);
+    }
+
     public String toString() {
         return projectPath;
     }
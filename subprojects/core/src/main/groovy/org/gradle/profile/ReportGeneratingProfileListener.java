@@ -32,9 +32,9 @@ public class ReportGeneratingProfileListener extends BuildAdapter implements Pro
     }
 
     public void buildFinished(BuildProfile buildProfile) {
-        ProfileReportRenderer renderer = new ProfileReportRenderer();
-        File file = new File(buildDir, "reports/profile/profile-" + FILE_DATE_FORMAT.format(new Date(buildProfile.getBuildStarted())) + ".html");
-        renderer.writeTo(buildProfile, file);
+        String baseName = "reports/profile/profile-" + FILE_DATE_FORMAT.format(new Date(buildProfile.getBuildStarted()));
+        new ProfileReportRenderer().writeTo(buildProfile, new File(buildDir, baseName + ".html"));
+        new JsonProfileReportRenderer().writeTo(buildProfile, new File(buildDir, baseName + ".json"));
     }
 }
 
@@ -17,9 +17,12 @@ package org.gradle.profile;
 
 import org.gradle.api.tasks.TaskState;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Container for task profiling information.
- * This includes timestamps around task execution and the resulting task status.
+ * This includes timestamps around task execution, the resulting task status and the metrics measured by the task itself.
  */
 public class TaskExecution extends ContinuousOperation {
 
@@ -27,6 +30,8 @@ public class TaskExecution extends ContinuousOperation {
 
     private final String path;
     private TaskState state;
+    private final Map<String, String> metrics = new LinkedHashMap<String, String>();
+    private final Map<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
 
     public TaskExecution(String taskPath) {
         super(taskPath);
@@ -48,6 +53,26 @@ public class TaskExecution extends ContinuousOperation {
         return state;
     }
 
+    /**
+     * Returns the metrics measured by the task, by description.
+     */
+    public Map<String, String> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the elapsed times in millis of the phases of the execution measured by the task, by description.
+     */
+    public Map<String, Long> getPhaseTimes() {
+        return phaseTimes;
+    }
+
+    public TaskExecution measured(Map<String, String> metrics, Map<String, Long> phaseTimes) {
+        this.metrics.putAll(metrics);
+        this.phaseTimes.putAll(phaseTimes);
+        return this;
+    }
+
     public TaskExecution completed(TaskState state) {
         this.state = state;
         return this;
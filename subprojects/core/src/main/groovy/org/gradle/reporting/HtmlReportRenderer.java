@@ -54,13 +54,16 @@ public class HtmlReportRenderer {
             @Override
             public void writeTo(T model, File file) {
                 super.writeTo(model, file);
-                for (URL resource : resources) {
-                    String name = StringUtils.substringAfterLast(resource.getPath(), "/");
-                    String type = StringUtils.substringAfterLast(resource.getPath(), ".");
-                    File destFile = new File(file.getParentFile(), String.format("%s/%s", type, name));
-                    if (!destFile.exists()) {
-                        destFile.getParentFile().mkdirs();
-                        GFileUtils.copyURLToFile(resource, destFile);
+                // Pages may be written concurrently, make sure each resource is copied only once
+                synchronized (resources) {
+                    for (URL resource : resources) {
+                        String name = StringUtils.substringAfterLast(resource.getPath(), "/");
+                        String type = StringUtils.substringAfterLast(resource.getPath(), ".");
+                        File destFile = new File(file.getParentFile(), String.format("%s/%s", type, name));
+                        if (!destFile.exists()) {
+                            destFile.getParentFile().mkdirs();
+                            GFileUtils.copyURLToFile(resource, destFile);
+                        }
                     }
                 }
             }
@@ -16,19 +16,21 @@
 
 package org.gradle.api.internal.initialization
 
-import com.google.common.cache.CacheBuilder
+import org.gradle.api.Nullable
 import org.gradle.internal.classloader.FilteringClassLoader
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.classpath.DefaultClassPath
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
 import org.junit.Rule
 import spock.lang.Specification
 
 class DefaultClassLoaderCacheTest extends Specification {
 
-    def backingCache = CacheBuilder.newBuilder().build()
-    def cache = new DefaultClassLoaderCache(backingCache)
+    def cache = new DefaultClassLoaderCache()
+    def sharedCache = new DefaultClassLoaderCache(true, 2)
 
     @Rule TestNameTestDirectoryProvider testDirectoryProvider = new TestNameTestDirectoryProvider()
 
@@ -64,7 +66,7 @@ class DefaultClassLoaderCacheTest extends Specification {
         def f2 = new FilteringClassLoader.Spec(["2"], [], [], [], [], [])
         cache.get(root, classPath("c1"), f1).is(cache.get(root, classPath("c1"), f1))
         !cache.get(root, classPath("c1"), f1).is(cache.get(root, classPath("c1"), f2))
-        backingCache.size() == 3
+        cache.size == 3
     }
 
     def "non filtered classloaders are reused"() {
@@ -72,9 +74,141 @@ class DefaultClassLoaderCacheTest extends Specification {
         def root = classLoader(classPath("root"))
         def f1 = new FilteringClassLoader.Spec(["1"], [], [], [], [], [])
         cache.get(root, classPath("c1"), f1)
-        backingCache.size() == 2
+        cache.size == 2
         cache.get(root, classPath("c1"), null)
-        backingCache.size() == 2
+        cache.size == 2
+    }
+
+    def "class loaders are discarded when the build finishes"() {
+        def root = classLoader(classPath("root"))
+
+        when:
+        def first = cache.get(root, classPath("c1"), null)
+        cache.buildFinished()
+
+        then:
+        cache.size == 0
+        !cache.get(root, classPath("c1"), null).is(first)
+    }
+
+    @Requires(TestPrecondition.JDK7_OR_LATER)
+    def "class loaders are closed when the build finishes"() {
+        def root = new URLClassLoader(new URL[0], (ClassLoader) null)
+        file("c1/a.txt").createFile()
+        file("c1/b.txt").createFile()
+
+        when:
+        def loader = cache.get(root, classPath("c1"), null)
+
+        then:
+        loader.getResource("a.txt") != null
+
+        when:
+        cache.buildFinished()
+
+        then:
+        loader.getResource("b.txt") == null
+    }
+
+    def "shared class loaders are reused by later builds"() {
+        def root = classLoader(classPath("root"))
+        file("c1.jar").write("content")
+
+        when:
+        def first = sharedCache.get(root, classPath("c1.jar"), null)
+        sharedCache.buildFinished()
+
+        then:
+        sharedCache.get(root, classPath("c1.jar"), null).is(first)
+    }
+
+    def "shared class loaders are not reused when class path content changes"() {
+        def root = classLoader(classPath("root"))
+        def jar = file("c1.jar")
+        jar.write("content 1")
+        def lastModified = jar.lastModified()
+
+        when:
+        def first = sharedCache.get(root, classPath("c1.jar"), null)
+        jar.write("content 2")
+        jar.setLastModified(lastModified)
+        sharedCache.buildFinished()
+        def second = sharedCache.get(root, classPath("c1.jar"), null)
+
+        then:
+        !first.is(second)
+        sharedCache.get(root, classPath("c1.jar"), null).is(second)
+    }
+
+    def "shared class path is checked for changes once per build"() {
+        def root = classLoader(classPath("root"))
+        def dir = file("classes")
+        dir.file("a/A.class").write("content")
+
+        when:
+        def first = sharedCache.get(root, classPath("classes"), null)
+        dir.file("a/A.class").write("changed content")
+
+        then:
+        sharedCache.get(root, classPath("classes"), null).is(first)
+
+        when:
+        sharedCache.buildFinished()
+
+        then:
+        !sharedCache.get(root, classPath("classes"), null).is(first)
+    }
+
+    def "shared cache keeps a limited number of class loaders and discards the filtering class loaders of evicted class loaders"() {
+        def root = classLoader(classPath("root"))
+        def f1 = new FilteringClassLoader.Spec(["1"], [], [], [], [], [])
+
+        when:
+        def filtered = sharedCache.get(root, classPath("c1"), f1)
+        def other = sharedCache.get(root, classPath("c2"), null)
+
+        then:
+        sharedCache.size == 2
+        sharedCache.get(root, classPath("c1"), f1).is(filtered)
+
+        when:
+        sharedCache.buildFinished()
+
+        then:
+        sharedCache.size == 1
+        sharedCache.get(root, classPath("c2"), null).is(other)
+        !sharedCache.get(root, classPath("c1"), f1).is(filtered)
+    }
+
+    def "reports hits and misses for the build"() {
+        def root = classLoader(classPath("root"))
+
+        when:
+        cache.get(root, classPath("c1"), null)
+        cache.get(root, classPath("c1"), null)
+        cache.get(root, classPath("c1"), null)
+
+        then:
+        cache.toString().startsWith("Class loader cache: 2 hits, 1 misses, 0 class loaders closed, 1 cached")
+
+        when:
+        cache.buildFinished()
+
+        then:
+        cache.toString().startsWith("Class loader cache: 0 hits, 0 misses, 0 class loaders closed, 0 cached")
+    }
+
+    def "counts the classes loaded by cached class loaders"() {
+        def root = new URLClassLoader(new URL[0], (ClassLoader) null)
+        def classes = new File(Nullable.protectionDomain.codeSource.location.toURI())
+
+        when:
+        def loader = cache.get(root, new DefaultClassPath(classes), null)
+        loader.loadClass(Nullable.name)
+
+        then:
+        cache.loadedClassCount == 1
+        cache.toString().endsWith("1 classes loaded.")
     }
 
 }
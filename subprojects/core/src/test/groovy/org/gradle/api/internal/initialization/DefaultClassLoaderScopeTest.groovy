@@ -16,8 +16,6 @@
 
 package org.gradle.api.internal.initialization
 
-import com.google.common.cache.Cache
-import com.google.common.cache.CacheBuilder
 import org.gradle.internal.classloader.CachingClassLoader
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.classpath.DefaultClassPath
@@ -35,8 +33,7 @@ class DefaultClassLoaderScopeTest extends Specification {
     ClassLoaderScope base
     ClassLoaderScope scope
 
-    Cache<DefaultClassLoaderCache.Key, ClassLoader> backingCache = CacheBuilder.newBuilder().build();
-    ClassLoaderCache classLoaderCache = new DefaultClassLoaderCache(backingCache);
+    DefaultClassLoaderCache classLoaderCache = new DefaultClassLoaderCache()
 
     @Rule TestNameTestDirectoryProvider testDirectoryProvider = new TestNameTestDirectoryProvider()
 
@@ -198,7 +195,7 @@ class DefaultClassLoaderScopeTest extends Specification {
 
     def "class loaders are reused"() {
         expect:
-        backingCache.size() == 0
+        classLoaderCache.size == 0
 
         when:
         file("c1/c1") << "bar"
@@ -211,16 +208,16 @@ class DefaultClassLoaderScopeTest extends Specification {
         def child = scope.createChild()
 
         then:
-        backingCache.size() == 2
+        classLoaderCache.size == 2
         sibling.export(classPath("c1")).is c1ExportLoader
-        backingCache.size() == 2
+        classLoaderCache.size == 2
 
         !child.export(classPath("c1")).is(c1ExportLoader) // classpath is the same, but parent is different
-        backingCache.size() == 3
+        classLoaderCache.size == 3
 
         sibling.addLocal(classPath("c2")).is c2Local
         child.addLocal(classPath("c2")).is c2Local
-        backingCache.size() == 3
+        classLoaderCache.size == 3
     }
 
     def "pessimistic structure has parent visibility"() {
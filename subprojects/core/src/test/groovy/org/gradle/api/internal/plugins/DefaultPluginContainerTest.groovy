@@ -28,7 +28,8 @@ public class DefaultPluginContainerTest extends Specification {
 
     def project = TestUtil.createRootProject()
     def pluginRegistry = Mock(PluginRegistry)
-    @Subject container = new DefaultPluginContainer(pluginRegistry, project)
+    def applicationListener = Mock(PluginApplicationListener)
+    @Subject container = new DefaultPluginContainer(pluginRegistry, project, applicationListener)
 
     def "offers plugin management via plugin id"() {
         def plugin = new TestPlugin1()
@@ -75,6 +76,26 @@ public class DefaultPluginContainerTest extends Specification {
         !container.hasPlugin(TestPlugin2)
     }
 
+    def "notifies listener when plugin is applied"() {
+        def plugin = new TestPlugin1()
+        pluginRegistry.loadPlugin(TestPlugin1) >> plugin
+
+        when:
+        container.apply(TestPlugin1)
+
+        then:
+        1 * applicationListener.beforeApply(project, TestPlugin1) >> { assert plugin.applyCounter == 0 }
+
+        then:
+        1 * applicationListener.afterApply(project, TestPlugin1) >> { assert plugin.applyCounter == 1 }
+
+        when:
+        container.apply(TestPlugin1)
+
+        then:
+        0 * applicationListener._
+    }
+
     def "does not find plugin by unknown id"() {
         pluginRegistry.getTypeForId("x") >> { throw new UnknownPluginException("x") }
 
@@ -48,6 +48,8 @@ import org.gradle.internal.Factory
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.internal.service.ServiceRegistry
 import org.gradle.internal.service.scopes.ServiceRegistryFactory
+import org.gradle.listener.DefaultListenerManager
+import org.gradle.listener.ListenerManager
 import org.gradle.logging.LoggingManagerInternal
 import org.gradle.logging.StandardOutputCapture
 import org.gradle.model.ModelRules
@@ -80,6 +82,7 @@ class DefaultProjectTest {
     ProjectEvaluator projectEvaluator = context.mock(ProjectEvaluator.class)
 
     ProjectRegistry projectRegistry
+    ListenerManager listenerManager = new DefaultListenerManager()
 
     File rootDir
 
@@ -150,6 +153,7 @@ class DefaultProjectTest {
             allowing(serviceRegistryMock).get(LoggingManagerInternal); will(returnValue(loggingManagerMock))
             allowing(serviceRegistryMock).get(StandardOutputCapture); will(returnValue(context.mock(StandardOutputCapture)))
             allowing(serviceRegistryMock).get(ProjectRegistry); will(returnValue(projectRegistry))
+            allowing(serviceRegistryMock).get(ListenerManager); will(returnValue(listenerManager))
             allowing(serviceRegistryMock).get(DependencyMetaDataProvider); will(returnValue(dependencyMetaDataProviderMock))
             allowing(serviceRegistryMock).get(FileResolver); will(returnValue([toString: {-> "file resolver" }] as FileResolver))
             allowing(serviceRegistryMock).get(Instantiator); will(returnValue(instantiatorMock))
@@ -290,6 +294,35 @@ class DefaultProjectTest {
         project.projectEvaluationBroadcaster.afterEvaluate(project, null)
     }
 
+    @Test
+    public void testNotifiesListenerOfAfterEvaluateActions() {
+        ConfigurationActionListener actionListener = context.mock(ConfigurationActionListener)
+        Action<Project> action = context.mock(Action)
+        listenerManager.addListener(actionListener)
+        context.checking {
+            one(actionListener).beforeAction(project, "afterEvaluate action 1")
+            one(action).execute(project)
+            one(actionListener).afterAction(project, "afterEvaluate action 1")
+        }
+
+        project.afterEvaluate(action)
+        project.projectEvaluationBroadcaster.afterEvaluate(project, null)
+    }
+
+    @Test
+    public void testNotifiesListenerOfAllprojectsActions() {
+        ConfigurationActionListener actionListener = context.mock(ConfigurationActionListener)
+        listenerManager.addListener(actionListener)
+        context.checking {
+            listWithAllProjects.each {
+                one(actionListener).beforeAction(it, "allprojects action 1 from root project 'root'")
+                one(actionListener).afterAction(it, "allprojects action 1 from root project 'root'")
+            }
+        }
+
+        project.allprojects {}
+    }
+
     @Test
     void testEvaluate() {
         context.checking {
@@ -338,6 +338,129 @@ public class DefaultTaskContainerTest extends Specification {
         container.names ==  ['task1', 'task2'] as SortedSet
     }
 
+    void "task registered to be created later is not created until referenced"() {
+        given:
+        def options = [name: "task", type: CustomTask]
+        def task = task("task", CustomTask)
+        def action = Mock(Action)
+
+        when:
+        container.createLater("task", CustomTask, action)
+
+        then:
+        0 * taskFactory._
+        0 * action._
+        container.names == ['task'] as SortedSet
+        container.empty
+
+        when:
+        def found = container.getByName("task")
+
+        then:
+        1 * taskFactory.createTask(options) >> task
+        1 * action.execute(task)
+        found == task
+        container.getByName("task") == task
+    }
+
+    void "task registered to be created later is created when resolved as a dependency"() {
+        given:
+        def task = task("task", CustomTask)
+        taskFactory.createTask([name: "task", type: CustomTask]) >> task
+        container.createLater("task", CustomTask, Mock(Action))
+
+        expect:
+        container.resolveTask("task") == task
+    }
+
+    void "actualize creates the tasks registered to be created later"() {
+        given:
+        def a = task("a", CustomTask)
+        def b = task("b", CustomTask)
+        taskFactory.createTask([name: "a", type: CustomTask]) >> a
+        taskFactory.createTask([name: "b", type: CustomTask]) >> b
+        a.getTaskDependencies() >> noDependencies()
+        b.getTaskDependencies() >> noDependencies()
+        container.createLater("a", CustomTask, Mock(Action))
+        container.createLater("b", CustomTask, Mock(Action))
+
+        when:
+        container.actualize()
+
+        then:
+        container.size() == 2
+        container.names == ['a', 'b'] as SortedSet
+    }
+
+    void "cannot register a task to be created later when a task with that name exists"() {
+        given:
+        addTask("task")
+
+        when:
+        container.createLater("task", CustomTask, Mock(Action))
+
+        then:
+        InvalidUserDataException e = thrown()
+        e.message == "Cannot add task 'task' as a task with that name already exists."
+    }
+
+    void "cannot register a task to be created later twice"() {
+        given:
+        container.createLater("task", CustomTask, Mock(Action))
+
+        when:
+        container.createLater("task", CustomTask, Mock(Action))
+
+        then:
+        InvalidUserDataException e = thrown()
+        e.message == "Cannot add task 'task' as a task with that name already exists."
+    }
+
+    void "cannot create a task registered to be created later"() {
+        given:
+        def action = Mock(Action)
+        container.createLater("task", CustomTask, action)
+        taskFactory.createTask(singletonMap(Task.TASK_NAME, "task")) >> task("task")
+
+        when:
+        container.create("task")
+
+        then:
+        thrown(InvalidUserDataException)
+        0 * action._
+    }
+
+    void "replaces a task registered to be created later"() {
+        given:
+        def action = Mock(Action)
+        container.createLater("task", CustomTask, action)
+        def task = task("task")
+        taskFactory.createTask(singletonMap(Task.TASK_NAME, "task")) >> task
+
+        when:
+        container.replace("task")
+
+        then:
+        container.getByName("task") == task
+        0 * action._
+    }
+
+    void "task registered to be created later takes precedence over placeholder"() {
+        given:
+        def task = task("task", CustomTask)
+        taskFactory.createTask([name: "task", type: CustomTask]) >> task
+        Runnable placeholderAction = Mock(Runnable)
+        container.addPlaceholderAction("task", placeholderAction)
+        container.createLater("task", CustomTask, Mock(Action))
+
+        when:
+        def found = container.getByName("task")
+
+        then:
+        found == task
+        0 * placeholderAction.run()
+    }
+
     void "maybeCreate creates new task"() {
         given:
         def options = singletonMap(Task.TASK_NAME, "task")
@@ -404,6 +527,12 @@ public class DefaultTaskContainerTest extends Specification {
         }
     }
 
+    private TaskDependency noDependencies() {
+        Stub(TaskDependency) {
+            getDependencies(_) >> Collections.emptySet()
+        }
+    }
+
     private Runnable addPlaceholderTask(String placeholderName) {
         Runnable runnable = Mock(Runnable)
         runnable.run() >> { addTask(placeholderName) }
@@ -52,8 +52,9 @@ public class DefaultScriptPluginFactoryTest extends Specification {
     def sourceWithImports = Mock(ScriptSource)
     def loggingManager = Mock(LoggingManagerInternal)
     def fileLookup = Mock(FileLookup)
+    def evaluationListener = Mock(ScriptEvaluationListener)
 
-    def factory = new DefaultScriptPluginFactory(scriptCompilerFactory, importsReader, loggingManagerFactory, instantiator, scriptHandlerFactory, pluginResolverFactory, fileLookup)
+    def factory = new DefaultScriptPluginFactory(scriptCompilerFactory, importsReader, loggingManagerFactory, instantiator, scriptHandlerFactory, pluginResolverFactory, fileLookup, evaluationListener)
 
     def setup() {
         def configurations = Mock(ConfigurationContainer)
@@ -92,6 +93,30 @@ public class DefaultScriptPluginFactoryTest extends Specification {
         configurer.apply(target)
     }
 
+    void notifiesListenerWhenScriptIsApplied() {
+        given:
+        final Object target = new Object()
+        loggingManagerFactory.create() >> loggingManager
+        importsReader.withImports(scriptSource) >> sourceWithImports
+        scriptCompilerFactory.createCompiler(sourceWithImports) >> scriptCompiler
+        scriptCompiler.compile(DefaultScript) >>> [classPathScriptRunner, scriptRunner]
+        classPathScriptRunner.getScript() >> classPathScript
+        scriptRunner.getScript() >> script
+
+        when:
+        ScriptPlugin configurer = factory.create(scriptSource, scriptHandler, classLoaderScope, "buildscript", DefaultScript)
+        configurer.apply(target)
+
+        then:
+        1 * evaluationListener.beforeScript(target, scriptSource)
+
+        then:
+        1 * scriptRunner.run()
+
+        then:
+        1 * evaluationListener.afterScript(target, scriptSource)
+    }
+
     void configuresAScriptAwareObjectUsingScript() {
         when:
         def target = Mock(ScriptAware)
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.initialization
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class CachingPropertiesFileLoaderTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def loader = new CachingPropertiesFileLoader()
+
+    def "returns empty map for missing file"() {
+        expect:
+        loader.load(tmpDir.file("gradle.properties")).isEmpty()
+    }
+
+    def "loads properties from file"() {
+        def file = tmpDir.file("gradle.properties")
+        file.text = "a=1\nb=2"
+
+        expect:
+        loader.load(file) == [a: "1", b: "2"]
+    }
+
+    def "reuses properties when file has not changed"() {
+        def file = tmpDir.file("gradle.properties")
+        file.text = "a=1"
+        file.setLastModified(System.currentTimeMillis() - 10000)
+
+        expect:
+        loader.load(file).is(loader.load(file))
+    }
+
+    def "reloads properties when file has changed"() {
+        def file = tmpDir.file("gradle.properties")
+        file.text = "a=1"
+        file.setLastModified(System.currentTimeMillis() - 10000)
+        loader.load(file)
+
+        when:
+        file.text = "a=12"
+
+        then:
+        loader.load(file) == [a: "12"]
+    }
+
+    def "reloads properties when file has been recently modified"() {
+        def file = tmpDir.file("gradle.properties")
+        file.text = "a=1"
+        loader.load(file)
+
+        when:
+        file.text = "a=2"
+
+        then:
+        loader.load(file) == [a: "2"]
+    }
+
+    def "returns empty map when file has been removed"() {
+        def file = tmpDir.file("gradle.properties")
+        file.text = "a=1"
+        file.setLastModified(System.currentTimeMillis() - 10000)
+        loader.load(file)
+
+        when:
+        file.delete()
+
+        then:
+        loader.load(file).isEmpty()
+    }
+}
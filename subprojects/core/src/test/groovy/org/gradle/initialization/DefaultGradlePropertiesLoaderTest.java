@@ -46,7 +46,7 @@ public class DefaultGradlePropertiesLoaderTest {
     public void setUp() {
         gradleUserHomeDir = tmpDir.createDir("gradleUserHome");
         settingsDir = tmpDir.createDir("settingsDir");
-        gradlePropertiesLoader = new DefaultGradlePropertiesLoader(startParameter);
+        gradlePropertiesLoader = new DefaultGradlePropertiesLoader(startParameter, new CachingPropertiesFileLoader());
         startParameter.setGradleUserHomeDir(gradleUserHomeDir);
     }
 
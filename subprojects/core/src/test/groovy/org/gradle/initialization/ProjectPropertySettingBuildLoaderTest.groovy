@@ -36,7 +36,7 @@ class ProjectPropertySettingBuildLoaderTest extends Specification {
     final IGradlePropertiesLoader propertiesLoader = Mock()
     final File rootProjectDir = tmpDir.createDir('root')
     final File childProjectDir = tmpDir.createDir('child')
-    final ProjectPropertySettingBuildLoader loader = new ProjectPropertySettingBuildLoader(propertiesLoader, target)
+    final ProjectPropertySettingBuildLoader loader = new ProjectPropertySettingBuildLoader(propertiesLoader, target, new CachingPropertiesFileLoader())
     final ExtensionContainerInternal rootExtension = Mock()
     final ExtraPropertiesExtension rootProperties = Mock()
     final ExtensionContainerInternal childExtension = Mock()
@@ -46,6 +46,7 @@ import org.gradle.logging.ProgressLoggerFactory
 import org.gradle.messaging.remote.MessagingServer
 import org.gradle.process.internal.DefaultWorkerProcessFactory
 import org.gradle.process.internal.WorkerProcessBuilder
+import org.gradle.process.internal.WorkerProcessPool
 import org.gradle.profile.ProfileEventAdapter
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -81,6 +82,7 @@ public class BuildScopeServicesTest extends Specification {
         parent.get(CacheFactory) >> Stub(CacheFactory)
         parent.get(DocumentationRegistry) >> new DocumentationRegistry()
         parent.get(FileLookup) >> Stub(FileLookup)
+        parent.get(CachingPropertiesFileLoader) >> new CachingPropertiesFileLoader()
     }
 
     def delegatesToParentForUnknownService() {
@@ -212,6 +214,7 @@ public class BuildScopeServicesTest extends Specification {
     def providesAWorkerProcessFactory() {
         setup:
         expectParentServiceLocated(MessagingServer)
+        expectParentServiceLocated(WorkerProcessPool)
         allowGetCoreImplClassLoader()
 
         expect:
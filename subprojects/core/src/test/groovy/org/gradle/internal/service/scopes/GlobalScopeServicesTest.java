@@ -48,6 +48,7 @@ import org.gradle.logging.ProgressLoggerFactory;
 import org.gradle.logging.internal.DefaultLoggingManagerFactory;
 import org.gradle.logging.internal.DefaultProgressLoggerFactory;
 import org.gradle.messaging.remote.MessagingServer;
+import org.gradle.process.internal.WorkerProcessPool;
 import org.junit.Test;
 import spock.lang.Shared;
 
@@ -165,6 +166,11 @@ public class GlobalScopeServicesTest {
         assertThat(registry.get(FileLookup.class), instanceOf(DefaultFileLookup.class));
     }
 
+    @Test
+    public void providesAWorkerProcessPool() {
+        assertThat(registry.get(WorkerProcessPool.class), instanceOf(WorkerProcessPool.class));
+    }
+
     @Test
     public void providesADocumentationRegistry() throws Exception {
         assertThat(registry.get(DocumentationRegistry.class), instanceOf(DocumentationRegistry.class));
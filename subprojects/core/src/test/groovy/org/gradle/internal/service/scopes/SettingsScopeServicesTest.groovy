@@ -23,6 +23,8 @@ import org.gradle.api.internal.plugins.DefaultPluginContainer
 import org.gradle.api.internal.plugins.PluginRegistry
 import org.gradle.api.plugins.PluginContainer
 import org.gradle.internal.service.ServiceRegistry
+import org.gradle.listener.DefaultListenerManager
+import org.gradle.listener.ListenerManager
 import spock.lang.Specification
 
 import static org.hamcrest.Matchers.sameInstance
@@ -37,6 +39,7 @@ class SettingsScopeServicesTest extends Specification {
     def setup() {
         settings.getSettingsDir() >> new File("settings-dir").absoluteFile
         parent.get(org.gradle.internal.nativeplatform.filesystem.FileSystem) >> Stub(org.gradle.internal.nativeplatform.filesystem.FileSystem)
+        parent.get(ListenerManager) >> new DefaultListenerManager()
         parent.get(PluginRegistry) >> pluginRegistryParent
         pluginRegistryParent.createChild(_, _) >> pluginRegistryChild
     }
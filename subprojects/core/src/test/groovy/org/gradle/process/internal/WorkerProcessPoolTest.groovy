@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal
+
+import org.gradle.internal.Factory
+import org.gradle.messaging.remote.ObjectConnection
+import org.gradle.process.internal.child.WorkerSessionClientProtocol
+import org.gradle.process.internal.child.WorkerSessionHostProtocol
+import spock.lang.Specification
+
+class WorkerProcessPoolTest extends Specification {
+    def pool = new WorkerProcessPool()
+    def session = Mock(WorkerSessionClientProtocol)
+
+    def "starts new worker process when there is no idle worker process"() {
+        def factory = processFactory()
+
+        when:
+        def worker = pool.reserveNewWorker("key", factory)
+
+        then:
+        worker.isCompatibleWith("key")
+        !worker.isCompatibleWith("other")
+        pool.reserveIdleWorker("key") == null
+    }
+
+    def "reuses released worker process with the same key"() {
+        def worker = pool.reserveNewWorker("key", processFactory())
+        worker.runSession([1] as byte[], session)
+        worker.sessionCompleted(true, true)
+
+        when:
+        pool.release(worker)
+
+        then:
+        pool.reserveIdleWorker("other") == null
+        pool.reserveIdleWorker("key") == worker
+        pool.reserveIdleWorker("key") == null
+    }
+
+    def "stops worker process whose session has failed"() {
+        def host = Mock(WorkerSessionHostProtocol)
+        def process = workerProcess(host)
+        def worker = pool.reserveNewWorker("key", { process } as Factory)
+        worker.runSession([1] as byte[], session)
+        worker.sessionCompleted(false, true)
+
+        when:
+        pool.release(worker)
+
+        then:
+        1 * host.stop()
+        1 * process.waitForStop()
+        pool.reserveIdleWorker("key") == null
+    }
+
+    def "stops worker process whose session is not reusable"() {
+        def host = Mock(WorkerSessionHostProtocol)
+        def process = workerProcess(host)
+        def worker = pool.reserveNewWorker("key", { process } as Factory)
+        worker.runSession([1] as byte[], session)
+        worker.sessionCompleted(true, false)
+
+        when:
+        pool.release(worker)
+
+        then:
+        1 * host.stop()
+        pool.reserveIdleWorker("key") == null
+    }
+
+    def "stops worker process that is released while its session is still running"() {
+        def host = Mock(WorkerSessionHostProtocol)
+        def process = workerProcess(host)
+        def worker = pool.reserveNewWorker("key", { process } as Factory)
+        worker.runSession([1] as byte[], session)
+
+        when:
+        pool.release(worker)
+
+        then:
+        1 * host.stop()
+        pool.reserveIdleWorker("key") == null
+    }
+
+    def "discards idle worker process which is no longer running"() {
+        def host = Mock(WorkerSessionHostProtocol)
+        def process = workerProcess(host)
+        def worker = pool.reserveNewWorker("key", { process } as Factory)
+        pool.release(worker)
+
+        when:
+        def reserved = pool.reserveIdleWorker("key")
+
+        then:
+        process.isRunning() >> false
+        reserved == null
+    }
+
+    def "stops least recently used worker process when there are too many idle worker processes"() {
+        def host = Mock(WorkerSessionHostProtocol)
+        def workers = (0..WorkerProcessPool.MAX_IDLE_PROCESSES).collect {
+            pool.reserveNewWorker("key" + it, processFactory(it == 0 ? host : Mock(WorkerSessionHostProtocol)))
+        }
+
+        when:
+        workers.each { pool.release(it) }
+
+        then:
+        1 * host.stop()
+        pool.reserveIdleWorker("key0") == null
+        pool.reserveIdleWorker("key1") == workers[1]
+    }
+
+    def "stops all worker processes"() {
+        def host1 = Mock(WorkerSessionHostProtocol)
+        def host2 = Mock(WorkerSessionHostProtocol)
+        def idle = pool.reserveNewWorker("key", processFactory(host1))
+        pool.reserveNewWorker("key", processFactory(host2))
+        pool.release(idle)
+
+        when:
+        pool.stop()
+
+        then:
+        1 * host1.stop()
+        1 * host2.stop()
+        pool.reserveIdleWorker("key") == null
+    }
+
+    private Factory<WorkerProcess> processFactory(WorkerSessionHostProtocol host = Mock(WorkerSessionHostProtocol)) {
+        def process = workerProcess(host)
+        return { process } as Factory
+    }
+
+    private WorkerProcess workerProcess(WorkerSessionHostProtocol host) {
+        def connection = Stub(ObjectConnection) {
+            addOutgoing(WorkerSessionHostProtocol) >> host
+        }
+        return Mock(WorkerProcess) {
+            getConnection() >> connection
+            isRunning() >> true
+        }
+    }
+}
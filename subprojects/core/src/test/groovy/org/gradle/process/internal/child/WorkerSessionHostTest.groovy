@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.child
+
+import org.gradle.util.GUtil
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+
+class WorkerSessionHostTest extends Specification {
+    def client = Mock(WorkerSessionClientProtocol)
+    def host = new WorkerSessionHost()
+
+    def setup() {
+        host.client = client
+        LeakingSession.release = new CountDownLatch(1)
+    }
+
+    def cleanup() {
+        LeakingSession.release.countDown()
+    }
+
+    def "reports successful session as reusable"() {
+        when:
+        host.runSession(GUtil.serialize(new SystemPropertySession()))
+
+        then:
+        1 * client.sessionCompleted(true, true)
+        System.getProperty(SystemPropertySession.PROPERTY) == null
+    }
+
+    def "reports failed session"() {
+        when:
+        host.runSession(GUtil.serialize(new FailingSession()))
+
+        then:
+        1 * client.sessionCompleted(false, true)
+    }
+
+    def "reports worker as not reusable when threads left running by a session are still alive after the next session"() {
+        when:
+        host.runSession(GUtil.serialize(new LeakingSession()))
+
+        then:
+        1 * client.sessionCompleted(true, true)
+
+        when:
+        host.runSession(GUtil.serialize(new SystemPropertySession()))
+
+        then:
+        1 * client.sessionCompleted(true, false)
+    }
+
+    def "ignores threads of a session that have stopped by the time the next session completes"() {
+        when:
+        host.runSession(GUtil.serialize(new StoppingSession()))
+        StoppingSession.thread.join()
+        host.runSession(GUtil.serialize(new SystemPropertySession()))
+
+        then:
+        2 * client.sessionCompleted(true, true)
+    }
+
+    def "ignores daemon threads left running by a session"() {
+        when:
+        host.runSession(GUtil.serialize(new LeakingSession(daemon: true)))
+        host.runSession(GUtil.serialize(new SystemPropertySession()))
+
+        then:
+        2 * client.sessionCompleted(true, true)
+    }
+
+    static class SystemPropertySession implements Callable<Object>, Serializable {
+        static final String PROPERTY = "org.gradle.test.worker.session"
+
+        Object call() {
+            System.setProperty(PROPERTY, "value")
+            return null
+        }
+    }
+
+    static class FailingSession implements Callable<Object>, Serializable {
+        Object call() {
+            throw new RuntimeException("broken")
+        }
+    }
+
+    static class LeakingSession implements Callable<Object>, Serializable {
+        static CountDownLatch release
+        boolean daemon
+
+        Object call() {
+            def thread = new Thread({ release.await() } as Runnable)
+            thread.daemon = daemon
+            thread.start()
+            return null
+        }
+    }
+
+    static class StoppingSession implements Callable<Object>, Serializable {
+        static Thread thread
+
+        Object call() {
+            thread = Thread.start { Thread.sleep(100) }
+            return null
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.profile
+
+import groovy.json.JsonSlurper
+import org.gradle.StartParameter
+import org.gradle.api.tasks.TaskState
+import spock.lang.Specification
+
+class JsonProfileReportRendererTest extends Specification {
+    def "renders profile as json"() {
+        def model = new BuildProfile(new StartParameter())
+        model.profilingStarted = 1000
+        model.buildStarted = 1100
+        model.settingsEvaluated = 1300
+        model.projectsLoaded = 1400
+        model.buildFinished = 5000
+
+        model.getDependencySetProfile("compile").setStart(2000).setFinish(2500)
+        def project = model.getProjectProfile(":a")
+        project.configurationOperation.setStart(1500).setFinish(1900)
+        project.getConfigurationStepProfile("build file 'build.gradle'").setStart(1500).setFinish(1850)
+        project.getConfigurationStepProfile("plugin org.gradle.api.plugins.JavaPlugin").setStart(1600).setFinish(1800)
+        project.getTaskProfile(":a:compileJava").completed(Stub(TaskState)).setStart(3000).setFinish(4000)
+        project.getTaskProfile(":a:compileJava").measured(["Compilation": "incremental"], ["javac analyze": 300L])
+
+        when:
+        def json = new JsonSlurper().parseText(new JsonProfileReportRenderer().render(model))
+
+        then:
+        json.summary == [total: 4000, startup: 100, settings: 200, projectsLoading: 100, configuration: 400, taskExecution: 1000]
+        json.projects.size() == 1
+        json.projects[0].path == ":a"
+        json.projects[0].configuration == 400
+        json.projects[0].configurationSteps == [
+                [description: "build file 'build.gradle'", elapsed: 350],
+                [description: "plugin org.gradle.api.plugins.JavaPlugin", elapsed: 200]
+        ]
+        json.projects[0].tasks == [[path: ":a:compileJava", elapsed: 1000, status: "Did No Work", metrics: ["Compilation": "incremental"], phases: ["javac analyze": 300]]]
+        json.dependencySets == [[description: "compile", elapsed: 500]]
+    }
+}
@@ -31,4 +31,14 @@ class ProjectProfileTest extends Specification {
         expect:
         profile.tasks.operations == [a, d, b, c]
     }
+
+    def "provides sorted configuration steps"() {
+        def profile = new ProjectProfile(":foo")
+        def script = profile.getConfigurationStepProfile("build file 'build.gradle'").setStart(100).setFinish(400)
+        def plugin = profile.getConfigurationStepProfile("plugin org.gradle.api.plugins.JavaPlugin").setStart(150).setFinish(350)
+
+        expect:
+        profile.getConfigurationStepProfile("plugin org.gradle.api.plugins.JavaPlugin").is(plugin)
+        profile.configurationSteps.operations == [script, plugin]
+    }
 }
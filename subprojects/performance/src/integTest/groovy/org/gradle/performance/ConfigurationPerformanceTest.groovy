@@ -43,5 +43,6 @@ class ConfigurationPerformanceTest extends AbstractPerformanceTest {
         "multi"           | millis(1200)
         "lotDependencies" | millis(1000)
         "manyProjects"    | millis(1500)
+        "manyTasks"       | millis(1500)
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.groovy.compile
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class IncrementalGroovyCompilationIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        buildFile << """
+            apply plugin: 'groovy'
+            dependencies { compile localGroovy() }
+            compileGroovy.options.incremental = true
+
+            compileGroovy {
+                def times = [:]
+                doFirst {
+                    times.clear()
+                    fileTree("build/classes/main").each {
+                        if (it.file) {
+                            times[it] = it.lastModified()
+                        }
+                    }
+                }
+                doLast {
+                    sleep(1100) //lastModified granularity
+                    file("changedFiles.txt").text = times.findAll { k, v -> k.lastModified() != v }.collect { k, v -> k.name - ".class" }.join(",")
+                }
+            }
+        """
+
+        file("src/main/groovy/org/Person.groovy") << """package org
+        interface Person {
+            String getName()
+        }"""
+        file("src/main/groovy/org/PersonImpl.groovy") << """package org
+        class PersonImpl implements Person {
+            String getName() { "Szczepan" }
+        }
+        class PersonHelper {
+            static String describe(Person person) { person.name }
+        }"""
+        file("src/main/groovy/org/Unrelated.groovy") << """package org
+        class Unrelated {}"""
+        file("src/main/groovy/org/UsesHelper.groovy") << """package org
+        class UsesHelper {
+            String name() { PersonHelper.describe(new PersonImpl()) }
+        }"""
+    }
+
+    Set getChangedFiles() {
+        file("changedFiles.txt").text.split(",").findAll { it.length() > 0 } as Set
+    }
+
+    def "recompiles all classes declared in a changed source file and their dependents"() {
+        run "compileGroovy"
+
+        file("src/main/groovy/org/PersonImpl.groovy").text = """package org
+        class PersonImpl implements Person {
+            String getName() { "Hans" }
+        }
+        class PersonHelper {
+            static String describe(Person person) { person.name }
+        }"""
+
+        when: run "compileGroovy"
+
+        then:
+        changedFiles.containsAll(['PersonImpl', 'PersonHelper', 'UsesHelper'])
+        !changedFiles.contains('Unrelated')
+    }
+
+    def "removes the classes of a deleted source file that declares several classes"() {
+        run "compileGroovy"
+
+        file("src/main/groovy/org/UsesHelper.groovy").delete()
+        file("src/main/groovy/org/PersonImpl.groovy").delete()
+
+        when: run "compileGroovy"
+
+        then:
+        !file("build/classes/main/org/PersonImpl.class").exists()
+        !file("build/classes/main/org/PersonHelper.class").exists()
+        file("build/classes/main/org/Unrelated.class").exists()
+    }
+
+    def "falls back to a full compile when a custom compiler is configured"() {
+        buildFile << """
+            compileGroovy.compiler = new org.gradle.api.internal.tasks.compile.Compiler<org.gradle.api.internal.tasks.compile.GroovyJavaJointCompileSpec>() {
+                org.gradle.api.tasks.WorkResult execute(org.gradle.api.internal.tasks.compile.GroovyJavaJointCompileSpec spec) {
+                    file("customCompiler.txt").text = spec.source.files.size()
+                    return { true } as org.gradle.api.tasks.WorkResult
+                }
+            }
+            compileGroovy.doLast {
+                file("rebuildReason.txt").text = compilationMetrics.fullRebuildReason
+            }
+        """
+
+        when: run "compileGroovy"
+
+        then:
+        file("customCompiler.txt").text == "4"
+        file("rebuildReason.txt").text == "the compiler does not support incremental compilation"
+    }
+}
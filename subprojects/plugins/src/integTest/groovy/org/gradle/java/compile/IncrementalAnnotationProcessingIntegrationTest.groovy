@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.java.compile
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class IncrementalAnnotationProcessingIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        settingsFile << "include 'processor'"
+        buildFile << """
+            apply plugin: 'java'
+
+            configurations {
+                processor
+            }
+            dependencies {
+                processor project(':processor')
+            }
+
+            compileJava {
+                options.incremental = true
+                inputs.files configurations.processor
+                doFirst {
+                    options.compilerArgs = ["-processorpath", configurations.processor.asPath]
+                }
+            }
+
+            project(':processor') {
+                apply plugin: 'java'
+            }
+        """
+
+        file("processor/src/main/resources/META-INF/services/javax.annotation.processing.Processor") << "org.processor.HelperProcessor"
+        writeProcessor("first")
+
+        file("src/main/java/org/Foo.java") << """package org;
+        @Deprecated
+        public class Foo {
+        }"""
+        file("src/main/java/org/Bar.java") << """package org;
+        @Deprecated
+        public class Bar {
+        }"""
+        file("src/main/java/org/Baz.java") << """package org;
+        public class Baz {
+        }"""
+    }
+
+    private void writeProcessor(String message) {
+        file("processor/src/main/java/org/processor/HelperProcessor.java").write """package org.processor;
+        import java.io.Writer;
+        import java.io.IOException;
+        import java.util.Set;
+        import javax.annotation.processing.*;
+        import javax.lang.model.SourceVersion;
+        import javax.lang.model.element.*;
+
+        @SupportedAnnotationTypes("java.lang.Deprecated")
+        public class HelperProcessor extends AbstractProcessor {
+            public SourceVersion getSupportedSourceVersion() {
+                return SourceVersion.latestSupported();
+            }
+
+            public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+                for (Element element : roundEnv.getElementsAnnotatedWith(Deprecated.class)) {
+                    String name = element.getSimpleName() + "Helper";
+                    try {
+                        Writer writer = processingEnv.getFiler().createSourceFile("org." + name, element).openWriter();
+                        writer.write("package org; class " + name + " { static final String MESSAGE = \\"$message\\"; }");
+                        writer.close();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return false;
+            }
+        }"""
+    }
+
+    def "generates the files of a changed source again"() {
+        run "compileJava"
+        def barHelper = file("build/classes/main/org/BarHelper.java").snapshot()
+
+        when:
+        file("src/main/java/org/Foo.java").text = """package org;
+        @Deprecated
+        public class Foo {
+            void changed() {}
+        }"""
+        run "compileJava"
+
+        then:
+        file("build/classes/main/org/FooHelper.java").exists()
+        file("build/classes/main/org/FooHelper.class").exists()
+        file("build/classes/main/org/BarHelper.java").assertHasNotChangedSince(barHelper)
+        !output.contains("Full rebuild is needed")
+    }
+
+    def "deletes the files generated from a source that no longer needs them"() {
+        run "compileJava"
+
+        when:
+        file("src/main/java/org/Foo.java").text = """package org;
+        public class Foo {
+        }"""
+        run "compileJava"
+
+        then:
+        !file("build/classes/main/org/FooHelper.java").exists()
+        file("build/classes/main/org/BarHelper.java").exists()
+    }
+
+    def "does a full rebuild when the annotation processor path changes"() {
+        run "compileJava"
+
+        when:
+        writeProcessor("second")
+        run "compileJava"
+
+        then:
+        output.contains("Full rebuild is needed, the annotation processor path has changed.")
+        file("build/classes/main/org/FooHelper.java").text.contains('"second"')
+        file("build/classes/main/org/BarHelper.java").text.contains('"second"')
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.testing
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class TestWorkerReuseIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        buildFile << """
+            apply plugin: 'java'
+            repositories { mavenCentral() }
+            dependencies { testCompile 'junit:junit:4.11' }
+
+            test {
+                reuseForkedProcesses = true
+            }
+
+            task otherTest(type: Test) {
+                testClassesDir = sourceSets.test.output.classesDir
+                classpath = sourceSets.test.runtimeClasspath
+                reuseForkedProcesses = true
+            }
+        """
+        file("src/test/java/ProcessTest.java") << """
+            import java.io.*;
+            import java.lang.management.ManagementFactory;
+            import java.util.UUID;
+
+            public class ProcessTest {
+                @org.junit.Test
+                public void recordsProcess() throws IOException {
+                    File dir = new File("build/processes");
+                    dir.mkdirs();
+                    Writer writer = new FileWriter(new File(dir, UUID.randomUUID().toString()));
+                    try {
+                        writer.write(ManagementFactory.getRuntimeMXBean().getName());
+                    } finally {
+                        writer.close();
+                    }
+                }
+            }
+        """
+    }
+
+    def "test executions with the same java command run in the same worker process"() {
+        when:
+        run "test", "otherTest"
+
+        then:
+        ":test" in executedTasks
+        ":otherTest" in executedTasks
+        def processes = file("build/processes").listFiles()*.text
+        processes.size() == 2
+        processes[0] == processes[1]
+    }
+
+    def "test executions with a different java command run in different worker processes"() {
+        buildFile << """
+            otherTest.systemProperty 'some.property', 'value'
+        """
+
+        when:
+        run "test", "otherTest"
+
+        then:
+        def processes = file("build/processes").listFiles()*.text
+        processes.size() == 2
+        processes[0] != processes[1]
+    }
+}
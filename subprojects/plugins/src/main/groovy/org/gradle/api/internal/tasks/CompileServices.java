@@ -17,18 +17,25 @@
 package org.gradle.api.internal.tasks;
 
 import org.gradle.StartParameter;
+import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache;
+import org.gradle.api.internal.changedetection.state.NoOpDecorator;
 import org.gradle.api.internal.tasks.compile.daemon.CompilerClientsManager;
 import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonManager;
 import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonStarter;
 import org.gradle.api.internal.tasks.compile.daemon.InProcessCompilerDaemonFactory;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
+import org.gradle.cache.CacheRepository;
 import org.gradle.initialization.JdkToolsInitializer;
 import org.gradle.internal.Factory;
+import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.environment.GradleBuildEnvironment;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
 import org.gradle.process.internal.WorkerProcessBuilder;
 
 public class CompileServices implements PluginServiceRegistry {
     public void registerGlobalServices(ServiceRegistration registration) {
+        registration.addProvider(new GlobalScopeCompileServices());
     }
 
     public void registerBuildServices(ServiceRegistration registration) {
@@ -38,18 +45,32 @@ public class CompileServices implements PluginServiceRegistry {
     public void registerProjectServices(ServiceRegistration registration) {
     }
 
+    private static class GlobalScopeCompileServices {
+        CompilerClientsManager createCompilerClientsManager() {
+            // Shared by all builds run by this process, so that compiler daemons can be reused by later builds
+            return new CompilerClientsManager(new TrueTimeProvider());
+        }
+    }
+
     private static class BuildScopeCompileServices {
         void configure(ServiceRegistration registration, JdkToolsInitializer initializer) {
             // Hackery
             initializer.initializeJdkTools();
         }
 
-        CompilerDaemonManager createCompilerDaemonManager(Factory<WorkerProcessBuilder> workerFactory, StartParameter startParameter) {
-            return new CompilerDaemonManager(new CompilerClientsManager(new CompilerDaemonStarter(workerFactory, startParameter)));
+        CompilerDaemonManager createCompilerDaemonManager(CompilerClientsManager clientsManager, Factory<WorkerProcessBuilder> workerFactory, StartParameter startParameter) {
+            return new CompilerDaemonManager(clientsManager, new CompilerDaemonStarter(workerFactory, startParameter));
         }
 
         InProcessCompilerDaemonFactory createInProcessCompilerDaemonFactory() {
             return new InProcessCompilerDaemonFactory();
         }
+
+        JarSnapshotCache createJarSnapshotCache(CacheRepository cacheRepository, InMemoryTaskArtifactCache inMemoryTaskArtifactCache, GradleBuildEnvironment environment) {
+            if (environment.isLongLivingProcess()) {
+                return new JarSnapshotCache(cacheRepository, inMemoryTaskArtifactCache);
+            }
+            return new JarSnapshotCache(cacheRepository, new NoOpDecorator());
+        }
     }
 }
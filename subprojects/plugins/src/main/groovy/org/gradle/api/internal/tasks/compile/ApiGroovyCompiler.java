@@ -23,21 +23,23 @@ import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.messages.SimpleMessage;
 import org.codehaus.groovy.tools.javac.JavaAwareCompilationUnit;
 import org.codehaus.groovy.tools.javac.JavaCompiler;
-import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.util.Clock;
 
 import java.io.File;
 import java.io.Serializable;
 import java.net.URLClassLoader;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class ApiGroovyCompiler implements Compiler<GroovyJavaJointCompileSpec>, Serializable {
+    private static final String JOINT_JAVA_COMPILATION = "joint java compilation";
     private final Compiler<JavaCompileSpec> javaCompiler;
 
     public ApiGroovyCompiler(Compiler<JavaCompileSpec> javaCompiler) {
@@ -93,6 +95,7 @@ public class ApiGroovyCompiler implements Compiler<GroovyJavaJointCompileSpec>,
                 return astTransformClassLoader;
             }
         };
+        final Map<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
         unit.addSources(Iterables.toArray(spec.getSource(), File.class));
         unit.setCompilerFactory(new org.codehaus.groovy.tools.javac.JavaCompilerFactory() {
             public JavaCompiler createCompiler(final CompilerConfiguration config) {
@@ -105,24 +108,33 @@ public class ApiGroovyCompiler implements Compiler<GroovyJavaJointCompileSpec>,
                         }));
                         spec.getCompileOptions().getCompilerArgs().add("-sourcepath");
                         spec.getCompileOptions().getCompilerArgs().add(((File) config.getJointCompilationOptions().get("stubDir")).getAbsolutePath());
+                        Clock clock = new Clock();
                         try {
-                            javaCompiler.execute(spec);
+                            WorkResult result = javaCompiler.execute(spec);
+                            for (Map.Entry<String, Long> phase : MeasuredWorkResult.phaseTimesOf(result).entrySet()) {
+                                MeasuredWorkResult.addPhaseTime(phaseTimes, phase.getKey(), phase.getValue());
+                            }
                         } catch (CompilationFailedException e) {
                             cu.getErrorCollector().addFatalError(new SimpleMessage(e.getMessage(), cu));
+                        } finally {
+                            MeasuredWorkResult.addPhaseTime(phaseTimes, JOINT_JAVA_COMPILATION, clock.getTimeInMs());
                         }
                     }
                 };
             }
         });
 
+        Clock clock = new Clock();
         try {
             unit.compile();
         } catch (org.codehaus.groovy.control.CompilationFailedException e) {
             System.err.println(e.getMessage());
             throw new CompilationFailedException();
         }
+        Long javaTime = phaseTimes.get(JOINT_JAVA_COMPILATION);
+        MeasuredWorkResult.addPhaseTime(phaseTimes, "groovyc", clock.getTimeInMs() - (javaTime == null ? 0 : javaTime));
 
-        return new SimpleWorkResult(true);
+        return new MeasuredWorkResult(true, phaseTimes);
     }
 
     // Make sure that map only contains Boolean.TRUE and Boolean.FALSE values and no other Boolean instances.
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.compile.CompilationMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class DefaultCompilationMetrics implements CompilationMetrics {
+    private boolean incremental;
+    private String fullRebuildReason;
+    private int compiledSourceCount;
+    private int dependentClassCount;
+    private boolean compilerDaemonReused;
+    private final Map<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public String getFullRebuildReason() {
+        return fullRebuildReason;
+    }
+
+    public int getCompiledSourceCount() {
+        return compiledSourceCount;
+    }
+
+    public int getDependentClassCount() {
+        return dependentClassCount;
+    }
+
+    public boolean isCompilerDaemonReused() {
+        return compilerDaemonReused;
+    }
+
+    public synchronized Map<String, Long> getPhaseTimes() {
+        return new LinkedHashMap<String, Long>(phaseTimes);
+    }
+
+    public void fullRebuild(String reason) {
+        incremental = false;
+        fullRebuildReason = reason;
+        dependentClassCount = 0;
+    }
+
+    public void incremental(int dependentClassCount) {
+        incremental = true;
+        fullRebuildReason = null;
+        this.dependentClassCount = dependentClassCount;
+    }
+
+    public void setCompiledSourceCount(int compiledSourceCount) {
+        this.compiledSourceCount = compiledSourceCount;
+    }
+
+    public synchronized void addPhaseTime(String phase, long millis) {
+        MeasuredWorkResult.addPhaseTime(phaseTimes, phase, millis);
+    }
+
+    /**
+     * Adds the measurements the compiler returned with its result.
+     */
+    public void compilerFinished(WorkResult result) {
+        for (Map.Entry<String, Long> phase : MeasuredWorkResult.phaseTimesOf(result).entrySet()) {
+            addPhaseTime(phase.getKey(), phase.getValue());
+        }
+        compilerDaemonReused = result instanceof MeasuredWorkResult && ((MeasuredWorkResult) result).isDaemonReused();
+    }
+
+    /**
+     * Returns the metrics other than the phase times, by description.
+     */
+    public Map<String, String> getSummary() {
+        Map<String, String> summary = new LinkedHashMap<String, String>();
+        summary.put("Compilation", incremental ? "incremental" : "full rebuild, " + fullRebuildReason);
+        summary.put("Sources compiled", String.valueOf(compiledSourceCount));
+        if (incremental) {
+            summary.put("Dependent classes recompiled", String.valueOf(dependentClassCount));
+        }
+        summary.put("Compiler daemon reused", compilerDaemonReused ? "yes" : "no");
+        return summary;
+    }
+}
@@ -24,6 +24,7 @@ public class DefaultJavaCompileSpec extends DefaultJvmLanguageCompileSpec implem
     private String sourceCompatibility;
     private File dependencyCacheDir;
     private CompileOptions compileOptions;
+    private File annotationProcessingResultFile;
 
     public CompileOptions getCompileOptions() {
         return compileOptions;
@@ -48,4 +49,12 @@ public class DefaultJavaCompileSpec extends DefaultJvmLanguageCompileSpec implem
     public void setSourceCompatibility(String sourceCompatibility) {
         this.sourceCompatibility = sourceCompatibility;
     }
+
+    public File getAnnotationProcessingResultFile() {
+        return annotationProcessingResultFile;
+    }
+
+    public void setAnnotationProcessingResultFile(File annotationProcessingResultFile) {
+        this.annotationProcessingResultFile = annotationProcessingResultFile;
+    }
 }
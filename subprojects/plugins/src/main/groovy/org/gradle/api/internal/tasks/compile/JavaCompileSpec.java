@@ -34,4 +34,11 @@ public interface JavaCompileSpec extends JvmLanguageCompileSpec {
     String getTargetCompatibility();
 
     void setTargetCompatibility(String targetCompatibility);
+
+    /**
+     * The file where the compiler records the files generated by annotation processors, or null if they need not be recorded.
+     */
+    File getAnnotationProcessingResultFile();
+
+    void setAnnotationProcessingResultFile(File annotationProcessingResultFile);
 }
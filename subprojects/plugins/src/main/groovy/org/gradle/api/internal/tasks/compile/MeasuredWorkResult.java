@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.api.tasks.WorkResult;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The result of a compiler that measured the elapsed times of the phases of the compilation. It is returned from compiler daemons,
+ * so that the measurements are available to the compile task.
+ */
+public class MeasuredWorkResult implements WorkResult, Serializable {
+    private final boolean didWork;
+    private final Map<String, Long> phaseTimes;
+    private boolean daemonReused;
+
+    public MeasuredWorkResult(boolean didWork, Map<String, Long> phaseTimes) {
+        this.didWork = didWork;
+        this.phaseTimes = new LinkedHashMap<String, Long>(phaseTimes);
+    }
+
+    public boolean getDidWork() {
+        return didWork;
+    }
+
+    /**
+     * Returns the elapsed times in milliseconds of the phases of the compilation, by description.
+     */
+    public Map<String, Long> getPhaseTimes() {
+        return phaseTimes;
+    }
+
+    /**
+     * Tells whether the compiler ran in a compiler daemon that was started by an earlier compilation.
+     */
+    public boolean isDaemonReused() {
+        return daemonReused;
+    }
+
+    public void setDaemonReused(boolean daemonReused) {
+        this.daemonReused = daemonReused;
+    }
+
+    public static Map<String, Long> phaseTimesOf(WorkResult result) {
+        return result instanceof MeasuredWorkResult ? ((MeasuredWorkResult) result).getPhaseTimes() : Collections.<String, Long>emptyMap();
+    }
+
+    public static void addPhaseTime(Map<String, Long> phaseTimes, String phase, long millis) {
+        Long previous = phaseTimes.get(phase);
+        phaseTimes.put(phase, previous == null ? millis : previous + millis);
+    }
+}
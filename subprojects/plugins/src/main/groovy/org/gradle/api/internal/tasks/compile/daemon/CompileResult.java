@@ -16,21 +16,21 @@
 package org.gradle.api.internal.tasks.compile.daemon;
 
 import org.gradle.api.Nullable;
-import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.internal.tasks.compile.MeasuredWorkResult;
 
-import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
 
-public class CompileResult implements WorkResult, Serializable {
-    private final boolean didWork;
+public class CompileResult extends MeasuredWorkResult {
     private final Throwable exception;
 
     public CompileResult(boolean didWork, @Nullable Throwable exception) {
-        this.didWork = didWork;
-        this.exception = exception;
+        this(didWork, exception, Collections.<String, Long>emptyMap());
     }
 
-    public boolean getDidWork() {
-        return didWork;
+    public CompileResult(boolean didWork, @Nullable Throwable exception, Map<String, Long> phaseTimes) {
+        super(didWork, phaseTimes);
+        this.exception = exception;
     }
 
     @Nullable
@@ -17,25 +17,40 @@ package org.gradle.api.internal.tasks.compile.daemon;
 
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.TimeProvider;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
 
-public class CompilerClientsManager {
+/**
+ * Keeps the compiler daemons started by the builds of this process, so that later compilations, including the compilations of later
+ * builds, can run in a compatible daemon instead of starting a new one. Shared by all builds run by this process.
+ *
+ * <p>A daemon is stopped by {@link #expireIdleClients()} once it has been idle for {@link #MAX_IDLE_TIME} milliseconds. All idle daemons
+ * are stopped when the free physical memory of the machine runs low.</p>
+ */
+public class CompilerClientsManager implements Stoppable {
 
     private static final Logger LOGGER = Logging.getLogger(CompilerDaemonManager.class);
+    static final long MAX_IDLE_TIME = 15 * 60 * 1000L;
+    static final double MIN_FREE_MEMORY_RATIO = 0.05;
 
     private final Object lock = new Object();
     private final List<CompilerDaemonClient> allClients = new ArrayList<CompilerDaemonClient>();
     private final List<CompilerDaemonClient> idleClients = new ArrayList<CompilerDaemonClient>();
+    private final Map<CompilerDaemonClient, Long> idleSince = new HashMap<CompilerDaemonClient, Long>();
+    private final TimeProvider timeProvider;
+    private final SystemMemory systemMemory;
 
-    private CompilerDaemonStarter compilerDaemonStarter;
+    public CompilerClientsManager(TimeProvider timeProvider) {
+        this(timeProvider, new SystemMemory());
+    }
 
-    public CompilerClientsManager(CompilerDaemonStarter compilerDaemonStarter) {
-        this.compilerDaemonStarter = compilerDaemonStarter;
+    CompilerClientsManager(TimeProvider timeProvider, SystemMemory systemMemory) {
+        this.timeProvider = timeProvider;
+        this.systemMemory = systemMemory;
     }
 
     public CompilerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
@@ -47,8 +62,14 @@ public class CompilerClientsManager {
             Iterator<CompilerDaemonClient> it = clients.iterator();
             while(it.hasNext()) {
                 CompilerDaemonClient candidate = it.next();
-                if(candidate.isCompatibleWith(forkOptions)) {
+                if (!candidate.isRunning()) {
+                    //the daemon has stopped while idle
+                    it.remove();
+                    idleSince.remove(candidate);
+                    allClients.remove(candidate);
+                } else if(candidate.isCompatibleWith(forkOptions)) {
                     it.remove();
+                    idleSince.remove(candidate);
                     return candidate;
                 }
             }
@@ -56,7 +77,7 @@ public class CompilerClientsManager {
         }
     }
 
-    public CompilerDaemonClient reserveNewClient(File workingDir, DaemonForkOptions forkOptions) {
+    public CompilerDaemonClient reserveNewClient(CompilerDaemonStarter compilerDaemonStarter, File workingDir, DaemonForkOptions forkOptions) {
         //allow the daemon to be started concurrently
         CompilerDaemonClient client = compilerDaemonStarter.startDaemon(workingDir, forkOptions);
         synchronized (lock) {
@@ -68,6 +89,38 @@ public class CompilerClientsManager {
     public void release(CompilerDaemonClient client) {
         synchronized (lock) {
             idleClients.add(client);
+            idleSince.put(client, timeProvider.getCurrentTime());
+        }
+    }
+
+    /**
+     * Stops the daemons that have been idle for too long, or all idle daemons when the machine is low on memory.
+     */
+    public void expireIdleClients() {
+        List<CompilerDaemonClient> expired = new ArrayList<CompilerDaemonClient>();
+        boolean lowMemory = systemMemory.isLow(MIN_FREE_MEMORY_RATIO);
+        synchronized (lock) {
+            long now = timeProvider.getCurrentTime();
+            Iterator<CompilerDaemonClient> it = idleClients.iterator();
+            while (it.hasNext()) {
+                CompilerDaemonClient client = it.next();
+                if (lowMemory || now - idleSince.get(client) >= MAX_IDLE_TIME) {
+                    it.remove();
+                    idleSince.remove(client);
+                    allClients.remove(client);
+                    expired.add(client);
+                }
+            }
+        }
+        if (!expired.isEmpty()) {
+            LOGGER.info("Stopping {} idle compiler daemon(s){}.", expired.size(), lowMemory ? " as the machine is low on memory" : "");
+            CompositeStoppable.stoppable(expired).stop();
+        }
+    }
+
+    public int getIdleClientCount() {
+        synchronized (lock) {
+            return idleClients.size();
         }
     }
 
@@ -77,6 +130,8 @@ public class CompilerClientsManager {
             CompositeStoppable.stoppable(allClients).stop();
             LOGGER.info("Stopped {} compiler daemon(s).", allClients.size());
             allClients.clear();
+            idleClients.clear();
+            idleSince.clear();
         }
     }
-}
\ No newline at end of file
+}
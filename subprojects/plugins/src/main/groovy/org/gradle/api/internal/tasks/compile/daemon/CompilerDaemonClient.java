@@ -51,6 +51,13 @@ class CompilerDaemonClient implements CompilerDaemon, CompilerDaemonClientProtoc
         return forkOptions.isCompatibleWith(required);
     }
 
+    /**
+     * Returns true when the daemon process has not stopped, for example after running out of memory.
+     */
+    public boolean isRunning() {
+        return workerProcess.isRunning();
+    }
+
     public void stop() {
         server.stop();
         workerProcess.waitForStop();
@@ -17,30 +17,46 @@ package org.gradle.api.internal.tasks.compile.daemon;
 
 import net.jcip.annotations.ThreadSafe;
 import org.gradle.api.internal.tasks.compile.*;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 
 import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Controls the lifecycle of the compiler daemon and provides access to it.
+ * Provides access to the compiler daemons for the compilations of a build. The daemons are kept by a {@link CompilerClientsManager} that
+ * outlives the build, so that the daemons can be reused by later builds.
  */
 @ThreadSafe
 public class CompilerDaemonManager implements CompilerDaemonFactory {
 
-    private CompilerClientsManager clientsManager;
+    private static final Logger LOGGER = Logging.getLogger(CompilerDaemonManager.class);
 
-    public CompilerDaemonManager(CompilerClientsManager clientsManager) {
+    private final CompilerClientsManager clientsManager;
+    private final CompilerDaemonStarter compilerDaemonStarter;
+    private final AtomicInteger reusedClients = new AtomicInteger();
+    private final AtomicInteger startedClients = new AtomicInteger();
+
+    public CompilerDaemonManager(CompilerClientsManager clientsManager, CompilerDaemonStarter compilerDaemonStarter) {
         this.clientsManager = clientsManager;
+        this.compilerDaemonStarter = compilerDaemonStarter;
     }
 
     public CompilerDaemon getDaemon(final File workingDir, final DaemonForkOptions forkOptions) {
         return new CompilerDaemon() {
             public <T extends CompileSpec> CompileResult execute(org.gradle.api.internal.tasks.compile.Compiler<T> compiler, T spec) {
                 CompilerDaemonClient client = clientsManager.reserveIdleClient(forkOptions);
+                boolean reused = client != null;
                 if (client == null) {
-                    client = clientsManager.reserveNewClient(workingDir, forkOptions);
+                    client = clientsManager.reserveNewClient(compilerDaemonStarter, workingDir, forkOptions);
+                    startedClients.incrementAndGet();
+                } else {
+                    reusedClients.incrementAndGet();
                 }
                 try {
-                    return client.execute(compiler, spec);
+                    CompileResult result = client.execute(compiler, spec);
+                    result.setDaemonReused(reused);
+                    return result;
                 } finally {
                     clientsManager.release(client);
                 }
@@ -48,7 +64,14 @@ public class CompilerDaemonManager implements CompilerDaemonFactory {
         };
     }
 
+    /**
+     * Called at the end of the build. Leaves the compiler daemons running for later builds, apart from those that have expired.
+     */
     public void stop() {
-        clientsManager.stop();
+        clientsManager.expireIdleClients();
+        if (reusedClients.get() > 0 || startedClients.get() > 0) {
+            LOGGER.info("Compiler daemons: {} compilation(s) in a reused daemon, {} new daemon(s) started, {} idle daemon(s) kept for later builds.",
+                    reusedClients.get(), startedClients.get(), clientsManager.getIdleClientCount());
+        }
     }
-}
\ No newline at end of file
+}
@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks.compile.daemon;
 import org.gradle.api.Action;
 import org.gradle.api.internal.tasks.compile.CompileSpec;
 import org.gradle.api.internal.tasks.compile.Compiler;
+import org.gradle.api.internal.tasks.compile.MeasuredWorkResult;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.WorkResult;
@@ -52,7 +53,7 @@ public class CompilerDaemonServer implements Action<WorkerProcessContext>, Compi
             LOGGER.info("Executing {} in compiler daemon.", compiler);
             WorkResult result = compiler.execute(spec);
             LOGGER.info("Successfully executed {} in compiler daemon.", compiler);
-            client.executed(new CompileResult(result.getDidWork(), null));
+            client.executed(new CompileResult(result.getDidWork(), null, MeasuredWorkResult.phaseTimesOf(result)));
         } catch (Throwable t) {
             LOGGER.info("Exception executing {} in compiler daemon: {}.", compiler, t);
             client.executed(new CompileResult(true, t));
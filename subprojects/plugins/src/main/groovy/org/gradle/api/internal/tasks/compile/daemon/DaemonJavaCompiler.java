@@ -41,6 +41,8 @@ public class DaemonJavaCompiler implements Compiler<JavaCompileSpec> {
         DaemonForkOptions daemonForkOptions = new DaemonForkOptions(
                 forkOptions.getMemoryInitialSize(), forkOptions.getMemoryMaximumSize(), forkOptions.getJvmArgs(),
                 Collections.<File>emptyList(), Collections.singleton("com.sun.tools.javac"));
+        // The files generated by annotation processors are only recorded by in-process compilations
+        spec.setAnnotationProcessingResultFile(null);
         CompilerDaemon daemon = compilerDaemonManager.getDaemon(project.getRootProject().getProjectDir(), daemonForkOptions);
         CompileResult result = daemon.execute(delegate, spec);
         if (result.isSuccess()) {
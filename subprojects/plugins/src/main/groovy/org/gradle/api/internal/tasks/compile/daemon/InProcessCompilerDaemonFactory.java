@@ -18,6 +18,8 @@ package org.gradle.api.internal.tasks.compile.daemon;
 
 import org.gradle.api.internal.tasks.compile.CompileSpec;
 import org.gradle.api.internal.tasks.compile.Compiler;
+import org.gradle.api.internal.tasks.compile.MeasuredWorkResult;
+import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classloader.*;
 import org.gradle.internal.classpath.DefaultClassPath;
@@ -73,7 +75,8 @@ public class InProcessCompilerDaemonFactory implements CompilerDaemonFactory {
         }
 
         public Object call() throws Exception {
-            return new CompileResult(compiler.execute(spec).getDidWork(), null);
+            WorkResult result = compiler.execute(spec);
+            return new CompileResult(result.getDidWork(), null, MeasuredWorkResult.phaseTimesOf(result));
         }
     }
 }
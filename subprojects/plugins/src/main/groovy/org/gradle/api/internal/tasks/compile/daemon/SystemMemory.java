@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.daemon;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * Provides the physical memory of the machine, when the JVM makes it available.
+ */
+class SystemMemory {
+    private static final Logger LOGGER = Logging.getLogger(SystemMemory.class);
+
+    /**
+     * Returns true when the free physical memory is less than the given ratio of the total physical memory. Returns false when the
+     * physical memory is not known.
+     */
+    boolean isLow(double minFreeRatio) {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        try {
+            Class<?> sunBeanType = Class.forName("com.sun.management.OperatingSystemMXBean");
+            if (!sunBeanType.isInstance(bean)) {
+                return false;
+            }
+            long free = (Long) sunBeanType.getMethod("getFreePhysicalMemorySize").invoke(bean);
+            long total = (Long) sunBeanType.getMethod("getTotalPhysicalMemorySize").invoke(bean);
+            return total > 0 && free < total * minFreeRatio;
+        } catch (Exception e) {
+            LOGGER.debug("Could not determine the physical memory of the machine.", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import org.apache.commons.io.IOUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+/**
+ * Reads the name of the source file that a class was compiled from. The name is taken from the SourceFile attribute of the class file,
+ * which holds the file name without its directory.
+ */
+public class ClassSourceFileReader {
+
+    /**
+     * Returns the name of the source file of the given class file, or null when the class file does not exist or does not record it.
+     */
+    public String getSourceFileName(File classFile) {
+        if (!classFile.isFile()) {
+            return null;
+        }
+        SourceFileVisitor visitor = new SourceFileVisitor();
+        InputStream inputStream = null;
+        try {
+            inputStream = new BufferedInputStream(new FileInputStream(classFile));
+            new ClassReader(inputStream).accept(visitor, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        } catch (Exception e) {
+            //the class file cannot be read, so its source file is not known
+            return null;
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+        return visitor.sourceFile;
+    }
+
+    private static class SourceFileVisitor extends ClassVisitor {
+        private String sourceFile;
+
+        public SourceFileVisitor() {
+            super(Opcodes.ASM4);
+        }
+
+        @Override
+        public void visitSource(String source, String debug) {
+            sourceFile = source;
+        }
+    }
+}
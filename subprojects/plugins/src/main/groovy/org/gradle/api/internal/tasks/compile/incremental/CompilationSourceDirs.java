@@ -30,7 +30,7 @@ public class CompilationSourceDirs {
         this.source = source;
     }
 
-    List<File> getSourceDirs() {
+    public List<File> getSourceDirs() {
         List<File> sourceDirs = new LinkedList<File>();
         for (Object s : source) {
             if (s instanceof SourceDirectorySet) {
@@ -19,40 +19,49 @@ package org.gradle.api.internal.tasks.compile.incremental;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.tasks.compile.Compiler;
+import org.gradle.api.internal.tasks.compile.DefaultCompilationMetrics;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfoExtractor;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfoWriter;
 import org.gradle.api.internal.tasks.compile.incremental.jar.ClasspathJarFinder;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotFeeder;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingStore;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.util.Clock;
 
-class IncrementalCompilationFinalizer implements Compiler<JavaCompileSpec> {
+class IncrementalCompilationFinalizer<T extends JavaCompileSpec> implements Compiler<T> {
 
     private static final Logger LOG = Logging.getLogger(IncrementalCompilationFinalizer.class);
 
-    private final Compiler<JavaCompileSpec> delegate;
+    private final Compiler<T> delegate;
     private final ClassDependencyInfoExtractor extractor;
     private final ClassDependencyInfoWriter dependencyInfoWriter;
     private final JarSnapshotFeeder jarSnapshotFeeder;
     private final ClasspathJarFinder classpathJarFinder;
     private final FileOperations fileOperations;
+    private final AnnotationProcessingStore annotationProcessingStore;
+    private final DefaultCompilationMetrics metrics;
 
-    public IncrementalCompilationFinalizer(Compiler<JavaCompileSpec> delegate, ClassDependencyInfoExtractor extractor, ClassDependencyInfoWriter dependencyInfoWriter,
-                                           JarSnapshotFeeder jarSnapshotFeeder, ClasspathJarFinder classpathJarFinder, FileOperations fileOperations) {
+    public IncrementalCompilationFinalizer(Compiler<T> delegate, ClassDependencyInfoExtractor extractor, ClassDependencyInfoWriter dependencyInfoWriter,
+                                           JarSnapshotFeeder jarSnapshotFeeder, ClasspathJarFinder classpathJarFinder, FileOperations fileOperations,
+                                           AnnotationProcessingStore annotationProcessingStore, DefaultCompilationMetrics metrics) {
         this.delegate = delegate;
         this.extractor = extractor;
         this.dependencyInfoWriter = dependencyInfoWriter;
         this.jarSnapshotFeeder = jarSnapshotFeeder;
         this.classpathJarFinder = classpathJarFinder;
         this.fileOperations = fileOperations;
+        this.annotationProcessingStore = annotationProcessingStore;
+        this.metrics = metrics;
     }
 
-    public WorkResult execute(JavaCompileSpec spec) {
+    public WorkResult execute(T spec) {
+        spec.setAnnotationProcessingResultFile(annotationProcessingStore.startCompilation(spec));
         WorkResult out = delegate.execute(spec);
+        annotationProcessingStore.compilationCompleted();
 
         Clock clock = new Clock();
         FileTree tree = fileOperations.fileTree(spec.getDestinationDir());
@@ -60,10 +69,12 @@ class IncrementalCompilationFinalizer implements Compiler<JavaCompileSpec> {
         ClassDependencyInfo info = extractor.getDependencyInfo();
         dependencyInfoWriter.writeInfo(info);
         LOG.lifecycle("Performed class dependency analysis in {}, wrote results into {}", clock.getTime(), dependencyInfoWriter);
+        metrics.addPhaseTime("class dependency analysis", clock.getTimeInMs());
 
         clock = new Clock();
-        jarSnapshotFeeder.storeJarSnapshots(classpathJarFinder.findJarArchives(spec.getClasspath()), info);
+        jarSnapshotFeeder.storeJarSnapshots(classpathJarFinder.findJarArchives(spec.getClasspath()));
         LOG.lifecycle("Created and wrote jar snapshots in {}.", clock.getTime());
+        metrics.addPhaseTime("jar snapshots", clock.getTimeInMs());
 
         return out;
     }
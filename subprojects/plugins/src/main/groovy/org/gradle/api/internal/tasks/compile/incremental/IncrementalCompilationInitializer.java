@@ -29,9 +29,11 @@ import static java.util.Arrays.asList;
 
 class IncrementalCompilationInitializer {
     private final FileOperations fileOperations;
+    private final ClassSourceFileReader sourceFileReader;
 
-    public IncrementalCompilationInitializer(FileOperations fileOperations) {
+    public IncrementalCompilationInitializer(FileOperations fileOperations, ClassSourceFileReader sourceFileReader) {
         this.fileOperations = fileOperations;
+        this.sourceFileReader = sourceFileReader;
     }
 
     public void initializeCompilation(JavaCompileSpec spec, Collection<String> staleClasses) {
@@ -46,6 +48,13 @@ class IncrementalCompilationInitializer {
             //the stale class might be a source class that was deleted
             //it's no harm to include it in sourceToCompile anyway
             sourceToCompile.include(path.concat(".java"));
+            sourceToCompile.include(path.concat(".groovy"));
+
+            //the stale class might be declared in a source file named after another class
+            String sourceFileName = sourceFileReader.getSourceFileName(new File(spec.getDestinationDir(), path.concat(".class")));
+            if (sourceFileName != null) {
+                sourceToCompile.include(path.substring(0, path.lastIndexOf('/') + 1).concat(sourceFileName));
+            }
         }
 
         //selectively configure the source
@@ -17,32 +17,37 @@
 package org.gradle.api.internal.tasks.compile.incremental;
 
 import org.gradle.api.internal.file.FileOperations;
-import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompilerSupport;
 import org.gradle.api.internal.tasks.compile.Compiler;
+import org.gradle.api.internal.tasks.compile.DefaultCompilationMetrics;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfoExtractor;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfoSerializer;
 import org.gradle.api.internal.tasks.compile.incremental.jar.ClasspathJarFinder;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotFeeder;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingStore;
 import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpecProvider;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 
-public class IncrementalCompilationSupport {
+public class IncrementalCompilationSupport<T extends JavaCompileSpec> {
 
     private static final Logger LOG = Logging.getLogger(IncrementalCompilationSupport.class);
     private final JarSnapshotFeeder jarSnapshotFeeder;
     private final ClassDependencyInfoSerializer dependencyInfoSerializer;
     private final FileOperations fileOperations;
     private final ClassDependencyInfoExtractor extractor;
-    private final CleaningJavaCompiler cleaningCompiler;
+    private final CleaningJavaCompilerSupport<T> cleaningCompiler;
     private final String displayName;
     private final RecompilationSpecProvider staleClassDetecter;
+    private final AnnotationProcessingStore annotationProcessingStore;
+    private final DefaultCompilationMetrics metrics;
 
     public IncrementalCompilationSupport(JarSnapshotFeeder jarSnapshotFeeder, ClassDependencyInfoSerializer dependencyInfoSerializer,
                                          FileOperations fileOperations, ClassDependencyInfoExtractor extractor,
-                                         CleaningJavaCompiler cleaningCompiler, String displayName, RecompilationSpecProvider staleClassDetecter) {
+                                         CleaningJavaCompilerSupport<T> cleaningCompiler, String displayName, RecompilationSpecProvider staleClassDetecter,
+                                         AnnotationProcessingStore annotationProcessingStore, DefaultCompilationMetrics metrics) {
         this.jarSnapshotFeeder = jarSnapshotFeeder;
         this.dependencyInfoSerializer = dependencyInfoSerializer;
         this.fileOperations = fileOperations;
@@ -50,27 +55,32 @@ public class IncrementalCompilationSupport {
         this.cleaningCompiler = cleaningCompiler;
         this.displayName = displayName;
         this.staleClassDetecter = staleClassDetecter;
+        this.annotationProcessingStore = annotationProcessingStore;
+        this.metrics = metrics;
     }
 
-    public Compiler<JavaCompileSpec> prepareCompiler(final IncrementalTaskInputs inputs, final CompilationSourceDirs sourceDirs) {
-        final Compiler<JavaCompileSpec> compiler = getCompiler(inputs, sourceDirs);
-        return new IncrementalCompilationFinalizer(compiler, extractor, dependencyInfoSerializer,
-                jarSnapshotFeeder, new ClasspathJarFinder(fileOperations), fileOperations);
+    public Compiler<T> prepareCompiler(final IncrementalTaskInputs inputs, final CompilationSourceDirs sourceDirs) {
+        final Compiler<T> compiler = getCompiler(inputs, sourceDirs);
+        return new IncrementalCompilationFinalizer<T>(compiler, extractor, dependencyInfoSerializer,
+                jarSnapshotFeeder, new ClasspathJarFinder(fileOperations), fileOperations, annotationProcessingStore, metrics);
     }
 
-    private Compiler<JavaCompileSpec> getCompiler(IncrementalTaskInputs inputs, CompilationSourceDirs sourceDirs) {
+    private Compiler<T> getCompiler(IncrementalTaskInputs inputs, CompilationSourceDirs sourceDirs) {
         if (!inputs.isIncremental()) {
             LOG.lifecycle("{} - is not incremental (e.g. outputs have changed, no previous execution, etc)", displayName);
+            metrics.fullRebuild("the task is not incremental (e.g. outputs have changed, no previous execution, etc)");
             return cleaningCompiler;
         }
         if (!sourceDirs.areSourceDirsKnown()) {
             LOG.lifecycle("{} - is not incremental. Unable to infer the source directories.", displayName);
+            metrics.fullRebuild("unable to infer the source directories");
             return cleaningCompiler;
         }
         if (!dependencyInfoSerializer.isInfoAvailable()) {
             LOG.lifecycle("{} - is not incremental. No class dependency data available from previous build.", displayName);
+            metrics.fullRebuild("no class dependency data available from previous build");
             return cleaningCompiler;
         }
-        return new SelectiveCompiler(inputs, cleaningCompiler, staleClassDetecter, new IncrementalCompilationInitializer(fileOperations));
+        return new SelectiveCompiler<T>(inputs, cleaningCompiler, staleClassDetecter, new IncrementalCompilationInitializer(fileOperations, new ClassSourceFileReader()), annotationProcessingStore, metrics);
     }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess;
+import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompilerSupport;
+import org.gradle.api.internal.tasks.compile.Compiler;
+import org.gradle.api.internal.tasks.compile.DefaultCompilationMetrics;
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassApiHasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfoExtractor;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfoSerializer;
+import org.gradle.api.internal.tasks.compile.incremental.jar.*;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingStore;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessorDetector;
+import org.gradle.api.internal.tasks.compile.incremental.processing.ProcessorPathSnapshotter;
+import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpecProvider;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Creates the compilers of a compile task that only recompile the changed sources and the classes that depend on them.
+ * Works for any compilation of java class files, for example joint Groovy and Java compilation.
+ */
+public class IncrementalCompilerFactory<T extends JavaCompileSpec> {
+    public static final String CLASS_DEPENDENCY_INFO_FILE = "class-info.bin";
+    private final FileOperations fileOperations;
+    private final String displayName;
+    private final CleaningJavaCompilerSupport<T> cleaningCompiler;
+    private final JarSnapshotCache jarSnapshotCache;
+    private final TaskArtifactStateCacheAccess cacheAccess;
+    private final FileSnapshotter fileSnapshotter;
+    private final File workDir;
+    private final DefaultCompilationMetrics metrics;
+
+    /**
+     * @param workDir the directory where the class dependency info, the jar hashes and the files generated by annotation processors of the task are kept between compilations
+     * @param metrics receives the measurements of the compilation
+     */
+    public IncrementalCompilerFactory(FileOperations fileOperations, String displayName, CleaningJavaCompilerSupport<T> cleaningCompiler,
+                                      JarSnapshotCache jarSnapshotCache, TaskArtifactStateCacheAccess cacheAccess, FileSnapshotter fileSnapshotter,
+                                      File workDir, DefaultCompilationMetrics metrics) {
+        this.fileOperations = fileOperations;
+        this.displayName = displayName;
+        this.cleaningCompiler = cleaningCompiler;
+        this.jarSnapshotCache = jarSnapshotCache;
+        this.cacheAccess = cacheAccess;
+        this.fileSnapshotter = fileSnapshotter;
+        this.workDir = workDir;
+        this.metrics = metrics;
+    }
+
+    public Compiler<T> createCompiler(IncrementalTaskInputs inputs, List<Object> source) {
+        //bunch of services that enable incremental compilation.
+        ClassDependenciesAnalyzer analyzer = new ClassDependenciesAnalyzer(); //TODO SF needs caching
+        ClassDependencyInfoExtractor extractor = new ClassDependencyInfoExtractor(analyzer);
+        LocalJarHashesStore localJarHashes = new LocalJarHashesStore(new File(workDir, "jar-hashes.bin"));
+        JarSnapshotFeeder jarSnapshotFeeder = new JarSnapshotFeeder(jarSnapshotCache, cacheAccess, fileSnapshotter, localJarHashes, new JarSnapshotter(new ClassSnapshotter(new ClassApiHasher(), analyzer)));
+        ClassDependencyInfoSerializer dependencyInfoSerializer = new ClassDependencyInfoSerializer(new File(workDir, CLASS_DEPENDENCY_INFO_FILE));
+        CompilationSourceDirs sourceDirs = new CompilationSourceDirs(source);
+        ClassSourceFileReader classSourceFileReader = new ClassSourceFileReader();
+        SourceToNameConverter sourceToNameConverter = new SourceToNameConverter(sourceDirs, classSourceFileReader);
+        AnnotationProcessorDetector processorDetector = new AnnotationProcessorDetector();
+        AnnotationProcessingStore annotationProcessingStore = new AnnotationProcessingStore(workDir, processorDetector, new ProcessorPathSnapshotter(cacheAccess, fileSnapshotter));
+        RecompilationSpecProvider recompilationSpecProvider = new RecompilationSpecProvider(sourceToNameConverter, dependencyInfoSerializer, fileOperations, jarSnapshotFeeder,
+                annotationProcessingStore, processorDetector);
+        IncrementalCompilationSupport<T> incrementalSupport = new IncrementalCompilationSupport<T>(jarSnapshotFeeder, dependencyInfoSerializer, fileOperations,
+                extractor, cleaningCompiler, displayName, recompilationSpecProvider, annotationProcessingStore, metrics);
+        return incrementalSupport.prepareCompiler(inputs, sourceDirs);
+    }
+}
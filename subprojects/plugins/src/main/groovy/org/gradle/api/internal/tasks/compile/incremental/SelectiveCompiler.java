@@ -16,8 +16,10 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
-import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompilerSupport;
+import org.gradle.api.internal.tasks.compile.DefaultCompilationMetrics;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingStore;
 import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec;
 import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpecProvider;
 import org.gradle.api.logging.Logger;
@@ -26,32 +28,51 @@ import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.util.Clock;
 
-class SelectiveCompiler implements org.gradle.api.internal.tasks.compile.Compiler<JavaCompileSpec> {
+class SelectiveCompiler<T extends JavaCompileSpec> implements org.gradle.api.internal.tasks.compile.Compiler<T> {
     private static final Logger LOG = Logging.getLogger(SelectiveCompiler.class);
+    private static final String DETECTION_PHASE = "detection of classes to compile";
     private final IncrementalTaskInputs inputs;
-    private final CleaningJavaCompiler cleaningCompiler;
+    private final CleaningJavaCompilerSupport<T> cleaningCompiler;
     private final RecompilationSpecProvider recompilationSpecProvider;
     private final IncrementalCompilationInitializer incrementalCompilationInitilizer;
+    private final AnnotationProcessingStore annotationProcessingStore;
+    private final DefaultCompilationMetrics metrics;
 
-    public SelectiveCompiler(IncrementalTaskInputs inputs, CleaningJavaCompiler cleaningCompiler,
-                             RecompilationSpecProvider recompilationSpecProvider, IncrementalCompilationInitializer compilationInitializer) {
+    public SelectiveCompiler(IncrementalTaskInputs inputs, CleaningJavaCompilerSupport<T> cleaningCompiler,
+                             RecompilationSpecProvider recompilationSpecProvider, IncrementalCompilationInitializer compilationInitializer,
+                             AnnotationProcessingStore annotationProcessingStore, DefaultCompilationMetrics metrics) {
         this.inputs = inputs;
         this.cleaningCompiler = cleaningCompiler;
         this.recompilationSpecProvider = recompilationSpecProvider;
         incrementalCompilationInitilizer = compilationInitializer;
+        this.annotationProcessingStore = annotationProcessingStore;
+        this.metrics = metrics;
     }
 
-    public WorkResult execute(JavaCompileSpec spec) {
+    public WorkResult execute(T spec) {
         Clock clock = new Clock();
-        RecompilationSpec recompilationSpec = recompilationSpecProvider.provideRecompilationSpec(inputs);
+        String annotationProcessingRebuildCause = annotationProcessingStore.getFullRebuildCause(spec);
+        if (annotationProcessingRebuildCause != null) {
+            LOG.lifecycle("Full rebuild is needed, {}.", annotationProcessingRebuildCause);
+            metrics.fullRebuild(annotationProcessingRebuildCause);
+            return cleaningCompiler.execute(spec);
+        }
+        RecompilationSpec recompilationSpec = recompilationSpecProvider.provideRecompilationSpec(inputs, spec.getDestinationDir());
 
         if (recompilationSpec.isFullRebuildNeeded()) {
             LOG.lifecycle("Detection of classes for compilation took {}. Full rebuild is needed due to a change to: {}.", clock.getTime(), recompilationSpec.getFullRebuildCause());
+            metrics.addPhaseTime(DETECTION_PHASE, clock.getTimeInMs());
+            metrics.fullRebuild("a change to " + recompilationSpec.getFullRebuildCause());
             return cleaningCompiler.execute(spec);
         }
 
+        annotationProcessingStore.selectiveCompilation(recompilationSpec.getClassNames());
         incrementalCompilationInitilizer.initializeCompilation(spec, recompilationSpec.getClassNames());
+        metrics.addPhaseTime(DETECTION_PHASE, clock.getTimeInMs());
+        metrics.incremental(recompilationSpec.getDependentClassCount());
+        metrics.setCompiledSourceCount(spec.getSource().getFiles().size());
         if (spec.getSource().isEmpty()) {
+            annotationProcessingStore.nothingToCompile();
             LOG.lifecycle("Detection of classes for compilation took {}. It seems no recompilation is needed!", clock.getTime());
             return new WorkResult() {
                 public boolean getDidWork() {
@@ -19,16 +19,48 @@ package org.gradle.api.internal.tasks.compile.incremental;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import static java.lang.String.format;
 
 public class SourceToNameConverter {
 
     private CompilationSourceDirs sourceDirs;
+    private final ClassSourceFileReader sourceFileReader;
 
-    public SourceToNameConverter(CompilationSourceDirs sourceDirs) {
+    public SourceToNameConverter(CompilationSourceDirs sourceDirs, ClassSourceFileReader sourceFileReader) {
         this.sourceDirs = sourceDirs;
+        this.sourceFileReader = sourceFileReader;
+    }
+
+    /**
+     * Returns the top level classes that were compiled from the given source file into the given classes directory. A source file may
+     * declare several top level classes, as is common for Groovy sources. They are found by the source file recorded in the class files
+     * of the same package. The class named after the source file is always included.
+     */
+    public Collection<String> getClassNames(File sourceFile, File classesDir) {
+        String className = getClassName(sourceFile);
+        Set<String> classNames = new LinkedHashSet<String>();
+        classNames.add(className);
+        int packageEnd = className.lastIndexOf('.');
+        String packagePrefix = className.substring(0, packageEnd + 1);
+        File[] classFiles = new File(classesDir, packagePrefix.replace('.', '/')).listFiles();
+        if (classFiles == null) {
+            return classNames;
+        }
+        for (File classFile : classFiles) {
+            String fileName = classFile.getName();
+            if (!fileName.endsWith(".class") || fileName.contains("$")) {
+                continue;
+            }
+            if (sourceFile.getName().equals(sourceFileReader.getSourceFileName(classFile))) {
+                classNames.add(packagePrefix + fileName.substring(0, fileName.length() - ".class".length()));
+            }
+        }
+        return classNames;
     }
 
     public String getClassName(File javaSourceClass) {
@@ -37,11 +69,11 @@ public class SourceToNameConverter {
             if (javaSourceClass.getAbsolutePath().startsWith(sourceDir.getAbsolutePath())) { //perf tweak only
                 String relativePath = GFileUtils.relativePath(sourceDir, javaSourceClass);
                 if (!relativePath.startsWith("..")) {
-                    return relativePath.replaceAll("/", ".").replaceAll("\\.java$", "");
+                    return relativePath.replaceAll("/", ".").replaceAll("\\.(java|groovy)$", "");
                 }
             }
         }
-        throw new IllegalArgumentException(format("Unable to find source java class: '%s' because it does not belong to any of the source dirs: '%s'",
+        throw new IllegalArgumentException(format("Unable to find source class: '%s' because it does not belong to any of the source dirs: '%s'",
                 javaSourceClass, dirs));
 
     }
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.hash.Hasher;
+import org.gradle.internal.hash.HashUtil;
+import org.objectweb.asm.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hashes the part of a class that other classes can be compiled against: the class declaration and the non-private fields, methods
+ * and inner classes, with their annotations and constant values. Method bodies, private members and debug information are left out,
+ * so the hash does not change when only the implementation of a class changes.
+ */
+public class ClassApiHasher implements Hasher {
+
+    public byte[] hash(File classFile) {
+        try {
+            InputStream input = new FileInputStream(classFile);
+            try {
+                return hash(input);
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not hash the API of class file %s.", classFile), e);
+        }
+    }
+
+    public byte[] hash(InputStream input) throws IOException {
+        ClassReader reader = new ClassReader(input);
+        ApiCollector collector = new ApiCollector();
+        reader.accept(collector, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return HashUtil.createHash(collector.getApi(), "MD5").asByteArray();
+    }
+
+    private static class ApiCollector extends ClassVisitor {
+        private final static int API = Opcodes.ASM4;
+        private String header;
+        // the members are sorted, so that the order in which they are declared does not matter
+        private final List<String> members = new ArrayList<String>();
+
+        ApiCollector() {
+            super(API);
+        }
+
+        String getApi() {
+            Collections.sort(members);
+            StringBuilder api = new StringBuilder(header);
+            for (String member : members) {
+                api.append('\n').append(member);
+            }
+            return api.toString();
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            // ACC_SUPER is set by some compilers only
+            header = "class " + (access & ~Opcodes.ACC_SUPER) + " " + name + " " + signature + " " + superName + " " + Arrays.toString(interfaces);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            return new AnnotationCollector("annotation " + desc + " " + visible, members);
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            if (isApi(access)) {
+                members.add("inner " + access + " " + name + " " + outerName + " " + innerName);
+            }
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+            if (!isApi(access)) {
+                return null;
+            }
+            final String field = "field " + access + " " + name + " " + desc + " " + signature + " " + value;
+            members.add(field);
+            return new FieldVisitor(API) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                    return new AnnotationCollector(field + " annotation " + desc + " " + visible, members);
+                }
+            };
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+            if (!isApi(access)) {
+                return null;
+            }
+            String[] sortedExceptions = exceptions == null ? new String[0] : exceptions.clone();
+            Arrays.sort(sortedExceptions);
+            final String method = "method " + access + " " + name + " " + desc + " " + signature + " " + Arrays.toString(sortedExceptions);
+            members.add(method);
+            return new MethodVisitor(API) {
+                @Override
+                public AnnotationVisitor visitAnnotationDefault() {
+                    return new AnnotationCollector(method + " default", members);
+                }
+
+                @Override
+                public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                    return new AnnotationCollector(method + " annotation " + desc + " " + visible, members);
+                }
+
+                @Override
+                public AnnotationVisitor visitParameterAnnotation(int parameter, String desc, boolean visible) {
+                    return new AnnotationCollector(method + " parameter " + parameter + " annotation " + desc + " " + visible, members);
+                }
+            };
+        }
+
+        private static boolean isApi(int access) {
+            // Synthetic members, such as accessors for private fields of inner classes, cannot be referred to from source
+            return (access & (Opcodes.ACC_PRIVATE | Opcodes.ACC_SYNTHETIC)) == 0;
+        }
+    }
+
+    /**
+     * Adds each value of an annotation, including the values of nested annotations and arrays, as a member.
+     */
+    private static class AnnotationCollector extends AnnotationVisitor {
+        private final String prefix;
+        private final List<String> members;
+
+        AnnotationCollector(String prefix, List<String> members) {
+            super(Opcodes.ASM4);
+            this.prefix = prefix;
+            this.members = members;
+            members.add(prefix);
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            String valueString = value instanceof Type ? ((Type) value).getDescriptor() : String.valueOf(value);
+            if (value != null && value.getClass().isArray()) {
+                valueString = arrayToString(value);
+            }
+            members.add(prefix + " " + name + "=" + valueString);
+        }
+
+        @Override
+        public void visitEnum(String name, String desc, String value) {
+            members.add(prefix + " " + name + "=" + desc + "." + value);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String desc) {
+            return new AnnotationCollector(prefix + " " + name + "=@" + desc, members);
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            return new AnnotationCollector(prefix + " " + name + "[]", members) {
+                private int index;
+
+                @Override
+                public void visit(String name, Object value) {
+                    super.visit(String.valueOf(index++), value);
+                }
+
+                @Override
+                public void visitEnum(String name, String desc, String value) {
+                    super.visitEnum(String.valueOf(index++), desc, value);
+                }
+
+                @Override
+                public AnnotationVisitor visitAnnotation(String name, String desc) {
+                    return super.visitAnnotation(String.valueOf(index++), desc);
+                }
+
+                @Override
+                public AnnotationVisitor visitArray(String name) {
+                    return super.visitArray(String.valueOf(index++));
+                }
+            };
+        }
+
+        private static String arrayToString(Object array) {
+            if (array instanceof byte[]) {
+                return Arrays.toString((byte[]) array);
+            } else if (array instanceof boolean[]) {
+                return Arrays.toString((boolean[]) array);
+            } else if (array instanceof short[]) {
+                return Arrays.toString((short[]) array);
+            } else if (array instanceof char[]) {
+                return Arrays.toString((char[]) array);
+            } else if (array instanceof int[]) {
+                return Arrays.toString((int[]) array);
+            } else if (array instanceof long[]) {
+                return Arrays.toString((long[]) array);
+            } else if (array instanceof float[]) {
+                return Arrays.toString((float[]) array);
+            }
+            return Arrays.toString((double[]) array);
+        }
+    }
+}
@@ -16,43 +16,165 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
-import java.io.Serializable;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import org.gradle.internal.Factory;
 
-public class ClassDependencyInfo implements Serializable {
+import java.nio.IntBuffer;
+import java.util.*;
 
-    private final Map<String, ? extends DependentsSet> dependents;
+/**
+ * The classes that depend on each class of a compilation. Classes are identified by their index in a table of class names, and the
+ * dependents of all the classes are kept in a single buffer of class indexes. The info can be written and read without creating an
+ * object per dependency. Stored info is not loaded up front: each query opens the stored table and only reads the classes it visits.
+ */
+public class ClassDependencyInfo {
+
+    private final Factory<? extends ClassDependencyTable> tables;
+
+    public ClassDependencyInfo(Map<String, ? extends DependentsSet> dependentsMap) {
+        final InMemoryTable table = new InMemoryTable(dependentsMap);
+        this.tables = new Factory<ClassDependencyTable>() {
+            public ClassDependencyTable create() {
+                return table;
+            }
+        };
+    }
 
-    public ClassDependencyInfo(Map<String, ? extends DependentsSet> dependents) {
-        this.dependents = dependents;
+    ClassDependencyInfo(Factory<? extends ClassDependencyTable> tables) {
+        this.tables = tables;
     }
 
     public DependentsSet getRelevantDependents(String className) {
-        DependentsSet deps = dependents.get(className);
-        if (deps == null) {
-            return new DefaultDependentsSet();
-        }
-        if (deps.isDependencyToAll()) {
-            return new DependencyToAll();
+        ClassDependencyTable table = tables.create();
+        try {
+            int index = table.indexOf(className);
+            if (index < 0) {
+                return new DefaultDependentsSet();
+            }
+            if (table.isDependencyToAll(index)) {
+                return new DependencyToAll();
+            }
+            Set<String> result = new HashSet<String>();
+            BitSet visited = new BitSet(table.getClassCount());
+            visited.set(index);
+            recurseDependents(table, result, visited, index);
+            return new DefaultDependentsSet(result);
+        } finally {
+            table.close();
         }
-        Set<String> result = new HashSet<String>();
-        recurseDependents(result, deps.getDependentClasses());
-        result.remove(className);
-        return new DefaultDependentsSet(result);
     }
 
-    private void recurseDependents(Set<String> result, Set<String> dependentClasses) {
-        for (String d : dependentClasses) {
-            if (result.contains(d)) {
+    private void recurseDependents(ClassDependencyTable table, Set<String> result, BitSet visited, int classIndex) {
+        for (int d : table.getDependents(classIndex)) {
+            if (visited.get(d)) {
                 continue;
             }
-            if (!d.contains("$")) { //filter out the inner classes
-                result.add(d);
+            visited.set(d);
+            String dependent = table.getClassName(d);
+            if (!dependent.contains("$")) { //filter out the inner classes
+                result.add(dependent);
+            }
+            recurseDependents(table, result, visited, d);
+        }
+    }
+
+    /**
+     * Returns the classes that depend directly on each class, inner classes included. Classes without dependents are left out.
+     */
+    public Map<String, Set<String>> getDirectDependents() {
+        ClassDependencyTable table = tables.create();
+        try {
+            Map<String, Set<String>> result = new HashMap<String, Set<String>>();
+            for (int i = 0; i < table.getClassCount(); i++) {
+                int[] dependents = table.getDependents(i);
+                if (dependents.length == 0) {
+                    continue;
+                }
+                Set<String> classDependents = new HashSet<String>();
+                for (int dependent : dependents) {
+                    classDependents.add(table.getClassName(dependent));
+                }
+                result.put(table.getClassName(i), classDependents);
+            }
+            return result;
+        } finally {
+            table.close();
+        }
+    }
+
+    ClassDependencyTable openTable() {
+        return tables.create();
+    }
+
+    private static class InMemoryTable implements ClassDependencyTable {
+        private final String[] classNames;
+        private final Map<String, Integer> classIndexes;
+        private final BitSet dependencyToAll;
+        //the dependents of class i are at positions offsets[i] to offsets[i + 1] of the dependents buffer
+        private final int[] offsets;
+        private final IntBuffer dependents;
+
+        InMemoryTable(Map<String, ? extends DependentsSet> dependentsMap) {
+            classIndexes = new HashMap<String, Integer>();
+            List<String> names = new ArrayList<String>(dependentsMap.keySet());
+            for (String className : names) {
+                classIndexes.put(className, classIndexes.size());
+            }
+            int dependentsCount = 0;
+            for (DependentsSet dependentsSet : dependentsMap.values()) {
+                for (String dependent : dependentsSet.getDependentClasses()) {
+                    if (!classIndexes.containsKey(dependent)) {
+                        classIndexes.put(dependent, classIndexes.size());
+                        names.add(dependent);
+                    }
+                    dependentsCount++;
+                }
             }
-            DependentsSet currentDependents = dependents.get(d);
-            recurseDependents(result, currentDependents.getDependentClasses());
+            classNames = names.toArray(new String[names.size()]);
+            dependencyToAll = new BitSet(classNames.length);
+            offsets = new int[classNames.length + 1];
+            int[] buffer = new int[dependentsCount];
+            int position = 0;
+            for (int i = 0; i < classNames.length; i++) {
+                offsets[i] = position;
+                DependentsSet dependentsSet = dependentsMap.get(classNames[i]);
+                if (dependentsSet == null) {
+                    continue;
+                }
+                dependencyToAll.set(i, dependentsSet.isDependencyToAll());
+                for (String dependent : dependentsSet.getDependentClasses()) {
+                    buffer[position++] = classIndexes.get(dependent);
+                }
+            }
+            offsets[classNames.length] = position;
+            this.dependents = IntBuffer.wrap(buffer);
+        }
+
+        public int getClassCount() {
+            return classNames.length;
+        }
+
+        public int indexOf(String className) {
+            Integer index = classIndexes.get(className);
+            return index == null ? -1 : index;
+        }
+
+        public String getClassName(int classIndex) {
+            return classNames[classIndex];
+        }
+
+        public boolean isDependencyToAll(int classIndex) {
+            return dependencyToAll.get(classIndex);
+        }
+
+        public int[] getDependents(int classIndex) {
+            int[] result = new int[offsets[classIndex + 1] - offsets[classIndex]];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = dependents.get(offsets[classIndex] + i);
+            }
+            return result;
+        }
+
+        public void close() {
         }
     }
-}
\ No newline at end of file
+}
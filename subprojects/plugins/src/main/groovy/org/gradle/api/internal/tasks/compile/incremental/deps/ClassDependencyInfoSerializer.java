@@ -16,12 +16,24 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
-import org.gradle.api.internal.tasks.compile.incremental.DummySerializer;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.Factory;
 
-import java.io.File;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
-//TODO SF this needs to use our standard serialization machinery
+/**
+ * Stores the class dependency info in a binary format that is read on demand: a header, an index of the classes sorted by the hash of
+ * their name, the offsets of the class names, the classes that are a dependency to all, the offsets of the dependents of each class,
+ * the dependents as a single block of class indexes and finally the class names. Everything but the dependents is read once when the
+ * info is provided; a query then reads only the dependents of the classes it visits.
+ */
 public class ClassDependencyInfoSerializer implements ClassDependencyInfoProvider, ClassDependencyInfoWriter {
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final String NAME_ENCODING = "UTF-8";
+
     private File storage;
 
     public ClassDependencyInfoSerializer(File storage) {
@@ -29,19 +41,246 @@ public class ClassDependencyInfoSerializer implements ClassDependencyInfoProvide
     }
 
     public void writeInfo(ClassDependencyInfo info) {
-        DummySerializer.writeTargetTo(storage, info);
+        ClassDependencyTable table = info.openTable();
+        try {
+            int classCount = table.getClassCount();
+            byte[][] names = new byte[classCount][];
+            int[][] dependents = new int[classCount][];
+            //the hash of the name in the high bits, the class index in the low bits
+            long[] index = new long[classCount];
+            int namesLength = 0;
+            int dependentsCount = 0;
+            for (int i = 0; i < classCount; i++) {
+                String className = table.getClassName(i);
+                names[i] = className.getBytes(NAME_ENCODING);
+                namesLength += names[i].length;
+                dependents[i] = table.getDependents(i);
+                dependentsCount += dependents[i].length;
+                index[i] = ((long) className.hashCode() << 32) | i;
+            }
+            Arrays.sort(index);
+
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(storage)));
+            try {
+                output.writeInt(FORMAT_VERSION);
+                output.writeInt(classCount);
+                output.writeInt(dependentsCount);
+                output.writeInt(namesLength);
+                for (long entry : index) {
+                    output.writeInt((int) (entry >> 32));
+                    output.writeInt((int) entry);
+                }
+                int nameOffset = 0;
+                output.writeInt(nameOffset);
+                for (byte[] name : names) {
+                    nameOffset += name.length;
+                    output.writeInt(nameOffset);
+                }
+                byte[] dependencyToAll = new byte[flagsSize(classCount)];
+                for (int i = 0; i < classCount; i++) {
+                    if (table.isDependencyToAll(i)) {
+                        dependencyToAll[i / 8] |= 1 << (i % 8);
+                    }
+                }
+                output.write(dependencyToAll);
+                int dependentsOffset = 0;
+                output.writeInt(dependentsOffset);
+                for (int[] classDependents : dependents) {
+                    dependentsOffset += classDependents.length;
+                    output.writeInt(dependentsOffset);
+                }
+                for (int[] classDependents : dependents) {
+                    for (int dependent : classDependents) {
+                        output.writeInt(dependent);
+                    }
+                }
+                for (byte[] name : names) {
+                    output.write(name);
+                }
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            table.close();
+        }
     }
 
+    /**
+     * Returns the stored info. The info reads dependents from the stored file on each query, so it must not be used once the info has been written again.
+     */
     public ClassDependencyInfo provideInfo() {
-        return (ClassDependencyInfo) DummySerializer.readFrom(storage);
+        final FileIndex index;
+        try {
+            index = new FileIndex(storage);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ClassDependencyInfo(new Factory<ClassDependencyTable>() {
+            public ClassDependencyTable create() {
+                return new FileTable(storage, index);
+            }
+        });
     }
 
     public boolean isInfoAvailable() {
-        return storage.isFile();
+        if (!storage.isFile()) {
+            return false;
+        }
+        //info written in a different format is not available, so that all classes are compiled
+        try {
+            DataInputStream input = new DataInputStream(new FileInputStream(storage));
+            try {
+                return input.readInt() == FORMAT_VERSION;
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int flagsSize(int classCount) {
+        return (classCount + 7) / 8;
     }
 
     @Override
     public String toString() {
         return storage.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Everything of the stored info but the dependents block, read with one read per block.
+     */
+    private static class FileIndex {
+        private final int classCount;
+        private final int[] hashes;
+        private final int[] indexClasses;
+        private final int[] nameOffsets;
+        private final byte[] dependencyToAll;
+        private final int[] dependentOffsets;
+        private final long dependentsPosition;
+        private final byte[] names;
+
+        FileIndex(File storage) throws IOException {
+            RandomAccessFile file = new RandomAccessFile(storage, "r");
+            try {
+                int version = file.readInt();
+                if (version != FORMAT_VERSION) {
+                    throw new IllegalStateException(String.format("Unexpected format version %s of class dependency info %s.", version, storage));
+                }
+                classCount = file.readInt();
+                int dependentsCount = file.readInt();
+                int namesLength = file.readInt();
+                dependentsPosition = HEADER_SIZE + 8L * classCount + 8L * (classCount + 1) + flagsSize(classCount);
+
+                byte[] tables = new byte[(int) (dependentsPosition - HEADER_SIZE)];
+                file.readFully(tables);
+                ByteBuffer buffer = ByteBuffer.wrap(tables);
+                hashes = new int[classCount];
+                indexClasses = new int[classCount];
+                for (int i = 0; i < classCount; i++) {
+                    hashes[i] = buffer.getInt();
+                    indexClasses[i] = buffer.getInt();
+                }
+                nameOffsets = new int[classCount + 1];
+                buffer.asIntBuffer().get(nameOffsets);
+                buffer.position(buffer.position() + 4 * nameOffsets.length);
+                dependencyToAll = new byte[flagsSize(classCount)];
+                buffer.get(dependencyToAll);
+                dependentOffsets = new int[classCount + 1];
+                buffer.asIntBuffer().get(dependentOffsets);
+
+                names = new byte[namesLength];
+                file.seek(dependentsPosition + 4L * dependentsCount);
+                file.readFully(names);
+            } finally {
+                file.close();
+            }
+        }
+    }
+
+    private static class FileTable implements ClassDependencyTable {
+        private final File storage;
+        private final FileIndex index;
+        //opened by the first query for dependents
+        private RandomAccessFile file;
+
+        FileTable(File storage, FileIndex index) {
+            this.storage = storage;
+            this.index = index;
+        }
+
+        public int getClassCount() {
+            return index.classCount;
+        }
+
+        public int indexOf(String className) {
+            int hash = className.hashCode();
+            //find the first index entry with the hash of the name
+            int low = 0;
+            int high = index.classCount;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (index.hashes[middle] < hash) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            for (int i = low; i < index.classCount && index.hashes[i] == hash; i++) {
+                if (getClassName(index.indexClasses[i]).equals(className)) {
+                    return index.indexClasses[i];
+                }
+            }
+            return -1;
+        }
+
+        public String getClassName(int classIndex) {
+            int offset = index.nameOffsets[classIndex];
+            try {
+                return new String(index.names, offset, index.nameOffsets[classIndex + 1] - offset, NAME_ENCODING);
+            } catch (UnsupportedEncodingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public boolean isDependencyToAll(int classIndex) {
+            return (index.dependencyToAll[classIndex / 8] & (1 << (classIndex % 8))) != 0;
+        }
+
+        public int[] getDependents(int classIndex) {
+            int offset = index.dependentOffsets[classIndex];
+            int[] dependents = new int[index.dependentOffsets[classIndex + 1] - offset];
+            if (dependents.length == 0) {
+                return dependents;
+            }
+            byte[] bytes = new byte[4 * dependents.length];
+            try {
+                if (file == null) {
+                    file = new RandomAccessFile(storage, "r");
+                }
+                file.seek(index.dependentsPosition + 4L * offset);
+                file.readFully(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Could not read class dependency info %s.", storage), e);
+            }
+            ByteBuffer.wrap(bytes).asIntBuffer().get(dependents);
+            return dependents;
+        }
+
+        public void close() {
+            if (file == null) {
+                return;
+            }
+            try {
+                file.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                file = null;
+            }
+        }
+    }
+}
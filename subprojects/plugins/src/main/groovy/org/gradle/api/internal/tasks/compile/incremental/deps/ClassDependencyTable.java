@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+/**
+ * Read access to the classes of a {@link ClassDependencyInfo} and their direct dependents. Classes are identified by their index.
+ * A table is opened for each query of the info, and closed once the query is done.
+ */
+interface ClassDependencyTable {
+    int getClassCount();
+
+    /**
+     * Returns the index of the given class, or -1 when the class is not known.
+     */
+    int indexOf(String className);
+
+    String getClassName(int classIndex);
+
+    boolean isDependencyToAll(int classIndex);
+
+    /**
+     * Returns the indexes of the classes that depend directly on the given class.
+     */
+    int[] getDependents(int classIndex);
+
+    void close();
+}
@@ -16,31 +16,18 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
-import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet;
-import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
-
-import java.io.Serializable;
-import java.util.Collection;
-
-class ClassSnapshot implements Serializable {
+class ClassSnapshot {
 
     private final byte[] hash;
-    private final Collection<String> dependentClasses;
-
-    public ClassSnapshot(byte[] hash) {
-        this(hash, null);
-    }
+    private final boolean dependencyToAll;
 
-    public ClassSnapshot(byte[] hash, Collection<String> dependentClasses) {
+    public ClassSnapshot(byte[] hash, boolean dependencyToAll) {
         this.hash = hash;
-        this.dependentClasses = dependentClasses;
+        this.dependencyToAll = dependencyToAll;
     }
 
-    public DependentsSet getDependents() {
-        if (dependentClasses == null) {
-            return new DefaultDependentsSet(true);
-        }
-        return new DefaultDependentsSet(dependentClasses);
+    public boolean isDependencyToAll() {
+        return dependencyToAll;
     }
 
     public byte[] getHash() {
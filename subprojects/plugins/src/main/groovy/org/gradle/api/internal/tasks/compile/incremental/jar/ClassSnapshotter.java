@@ -18,8 +18,6 @@ package org.gradle.api.internal.tasks.compile.incremental.jar;
 
 import org.gradle.api.internal.hash.Hasher;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
-import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo;
-import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 
 import java.io.File;
 import java.io.IOException;
@@ -33,19 +31,13 @@ public class ClassSnapshotter {
         this.analyzer = analyzer;
     }
 
-    public ClassSnapshot createSnapshot(String className, File classFile, ClassDependencyInfo parentDependencyInfo) {
+    public ClassSnapshot createSnapshot(String className, File classFile) {
         boolean dependencyToAll;
         try {
             dependencyToAll = analyzer.getClassAnalysis(className, classFile).isDependencyToAll();
         } catch (IOException e) {
             throw new RuntimeException("Problems creating jar snapshot.", e);
         }
-        byte[] hash = hasher.hash(classFile);
-        if (dependencyToAll) {
-            return new ClassSnapshot(hash);
-        } else {
-            DependentsSet dependents = parentDependencyInfo.getRelevantDependents(className);
-            return new ClassSnapshot(hash, dependents.getDependentClasses());
-        }
+        return new ClassSnapshot(hasher.hash(classFile), dependencyToAll);
     }
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 import org.gradle.api.tasks.incremental.InputFileDetails;
@@ -23,9 +24,11 @@ import org.gradle.api.tasks.incremental.InputFileDetails;
 public class JarChangeDependentsFinder {
 
     private JarSnapshotFeeder jarSnapshotFeeder;
+    private ClassDependencyInfo dependencyInfo;
 
-    public JarChangeDependentsFinder(JarSnapshotFeeder jarSnapshotFeeder) {
+    public JarChangeDependentsFinder(JarSnapshotFeeder jarSnapshotFeeder, ClassDependencyInfo dependencyInfo) {
         this.jarSnapshotFeeder = jarSnapshotFeeder;
+        this.dependencyInfo = dependencyInfo;
     }
 
     //TODO SF coverage
@@ -46,8 +49,8 @@ public class JarChangeDependentsFinder {
         }
 
         if (jarChangeDetails.isModified()) {
-            JarSnapshot snapshotNoDeps = jarSnapshotFeeder.newSnapshotWithoutDependents(jarArchive);
-            return existing.getDependentsDelta(snapshotNoDeps);
+            JarSnapshot current = jarSnapshotFeeder.createSnapshot(jarArchive);
+            return existing.getDependentsDelta(current, dependencyInfo);
         }
 
         throw new IllegalArgumentException("Unknown input file details provided: " + jarChangeDetails);
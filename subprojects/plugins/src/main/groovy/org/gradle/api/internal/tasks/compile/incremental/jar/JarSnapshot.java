@@ -16,16 +16,21 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 
-import java.io.Serializable;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
-class JarSnapshot implements Serializable {
+/**
+ * The API hashes of the classes of a jar. A snapshot only depends on the content of the jar, so it can be shared by all the projects
+ * that use the jar. The classes that depend on the jar classes are provided by the class dependency info of the compiled project.
+ * Since only the API of the classes is hashed, a change to the implementation of a jar class does not affect its dependents.
+ */
+class JarSnapshot {
 
     final Map<String, ClassSnapshot> classSnapshots;
 
@@ -33,15 +38,18 @@ class JarSnapshot implements Serializable {
         this.classSnapshots = classSnapshots;
     }
 
-    DependentsSet getDependentsDelta(JarSnapshot current) {
+    DependentsSet getDependentsDelta(JarSnapshot current, ClassDependencyInfo dependencyInfo) {
         final List<String> allDependents = new LinkedList<String>();
         for (String thisCls : classSnapshots.keySet()) {
             ClassSnapshot otherCls = current.classSnapshots.get(thisCls);
             //if class was removed from current snapshot or hash does not match
             if (otherCls == null || !Arrays.equals(otherCls.getHash(), classSnapshots.get(thisCls).getHash())) {
-                DependentsSet dependents = classSnapshots.get(thisCls).getDependents();
+                if (classSnapshots.get(thisCls).isDependencyToAll()) {
+                    //one of the classes changed/removed in the jar is a 'dependencyToAll', there is no point in further collection of dependents.
+                    return new DefaultDependentsSet(true);
+                }
+                DependentsSet dependents = dependencyInfo.getRelevantDependents(thisCls);
                 if (dependents.isDependencyToAll()) {
-                    //one of the classes changed/removed in the jar is a 'dependencyToAll', let's return it, there is no point in further collection of dependents.
                     return dependents;
                 }
                 allDependents.addAll(dependents.getDependentClasses());
@@ -49,4 +57,4 @@ class JarSnapshot implements Serializable {
         }
         return new DefaultDependentsSet(allDependents);
     }
-}
\ No newline at end of file
+}
@@ -16,40 +16,110 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
-import org.gradle.api.internal.tasks.compile.incremental.DummySerializer;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.CacheDecorator;
+import org.gradle.cache.internal.FileLockManager;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.Encoder;
+import org.gradle.messaging.serialize.Serializer;
 
-import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
-//TODO SF this obviously needs to be replaced with a proper cache
-public class JarSnapshotCache {
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
-    private File sharedJarSnapshotCache;
-    private Map<File, JarSnapshot> snapshots;
+/**
+ * A persistent cache of jar snapshots, shared by all projects and builds. Snapshots are keyed by the hash of the jar content,
+ * so a jar is only snapshotted once, and each snapshot is loaded on its own when it is needed. The jar hashes are provided by the caller,
+ * usually from the shared {@link org.gradle.api.internal.changedetection.state.FileSnapshotter}.
+ *
+ * <p>The cache may only be used from an action run by {@link #useCache(String, Runnable)}. It is opened on first use.</p>
+ */
+public class JarSnapshotCache implements Stoppable {
+    private final CacheRepository cacheRepository;
+    private final CacheDecorator decorator;
+    private PersistentCache cache;
+    private PersistentIndexedCache<String, JarSnapshot> snapshots;
+
+    public JarSnapshotCache(CacheRepository cacheRepository, CacheDecorator decorator) {
+        this.cacheRepository = cacheRepository;
+        this.decorator = decorator;
+    }
+
+    public void useCache(String operationDisplayName, Runnable action) {
+        open().useCache(operationDisplayName, action);
+    }
+
+    /**
+     * Returns the snapshot of the jar with the given hash, or null when the jar has not been snapshotted before.
+     */
+    public JarSnapshot getSnapshot(byte[] jarHash) {
+        return snapshots.get(key(jarHash));
+    }
 
-    public JarSnapshotCache(File sharedJarSnapshotCache) {
-        this.sharedJarSnapshotCache = sharedJarSnapshotCache;
+    /**
+     * Returns the snapshot of the jar with the given hash, using the given snapshotter to create it when the jar is not known.
+     */
+    public JarSnapshot getSnapshot(byte[] jarHash, Factory<JarSnapshot> snapshotter) {
+        String key = key(jarHash);
+        JarSnapshot snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            snapshot = snapshotter.create();
+            snapshots.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    private String key(byte[] jarHash) {
+        return new HashValue(jarHash).asCompactString();
     }
 
-    public JarSnapshot getSnapshot(File jar) {
-        init();
-        return snapshots.get(jar);
+    private synchronized PersistentCache open() {
+        if (cache == null) {
+            cache = cacheRepository
+                    .cache("jarSnapshots")
+                    .withDisplayName("jar snapshot cache")
+                    .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                    .open();
+            snapshots = cache.createCache(new PersistentIndexedCacheParameters<String, JarSnapshot>("jarApiSnapshots", String.class, new JarSnapshotSerializer())
+                    .cacheDecorator(decorator));
+        }
+        return cache;
     }
 
-    public void putSnapshots(Map<File, JarSnapshot> newSnapshots) {
-        init();
-        this.snapshots.putAll(newSnapshots);
-        DummySerializer.writeTargetTo(sharedJarSnapshotCache, this.snapshots);
+    public synchronized void stop() {
+        if (cache != null) {
+            cache.close();
+            cache = null;
+        }
     }
 
-    private void init() {
-        if (snapshots == null) {
-            if (sharedJarSnapshotCache.isFile()) {
-                snapshots = (Map) DummySerializer.readFrom(sharedJarSnapshotCache);
-            } else {
-                snapshots = new HashMap<File, JarSnapshot>();
+    static class JarSnapshotSerializer implements Serializer<JarSnapshot> {
+        public JarSnapshot read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            Map<String, ClassSnapshot> classSnapshots = new HashMap<String, ClassSnapshot>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String className = decoder.readString();
+                byte[] hash = decoder.readBinary();
+                boolean dependencyToAll = decoder.readBoolean();
+                classSnapshots.put(className, new ClassSnapshot(hash, dependencyToAll));
+            }
+            return new JarSnapshot(classSnapshots);
+        }
+
+        public void write(Encoder encoder, JarSnapshot value) throws Exception {
+            encoder.writeSmallInt(value.classSnapshots.size());
+            for (Map.Entry<String, ClassSnapshot> entry : value.classSnapshots.entrySet()) {
+                encoder.writeString(entry.getKey());
+                encoder.writeBinary(entry.getValue().getHash());
+                encoder.writeBoolean(entry.getValue().isDependencyToAll());
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -16,42 +16,98 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
-import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo;
-import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess;
+import org.gradle.internal.Factory;
 
 import java.io.File;
-import java.util.*;
+import java.util.HashMap;
+import java.util.Map;
 
 public class JarSnapshotFeeder {
 
     private final JarSnapshotCache jarSnapshotCache;
-    private final Set<File> changedJars = new HashSet<File>();
+    private final TaskArtifactStateCacheAccess cacheAccess;
+    private final FileSnapshotter fileSnapshotter;
+    private final LocalJarHashesStore localJarHashes;
     private final JarSnapshotter jarSnapshotter;
+    private Map<File, byte[]> previousJarHashes;
 
-    public JarSnapshotFeeder(JarSnapshotCache jarSnapshotCache, JarSnapshotter jarSnapshotter) {
+    /**
+     * @param fileSnapshotter hashes the jars. It is used from actions run by the given task artifact cache access.
+     */
+    public JarSnapshotFeeder(JarSnapshotCache jarSnapshotCache, TaskArtifactStateCacheAccess cacheAccess, FileSnapshotter fileSnapshotter,
+                             LocalJarHashesStore localJarHashes, JarSnapshotter jarSnapshotter) {
         this.jarSnapshotCache = jarSnapshotCache;
+        this.cacheAccess = cacheAccess;
+        this.fileSnapshotter = fileSnapshotter;
+        this.localJarHashes = localJarHashes;
         this.jarSnapshotter = jarSnapshotter;
     }
 
+    /**
+     * Returns the snapshot of the given jar as it was in the previous compilation, or null when it is not known.
+     */
     public JarSnapshot changedJar(File jarFile) {
-        JarSnapshot snapshot = jarSnapshotCache.getSnapshot(jarFile);
-        changedJars.add(jarFile);
-        return snapshot;
+        if (previousJarHashes == null) {
+            previousJarHashes = localJarHashes.get();
+        }
+        final byte[] previousHash = previousJarHashes.get(jarFile);
+        if (previousHash == null) {
+            return null;
+        }
+        final JarSnapshot[] snapshot = new JarSnapshot[1];
+        jarSnapshotCache.useCache("read jar snapshot", new Runnable() {
+            public void run() {
+                snapshot[0] = jarSnapshotCache.getSnapshot(previousHash);
+            }
+        });
+        return snapshot[0];
     }
 
-    public void storeJarSnapshots(Iterable<JarArchive> jars, ClassDependencyInfo info) {
-        Map<File, JarSnapshot> newSnapshots = new HashMap<File, JarSnapshot>();
-        for (JarArchive jar : jars) {
-            if (!changedJars.contains(jar.file) && jarSnapshotCache.getSnapshot(jar.file) != null) {
-                //if jar was not changed and the the snapshot already exists, skip
-                continue;
+    public void storeJarSnapshots(final Iterable<JarArchive> jars) {
+        final Map<File, byte[]> jarHashes = new HashMap<File, byte[]>();
+        cacheAccess.useCache("hash jars", new Runnable() {
+            public void run() {
+                for (JarArchive jar : jars) {
+                    jarHashes.put(jar.file, fileSnapshotter.snapshot(jar.file).getHash());
+                }
             }
-            newSnapshots.put(jar.file, jarSnapshotter.createSnapshot(jar.contents, info));
-        }
-        jarSnapshotCache.putSnapshots(newSnapshots);
+        });
+        jarSnapshotCache.useCache("store jar snapshots", new Runnable() {
+            public void run() {
+                for (JarArchive jar : jars) {
+                    jarSnapshotCache.getSnapshot(jarHashes.get(jar.file), new JarSnapshotFactory(jar));
+                }
+            }
+        });
+        localJarHashes.put(jarHashes);
     }
 
-    public JarSnapshot newSnapshotWithoutDependents(JarArchive jarArchive) {
-        return jarSnapshotter.createSnapshot(jarArchive.contents, new ClassDependencyInfo(Collections.<String, DependentsSet>emptyMap()));
+    public JarSnapshot createSnapshot(final JarArchive jarArchive) {
+        final byte[] hash = cacheAccess.useCache("hash jar", new Factory<byte[]>() {
+            public byte[] create() {
+                return fileSnapshotter.snapshot(jarArchive.file).getHash();
+            }
+        });
+        final JarSnapshot[] snapshot = new JarSnapshot[1];
+        jarSnapshotCache.useCache("create jar snapshot", new Runnable() {
+            public void run() {
+                snapshot[0] = jarSnapshotCache.getSnapshot(hash, new JarSnapshotFactory(jarArchive));
+            }
+        });
+        return snapshot[0];
+    }
+
+    private class JarSnapshotFactory implements Factory<JarSnapshot> {
+        private final JarArchive jar;
+
+        public JarSnapshotFactory(JarArchive jar) {
+            this.jar = jar;
+        }
+
+        public JarSnapshot create() {
+            return jarSnapshotter.createSnapshot(jar.contents);
+        }
     }
-}
\ No newline at end of file
+}
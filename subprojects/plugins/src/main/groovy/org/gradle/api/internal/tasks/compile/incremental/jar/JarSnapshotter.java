@@ -18,7 +18,6 @@ package org.gradle.api.internal.tasks.compile.incremental.jar;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
-import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -31,14 +30,14 @@ public class JarSnapshotter {
         this.classSnapshotFactory = classSnapshotFactory;
     }
 
-    JarSnapshot createSnapshot(FileTree archivedClasses, final ClassDependencyInfo dependencyInfo) {
+    JarSnapshot createSnapshot(FileTree archivedClasses) {
         final Map<String, ClassSnapshot> hashes = new HashMap<String, ClassSnapshot>();
         archivedClasses.visit(new FileVisitor() {
             public void visitDir(FileVisitDetails dirDetails) {}
 
             public void visitFile(FileVisitDetails fileDetails) {
                 String className = fileDetails.getPath().replaceAll("/", ".").replaceAll("\\.class$", "");
-                hashes.put(className, classSnapshotFactory.createSnapshot(className, fileDetails.getFile(), dependencyInfo));
+                hashes.put(className, classSnapshotFactory.createSnapshot(className, fileDetails.getFile()));
             }
         });
         return new JarSnapshot(hashes);
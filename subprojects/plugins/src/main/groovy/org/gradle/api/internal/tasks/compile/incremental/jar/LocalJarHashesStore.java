@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.jar;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the hashes of the jars on the compile classpath of the previous compilation, so that the snapshot of a jar that has
+ * changed since can be looked up in the {@link JarSnapshotCache}.
+ */
+public class LocalJarHashesStore {
+    private static final int FORMAT_VERSION = 1;
+
+    private final File storage;
+
+    public LocalJarHashesStore(File storage) {
+        this.storage = storage;
+    }
+
+    public Map<File, byte[]> get() {
+        Map<File, byte[]> hashes = new HashMap<File, byte[]>();
+        if (!storage.isFile()) {
+            return hashes;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(storage);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != FORMAT_VERSION) {
+                    return hashes;
+                }
+                int count = decoder.readSmallInt();
+                for (int i = 0; i < count; i++) {
+                    File jar = new File(decoder.readString());
+                    hashes.put(jar, decoder.readBinary());
+                }
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hashes;
+    }
+
+    public void put(Map<File, byte[]> hashes) {
+        GFileUtils.parentMkdirs(storage);
+        try {
+            OutputStream outputStream = new FileOutputStream(storage);
+            try {
+                KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(FORMAT_VERSION);
+                encoder.writeSmallInt(hashes.size());
+                for (Map.Entry<File, byte[]> entry : hashes.entrySet()) {
+                    encoder.writeString(entry.getKey().getPath());
+                    encoder.writeBinary(entry.getValue());
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return storage.toString();
+    }
+}
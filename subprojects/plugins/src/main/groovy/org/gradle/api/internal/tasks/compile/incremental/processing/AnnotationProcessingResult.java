@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.processing;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * The files generated by the annotation processors of a compilation, along with the types they were generated from. A generated file
+ * without originating types could have been generated from any type of the compilation.
+ */
+public class AnnotationProcessingResult {
+    private final List<GeneratedFile> generatedFiles;
+
+    public AnnotationProcessingResult(List<GeneratedFile> generatedFiles) {
+        this.generatedFiles = generatedFiles;
+    }
+
+    public List<GeneratedFile> getGeneratedFiles() {
+        return generatedFiles;
+    }
+
+    /**
+     * Returns the files that are regenerated when the given types are compiled, or that define one of the given types.
+     */
+    public List<GeneratedFile> getFilesAffectedBy(Collection<String> types) {
+        List<GeneratedFile> result = new ArrayList<GeneratedFile>();
+        for (GeneratedFile file : generatedFiles) {
+            if (types.contains(file.getTypeName()) || !Collections.disjoint(types, file.getOriginatingTypes())) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A file created through the {@code Filer}. The type name is only known for generated sources and classes.
+     */
+    public static class GeneratedFile {
+        private final File file;
+        private final String typeName;
+        private final Set<String> originatingTypes;
+
+        public GeneratedFile(File file, String typeName, Set<String> originatingTypes) {
+            this.file = file;
+            this.typeName = typeName;
+            this.originatingTypes = originatingTypes;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        public Set<String> getOriginatingTypes() {
+            return originatingTypes;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.processing;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class AnnotationProcessingResultSerializer {
+    private static final int FORMAT_VERSION = 1;
+
+    private final File storage;
+
+    public AnnotationProcessingResultSerializer(File storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Returns the stored result, or null if there is none.
+     */
+    public AnnotationProcessingResult read() {
+        if (!storage.isFile()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(storage);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != FORMAT_VERSION) {
+                    return null;
+                }
+                int count = decoder.readSmallInt();
+                List<AnnotationProcessingResult.GeneratedFile> generatedFiles = new ArrayList<AnnotationProcessingResult.GeneratedFile>(count);
+                for (int i = 0; i < count; i++) {
+                    File file = new File(decoder.readString());
+                    String typeName = decoder.readBoolean() ? decoder.readString() : null;
+                    int originatingCount = decoder.readSmallInt();
+                    Set<String> originatingTypes = new HashSet<String>(originatingCount * 2);
+                    for (int j = 0; j < originatingCount; j++) {
+                        originatingTypes.add(decoder.readString());
+                    }
+                    generatedFiles.add(new AnnotationProcessingResult.GeneratedFile(file, typeName, originatingTypes));
+                }
+                return new AnnotationProcessingResult(generatedFiles);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(AnnotationProcessingResult result) {
+        GFileUtils.parentMkdirs(storage);
+        try {
+            OutputStream outputStream = new FileOutputStream(storage);
+            try {
+                KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(FORMAT_VERSION);
+                encoder.writeSmallInt(result.getGeneratedFiles().size());
+                for (AnnotationProcessingResult.GeneratedFile generatedFile : result.getGeneratedFiles()) {
+                    encoder.writeString(generatedFile.getFile().getPath());
+                    encoder.writeBoolean(generatedFile.getTypeName() != null);
+                    if (generatedFile.getTypeName() != null) {
+                        encoder.writeString(generatedFile.getTypeName());
+                    }
+                    encoder.writeSmallInt(generatedFile.getOriginatingTypes().size());
+                    for (String originatingType : generatedFile.getOriginatingTypes()) {
+                        encoder.writeString(originatingType);
+                    }
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete() {
+        GFileUtils.deleteQuietly(storage);
+    }
+
+    @Override
+    public String toString() {
+        return storage.toString();
+    }
+}
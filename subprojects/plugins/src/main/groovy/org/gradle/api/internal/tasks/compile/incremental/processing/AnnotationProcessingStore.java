@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.processing;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Keeps track of the files generated by annotation processors across the incremental compilations of a task. The compiler records the
+ * files generated by each compilation. After a selective compilation, they are merged with the files generated by the earlier compilations
+ * from types that were not recompiled. The hash of the annotation processor path is kept along with them, so that a change to the
+ * processors causes a full rebuild.
+ */
+public class AnnotationProcessingStore {
+    private static final Logger LOG = Logging.getLogger(AnnotationProcessingStore.class);
+    private static final int PROCESSOR_PATH_FORMAT_VERSION = 1;
+
+    private final AnnotationProcessingResultSerializer resultSerializer;
+    private final File compilationResultFile;
+    private final AnnotationProcessorDetector processorDetector;
+    private final File processorPathHashFile;
+    private final ProcessorPathSnapshotter processorPathSnapshotter;
+    private AnnotationProcessingResult previousResult;
+    private boolean previousResultRead;
+    private Collection<String> recompiledClasses;
+    private byte[] processorPathHash;
+    private boolean processorPathHashed;
+
+    public AnnotationProcessingStore(File workDir, AnnotationProcessorDetector processorDetector, ProcessorPathSnapshotter processorPathSnapshotter) {
+        this.resultSerializer = new AnnotationProcessingResultSerializer(new File(workDir, "annotation-processing.bin"));
+        this.compilationResultFile = new File(workDir, "annotation-processing-compilation.bin");
+        this.processorPathHashFile = new File(workDir, "processor-path.bin");
+        this.processorDetector = processorDetector;
+        this.processorPathSnapshotter = processorPathSnapshotter;
+    }
+
+    /**
+     * Returns the files generated by the previous compilations, or null when they are not known because annotation processing was not tracked.
+     */
+    public AnnotationProcessingResult getPreviousResult() {
+        if (!previousResultRead) {
+            previousResult = resultSerializer.read();
+            previousResultRead = true;
+        }
+        return previousResult;
+    }
+
+    /**
+     * Returns why the compilation needs to be a full rebuild, or null when it does not. A full rebuild is needed when annotation processors
+     * may run but the files they generated in the previous compilation are not known, or when the annotation processor path has changed.
+     */
+    public String getFullRebuildCause(JavaCompileSpec spec) {
+        if (getPreviousResult() == null) {
+            if (processorDetector.hasProcessors(spec.getClasspath(), spec.getCompileOptions().getCompilerArgs())) {
+                return "the files generated by annotation processors in the previous compilation are not known";
+            }
+            return null;
+        }
+        if (!Arrays.equals(readProcessorPathHash(), getProcessorPathHash(spec))) {
+            return "the annotation processor path has changed";
+        }
+        return null;
+    }
+
+    /**
+     * Prepares a compilation, returning the file where the compiler records the files generated by this compilation.
+     */
+    public File startCompilation(JavaCompileSpec spec) {
+        getProcessorPathHash(spec);
+        new AnnotationProcessingResultSerializer(compilationResultFile).delete();
+        return compilationResultFile;
+    }
+
+    /**
+     * Called before the given classes are recompiled. Deletes the files that were generated from them, since they are generated again.
+     */
+    public void selectiveCompilation(Collection<String> staleClasses) {
+        recompiledClasses = staleClasses;
+        AnnotationProcessingResult previous = getPreviousResult();
+        if (previous == null) {
+            return;
+        }
+        for (AnnotationProcessingResult.GeneratedFile generatedFile : previous.getFilesAffectedBy(staleClasses)) {
+            generatedFile.getFile().delete();
+        }
+    }
+
+    /**
+     * Called instead of the compilation when no sources need to be recompiled.
+     */
+    public void nothingToCompile() {
+        new AnnotationProcessingResultSerializer(compilationResultFile).write(new AnnotationProcessingResult(new ArrayList<AnnotationProcessingResult.GeneratedFile>()));
+    }
+
+    /**
+     * Called when the compilation has completed. Stores the files generated by all compilations so far.
+     */
+    public void compilationCompleted() {
+        AnnotationProcessingResultSerializer compilationResultSerializer = new AnnotationProcessingResultSerializer(compilationResultFile);
+        AnnotationProcessingResult compilationResult = compilationResultSerializer.read();
+        compilationResultSerializer.delete();
+        if (compilationResult == null) {
+            LOG.info("The files generated by annotation processors were not recorded by the compiler.");
+            resultSerializer.delete();
+            GFileUtils.deleteQuietly(processorPathHashFile);
+            return;
+        }
+        writeProcessorPathHash(processorPathHash);
+        AnnotationProcessingResult previous = getPreviousResult();
+        if (recompiledClasses == null || previous == null) {
+            resultSerializer.write(compilationResult);
+            return;
+        }
+
+        List<AnnotationProcessingResult.GeneratedFile> generatedFiles = new ArrayList<AnnotationProcessingResult.GeneratedFile>(compilationResult.getGeneratedFiles());
+        Set<File> regenerated = new HashSet<File>();
+        for (AnnotationProcessingResult.GeneratedFile generatedFile : generatedFiles) {
+            regenerated.add(generatedFile.getFile());
+        }
+        Set<AnnotationProcessingResult.GeneratedFile> affected = new HashSet<AnnotationProcessingResult.GeneratedFile>(previous.getFilesAffectedBy(recompiledClasses));
+        for (AnnotationProcessingResult.GeneratedFile generatedFile : previous.getGeneratedFiles()) {
+            if (!affected.contains(generatedFile) && !regenerated.contains(generatedFile.getFile()) && generatedFile.getFile().exists()) {
+                generatedFiles.add(generatedFile);
+            }
+        }
+        resultSerializer.write(new AnnotationProcessingResult(generatedFiles));
+    }
+
+    private byte[] getProcessorPathHash(JavaCompileSpec spec) {
+        if (!processorPathHashed) {
+            processorPathHash = processorPathSnapshotter.snapshot(spec.getCompileOptions().getCompilerArgs());
+            processorPathHashed = true;
+        }
+        return processorPathHash;
+    }
+
+    private byte[] readProcessorPathHash() {
+        if (!processorPathHashFile.isFile()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(processorPathHashFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != PROCESSOR_PATH_FORMAT_VERSION) {
+                    return null;
+                }
+                return decoder.readBoolean() ? decoder.readBinary() : null;
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeProcessorPathHash(byte[] hash) {
+        GFileUtils.parentMkdirs(processorPathHashFile);
+        try {
+            OutputStream outputStream = new FileOutputStream(processorPathHashFile);
+            try {
+                KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(PROCESSOR_PATH_FORMAT_VERSION);
+                encoder.writeBoolean(hash != null);
+                if (hash != null) {
+                    encoder.writeBinary(hash);
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.processing;
+
+import org.gradle.api.UncheckedIOException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+/**
+ * Finds out whether the annotation processors of a compilation may run, by looking for processor service declarations on the classpath.
+ */
+public class AnnotationProcessorDetector {
+    public static final String PROCESSOR_SERVICE = "META-INF/services/javax.annotation.processing.Processor";
+
+    public boolean hasProcessors(Iterable<File> classpath, List<String> compilerArgs) {
+        if (compilerArgs.contains("-proc:none")) {
+            return false;
+        }
+        if (compilerArgs.contains("-processor") || compilerArgs.contains("-processorpath")) {
+            return true;
+        }
+        for (File file : classpath) {
+            if (declaresProcessors(file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean declaresProcessors(File classpathEntry) {
+        if (classpathEntry.isDirectory()) {
+            return new File(classpathEntry, PROCESSOR_SERVICE).isFile();
+        }
+        if (!classpathEntry.isFile()) {
+            return false;
+        }
+        try {
+            ZipFile zipFile = new ZipFile(classpathEntry);
+            try {
+                return zipFile.getEntry(PROCESSOR_SERVICE) != null;
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not look for annotation processors in %s.", classpathEntry), e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.processing;
+
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess;
+import org.gradle.internal.UncheckedException;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hashes the annotation processor path given to the compiler with the -processorpath argument, so that a change to the processors
+ * can be detected. The processor path is not part of the compile classpath, so its changes are not detected otherwise.
+ */
+public class ProcessorPathSnapshotter {
+    private final TaskArtifactStateCacheAccess cacheAccess;
+    private final FileSnapshotter fileSnapshotter;
+
+    /**
+     * @param fileSnapshotter hashes the files of the processor path. It is used from actions run by the given task artifact cache access.
+     */
+    public ProcessorPathSnapshotter(TaskArtifactStateCacheAccess cacheAccess, FileSnapshotter fileSnapshotter) {
+        this.cacheAccess = cacheAccess;
+        this.fileSnapshotter = fileSnapshotter;
+    }
+
+    /**
+     * Returns the hash of the names and the content of the files on the processor path, or null when the compiler arguments do not
+     * set a processor path.
+     */
+    public byte[] snapshot(List<String> compilerArgs) {
+        int index = compilerArgs.indexOf("-processorpath");
+        if (index < 0 || index + 1 >= compilerArgs.size()) {
+            return null;
+        }
+        final MessageDigest digest = createDigest();
+        final List<File> files = new ArrayList<File>();
+        for (String path : compilerArgs.get(index + 1).split(File.pathSeparator)) {
+            files.add(new File(path));
+        }
+        cacheAccess.useCache("hash annotation processor path", new Runnable() {
+            public void run() {
+                for (File file : files) {
+                    hash(file, digest);
+                }
+            }
+        });
+        return digest.digest();
+    }
+
+    private void hash(File file, MessageDigest digest) {
+        digest.update(bytes(file.getPath()));
+        if (file.isFile()) {
+            digest.update(fileSnapshotter.snapshot(file).getHash());
+            return;
+        }
+        File[] children = file.listFiles();
+        if (children != null) {
+            Arrays.sort(children);
+            for (File child : children) {
+                hash(child, digest);
+            }
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        try {
+            return value.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.recomp;
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingResult;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Adds the classes affected by annotation processing to the classes to recompile. The files generated from a recompiled type are generated
+ * again, so the generated types and their dependents are recompiled. A generated type can only be generated again by recompiling the
+ * types it was generated from.
+ */
+class AnnotationProcessingChangeProcessor {
+
+    private final AnnotationProcessingResult previousResult;
+    private final ClassDependencyInfo dependencyInfo;
+
+    public AnnotationProcessingChangeProcessor(AnnotationProcessingResult previousResult, ClassDependencyInfo dependencyInfo) {
+        this.previousResult = previousResult;
+        this.dependencyInfo = dependencyInfo;
+    }
+
+    public void processChanges(DefaultRecompilationSpec spec) {
+        if (previousResult == null || spec.classesToCompile.isEmpty()) {
+            return;
+        }
+        for (AnnotationProcessingResult.GeneratedFile generatedFile : previousResult.getGeneratedFiles()) {
+            if (generatedFile.getOriginatingTypes().isEmpty()) {
+                //the file could have been generated from any of the types
+                spec.fullRebuildCause = generatedFile.getFile();
+                return;
+            }
+        }
+
+        Set<String> processed = new LinkedHashSet<String>();
+        while (processed.size() < spec.classesToCompile.size()) {
+            Set<String> classes = new LinkedHashSet<String>(spec.classesToCompile);
+            classes.removeAll(processed);
+            processed.addAll(classes);
+            for (AnnotationProcessingResult.GeneratedFile generatedFile : previousResult.getFilesAffectedBy(classes)) {
+                spec.classesToCompile.addAll(generatedFile.getOriginatingTypes());
+                String typeName = generatedFile.getTypeName();
+                if (typeName != null && spec.classesToCompile.add(typeName)) {
+                    DependentsSet dependents = dependencyInfo.getRelevantDependents(typeName);
+                    if (dependents.isDependencyToAll()) {
+                        spec.fullRebuildCause = generatedFile.getFile();
+                        return;
+                    }
+                    spec.classesToCompile.addAll(dependents.getDependentClasses());
+                }
+            }
+        }
+    }
+}
@@ -18,11 +18,14 @@ package org.gradle.api.internal.tasks.compile.incremental.recomp;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Set;
 
 class DefaultRecompilationSpec implements RecompilationSpec {
 
     final Collection<String> classesToCompile = new LinkedHashSet<String>();
+    final Set<String> changedClasses = new HashSet<String>();
     File fullRebuildCause;
 
     public Collection<String> getClassNames() {
@@ -36,4 +39,14 @@ class DefaultRecompilationSpec implements RecompilationSpec {
     public File getFullRebuildCause() {
         return fullRebuildCause;
     }
+
+    public int getDependentClassCount() {
+        int count = 0;
+        for (String className : classesToCompile) {
+            if (!changedClasses.contains(className)) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
@@ -17,25 +17,36 @@
 package org.gradle.api.internal.tasks.compile.incremental.recomp;
 
 import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarArchive;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarChangeDependentsFinder;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotFeeder;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessorDetector;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 
 class JarChangeProcessor {
 
     private final FileOperations fileOperations;
     private final JarSnapshotFeeder jarSnapshotFeeder;
+    private final ClassDependencyInfo dependencyInfo;
+    private final AnnotationProcessorDetector processorDetector;
 
-    public JarChangeProcessor(FileOperations fileOperations, JarSnapshotFeeder jarSnapshotFeeder) {
+    public JarChangeProcessor(FileOperations fileOperations, JarSnapshotFeeder jarSnapshotFeeder, ClassDependencyInfo dependencyInfo, AnnotationProcessorDetector processorDetector) {
         this.fileOperations = fileOperations;
         this.jarSnapshotFeeder = jarSnapshotFeeder;
+        this.dependencyInfo = dependencyInfo;
+        this.processorDetector = processorDetector;
     }
 
     public void processChange(InputFileDetails input, DefaultRecompilationSpec spec) {
+        if (!input.isRemoved() && processorDetector.declaresProcessors(input.getFile())) {
+            //the annotation processors may have changed, they could generate different files from any type
+            spec.fullRebuildCause = input.getFile();
+            return;
+        }
         JarArchive jarArchive = new JarArchive(input.getFile(), fileOperations.zipTree(input.getFile()));
-        JarChangeDependentsFinder dependentsFinder = new JarChangeDependentsFinder(jarSnapshotFeeder);
+        JarChangeDependentsFinder dependentsFinder = new JarChangeDependentsFinder(jarSnapshotFeeder, dependencyInfo);
         DependentsSet actualDependents = dependentsFinder.getActualDependents(input, jarArchive);
         if (actualDependents.isDependencyToAll()) {
             spec.fullRebuildCause = input.getFile();
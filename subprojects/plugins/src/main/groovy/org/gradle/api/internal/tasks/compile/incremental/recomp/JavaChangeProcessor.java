@@ -21,24 +21,30 @@ import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInf
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 
+import java.io.File;
+
 class JavaChangeProcessor {
 
     private final ClassDependencyInfo dependencyInfo;
     private final SourceToNameConverter sourceToNameConverter;
+    private final File classesDir;
 
-    public JavaChangeProcessor(ClassDependencyInfo dependencyInfo, SourceToNameConverter sourceToNameConverter) {
+    public JavaChangeProcessor(ClassDependencyInfo dependencyInfo, SourceToNameConverter sourceToNameConverter, File classesDir) {
         this.dependencyInfo = dependencyInfo;
         this.sourceToNameConverter = sourceToNameConverter;
+        this.classesDir = classesDir;
     }
 
     public void processChange(InputFileDetails input, DefaultRecompilationSpec spec) {
-        String className = sourceToNameConverter.getClassName(input.getFile());
-        spec.classesToCompile.add(className);
-        DependentsSet actualDependents = dependencyInfo.getRelevantDependents(className);
-        if (actualDependents.isDependencyToAll()) {
-            spec.fullRebuildCause = input.getFile();
-            return;
+        for (String className : sourceToNameConverter.getClassNames(input.getFile(), classesDir)) {
+            spec.classesToCompile.add(className);
+            spec.changedClasses.add(className);
+            DependentsSet actualDependents = dependencyInfo.getRelevantDependents(className);
+            if (actualDependents.isDependencyToAll()) {
+                spec.fullRebuildCause = input.getFile();
+                return;
+            }
+            spec.classesToCompile.addAll(actualDependents.getDependentClasses());
         }
-        spec.classesToCompile.addAll(actualDependents.getDependentClasses());
     }
 }
\ No newline at end of file
@@ -23,4 +23,5 @@ public interface RecompilationSpec {
     Collection<String> getClassNames();
     boolean isFullRebuildNeeded();
     File getFullRebuildCause();
+    int getDependentClassCount();
 }
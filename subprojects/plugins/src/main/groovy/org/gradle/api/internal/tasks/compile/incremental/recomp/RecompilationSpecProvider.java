@@ -19,29 +19,43 @@ package org.gradle.api.internal.tasks.compile.incremental.recomp;
 import org.gradle.api.Action;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.tasks.compile.incremental.SourceToNameConverter;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfoProvider;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotFeeder;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingStore;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessorDetector;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 
+import java.io.File;
+
 public class RecompilationSpecProvider {
 
     private final SourceToNameConverter sourceToNameConverter;
     private final ClassDependencyInfoProvider dependencyInfoProvider;
     private final FileOperations fileOperations;
     private final JarSnapshotFeeder jarSnapshotFeeder;
+    private final AnnotationProcessingStore annotationProcessingStore;
+    private final AnnotationProcessorDetector processorDetector;
 
-    public RecompilationSpecProvider(SourceToNameConverter sourceToNameConverter, ClassDependencyInfoProvider dependencyInfoProvider, FileOperations fileOperations, JarSnapshotFeeder jarSnapshotFeeder) {
+    public RecompilationSpecProvider(SourceToNameConverter sourceToNameConverter, ClassDependencyInfoProvider dependencyInfoProvider, FileOperations fileOperations, JarSnapshotFeeder jarSnapshotFeeder,
+                                     AnnotationProcessingStore annotationProcessingStore, AnnotationProcessorDetector processorDetector) {
         this.sourceToNameConverter = sourceToNameConverter;
         this.dependencyInfoProvider = dependencyInfoProvider;
         this.fileOperations = fileOperations;
         this.jarSnapshotFeeder = jarSnapshotFeeder;
+        this.annotationProcessingStore = annotationProcessingStore;
+        this.processorDetector = processorDetector;
     }
 
-    public RecompilationSpec provideRecompilationSpec(IncrementalTaskInputs inputs) {
+    /**
+     * @param classesDir the directory that holds the classes of the previous compilation
+     */
+    public RecompilationSpec provideRecompilationSpec(IncrementalTaskInputs inputs, File classesDir) {
         //creating an action that will be executed against all changes
-        JavaChangeProcessor javaChangeProcessor = new JavaChangeProcessor(dependencyInfoProvider.provideInfo(), sourceToNameConverter);
-        JarChangeProcessor jarChangeProcessor = new JarChangeProcessor(fileOperations, jarSnapshotFeeder);
+        ClassDependencyInfo dependencyInfo = dependencyInfoProvider.provideInfo();
+        JavaChangeProcessor javaChangeProcessor = new JavaChangeProcessor(dependencyInfo, sourceToNameConverter, classesDir);
+        JarChangeProcessor jarChangeProcessor = new JarChangeProcessor(fileOperations, jarSnapshotFeeder, dependencyInfo, processorDetector);
         InputChangeAction action = new InputChangeAction(javaChangeProcessor, jarChangeProcessor);
 
         //go!
@@ -51,6 +65,9 @@ public class RecompilationSpecProvider {
             return action.spec;
         }
         inputs.removed(action);
+        if (action.spec.fullRebuildCause == null) {
+            new AnnotationProcessingChangeProcessor(annotationProcessingStore.getPreviousResult(), dependencyInfo).processChanges(action.spec);
+        }
         return action.spec;
     }
 
@@ -68,7 +85,7 @@ public class RecompilationSpecProvider {
             if (spec.fullRebuildCause != null) {
                 return;
             }
-            if (input.getFile().getName().endsWith(".java")) {
+            if (input.getFile().getName().endsWith(".java") || input.getFile().getName().endsWith(".groovy")) {
                 javaChangeProcessor.processChange(input, spec);
             }
             if (input.getFile().getName().endsWith(".jar")) {
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.jdk6;
+
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingResult;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingResultSerializer;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+
+/**
+ * Records the files generated by the annotation processors of a compilation, along with the types they were generated from. The processors
+ * are discovered the same way the compiler discovers them, and are handed to the compiler wrapped, so that it is known when a processor runs
+ * and for which types. The processors are initialized with the compiler's own processing environment.
+ * <p>
+ * The files are recorded by the file manager that the compiler's {@link Filer} writes through, see {@link #wrap(JavaFileManager)}. A file
+ * created while a processor runs is taken to be generated from the types that the processor was asked to process in that round, that is,
+ * the top level types of the elements annotated with its annotations, or all root types for a processor of all annotations.
+ */
+class AnnotationProcessingRecorder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnnotationProcessingRecorder.class);
+    private final List<AnnotationProcessingResult.GeneratedFile> generatedFiles = Collections.synchronizedList(new ArrayList<AnnotationProcessingResult.GeneratedFile>());
+    private Set<String> runningProcessorTypes;
+    private ClassLoader processorClassLoader;
+
+    /**
+     * Returns a file manager that records the files created through the given file manager while a processor runs. The compilation
+     * task must be created with this file manager.
+     */
+    public JavaFileManager wrap(JavaFileManager fileManager) {
+        return new RecordingFileManager(fileManager);
+    }
+
+    /**
+     * Sets up the processors of the given compilation task. Returns false if the processors could not be discovered, in which case
+     * the compiler discovers them itself and the generated files cannot be recorded.
+     */
+    public boolean setupProcessors(JavaCompiler compiler, JavaCompiler.CompilationTask task, List<String> options, Iterable<File> classpath) {
+        if (options.contains("-proc:none")) {
+            return true;
+        }
+        List<Processor> processors = new ArrayList<Processor>();
+        try {
+            processorClassLoader = processorClassLoader(compiler, options, classpath);
+            String processorNames = argumentValue(options, "-processor");
+            if (processorNames != null) {
+                for (String processorName : processorNames.split(",")) {
+                    processors.add((Processor) processorClassLoader.loadClass(processorName.trim()).newInstance());
+                }
+            } else {
+                for (Processor processor : ServiceLoader.load(Processor.class, processorClassLoader)) {
+                    processors.add(processor);
+                }
+            }
+        } catch (Throwable e) {
+            LOGGER.debug("Could not discover the annotation processors, leaving it to the compiler.", e);
+            return false;
+        }
+        task.setProcessors(track(processors));
+        return true;
+    }
+
+    /**
+     * Wraps the given processors, so that the files they create are recorded.
+     */
+    List<Processor> track(List<? extends Processor> processors) {
+        List<Processor> trackingProcessors = new ArrayList<Processor>();
+        for (Processor processor : processors) {
+            trackingProcessors.add(new TrackingProcessor(processor));
+        }
+        return trackingProcessors;
+    }
+
+    public void writeResult(File resultFile) {
+        new AnnotationProcessingResultSerializer(resultFile).write(new AnnotationProcessingResult(new ArrayList<AnnotationProcessingResult.GeneratedFile>(generatedFiles)));
+    }
+
+    /**
+     * Releases the class loader of the processors, which holds the jars of the processor path open. Called once the compilation has finished.
+     */
+    public void close() {
+        CompositeStoppable.stoppable(processorClassLoader).stop();
+        processorClassLoader = null;
+    }
+
+    private static ClassLoader processorClassLoader(JavaCompiler compiler, List<String> options, Iterable<File> classpath) throws IOException {
+        List<URL> urls = new ArrayList<URL>();
+        String processorPath = argumentValue(options, "-processorpath");
+        if (processorPath != null) {
+            for (String path : processorPath.split(File.pathSeparator)) {
+                urls.add(new File(path).toURI().toURL());
+            }
+        } else {
+            for (File file : classpath) {
+                urls.add(file.toURI().toURL());
+            }
+        }
+        return new URLClassLoader(urls.toArray(new URL[urls.size()]), compiler.getClass().getClassLoader());
+    }
+
+    private static String argumentValue(List<String> options, String name) {
+        int index = options.indexOf(name);
+        return index >= 0 && index + 1 < options.size() ? options.get(index + 1) : null;
+    }
+
+    /**
+     * Returns the names of the top level types that enclose the given elements.
+     */
+    static Set<String> topLevelTypes(Collection<? extends Element> elements) {
+        Set<String> types = new TreeSet<String>();
+        for (Element element : elements) {
+            while (element.getEnclosingElement() != null && element.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+                element = element.getEnclosingElement();
+            }
+            if (element instanceof TypeElement) {
+                types.add(((TypeElement) element).getQualifiedName().toString());
+            }
+        }
+        return types;
+    }
+
+    private void recordFile(FileObject fileObject, String typeName) {
+        Set<String> originatingTypes = runningProcessorTypes;
+        if (originatingTypes == null || fileObject == null) {
+            // Not created by a processor
+            return;
+        }
+        URI uri = fileObject.toUri();
+        if (!"file".equals(uri.getScheme())) {
+            return;
+        }
+        generatedFiles.add(new AnnotationProcessingResult.GeneratedFile(new File(uri), typeName, originatingTypes));
+    }
+
+    private class TrackingProcessor implements Processor {
+        private final Processor delegate;
+
+        private TrackingProcessor(Processor delegate) {
+            this.delegate = delegate;
+        }
+
+        public Set<String> getSupportedOptions() {
+            return delegate.getSupportedOptions();
+        }
+
+        public Set<String> getSupportedAnnotationTypes() {
+            return delegate.getSupportedAnnotationTypes();
+        }
+
+        public SourceVersion getSupportedSourceVersion() {
+            return delegate.getSupportedSourceVersion();
+        }
+
+        public void init(ProcessingEnvironment processingEnv) {
+            // The files created here cannot be related to any type
+            runningProcessorTypes = Collections.emptySet();
+            try {
+                delegate.init(processingEnv);
+            } finally {
+                runningProcessorTypes = null;
+            }
+        }
+
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            runningProcessorTypes = processedTypes(annotations, roundEnv);
+            try {
+                return delegate.process(annotations, roundEnv);
+            } finally {
+                runningProcessorTypes = null;
+            }
+        }
+
+        private Set<String> processedTypes(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            if (delegate.getSupportedAnnotationTypes().contains("*")) {
+                return topLevelTypes(roundEnv.getRootElements());
+            }
+            Set<Element> elements = new LinkedHashSet<Element>();
+            for (TypeElement annotation : annotations) {
+                elements.addAll(roundEnv.getElementsAnnotatedWith(annotation));
+            }
+            return topLevelTypes(elements);
+        }
+
+        public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation, ExecutableElement member, String userText) {
+            return delegate.getCompletions(element, annotation, member, userText);
+        }
+    }
+
+    private class RecordingFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+        private RecordingFileManager(JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+            JavaFileObject fileObject = super.getJavaFileForOutput(location, className, kind, sibling);
+            recordFile(fileObject, className);
+            return fileObject;
+        }
+
+        @Override
+        public FileObject getFileForOutput(JavaFileManager.Location location, String packageName, String relativeName, FileObject sibling) throws IOException {
+            FileObject fileObject = super.getFileForOutput(location, packageName, relativeName, sibling);
+            recordFile(fileObject, null);
+            return fileObject;
+        }
+    }
+}
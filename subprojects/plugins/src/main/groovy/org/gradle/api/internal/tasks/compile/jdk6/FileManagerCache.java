@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.jdk6;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.os.OperatingSystem;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * Keeps the file managers of the system Java compiler between compilations, so that the jars opened by a file manager do not have
+ * to be opened and indexed again by the next compilation. A file manager is reserved by one compilation at a time, which means that
+ * compilations running concurrently each use their own file manager.
+ * <p>
+ * The length and modification time of the jars in the locations of a compilation are recorded when it finishes. When the file
+ * manager is reserved again and any of these jars has changed or gone, the file manager is closed, which discards all the jars it
+ * has opened. On Windows an open jar cannot be changed or deleted, so there a file manager is closed when its compilation finishes
+ * and only the file manager itself is reused.
+ */
+class FileManagerCache {
+    static final int MAX_IDLE_FILE_MANAGERS = 4;
+    private static final JavaFileManager.Location[] LOCATIONS = new JavaFileManager.Location[]{
+            StandardLocation.CLASS_OUTPUT, StandardLocation.SOURCE_OUTPUT, StandardLocation.CLASS_PATH, StandardLocation.SOURCE_PATH,
+            StandardLocation.ANNOTATION_PROCESSOR_PATH, StandardLocation.PLATFORM_CLASS_PATH
+    };
+    private final LinkedList<CachedFileManager> idle = new LinkedList<CachedFileManager>();
+    private final boolean keepJarsOpen;
+
+    FileManagerCache() {
+        this(!OperatingSystem.current().isWindows());
+    }
+
+    FileManagerCache(boolean keepJarsOpen) {
+        this.keepJarsOpen = keepJarsOpen;
+    }
+
+    public CachedFileManager reserve(JavaCompiler compiler, Charset charset) {
+        CachedFileManager fileManager = takeIdle(charset);
+        if (fileManager == null) {
+            fileManager = new CachedFileManager(compiler.getStandardFileManager(null, null, charset), charset);
+        } else if (fileManager.hasChangedJars()) {
+            fileManager.closeJars();
+        }
+        return fileManager;
+    }
+
+    /**
+     * Clears the locations of the given file manager and keeps it for a later compilation. The least recently used file manager is
+     * closed and discarded when there are too many idle file managers.
+     */
+    public void release(CachedFileManager fileManager) {
+        if (keepJarsOpen) {
+            fileManager.recordJars();
+        } else {
+            fileManager.closeJars();
+        }
+        fileManager.clearLocations();
+        CachedFileManager evicted = null;
+        synchronized (idle) {
+            idle.addFirst(fileManager);
+            if (idle.size() > MAX_IDLE_FILE_MANAGERS) {
+                evicted = idle.removeLast();
+            }
+        }
+        if (evicted != null) {
+            evicted.closeJars();
+        }
+    }
+
+    int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    private CachedFileManager takeIdle(Charset charset) {
+        synchronized (idle) {
+            for (Iterator<CachedFileManager> iterator = idle.iterator(); iterator.hasNext();) {
+                CachedFileManager fileManager = iterator.next();
+                if (charset == null ? fileManager.charset == null : charset.equals(fileManager.charset)) {
+                    iterator.remove();
+                    return fileManager;
+                }
+            }
+            return null;
+        }
+    }
+
+    static class CachedFileManager {
+        private final StandardJavaFileManager fileManager;
+        private final Charset charset;
+        private final Map<File, JarState> jars = new HashMap<File, JarState>();
+
+        CachedFileManager(StandardJavaFileManager fileManager, Charset charset) {
+            this.fileManager = fileManager;
+            this.charset = charset;
+        }
+
+        public StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        void recordJars() {
+            for (JavaFileManager.Location location : LOCATIONS) {
+                Iterable<? extends File> files = fileManager.getLocation(location);
+                if (files == null) {
+                    continue;
+                }
+                for (File file : files) {
+                    //keep the state recorded by the compilation that opened the jar
+                    if (file.isFile() && !jars.containsKey(file)) {
+                        jars.put(file, new JarState(file));
+                    }
+                }
+            }
+        }
+
+        boolean hasChangedJars() {
+            for (Map.Entry<File, JarState> entry : jars.entrySet()) {
+                if (!entry.getValue().equals(new JarState(entry.getKey()))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Closes the jars opened by the file manager. The file manager can still be used afterwards.
+         */
+        void closeJars() {
+            jars.clear();
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        void clearLocations() {
+            try {
+                for (JavaFileManager.Location location : LOCATIONS) {
+                    fileManager.setLocation(location, null);
+                }
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private static class JarState {
+        private final long length;
+        private final long lastModified;
+
+        JarState(File jar) {
+            //a jar that is gone has length and modification time 0
+            this.length = jar.length();
+            this.lastModified = jar.lastModified();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof JarState)) {
+                return false;
+            }
+            JarState other = (JarState) obj;
+            return length == other.length && lastModified == other.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (length ^ lastModified);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.jdk6;
+
+import org.gradle.api.internal.tasks.compile.MeasuredWorkResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.JavaCompiler;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measures the time javac spends in each of its phases, using a {@code com.sun.source.util.TaskListener}. The listener is attached reflectively,
+ * since the compiler API of the JDK is not necessarily visible to Gradle's class loader. The compiler reports a phase for each source file
+ * or class, and may report the phase for several of them at once, so a phase is timed from the first start to the last finish of
+ * overlapping events.
+ */
+class JavacPhaseTimer implements InvocationHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavacPhaseTimer.class);
+    private final Map<String, Integer> running = new HashMap<String, Integer>();
+    private final Map<String, Long> started = new HashMap<String, Long>();
+    private final Map<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
+
+    /**
+     * Attaches a timer to the given task. The timer measures nothing if the task is not a javac task.
+     */
+    public static JavacPhaseTimer attach(JavaCompiler.CompilationTask task) {
+        JavacPhaseTimer timer = new JavacPhaseTimer();
+        try {
+            ClassLoader classLoader = task.getClass().getClassLoader();
+            Class<?> javacTaskType = Class.forName("com.sun.source.util.JavacTask", false, classLoader);
+            Class<?> listenerType = Class.forName("com.sun.source.util.TaskListener", false, classLoader);
+            if (javacTaskType.isInstance(task)) {
+                Object listener = Proxy.newProxyInstance(classLoader, new Class<?>[]{listenerType}, timer);
+                javacTaskType.getMethod("setTaskListener", listenerType).invoke(task, listener);
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not measure the phases of the compiler.", e);
+        }
+        return timer;
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("started")) {
+            started(kind(args[0]));
+        } else if (method.getName().equals("finished")) {
+            finished(kind(args[0]));
+        } else if (method.getName().equals("equals")) {
+            return proxy == args[0];
+        } else if (method.getName().equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        } else if (method.getName().equals("toString")) {
+            return "javac phase timer";
+        }
+        return null;
+    }
+
+    private static String kind(Object event) throws Exception {
+        Object kind = event.getClass().getMethod("getKind").invoke(event);
+        return "javac " + ((Enum<?>) kind).name().toLowerCase().replace('_', ' ');
+    }
+
+    private synchronized void started(String phase) {
+        Integer count = running.get(phase);
+        if (count == null || count == 0) {
+            started.put(phase, System.nanoTime());
+            count = 0;
+        }
+        running.put(phase, count + 1);
+    }
+
+    private synchronized void finished(String phase) {
+        Integer count = running.get(phase);
+        if (count == null || count == 0) {
+            return;
+        }
+        running.put(phase, count - 1);
+        if (count == 1) {
+            MeasuredWorkResult.addPhaseTime(phaseTimes, phase, (System.nanoTime() - started.get(phase)) / 1000000);
+        }
+    }
+
+    public synchronized Map<String, Long> getPhaseTimes() {
+        return new LinkedHashMap<String, Long>(phaseTimes);
+    }
+}
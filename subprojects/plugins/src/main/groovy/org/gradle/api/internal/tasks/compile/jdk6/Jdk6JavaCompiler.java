@@ -15,11 +15,11 @@
  */
 package org.gradle.api.internal.tasks.compile.jdk6;
 
-import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.internal.tasks.compile.CompilationFailedException;
 import org.gradle.api.internal.tasks.compile.Compiler;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.JavaCompilerArgumentsBuilder;
+import org.gradle.api.internal.tasks.compile.MeasuredWorkResult;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.internal.jvm.Jvm;
@@ -27,39 +27,70 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
-import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
 import java.io.File;
 import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.util.List;
 
+/**
+ * Compiles using the system Java compiler. The compiler and its file managers are shared by all compilations that run in
+ * this process, so that the compiler is looked up only once and unchanged jars opened by a compilation can be reused by the next
+ * one. Compilations can run concurrently.
+ * <p>
+ * When the spec asks for it, the files generated by annotation processors are recorded, so that incremental compilation can
+ * work out which of them to generate again. The time spent in each phase of the compiler is measured.
+ */
 public class Jdk6JavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(Jdk6JavaCompiler.class);
+    private static final FileManagerCache FILE_MANAGERS = new FileManagerCache();
+    private static JavaCompiler systemCompiler;
 
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
-        if (!success) {
-            throw new CompilationFailedException();
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        JavaCompiler compiler = getSystemCompiler();
+        CompileOptions compileOptions = spec.getCompileOptions();
+        Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+        FileManagerCache.CachedFileManager fileManager = FILE_MANAGERS.reserve(compiler, charset);
+        AnnotationProcessingRecorder recorder = null;
+        try {
+            Iterable<? extends JavaFileObject> compilationUnits = fileManager.getFileManager().getJavaFileObjectsFromFiles(spec.getSource());
+            JavaFileManager taskFileManager = fileManager.getFileManager();
+            if (spec.getAnnotationProcessingResultFile() != null) {
+                recorder = new AnnotationProcessingRecorder();
+                taskFileManager = recorder.wrap(taskFileManager);
+            }
+            JavaCompiler.CompilationTask task = compiler.getTask(null, taskFileManager, null, options, null, compilationUnits);
+            boolean recordProcessing = recorder != null && recorder.setupProcessors(compiler, task, options, spec.getClasspath());
+            JavacPhaseTimer phaseTimer = JavacPhaseTimer.attach(task);
+            boolean success = task.call();
+            if (!success) {
+                throw new CompilationFailedException();
+            }
+            if (recordProcessing) {
+                recorder.writeResult(spec.getAnnotationProcessingResultFile());
+            }
+            return new MeasuredWorkResult(true, phaseTimer.getPhaseTimes());
+        } finally {
+            if (recorder != null) {
+                recorder.close();
+            }
+            FILE_MANAGERS.release(fileManager);
         }
-
-        return new SimpleWorkResult(true);
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = findCompiler();
-        if(compiler==null){
-            throw new RuntimeException("Cannot find System Java Compiler. Ensure that you have installed a JDK (not just a JRE) and configured your JAVA_HOME system variable to point to the according directory.");
+    private static synchronized JavaCompiler getSystemCompiler() {
+        if (systemCompiler == null) {
+            systemCompiler = findCompiler();
+            if (systemCompiler == null) {
+                throw new RuntimeException("Cannot find System Java Compiler. Ensure that you have installed a JDK (not just a JRE) and configured your JAVA_HOME system variable to point to the according directory.");
+            }
         }
-        CompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
-        Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(spec.getSource());
-        return compiler.getTask(null, null, null, options, null, compilationUnits);
+        return systemCompiler;
     }
 
     private static JavaCompiler findCompiler() {
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.parallel;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
+import org.gradle.api.internal.file.collections.SimpleFileCollection;
+import org.gradle.api.internal.tasks.compile.Compiler;
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.MeasuredWorkResult;
+import org.gradle.api.internal.tasks.compile.incremental.ClassSourceFileReader;
+import org.gradle.api.internal.tasks.compile.incremental.CompilationSourceDirs;
+import org.gradle.api.internal.tasks.compile.incremental.SourceToNameConverter;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfoSerializer;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingResult;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingResultSerializer;
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessorDetector;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.compile.CompileOptions;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.util.Clock;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Compiles large source sets as several javac compilations that run concurrently. The sources are partitioned using the class
+ * dependencies recorded by the previous compilation, and the partitions are compiled in waves, with the classes of the earlier waves
+ * on the classpath. Each compilation of a wave writes to its own staging directory, and the staging directories are moved into the
+ * destination directory once the whole wave has finished, so that no compilation reads a class file that another compilation is
+ * still writing. The source directories are on the source path, so that a compilation can still resolve a class that it depends on
+ * through a dependency that the previous compilation did not record. Such classes are not written by the compilation, which means
+ * each class file is written by exactly one compilation, and the output is the same regardless of the order in which the
+ * compilations finish. The times of the phases of the compilations are added up.
+ * <p>
+ * Falls back to a single compilation when the class dependencies are not available, the source set is small, or annotation processors
+ * may run, since a processor expects to see all the sources of the compilation.
+ */
+public class ParallelJavaCompiler implements Compiler<JavaCompileSpec> {
+    private static final Logger LOGGER = Logging.getLogger(ParallelJavaCompiler.class);
+    static final int MIN_SOURCES_PER_COMPILATION = 250;
+
+    private final Compiler<JavaCompileSpec> delegate;
+    private final CompilationSourceDirs sourceDirs;
+    private final ClassDependencyInfoSerializer dependencyInfoSerializer;
+    private final ExecutorFactory executorFactory;
+    private final int maxConcurrentCompilations;
+    private final File stagingDir;
+    private final AnnotationProcessorDetector processorDetector = new AnnotationProcessorDetector();
+
+    public ParallelJavaCompiler(Compiler<JavaCompileSpec> delegate, CompilationSourceDirs sourceDirs, ClassDependencyInfoSerializer dependencyInfoSerializer,
+                                ExecutorFactory executorFactory, int maxConcurrentCompilations, File stagingDir) {
+        this.delegate = delegate;
+        this.sourceDirs = sourceDirs;
+        this.dependencyInfoSerializer = dependencyInfoSerializer;
+        this.executorFactory = executorFactory;
+        this.maxConcurrentCompilations = maxConcurrentCompilations;
+        this.stagingDir = stagingDir;
+    }
+
+    public WorkResult execute(JavaCompileSpec spec) {
+        Set<File> sources = spec.getSource().getFiles();
+        if (maxConcurrentCompilations < 2 || sources.size() < 2 * MIN_SOURCES_PER_COMPILATION) {
+            return delegate.execute(spec);
+        }
+        if (!sourceDirs.areSourceDirsKnown() || !dependencyInfoSerializer.isInfoAvailable()) {
+            LOGGER.info("Compiling the sources in a single compilation, no class dependency data is available from a previous compilation.");
+            return delegate.execute(spec);
+        }
+        if (spec.getCompileOptions().isUseAnt()) {
+            // The Ant javac task cannot run concurrently
+            return delegate.execute(spec);
+        }
+        List<String> compilerArgs = spec.getCompileOptions().getCompilerArgs();
+        for (String arg : compilerArgs) {
+            if (arg.equals("-sourcepath") || arg.startsWith("-implicit:")) {
+                LOGGER.info("Compiling the sources in a single compilation, the compiler arguments specify {}.", arg);
+                return delegate.execute(spec);
+            }
+        }
+        if (processorDetector.hasProcessors(spec.getClasspath(), compilerArgs)) {
+            LOGGER.info("Compiling the sources in a single compilation, annotation processors may run.");
+            return delegate.execute(spec);
+        }
+
+        Clock clock = new Clock();
+        SourceToNameConverter nameConverter = new SourceToNameConverter(sourceDirs, new ClassSourceFileReader());
+        SortedMap<File, String> classNames = new TreeMap<File, String>();
+        for (File source : sources) {
+            classNames.put(source, nameConverter.getClassName(source));
+        }
+        List<List<List<File>>> waves = new SourcePartitioner(maxConcurrentCompilations, MIN_SOURCES_PER_COMPILATION)
+                .partition(classNames, dependencyInfoSerializer.provideInfo());
+        LOGGER.info("Partitioned {} sources into {} waves of compilations in {}.", sources.size(), waves.size(), clock.getTime());
+
+        CompileOptions options = compileOptions(spec, compilerArgs);
+        Map<String, Long> phaseTimes = new LinkedHashMap<String, Long>();
+        StoppableExecutor executor = executorFactory.create("Java compiler");
+        try {
+            for (List<List<File>> wave : waves) {
+                compileWave(spec, options, wave, executor, phaseTimes);
+            }
+        } finally {
+            executor.stop();
+            GFileUtils.deleteDirectory(stagingDir);
+        }
+        if (spec.getAnnotationProcessingResultFile() != null) {
+            // No processor has run
+            new AnnotationProcessingResultSerializer(spec.getAnnotationProcessingResultFile()).write(new AnnotationProcessingResult(new ArrayList<AnnotationProcessingResult.GeneratedFile>()));
+        }
+        return new MeasuredWorkResult(true, phaseTimes);
+    }
+
+    private CompileOptions compileOptions(JavaCompileSpec spec, List<String> compilerArgs) {
+        CompileOptions options = copy(spec.getCompileOptions());
+        List<String> args = new ArrayList<String>(compilerArgs);
+        args.add("-sourcepath");
+        args.add(Joiner.on(File.pathSeparator).join(sourceDirs.getSourceDirs()));
+        args.add("-implicit:none");
+        options.setCompilerArgs(args);
+        return options;
+    }
+
+    private void compileWave(JavaCompileSpec spec, CompileOptions options, List<List<File>> wave, StoppableExecutor executor, Map<String, Long> phaseTimes) {
+        List<FutureTask<WorkResult>> compilations = new ArrayList<FutureTask<WorkResult>>();
+        List<File> compilationDirs = new ArrayList<File>();
+        for (List<File> sources : wave) {
+            File compilationDir = new File(stagingDir, String.valueOf(compilationDirs.size()));
+            GFileUtils.deleteDirectory(compilationDir);
+            GFileUtils.mkdirs(compilationDir);
+            compilationDirs.add(compilationDir);
+            final DefaultJavaCompileSpec compilationSpec = new DefaultJavaCompileSpec();
+            compilationSpec.setSource(new SimpleFileCollection(sources));
+            compilationSpec.setDestinationDir(compilationDir);
+            compilationSpec.setClasspath(Iterables.concat(asList(spec.getDestinationDir()), spec.getClasspath()));
+            compilationSpec.setDependencyCacheDir(spec.getDependencyCacheDir());
+            compilationSpec.setSourceCompatibility(spec.getSourceCompatibility());
+            compilationSpec.setTargetCompatibility(spec.getTargetCompatibility());
+            compilationSpec.setCompileOptions(options);
+            FutureTask<WorkResult> compilation = new FutureTask<WorkResult>(new Callable<WorkResult>() {
+                public WorkResult call() {
+                    return delegate.execute(compilationSpec);
+                }
+            });
+            executor.execute(compilation);
+            compilations.add(compilation);
+        }
+
+        Throwable failure = null;
+        for (FutureTask<WorkResult> compilation : compilations) {
+            try {
+                for (Map.Entry<String, Long> phase : MeasuredWorkResult.phaseTimesOf(compilation.get()).entrySet()) {
+                    MeasuredWorkResult.addPhaseTime(phaseTimes, phase.getKey(), phase.getValue());
+                }
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        if (failure != null) {
+            throw UncheckedException.throwAsUncheckedException(failure);
+        }
+        for (File compilationDir : compilationDirs) {
+            moveClasses(compilationDir, spec.getDestinationDir());
+        }
+    }
+
+    private static void moveClasses(File fromDir, File toDir) {
+        File[] files = fromDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            File target = new File(toDir, file.getName());
+            if (file.isDirectory()) {
+                moveClasses(file, target);
+            } else {
+                if (target.exists()) {
+                    GFileUtils.forceDelete(target);
+                }
+                GFileUtils.moveFile(file, target);
+            }
+        }
+    }
+
+    /**
+     * Copies the options, so that the compiler arguments can be changed without changing the options of the task. The nested options are
+     * shared, as they are not changed.
+     */
+    private static CompileOptions copy(CompileOptions options) {
+        CompileOptions copy = new CompileOptions();
+        copy.setFailOnError(options.isFailOnError());
+        copy.setVerbose(options.isVerbose());
+        copy.setListFiles(options.isListFiles());
+        copy.setDeprecation(options.isDeprecation());
+        copy.setWarnings(options.isWarnings());
+        copy.setEncoding(options.getEncoding());
+        copy.setOptimize(options.isOptimize());
+        copy.setDebug(options.isDebug());
+        copy.setDebugOptions(options.getDebugOptions());
+        copy.setFork(options.isFork());
+        copy.setForkOptions(options.getForkOptions());
+        copy.setUseDepend(options.isUseDepend());
+        copy.setDependOptions(options.getDependOptions());
+        copy.setCompiler(options.getCompiler());
+        copy.setIncludeJavaRuntime(options.isIncludeJavaRuntime());
+        copy.setBootClasspath(options.getBootClasspath());
+        copy.setExtensionDirs(options.getExtensionDirs());
+        copy.setCompilerArgs(new ArrayList<String>(options.getCompilerArgs()));
+        copy.setUseAnt(options.isUseAnt());
+        copy.setIncremental(options.isIncremental());
+        copy.setParallel(options.isParallel());
+        return copy;
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.parallel;
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Splits the sources of a compilation into waves of independent compilations, using the class dependencies of the previous compilation.
+ * Sources that depend on each other, directly or through a cycle, are kept in the same compilation. Consecutive levels of dependencies
+ * are merged into one wave when they are too small to be worth compiling separately. A source and the sources of the same wave that
+ * it depends on are then compiled by the same compilation, so that the compilations of a wave never depend on each other.
+ */
+class SourcePartitioner {
+    private final int maxCompilationsPerWave;
+    private final int minSourcesPerCompilation;
+
+    SourcePartitioner(int maxCompilationsPerWave, int minSourcesPerCompilation) {
+        this.maxCompilationsPerWave = maxCompilationsPerWave;
+        this.minSourcesPerCompilation = minSourcesPerCompilation;
+    }
+
+    /**
+     * Returns the waves of compilations, in the order in which they must run. Each compilation is a sorted list of sources.
+     *
+     * @param classNames the name of the top level class of each source
+     */
+    List<List<List<File>>> partition(SortedMap<File, String> classNames, ClassDependencyInfo info) {
+        List<File> sources = new ArrayList<File>(classNames.keySet());
+        Map<String, Integer> sourceIndexes = new HashMap<String, Integer>();
+        for (int i = 0; i < sources.size(); i++) {
+            sourceIndexes.put(classNames.get(sources.get(i)), i);
+        }
+        List<Set<Integer>> dependencies = new ArrayList<Set<Integer>>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            dependencies.add(new TreeSet<Integer>());
+        }
+        for (Map.Entry<String, Set<String>> entry : info.getDirectDependents().entrySet()) {
+            Integer dependency = sourceIndexes.get(topLevelClass(entry.getKey()));
+            if (dependency == null) {
+                continue;
+            }
+            for (String dependentClass : entry.getValue()) {
+                Integer dependent = sourceIndexes.get(topLevelClass(dependentClass));
+                if (dependent != null && !dependent.equals(dependency)) {
+                    dependencies.get(dependent).add(dependency);
+                }
+            }
+        }
+
+        List<List<Integer>> components = new StronglyConnectedComponents(dependencies).find();
+        int[] componentOfSource = new int[sources.size()];
+        for (int c = 0; c < components.size(); c++) {
+            for (Integer source : components.get(c)) {
+                componentOfSource[source] = c;
+            }
+        }
+        List<List<Integer>> levels = levels(components, dependencies, componentOfSource);
+
+        List<List<Integer>> waves = new ArrayList<List<Integer>>();
+        List<Integer> wave = new ArrayList<Integer>();
+        int waveSize = 0;
+        int minWaveSize = minSourcesPerCompilation * maxCompilationsPerWave;
+        for (List<Integer> level : levels) {
+            wave.addAll(level);
+            waveSize += size(level, components);
+            if (waveSize >= minWaveSize) {
+                waves.add(wave);
+                wave = new ArrayList<Integer>();
+                waveSize = 0;
+            }
+        }
+        if (!wave.isEmpty()) {
+            if (!waves.isEmpty() && waveSize < minSourcesPerCompilation) {
+                // Too small to compile on its own, so compile it along with the previous wave
+                waves.get(waves.size() - 1).addAll(wave);
+            } else {
+                waves.add(wave);
+            }
+        }
+
+        List<List<List<File>>> result = new ArrayList<List<List<File>>>(waves.size());
+        for (List<Integer> componentsOfWave : waves) {
+            result.add(split(clusters(componentsOfWave, components, dependencies, componentOfSource), sources));
+        }
+        return result;
+    }
+
+    private static String topLevelClass(String className) {
+        int index = className.indexOf('$');
+        return index < 0 ? className : className.substring(0, index);
+    }
+
+    /**
+     * Groups the components by the length of their longest chain of dependencies. The components are given in dependency order.
+     * Each level is a list of component indexes.
+     */
+    private static List<List<Integer>> levels(List<List<Integer>> components, List<Set<Integer>> dependencies, int[] componentOfSource) {
+        int[] componentLevels = new int[components.size()];
+        List<List<Integer>> levels = new ArrayList<List<Integer>>();
+        for (int c = 0; c < components.size(); c++) {
+            int level = 0;
+            for (Integer source : components.get(c)) {
+                for (Integer dependency : dependencies.get(source)) {
+                    int dependencyComponent = componentOfSource[dependency];
+                    if (dependencyComponent != c) {
+                        level = Math.max(level, componentLevels[dependencyComponent] + 1);
+                    }
+                }
+            }
+            componentLevels[c] = level;
+            if (level == levels.size()) {
+                levels.add(new ArrayList<Integer>());
+            }
+            levels.get(level).add(c);
+        }
+        return levels;
+    }
+
+    /**
+     * Groups the components of a wave into clusters that do not depend on each other. Components of the wave that depend on each other,
+     * which happens when levels have been merged, end up in the same cluster. Returns the sources of each cluster.
+     */
+    private static Collection<List<Integer>> clusters(List<Integer> wave, List<List<Integer>> components, List<Set<Integer>> dependencies, int[] componentOfSource) {
+        Map<Integer, Integer> parents = new HashMap<Integer, Integer>();
+        for (Integer component : wave) {
+            parents.put(component, component);
+        }
+        for (Integer component : wave) {
+            for (Integer source : components.get(component)) {
+                for (Integer dependency : dependencies.get(source)) {
+                    Integer dependencyComponent = componentOfSource[dependency];
+                    if (parents.containsKey(dependencyComponent)) {
+                        parents.put(root(parents, component), root(parents, dependencyComponent));
+                    }
+                }
+            }
+        }
+        Map<Integer, List<Integer>> clusters = new LinkedHashMap<Integer, List<Integer>>();
+        for (Integer component : wave) {
+            Integer root = root(parents, component);
+            List<Integer> cluster = clusters.get(root);
+            if (cluster == null) {
+                cluster = new ArrayList<Integer>();
+                clusters.put(root, cluster);
+            }
+            cluster.addAll(components.get(component));
+        }
+        for (List<Integer> cluster : clusters.values()) {
+            Collections.sort(cluster);
+        }
+        return clusters.values();
+    }
+
+    private static Integer root(Map<Integer, Integer> parents, Integer component) {
+        Integer root = component;
+        while (!parents.get(root).equals(root)) {
+            root = parents.get(root);
+        }
+        // Point the path straight to the root, so that later lookups are short
+        Integer current = component;
+        while (!current.equals(root)) {
+            Integer next = parents.get(current);
+            parents.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
+    private static int size(List<Integer> componentsOfLevel, List<List<Integer>> components) {
+        int size = 0;
+        for (Integer component : componentsOfLevel) {
+            size += components.get(component).size();
+        }
+        return size;
+    }
+
+    /**
+     * Splits the clusters of a wave into compilations of similar sizes. The largest clusters are placed first, each into the smallest compilation.
+     */
+    private List<List<File>> split(Collection<List<Integer>> clusters, List<File> sources) {
+        int waveSize = 0;
+        for (List<Integer> cluster : clusters) {
+            waveSize += cluster.size();
+        }
+        int compilationCount = Math.max(1, Math.min(Math.min(maxCompilationsPerWave, clusters.size()), waveSize / minSourcesPerCompilation));
+        List<List<Integer>> sortedClusters = new ArrayList<List<Integer>>(clusters);
+        Collections.sort(sortedClusters, new Comparator<List<Integer>>() {
+            public int compare(List<Integer> o1, List<Integer> o2) {
+                if (o1.size() != o2.size()) {
+                    return o2.size() - o1.size();
+                }
+                return o1.get(0).compareTo(o2.get(0));
+            }
+        });
+        List<List<File>> compilations = new ArrayList<List<File>>(compilationCount);
+        for (int i = 0; i < compilationCount; i++) {
+            compilations.add(new ArrayList<File>());
+        }
+        for (List<Integer> cluster : sortedClusters) {
+            List<File> smallest = compilations.get(0);
+            for (List<File> compilation : compilations) {
+                if (compilation.size() < smallest.size()) {
+                    smallest = compilation;
+                }
+            }
+            smallest.addAll(files(cluster, sources));
+        }
+        for (List<File> compilation : compilations) {
+            Collections.sort(compilation);
+        }
+        return compilations;
+    }
+
+    private static List<File> files(List<Integer> component, List<File> sources) {
+        List<File> files = new ArrayList<File>(component.size());
+        for (Integer source : component) {
+            files.add(sources.get(source));
+        }
+        return files;
+    }
+
+    /**
+     * Tarjan's algorithm, without recursion so that long chains of dependencies do not overflow the stack. The components are returned
+     * in dependency order, that is, each component comes after the components it depends on. The sources of a component are sorted.
+     */
+    private static class StronglyConnectedComponents {
+        private final List<Set<Integer>> dependencies;
+        private final int[] index;
+        private final int[] lowLink;
+        private final BitSet onStack;
+        private final LinkedList<Integer> stack = new LinkedList<Integer>();
+        private final List<List<Integer>> components = new ArrayList<List<Integer>>();
+        private int nextIndex = 1;
+
+        StronglyConnectedComponents(List<Set<Integer>> dependencies) {
+            this.dependencies = dependencies;
+            this.index = new int[dependencies.size()];
+            this.lowLink = new int[dependencies.size()];
+            this.onStack = new BitSet(dependencies.size());
+        }
+
+        List<List<Integer>> find() {
+            for (int i = 0; i < dependencies.size(); i++) {
+                if (index[i] == 0) {
+                    visit(i);
+                }
+            }
+            return components;
+        }
+
+        private void visit(int root) {
+            LinkedList<Integer> path = new LinkedList<Integer>();
+            LinkedList<Iterator<Integer>> pending = new LinkedList<Iterator<Integer>>();
+            enter(root);
+            path.addFirst(root);
+            pending.addFirst(dependencies.get(root).iterator());
+            while (!path.isEmpty()) {
+                int node = path.getFirst();
+                Iterator<Integer> iterator = pending.getFirst();
+                if (iterator.hasNext()) {
+                    int dependency = iterator.next();
+                    if (index[dependency] == 0) {
+                        enter(dependency);
+                        path.addFirst(dependency);
+                        pending.addFirst(dependencies.get(dependency).iterator());
+                    } else if (onStack.get(dependency)) {
+                        lowLink[node] = Math.min(lowLink[node], index[dependency]);
+                    }
+                    continue;
+                }
+                path.removeFirst();
+                pending.removeFirst();
+                if (!path.isEmpty()) {
+                    int parent = path.getFirst();
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+                if (lowLink[node] == index[node]) {
+                    List<Integer> component = new ArrayList<Integer>();
+                    int member;
+                    do {
+                        member = stack.removeFirst();
+                        onStack.clear(member);
+                        component.add(member);
+                    } while (member != node);
+                    Collections.sort(component);
+                    components.add(component);
+                }
+            }
+        }
+
+        private void enter(int node) {
+            index[node] = nextIndex;
+            lowLink[node] = nextIndex;
+            nextIndex++;
+            stack.addFirst(node);
+            onStack.set(node);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing;
+
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sequence of test events, which is sent from a test worker to the build as a single message. Records the events
+ * it receives as a {@link TestResultProcessor}, and replays them in the same order.
+ */
+public class TestEventBatch implements TestResultProcessor {
+    private final List<Event> events = new ArrayList<Event>();
+
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        events.add(new StartedEvent(test, event));
+    }
+
+    public void completed(Object testId, TestCompleteEvent event) {
+        events.add(new CompletedEvent(testId, event));
+    }
+
+    public void output(Object testId, TestOutputEvent event) {
+        events.add(new OutputEvent(testId, event));
+    }
+
+    public void failure(Object testId, Throwable result) {
+        events.add(new FailureEvent(testId, result));
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    /**
+     * Replays the events of this batch to the given processor, in the order they were received.
+     */
+    public void replay(TestResultProcessor processor) {
+        for (Event event : events) {
+            event.replay(processor);
+        }
+    }
+
+    private interface Event {
+        void replay(TestResultProcessor processor);
+    }
+
+    private static class StartedEvent implements Event {
+        private final TestDescriptorInternal test;
+        private final TestStartEvent event;
+
+        private StartedEvent(TestDescriptorInternal test, TestStartEvent event) {
+            this.test = test;
+            this.event = event;
+        }
+
+        public void replay(TestResultProcessor processor) {
+            processor.started(test, event);
+        }
+    }
+
+    private static class CompletedEvent implements Event {
+        private final Object testId;
+        private final TestCompleteEvent event;
+
+        private CompletedEvent(Object testId, TestCompleteEvent event) {
+            this.testId = testId;
+            this.event = event;
+        }
+
+        public void replay(TestResultProcessor processor) {
+            processor.completed(testId, event);
+        }
+    }
+
+    private static class OutputEvent implements Event {
+        private final Object testId;
+        private final TestOutputEvent event;
+
+        private OutputEvent(Object testId, TestOutputEvent event) {
+            this.testId = testId;
+            this.event = event;
+        }
+
+        public void replay(TestResultProcessor processor) {
+            processor.output(testId, event);
+        }
+    }
+
+    private static class FailureEvent implements Event {
+        private final Object testId;
+        private final Throwable result;
+
+        private FailureEvent(Object testId, Throwable result) {
+            this.testId = testId;
+            this.result = result;
+        }
+
+        public void replay(TestResultProcessor processor) {
+            processor.failure(testId, result);
+        }
+    }
+}
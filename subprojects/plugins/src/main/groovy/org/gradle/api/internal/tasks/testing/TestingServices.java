@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing;
+
+import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache;
+import org.gradle.api.internal.changedetection.state.NoOpDecorator;
+import org.gradle.api.internal.tasks.testing.detection.TestClassDetectionCache;
+import org.gradle.cache.CacheRepository;
+import org.gradle.internal.environment.GradleBuildEnvironment;
+import org.gradle.internal.service.ServiceRegistration;
+import org.gradle.internal.service.scopes.PluginServiceRegistry;
+
+public class TestingServices implements PluginServiceRegistry {
+    public void registerGlobalServices(ServiceRegistration registration) {
+    }
+
+    public void registerBuildServices(ServiceRegistration registration) {
+        registration.addProvider(new BuildScopeTestingServices());
+    }
+
+    public void registerProjectServices(ServiceRegistration registration) {
+    }
+
+    private static class BuildScopeTestingServices {
+        TestClassDetectionCache createTestClassDetectionCache(CacheRepository cacheRepository, InMemoryTaskArtifactCache inMemoryTaskArtifactCache, GradleBuildEnvironment environment) {
+            if (environment.isLongLivingProcess()) {
+                return new TestClassDetectionCache(cacheRepository, inMemoryTaskArtifactCache);
+            }
+            return new TestClassDetectionCache(cacheRepository, new NoOpDecorator());
+        }
+    }
+}
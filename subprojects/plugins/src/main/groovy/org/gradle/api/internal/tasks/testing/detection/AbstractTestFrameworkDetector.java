@@ -20,8 +20,11 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.GradleException;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashValue;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
 
@@ -37,45 +40,59 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final Map<String, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
     private final List<String> knownTestCaseClassNames;
 
     private File testClassesDirectory;
     private FileCollection testClasspath;
+    private TestClassDetectionCache detectionCache;
+    private FileSnapshotter fileSnapshotter;
 
     protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new HashMap<String, Boolean>();
         this.knownTestCaseClassNames = new ArrayList<String>();
         addKnownTestCaseClassNames(TEST_CASE, GROOVY_TEST_CASE);
     }
 
     protected abstract T createClassVisitor();
 
-    protected File getSuperTestClassFile(String superClassName) {
+    /**
+     * Returns the detection result for the given super class, or null when the class cannot be found in the test class directories or jars.
+     */
+    protected DetectedClass getSuperTestClass(String superClassName) {
         prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
             throw new IllegalArgumentException("superClassName is empty!");
         }
 
-        final Iterator<File> testClassDirectoriesIt = testClassDirectories.iterator();
-
-        File superTestClassFile = null;
-        while (superTestClassFile == null && testClassDirectoriesIt.hasNext()) {
-            final File testClassDirectory = testClassDirectoriesIt.next();
-            final File superTestClassFileCandidate = new File(testClassDirectory, superClassName + ".class");
-            if (superTestClassFileCandidate.exists()) {
-                superTestClassFile = superTestClassFileCandidate;
+        for (File testClassDirectory : testClassDirectories) {
+            final File superTestClassFile = new File(testClassDirectory, superClassName + ".class");
+            if (superTestClassFile.exists()) {
+                return detectClass(superTestClassFile);
             }
         }
 
-        if (superTestClassFile != null) {
-            return superTestClassFile;
-        } else { // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+        // super test class file not in test class directories
+        if (detectionCache != null) {
+            for (File jar : classFileExtractionManager.getLibraryJars(superClassName)) {
+                DetectedClass detectedClass = detectionCache.getJarClassDetails(getDetectorName(), hash(jar), superClassName);
+                if (detectedClass != null) {
+                    return detectedClass;
+                }
+            }
+        }
+        File superTestClassFile = classFileExtractionManager.getLibraryClassFile(superClassName);
+        if (superTestClassFile == null) {
+            return null;
         }
+        DetectedClass detectedClass = readClass(superTestClassFile);
+        if (detectionCache != null) {
+            detectionCache.putJarClassDetails(getDetectorName(), hash(classFileExtractionManager.getLibraryJar(superClassName)), detectedClass);
+        }
+        return detectedClass;
     }
 
     private void prepareClasspath() {
@@ -93,12 +110,31 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
                 if (file.isDirectory()) {
                     testClassDirectories.add(file);
                 } else if (file.isFile() && file.getName().endsWith(".jar")) {
-                    classFileExtractionManager.addLibraryJar(file);
+                    addLibraryJar(file);
                 }
             }
         }
     }
 
+    private void addLibraryJar(final File jar) {
+        if (detectionCache == null) {
+            classFileExtractionManager.addLibraryJar(jar);
+            return;
+        }
+        List<String> packages = detectionCache.getJarPackages(hash(jar), new Factory<List<String>>() {
+            public List<String> create() {
+                final List<String> packages = new ArrayList<String>();
+                new JarFilePackageLister().listJarPackages(jar, new JarFilePackageListener() {
+                    public void receivePackage(String packageName) {
+                        packages.add(packageName);
+                    }
+                });
+                return packages;
+            }
+        });
+        classFileExtractionManager.addLibraryJar(jar, packages);
+    }
+
     public void setTestClassesDirectory(File testClassesDirectory) {
         this.testClassesDirectory = testClassesDirectory;
     }
@@ -107,6 +143,35 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
+    public void setDetectionCache(TestClassDetectionCache detectionCache, FileSnapshotter fileSnapshotter) {
+        this.detectionCache = detectionCache;
+        this.fileSnapshotter = fileSnapshotter;
+    }
+
+    private String getDetectorName() {
+        return getClass().getSimpleName();
+    }
+
+    private HashValue hash(File file) {
+        return new HashValue(fileSnapshotter.snapshot(file).getHash());
+    }
+
+    private DetectedClass detectClass(final File testClassFile) {
+        if (detectionCache == null) {
+            return readClass(testClassFile);
+        }
+        return detectionCache.getClassFileDetails(getDetectorName(), hash(testClassFile), new Factory<DetectedClass>() {
+            public DetectedClass create() {
+                return readClass(testClassFile);
+            }
+        });
+    }
+
+    private DetectedClass readClass(File testClassFile) {
+        TestClassVisitor classVisitor = classVisitor(testClassFile);
+        return new DetectedClass(classVisitor.getClassName(), classVisitor.getSuperClassName(), classVisitor.isAbstract(), classVisitor.isTest());
+    }
+
     protected TestClassVisitor classVisitor(final File testClassFile) {
         final TestClassVisitor classVisitor = createClassVisitor();
 
@@ -125,20 +190,20 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     }
 
     public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
+        return processTestClass(detectClass(testClassFile), false);
     }
 
-    protected abstract boolean processTestClass(File testClassFile, boolean superClass);
+    protected abstract boolean processTestClass(DetectedClass testClass, boolean superClass);
 
-    protected boolean processSuperClass(File testClassFile) {
+    protected boolean processSuperClass(DetectedClass superClass) {
         boolean isTest = false;
 
-        Boolean isSuperTest = superClasses.get(testClassFile);
+        Boolean isSuperTest = superClasses.get(superClass.getClassName());
 
         if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
+            isTest = processTestClass(superClass, true);
 
-            superClasses.put(testClassFile, isTest);
+            superClasses.put(superClass.getClassName(), isTest);
         } else {
             isTest = isSuperTest;
         }
@@ -150,9 +215,9 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
      * In none super class mode a test class is published when the class is a test and it is not abstract. In super class mode it must not publish the class otherwise it will get published multiple
      * times (for each extending class).
      */
-    protected void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
-        if (isTest && !classVisitor.isAbstract() && !superClass) {
-            String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
+    protected void publishTestClass(boolean isTest, DetectedClass testClass, boolean superClass) {
+        if (isTest && !testClass.isAbstract() && !superClass) {
+            String className = Type.getObjectType(testClass.getClassName()).getClassName();
             testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
         }
     }
@@ -35,6 +35,7 @@ public class ClassFileExtractionManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(ClassFileExtractionManager.class);
     private final Map<String, Set<File>> packageJarFilesMappings;
     private final Map<String, File> extractedJarClasses;
+    private final Map<String, File> extractedJarClassSources;
     private final Set<String> unextractableClasses;
     private final TemporaryFileProvider tempDirProvider;
 
@@ -43,6 +44,7 @@ public class ClassFileExtractionManager {
         tempDirProvider = new DefaultTemporaryFileProvider(tempDirFactory);
         packageJarFilesMappings = new HashMap<String, Set<File>>();
         extractedJarClasses = new HashMap<String, File>();
+        extractedJarClassSources = new HashMap<String, File>();
         unextractableClasses = new TreeSet<String>();
     }
 
@@ -54,17 +56,54 @@ public class ClassFileExtractionManager {
     public void addLibraryJar(final File libraryJar) {
         new JarFilePackageLister().listJarPackages(libraryJar, new JarFilePackageListener() {
             public void receivePackage(String packageName) {
-                Set<File> jarFiles = packageJarFilesMappings.get(packageName);
-                if (jarFiles == null) {
-                    jarFiles = new TreeSet<File>();
-                }
-                jarFiles.add(libraryJar);
-
-                packageJarFilesMappings.put(packageName, jarFiles);
+                addPackage(packageName, libraryJar);
             }
         });
     }
 
+    /**
+     * Add the given packages of the jar file to the package <> jar(s) index.
+     *
+     * @param libraryJar Jar file to add to the index.
+     * @param packageNames The packages found in the jar file.
+     */
+    public void addLibraryJar(File libraryJar, Iterable<String> packageNames) {
+        for (String packageName : packageNames) {
+            addPackage(packageName, libraryJar);
+        }
+    }
+
+    private void addPackage(String packageName, File libraryJar) {
+        Set<File> jarFiles = packageJarFilesMappings.get(packageName);
+        if (jarFiles == null) {
+            jarFiles = new TreeSet<File>();
+        }
+        jarFiles.add(libraryJar);
+
+        packageJarFilesMappings.put(packageName, jarFiles);
+    }
+
+    /**
+     * Retrieve the jar files that contain the package of the given class, in the order they are searched for the class file.
+     *
+     * @param className Name of the class.
+     * @return The jar files that may contain the class file.
+     */
+    public Set<File> getLibraryJars(String className) {
+        Set<File> jarFiles = packageJarFilesMappings.get(classNamePackage(className));
+        return jarFiles == null ? Collections.<File>emptySet() : jarFiles;
+    }
+
+    /**
+     * Retrieve the jar file that the given class file was extracted from.
+     *
+     * @param className Name of the extracted class.
+     * @return The jar file, or null if the class has not been extracted.
+     */
+    public File getLibraryJar(String className) {
+        return extractedJarClassSources.get(className);
+    }
+
     /**
      * Retrieve the file that contains the extracted class file. <p/> This method will extract the class file if it is
      * not extracted yet. Extracted class files are deleted on exit of the Gradle process. The same class is only
@@ -118,6 +157,7 @@ public class ClassFileExtractionManager {
                 LOGGER.debug("extracted class {} from {}", className, classFileSourceJar.getName());
 
                 extractedJarClasses.put(className, extractedClassFile);
+                extractedJarClassSources.put(className, classFileSourceJar);
             }
         } // super class not on the classpath - unable to scan parent class
 
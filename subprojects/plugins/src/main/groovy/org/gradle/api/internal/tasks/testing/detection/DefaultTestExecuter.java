@@ -17,39 +17,57 @@
 package org.gradle.api.internal.tasks.testing.detection;
 
 import org.gradle.api.file.FileTree;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.processors.FilteringTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.Factory;
 import org.gradle.internal.TrueTimeProvider;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * The default test class scanner factory.
  */
 public class DefaultTestExecuter implements TestExecuter {
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final ActorFactory actorFactor;
+    private final TestClassDetectionCache detectionCache;
+    private final TaskArtifactStateCacheAccess cacheAccess;
+    private final FileSnapshotter fileSnapshotter;
 
-    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor) {
+    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor, TestClassDetectionCache detectionCache,
+                               TaskArtifactStateCacheAccess cacheAccess, FileSnapshotter fileSnapshotter) {
         this.workerFactory = workerFactory;
         this.actorFactor = actorFactor;
+        this.detectionCache = detectionCache;
+        this.cacheAccess = cacheAccess;
+        this.fileSnapshotter = fileSnapshotter;
     }
 
-    public void execute(final Test testTask, TestResultProcessor testResultProcessor) {
+    public void execute(final Test testTask, TestResultProcessor testResultProcessor, Spec<? super String> testClassSpec, Map<String, Long> previousDurations,
+                        List<String> prioritizedClasses) {
         final TestFramework testFramework = testTask.getTestFramework();
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
+        // A process restarted every N test classes is not reused
+        final boolean reuseProcesses = testTask.isReuseForkedProcesses() && testTask.getForkEvery() == 0;
+        final int maxParallelClasses = testTask.getMaxParallelClassesPerFork();
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
                 return new ForkingTestClassProcessor(workerFactory, testInstanceFactory, testTask,
-                        testTask.getClasspath(), testFramework.getWorkerConfigurationAction());
+                        testTask.getClasspath(), testFramework.getWorkerConfigurationAction(), reuseProcesses, maxParallelClasses);
             }
         };
         Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
@@ -59,7 +77,8 @@ public class DefaultTestExecuter implements TestExecuter {
         };
 
         TestClassProcessor processor = new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
-                reforkingProcessorFactory, actorFactor);
+                reforkingProcessorFactory, actorFactor, previousDurations, prioritizedClasses, testTask.isFailFast());
+        processor = new FilteringTestClassProcessor(processor, testClassSpec);
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
@@ -68,7 +87,18 @@ public class DefaultTestExecuter implements TestExecuter {
             TestFrameworkDetector testFrameworkDetector = testTask.getTestFramework().getDetector();
             testFrameworkDetector.setTestClassesDirectory(testTask.getTestClassesDir());
             testFrameworkDetector.setTestClasspath(testTask.getClasspath());
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            testFrameworkDetector.setDetectionCache(detectionCache, fileSnapshotter);
+            final Runnable scanner = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            // The file snapshotter uses the task artifact cache, so both caches are held for the scan
+            detector = new Runnable() {
+                public void run() {
+                    cacheAccess.useCache("scan for test classes", new Runnable() {
+                        public void run() {
+                            detectionCache.useCache("scan for test classes", scanner);
+                        }
+                    });
+                }
+            };
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection;
+
+/**
+ * What a test framework detector has found out about a class, without taking its super classes into account.
+ */
+public class DetectedClass {
+    private final String className;
+    private final String superClassName;
+    private final boolean isAbstract;
+    private final boolean test;
+
+    public DetectedClass(String className, String superClassName, boolean isAbstract, boolean test) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.isAbstract = isAbstract;
+        this.test = test;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public boolean isAbstract() {
+        return isAbstract;
+    }
+
+    public boolean isTest() {
+        return test;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.CacheDecorator;
+import org.gradle.cache.internal.FileLockManager;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.Encoder;
+import org.gradle.messaging.serialize.Serializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * A persistent cache of test class detection results, shared by all builds. Class files are identified by the hash of their content and
+ * classes in jars by the hash of the jar, so that a class is only read again when it has changed. The packages of each jar are also cached,
+ * so that the jars on the test classpath do not have to be listed on every run. The hashes are provided by the caller, usually from the
+ * shared {@link org.gradle.api.internal.changedetection.state.FileSnapshotter}.
+ *
+ * <p>The cache may only be used from an action run by {@link #useCache(String, Runnable)}. It is opened on first use.</p>
+ */
+public class TestClassDetectionCache implements Stoppable {
+    private final CacheRepository cacheRepository;
+    private final CacheDecorator decorator;
+    private PersistentCache cache;
+    private PersistentIndexedCache<String, DetectedClass> classes;
+    private PersistentIndexedCache<String, List<String>> jarPackages;
+
+    public TestClassDetectionCache(CacheRepository cacheRepository, CacheDecorator decorator) {
+        this.cacheRepository = cacheRepository;
+        this.decorator = decorator;
+    }
+
+    public void useCache(String operationDisplayName, Runnable action) {
+        open().useCache(operationDisplayName, action);
+    }
+
+    /**
+     * Returns the detection result for the class file with the given content hash, using the given detector to create it when the class file is not known.
+     */
+    public DetectedClass getClassFileDetails(String detectorName, HashValue classFileHash, Factory<DetectedClass> detector) {
+        String key = detectorName + ":" + classFileHash.asCompactString();
+        DetectedClass detectedClass = classes.get(key);
+        if (detectedClass == null) {
+            detectedClass = detector.create();
+            classes.put(key, detectedClass);
+        }
+        return detectedClass;
+    }
+
+    /**
+     * Returns the detection result for the given class of the jar with the given hash, or null when the class has not been detected before.
+     */
+    public DetectedClass getJarClassDetails(String detectorName, HashValue jarHash, String className) {
+        return classes.get(jarClassKey(detectorName, jarHash, className));
+    }
+
+    public void putJarClassDetails(String detectorName, HashValue jarHash, DetectedClass detectedClass) {
+        classes.put(jarClassKey(detectorName, jarHash, detectedClass.getClassName()), detectedClass);
+    }
+
+    /**
+     * Returns the packages of the jar with the given hash, using the given lister to create them when the jar is not known.
+     */
+    public List<String> getJarPackages(HashValue jarHash, Factory<List<String>> lister) {
+        String key = jarHash.asCompactString();
+        List<String> packages = jarPackages.get(key);
+        if (packages == null) {
+            packages = lister.create();
+            jarPackages.put(key, packages);
+        }
+        return packages;
+    }
+
+    private String jarClassKey(String detectorName, HashValue jarHash, String className) {
+        return detectorName + ":" + jarHash.asCompactString() + "!" + className;
+    }
+
+    private synchronized PersistentCache open() {
+        if (cache == null) {
+            cache = cacheRepository
+                    .cache("testClassDetection")
+                    .withDisplayName("test class detection cache")
+                    .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                    .open();
+            classes = createCache("testClassDetection", new DetectedClassSerializer());
+            jarPackages = createCache("jarPackages", new StringListSerializer());
+        }
+        return cache;
+    }
+
+    public synchronized void stop() {
+        if (cache != null) {
+            cache.close();
+            cache = null;
+        }
+    }
+
+    private <V> PersistentIndexedCache<String, V> createCache(String name, Serializer<V> valueSerializer) {
+        return cache.createCache(new PersistentIndexedCacheParameters<String, V>(name, String.class, valueSerializer).cacheDecorator(decorator));
+    }
+
+    private static class DetectedClassSerializer implements Serializer<DetectedClass> {
+        public DetectedClass read(Decoder decoder) throws Exception {
+            String className = decoder.readString();
+            String superClassName = decoder.readNullableString();
+            boolean isAbstract = decoder.readBoolean();
+            boolean test = decoder.readBoolean();
+            return new DetectedClass(className, superClassName, isAbstract, test);
+        }
+
+        public void write(Encoder encoder, DetectedClass value) throws Exception {
+            encoder.writeString(value.getClassName());
+            encoder.writeNullableString(value.getSuperClassName());
+            encoder.writeBoolean(value.isAbstract());
+            encoder.writeBoolean(value.isTest());
+        }
+    }
+
+    private static class StringListSerializer implements Serializer<List<String>> {
+        public List<String> read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            List<String> values = new ArrayList<String>(count);
+            for (int i = 0; i < count; i++) {
+                values.add(decoder.readString());
+            }
+            return values;
+        }
+
+        public void write(Encoder encoder, List<String> value) throws Exception {
+            encoder.writeSmallInt(value.size());
+            for (String element : value) {
+                encoder.writeString(element);
+            }
+        }
+    }
+}
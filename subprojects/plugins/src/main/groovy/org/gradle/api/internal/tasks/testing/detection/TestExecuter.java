@@ -17,8 +17,21 @@
 package org.gradle.api.internal.tasks.testing.detection;
 
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.testing.Test;
 
+import java.util.List;
+import java.util.Map;
+
 public interface TestExecuter {
-    void execute(Test testTask, TestResultProcessor testResultProcessor);
+    /**
+     * Executes the tests of the given task.
+     *
+     * @param testClassSpec Selects the test classes to run, by name, from those found.
+     * @param previousDurations The duration in milliseconds of each test class, as recorded by the previous execution of the task.
+     * Used to decide the order in which test classes are run.
+     * @param prioritizedClasses The test classes to run before all others, highest priority first.
+     */
+    void execute(Test testTask, TestResultProcessor testResultProcessor, Spec<? super String> testClassSpec, Map<String, Long> previousDurations,
+                 List<String> prioritizedClasses);
 }
@@ -16,6 +16,7 @@
 package org.gradle.api.internal.tasks.testing.detection;
 
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 
 import java.io.File;
@@ -28,4 +29,10 @@ public interface TestFrameworkDetector {
     void setTestClassesDirectory(File testClassesDir);
 
     void setTestClasspath(FileCollection classpath);
+
+    /**
+     * Sets the cache to use for detection results. Class files and jars are hashed using the given file snapshotter, which must be usable
+     * for the duration of the detection.
+     */
+    void setDetectionCache(TestClassDetectionCache detectionCache, FileSnapshotter fileSnapshotter);
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.history;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Remembers which test classes failed during the recent executions of a test task. A test class is forgotten once it has not
+ * failed for {@link #MAX_EXECUTIONS} executions.
+ */
+public class TestFailureHistory {
+    public static final int MAX_EXECUTIONS = 20;
+    private static final int HISTORY_VERSION = 1;
+
+    private final File historyFile;
+    private long executions;
+    private final Map<String, Long> lastFailures = new HashMap<String, Long>();
+
+    public TestFailureHistory(File historyFile) {
+        this.historyFile = historyFile;
+        read();
+    }
+
+    /**
+     * Returns the test classes that failed recently, the most recent failure first.
+     */
+    public List<String> getRecentFailures() {
+        List<String> classNames = new ArrayList<String>(lastFailures.keySet());
+        Collections.sort(classNames, new Comparator<String>() {
+            public int compare(String left, String right) {
+                int result = lastFailures.get(right).compareTo(lastFailures.get(left));
+                return result != 0 ? result : left.compareTo(right);
+            }
+        });
+        return classNames;
+    }
+
+    /**
+     * Records an execution of the test task, in which the given test classes failed.
+     */
+    public void recordExecution(Collection<String> failedClasses) {
+        executions++;
+        for (String className : failedClasses) {
+            lastFailures.put(className, executions);
+        }
+        Iterator<Long> iterator = lastFailures.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() <= executions - MAX_EXECUTIONS) {
+                iterator.remove();
+            }
+        }
+        write();
+    }
+
+    private void read() {
+        if (!historyFile.isFile()) {
+            return;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(historyFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != HISTORY_VERSION) {
+                    return;
+                }
+                executions = decoder.readSmallLong();
+                int count = decoder.readSmallInt();
+                for (int i = 0; i < count; i++) {
+                    String className = decoder.readString();
+                    lastFailures.put(className, decoder.readSmallLong());
+                }
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write() {
+        try {
+            OutputStream outputStream = new FileOutputStream(historyFile);
+            try {
+                KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(HISTORY_VERSION);
+                encoder.writeSmallLong(executions);
+                encoder.writeSmallInt(lastFailures.size());
+                for (Map.Entry<String, Long> entry : lastFailures.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeSmallLong(entry.getValue());
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
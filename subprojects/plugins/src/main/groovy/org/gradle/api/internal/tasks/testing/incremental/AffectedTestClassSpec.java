@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.incremental;
+
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.api.specs.Spec;
+
+import java.util.*;
+
+/**
+ * Accepts the test classes that need to run: those affected by a change to the classpath, and those without a successful
+ * result from the previous run. Remembers the test classes it rejects, so that their previous results can be carried over.
+ */
+public class AffectedTestClassSpec implements Spec<String> {
+    private final Set<String> affectedClasses;
+    private final Map<String, TestClassResult> previousResults;
+    private final Set<String> skippedClasses = new LinkedHashSet<String>();
+
+    public AffectedTestClassSpec(Set<String> affectedClasses, Map<String, TestClassResult> previousResults) {
+        this.affectedClasses = affectedClasses;
+        this.previousResults = previousResults;
+    }
+
+    public boolean isSatisfiedBy(String className) {
+        TestClassResult previousResult = previousResults.get(className);
+        if (previousResult == null || previousResult.getFailuresCount() > 0 || affectedClasses.contains(className)) {
+            return true;
+        }
+        skippedClasses.add(className);
+        return false;
+    }
+
+    public Set<String> getSkippedClasses() {
+        return skippedClasses;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.incremental;
+
+import org.gradle.internal.hash.HashValue;
+
+import java.util.*;
+
+/**
+ * The content of a test runtime classpath. Classes found in directories are tracked individually, along with the classes
+ * that each of them refers to, and whether any class may depend on them without referring to them, for example because
+ * they declare constants that the compiler inlines. Everything else, such as jars and resources, is tracked as opaque files.
+ */
+public class ClasspathSnapshot {
+    private final Map<String, HashValue> classHashes;
+    private final Map<String, HashValue> fileHashes;
+    private final Map<String, ? extends Collection<String>> classDependencies;
+    private final Set<String> dependencyToAllClasses;
+
+    public ClasspathSnapshot(Map<String, HashValue> classHashes, Map<String, HashValue> fileHashes) {
+        this(classHashes, fileHashes, Collections.<String, Collection<String>>emptyMap(), Collections.<String>emptySet());
+    }
+
+    public ClasspathSnapshot(Map<String, HashValue> classHashes, Map<String, HashValue> fileHashes, Set<String> dependencyToAllClasses) {
+        this(classHashes, fileHashes, Collections.<String, Collection<String>>emptyMap(), dependencyToAllClasses);
+    }
+
+    public ClasspathSnapshot(Map<String, HashValue> classHashes, Map<String, HashValue> fileHashes, Map<String, ? extends Collection<String>> classDependencies,
+                             Set<String> dependencyToAllClasses) {
+        this.classHashes = classHashes;
+        this.fileHashes = fileHashes;
+        this.classDependencies = classDependencies;
+        this.dependencyToAllClasses = dependencyToAllClasses;
+    }
+
+    public Map<String, HashValue> getClassHashes() {
+        return classHashes;
+    }
+
+    public Map<String, HashValue> getFileHashes() {
+        return fileHashes;
+    }
+
+    /**
+     * Returns the classes that each class of this snapshot refers to.
+     */
+    public Map<String, ? extends Collection<String>> getClassDependencies() {
+        return classDependencies;
+    }
+
+    /**
+     * Returns the classes that any other class may depend on without referring to them.
+     */
+    public Set<String> getDependencyToAllClasses() {
+        return dependencyToAllClasses;
+    }
+
+    /**
+     * Returns true if any of the given classes may be depended on by any other class, in this snapshot or in the given previous snapshot.
+     * A change to such a class affects all classes.
+     */
+    public boolean isDependencyToAll(Set<String> classNames, ClasspathSnapshot previous) {
+        for (String className : classNames) {
+            if (dependencyToAllClasses.contains(className) || previous.dependencyToAllClasses.contains(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if anything other than a class in a classpath directory has changed since the given snapshot.
+     */
+    public boolean hasChangedFiles(ClasspathSnapshot previous) {
+        return !fileHashes.equals(previous.fileHashes);
+    }
+
+    /**
+     * Returns the names of the classes that have been added, removed or changed since the given snapshot.
+     */
+    public Set<String> getChangedClasses(ClasspathSnapshot previous) {
+        Set<String> changed = new HashSet<String>();
+        for (Map.Entry<String, HashValue> entry : classHashes.entrySet()) {
+            if (!entry.getValue().equals(previous.classHashes.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String className : previous.classHashes.keySet()) {
+            if (!classHashes.containsKey(className)) {
+                changed.add(className);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the given classes plus all classes in this snapshot that refer to any of them, directly or transitively.
+     */
+    public Set<String> getDependentClasses(Set<String> classNames) {
+        Map<String, List<String>> dependents = new HashMap<String, List<String>>();
+        for (Map.Entry<String, ? extends Collection<String>> entry : classDependencies.entrySet()) {
+            for (String dependency : entry.getValue()) {
+                List<String> classDependents = dependents.get(dependency);
+                if (classDependents == null) {
+                    classDependents = new ArrayList<String>();
+                    dependents.put(dependency, classDependents);
+                }
+                classDependents.add(entry.getKey());
+            }
+        }
+
+        Set<String> result = new HashSet<String>(classNames);
+        LinkedList<String> queue = new LinkedList<String>(classNames);
+        while (!queue.isEmpty()) {
+            List<String> classDependents = dependents.get(queue.removeFirst());
+            if (classDependents == null) {
+                continue;
+            }
+            for (String dependent : classDependents) {
+                if (result.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return result;
+    }
+}
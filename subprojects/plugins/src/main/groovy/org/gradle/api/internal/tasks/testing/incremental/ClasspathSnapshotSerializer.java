@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.incremental;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.Encoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
+
+import java.io.*;
+import java.util.*;
+
+public class ClasspathSnapshotSerializer {
+    private static final int SNAPSHOT_VERSION = 3;
+
+    private final File snapshotFile;
+
+    public ClasspathSnapshotSerializer(File snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public void write(ClasspathSnapshot snapshot) {
+        try {
+            OutputStream outputStream = new FileOutputStream(snapshotFile);
+            try {
+                KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(SNAPSHOT_VERSION);
+                write(snapshot.getClassHashes(), encoder);
+                write(snapshot.getFileHashes(), encoder);
+                encoder.writeSmallInt(snapshot.getClassDependencies().size());
+                for (Map.Entry<String, ? extends Collection<String>> entry : snapshot.getClassDependencies().entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeSmallInt(entry.getValue().size());
+                    for (String dependency : entry.getValue()) {
+                        encoder.writeString(dependency);
+                    }
+                }
+                encoder.writeSmallInt(snapshot.getDependencyToAllClasses().size());
+                for (String className : snapshot.getDependencyToAllClasses()) {
+                    encoder.writeString(className);
+                }
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(Map<String, HashValue> hashes, Encoder encoder) throws IOException {
+        encoder.writeSmallInt(hashes.size());
+        for (Map.Entry<String, HashValue> entry : hashes.entrySet()) {
+            encoder.writeString(entry.getKey());
+            encoder.writeBinary(entry.getValue().asByteArray());
+        }
+    }
+
+    /**
+     * Returns the snapshot previously written, or null if there is none.
+     */
+    public ClasspathSnapshot read() {
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(snapshotFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != SNAPSHOT_VERSION) {
+                    return null;
+                }
+                Map<String, HashValue> classHashes = readHashes(decoder);
+                Map<String, HashValue> fileHashes = readHashes(decoder);
+                int classCount = decoder.readSmallInt();
+                Map<String, List<String>> classDependencies = new HashMap<String, List<String>>(classCount);
+                for (int i = 0; i < classCount; i++) {
+                    String className = decoder.readString();
+                    int dependencyCount = decoder.readSmallInt();
+                    List<String> dependencies = new ArrayList<String>(dependencyCount);
+                    for (int j = 0; j < dependencyCount; j++) {
+                        dependencies.add(decoder.readString());
+                    }
+                    classDependencies.put(className, dependencies);
+                }
+                int dependencyToAllCount = decoder.readSmallInt();
+                Set<String> dependencyToAllClasses = new HashSet<String>(dependencyToAllCount);
+                for (int i = 0; i < dependencyToAllCount; i++) {
+                    dependencyToAllClasses.add(decoder.readString());
+                }
+                return new ClasspathSnapshot(classHashes, fileHashes, classDependencies, dependencyToAllClasses);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Map<String, HashValue> readHashes(Decoder decoder) throws IOException {
+        int count = decoder.readSmallInt();
+        Map<String, HashValue> hashes = new HashMap<String, HashValue>(count);
+        for (int i = 0; i < count; i++) {
+            String key = decoder.readString();
+            hashes.put(key, new HashValue(decoder.readBinary()));
+        }
+        return hashes;
+    }
+
+    public void delete() {
+        snapshotFile.delete();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.incremental;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+public class ClasspathSnapshotter {
+    static final String INPUT_PROPERTIES_KEY = "<input properties>";
+    private final ClassDependenciesAnalyzer analyzer;
+    private final TaskArtifactStateCacheAccess cacheAccess;
+    private final FileSnapshotter fileSnapshotter;
+
+    /**
+     * @param fileSnapshotter hashes the files of the classpath. It is used from actions run by the given task artifact cache access.
+     */
+    public ClasspathSnapshotter(ClassDependenciesAnalyzer analyzer, TaskArtifactStateCacheAccess cacheAccess, FileSnapshotter fileSnapshotter) {
+        this.analyzer = analyzer;
+        this.cacheAccess = cacheAccess;
+        this.fileSnapshotter = fileSnapshotter;
+    }
+
+    /**
+     * Snapshots the given classpath. The given task input properties are tracked along with the files, so that changing
+     * them is treated the same way as changing a jar. Only the classes that have changed since the given previous snapshot
+     * are analyzed, the dependencies of the other classes are taken from the previous snapshot.
+     */
+    public ClasspathSnapshot snapshot(final Iterable<File> classpath, Map<String, ?> inputProperties, @Nullable ClasspathSnapshot previous) {
+        final Map<String, HashValue> classHashes = new HashMap<String, HashValue>();
+        final Map<String, HashValue> fileHashes = new HashMap<String, HashValue>();
+        final Map<String, File> classFiles = new HashMap<String, File>();
+        cacheAccess.useCache("snapshot test runtime classpath", new Runnable() {
+            public void run() {
+                for (File file : classpath) {
+                    if (file.isDirectory()) {
+                        visitDirectory(file, "", classHashes, fileHashes, classFiles);
+                    } else if (file.isFile()) {
+                        fileHashes.put(file.getAbsolutePath(), hash(file));
+                    }
+                }
+            }
+        });
+        fileHashes.put(INPUT_PROPERTIES_KEY, hash(inputProperties));
+
+        Map<String, Collection<String>> classDependencies = new HashMap<String, Collection<String>>();
+        Set<String> dependencyToAllClasses = new HashSet<String>();
+        for (Map.Entry<String, File> entry : classFiles.entrySet()) {
+            String className = entry.getKey();
+            if (previous != null && classHashes.get(className).equals(previous.getClassHashes().get(className))) {
+                Collection<String> dependencies = previous.getClassDependencies().get(className);
+                classDependencies.put(className, dependencies != null ? dependencies : Collections.<String>emptyList());
+                if (previous.getDependencyToAllClasses().contains(className)) {
+                    dependencyToAllClasses.add(className);
+                }
+                continue;
+            }
+            try {
+                ClassAnalysis analysis = analyzer.getClassAnalysis(className, entry.getValue());
+                classDependencies.put(className, analysis.getClassDependencies());
+                if (analysis.isDependencyToAll()) {
+                    dependencyToAllClasses.add(className);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Could not analyze class file %s.", entry.getValue()), e);
+            }
+        }
+        return new ClasspathSnapshot(classHashes, fileHashes, classDependencies, dependencyToAllClasses);
+    }
+
+    private void visitDirectory(File dir, String prefix, Map<String, HashValue> classHashes, Map<String, HashValue> fileHashes, Map<String, File> classFiles) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            String path = prefix + file.getName();
+            if (file.isDirectory()) {
+                visitDirectory(file, path + "/", classHashes, fileHashes, classFiles);
+            } else if (path.endsWith(".class")) {
+                String className = path.substring(0, path.length() - ".class".length()).replace('/', '.');
+                if (classHashes.containsKey(className)) {
+                    // Shadowed by an earlier classpath entry
+                    continue;
+                }
+                classHashes.put(className, hash(file));
+                classFiles.put(className, file);
+            } else {
+                fileHashes.put(file.getAbsolutePath(), hash(file));
+            }
+        }
+    }
+
+    private HashValue hash(File file) {
+        return new HashValue(fileSnapshotter.snapshot(file).getHash());
+    }
+
+    private HashValue hash(Map<String, ?> inputProperties) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, ?> entry : new TreeMap<String, Object>(inputProperties).entrySet()) {
+            builder.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        return HashUtil.createHash(builder.toString(), "SHA1");
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.incremental;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.junit.result.*;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs only the test classes affected by the changes to the test runtime classpath since the previous run, and carries
+ * over the results of the other test classes. A test class is affected when it, or any class it refers to directly or
+ * transitively, has changed. Changes to jars, resources, task input properties or classes that any class may depend on
+ * without referring to them, such as classes declaring constants, cause all test classes to run.
+ */
+public class IncrementalTestExecution {
+    private static final Logger LOGGER = Logging.getLogger(IncrementalTestExecution.class);
+    private final File binaryResultsDir;
+    private final File previousResultsDir;
+    private final ClasspathSnapshotSerializer snapshotSerializer;
+    private final ClasspathSnapshotter snapshotter;
+    private final Map<String, TestClassResult> previousResults = new HashMap<String, TestClassResult>();
+    private ClasspathSnapshot snapshot;
+    private AffectedTestClassSpec testClassSpec;
+
+    public IncrementalTestExecution(File binaryResultsDir, File workDir, TaskArtifactStateCacheAccess cacheAccess, FileSnapshotter fileSnapshotter) {
+        this.binaryResultsDir = binaryResultsDir;
+        this.previousResultsDir = new File(workDir, "previous-results");
+        this.snapshotSerializer = new ClasspathSnapshotSerializer(new File(workDir, "classpath.bin"));
+        this.snapshotter = new ClasspathSnapshotter(new ClassDependenciesAnalyzer(), cacheAccess, fileSnapshotter);
+    }
+
+    /**
+     * Forgets the previous run, so that the next incremental execution runs all test classes.
+     */
+    public void discard() {
+        snapshotSerializer.delete();
+        GFileUtils.deleteQuietly(previousResultsDir);
+    }
+
+    /**
+     * Snapshots the classpath and works out which test classes need to run. Moves the binary results of the previous run
+     * out of the way, so they can be carried over once the tests have been executed.
+     */
+    public Spec<String> selectTestClasses(Iterable<File> classpath, Map<String, ?> inputProperties) {
+        ClasspathSnapshot previousSnapshot = snapshotSerializer.read();
+        // Only write a new snapshot once the tests have been executed
+        discard();
+        snapshot = snapshotter.snapshot(classpath, inputProperties, previousSnapshot);
+
+        if (previousSnapshot == null || snapshot.hasChangedFiles(previousSnapshot)) {
+            return Specs.satisfyAll();
+        }
+        if (!binaryResultsDir.isDirectory() || !binaryResultsDir.renameTo(previousResultsDir)) {
+            return Specs.satisfyAll();
+        }
+        try {
+            new TestResultSerializer(previousResultsDir).read(new Action<TestClassResult>() {
+                public void execute(TestClassResult result) {
+                    previousResults.put(result.getClassName(), result);
+                }
+            });
+        } catch (Exception e) {
+            LOGGER.debug("Could not read the test results of the previous run, running all test classes.", e);
+            previousResults.clear();
+            return Specs.satisfyAll();
+        }
+
+        Set<String> changedClasses = snapshot.getChangedClasses(previousSnapshot);
+        if (snapshot.isDependencyToAll(changedClasses, previousSnapshot)) {
+            // For example a constant has changed, which the compiler may have inlined into any class
+            previousResults.clear();
+            return Specs.satisfyAll();
+        }
+        testClassSpec = new AffectedTestClassSpec(snapshot.getDependentClasses(changedClasses), previousResults);
+        return testClassSpec;
+    }
+
+    /**
+     * Adds the previous results of the test classes that were not run to the given results, along with their output.
+     */
+    public void carryOverResults(Map<String, TestClassResult> results, TestOutputStore.Writer outputWriter) {
+        if (testClassSpec == null) {
+            return;
+        }
+        long nextId = maxId(results) + 1;
+        int carriedOver = 0;
+        TestOutputStore.Reader outputReader = new TestOutputStore(previousResultsDir).reader();
+        try {
+            for (String className : testClassSpec.getSkippedClasses()) {
+                TestClassResult previous = previousResults.get(className);
+                if (results.containsKey(className)) {
+                    continue;
+                }
+                TestClassResult classResult = new TestClassResult(nextId++, className, previous.getStartTime());
+                classResult.setCarriedOver(true);
+                copyOutput(outputReader, previous.getId(), 0, outputWriter, classResult.getId(), 0);
+                for (TestMethodResult previousMethod : previous.getResults()) {
+                    TestMethodResult methodResult = new TestMethodResult(nextId++, previousMethod.getName(), previousMethod.getResultType(), previousMethod.getDuration(), previousMethod.getEndTime());
+                    classResult.add(methodResult);
+                    copyOutput(outputReader, previous.getId(), previousMethod.getId(), outputWriter, classResult.getId(), methodResult.getId());
+                }
+                results.put(className, classResult);
+                carriedOver++;
+            }
+        } finally {
+            CompositeStoppable.stoppable(outputReader).stop();
+        }
+        LOGGER.info("Carried over the results of {} test classes not affected by changes since the previous run.", carriedOver);
+    }
+
+    private void copyOutput(TestOutputStore.Reader reader, long classId, long testId, TestOutputStore.Writer writer, long newClassId, long newTestId) {
+        for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+            StringWriter output = new StringWriter();
+            if (testId == 0) {
+                reader.writeNonTestOutput(classId, destination, output);
+            } else {
+                reader.writeTestOutput(classId, testId, destination, output);
+            }
+            if (output.getBuffer().length() > 0) {
+                writer.onOutput(newClassId, newTestId, new DefaultTestOutputEvent(destination, output.toString()));
+            }
+        }
+    }
+
+    private long maxId(Map<String, TestClassResult> results) {
+        long maxId = 0;
+        for (TestClassResult classResult : results.values()) {
+            maxId = Math.max(maxId, classResult.getId());
+            for (TestMethodResult methodResult : classResult.getResults()) {
+                maxId = Math.max(maxId, methodResult.getId());
+            }
+        }
+        return maxId;
+    }
+
+    /**
+     * Records the classpath snapshot, so that the next incremental execution can work out what has changed.
+     */
+    public void complete() {
+        if (snapshot != null) {
+            snapshotSerializer.write(snapshot);
+        }
+        GFileUtils.deleteQuietly(previousResultsDir);
+    }
+}
@@ -17,12 +17,10 @@ package org.gradle.api.internal.tasks.testing.junit;
 
 import org.gradle.api.internal.tasks.testing.detection.AbstractTestFrameworkDetector;
 import org.gradle.api.internal.tasks.testing.detection.ClassFileExtractionManager;
-import org.gradle.api.internal.tasks.testing.detection.TestClassVisitor;
+import org.gradle.api.internal.tasks.testing.detection.DetectedClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-
 public class JUnitDetector extends AbstractTestFrameworkDetector<JUnitTestClassDetecter> {
     private static final Logger LOGGER = LoggerFactory.getLogger(JUnitDetector.class);
 
@@ -34,21 +32,19 @@ public class JUnitDetector extends AbstractTestFrameworkDetector<JUnitTestClassD
         return new JUnitTestClassDetecter(this);
     }
 
-    protected boolean processTestClass(final File testClassFile, boolean superClass) {
-        final TestClassVisitor classVisitor = classVisitor(testClassFile);
-
-        boolean isTest = classVisitor.isTest();
+    protected boolean processTestClass(final DetectedClass testClass, boolean superClass) {
+        boolean isTest = testClass.isTest();
 
         if (!isTest) { // scan parent class
-            final String superClassName = classVisitor.getSuperClassName();
+            final String superClassName = testClass.getSuperClassName();
 
             if (isKnownTestCaseClassName(superClassName)) {
                 isTest = true;
             } else {
-                final File superClassFile = getSuperTestClassFile(superClassName);
+                final DetectedClass superTestClass = getSuperTestClass(superClassName);
 
-                if (superClassFile != null) {
-                    isTest = processSuperClass(superClassFile);
+                if (superTestClass != null) {
+                    isTest = processSuperClass(superTestClass);
                 } else {
                     LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
                             superClassName);
@@ -56,7 +52,7 @@ public class JUnitDetector extends AbstractTestFrameworkDetector<JUnitTestClassD
             }
         }
 
-        publishTestClass(isTest, classVisitor, superClass);
+        publishTestClass(isTest, testClass, superClass);
 
         return isTest;
     }
@@ -23,19 +23,27 @@ import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ParallelActionExecuter;
 import org.gradle.reporting.HtmlReportRenderer;
 import org.gradle.util.Clock;
 
 import java.io.File;
-import java.util.List;
+import java.util.*;
 
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
 
 public class DefaultTestReport implements TestReporter {
     private final HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
+    private final ParallelActionExecuter executer;
     private final static Logger LOG = Logging.getLogger(DefaultTestReport.class);
 
-    public DefaultTestReport() {
+    public DefaultTestReport(ExecutorFactory executorFactory) {
+        this(new ParallelActionExecuter(executorFactory, Runtime.getRuntime().availableProcessors()));
+    }
+
+    DefaultTestReport(ParallelActionExecuter executer) {
+        this.executer = executer;
         htmlRenderer.requireResource(getClass().getResource("/org/gradle/reporting/report.js"));
         htmlRenderer.requireResource(getClass().getResource("/org/gradle/reporting/base-style.css"));
         htmlRenderer.requireResource(getClass().getResource("/org/gradle/reporting/css3-pie-1.0beta3.htc"));
@@ -46,16 +54,20 @@ public class DefaultTestReport implements TestReporter {
         LOG.info("Generating HTML test report...");
 
         Clock clock = new Clock();
-        AllTestResults model = loadModelFromProvider(resultsProvider);
-        generateFiles(model, resultsProvider, reportDir);
+        Set<Long> carriedOverClasses = new HashSet<Long>();
+        AllTestResults model = loadModelFromProvider(resultsProvider, carriedOverClasses);
+        generateFiles(model, resultsProvider, carriedOverClasses, reportDir);
         LOG.info("Finished generating test html results ({}) into: {}", clock.getTime(), reportDir);
     }
 
-    private AllTestResults loadModelFromProvider(TestResultsProvider resultsProvider) {
+    private AllTestResults loadModelFromProvider(TestResultsProvider resultsProvider, final Set<Long> carriedOverClasses) {
         final AllTestResults model = new AllTestResults();
         resultsProvider.visitClasses(new Action<TestClassResult>() {
             public void execute(TestClassResult classResult) {
                 model.addTestClass(classResult.getId(), classResult.getClassName());
+                if (classResult.isCarriedOver()) {
+                    carriedOverClasses.add(classResult.getId());
+                }
                 List<TestMethodResult> collectedResults = classResult.getResults();
                 for (TestMethodResult collectedResult : collectedResults) {
                     final TestResult testResult = model.addTest(classResult.getId(), classResult.getClassName(), collectedResult.getName(), collectedResult.getDuration());
@@ -73,21 +85,44 @@ public class DefaultTestReport implements TestReporter {
         return model;
     }
 
-    private void generateFiles(AllTestResults model, TestResultsProvider resultsProvider, File reportDir) {
-        try {
-            generatePage(model, new OverviewPageRenderer(), new File(reportDir, "index.html"));
-            for (PackageTestResults packageResults : model.getPackages()) {
-                generatePage(packageResults, new PackagePageRenderer(), new File(reportDir, packageResults.getBaseUrl()));
-                for (ClassTestResults classResults : packageResults.getClasses()) {
-                    generatePage(classResults, new ClassPageRenderer(classResults.getId(), resultsProvider), new File(reportDir, classResults.getBaseUrl()));
+    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, Set<Long> carriedOverClasses, final File reportDir) {
+        List<Runnable> pages = new ArrayList<Runnable>();
+        pages.add(new Page<AllTestResults>(model, new OverviewPageRenderer(), new File(reportDir, "index.html")));
+        for (PackageTestResults packageResults : model.getPackages()) {
+            pages.add(new Page<PackageTestResults>(packageResults, new PackagePageRenderer(), new File(reportDir, packageResults.getBaseUrl())));
+            for (ClassTestResults classResults : packageResults.getClasses()) {
+                File classPage = new File(reportDir, classResults.getBaseUrl());
+                if (carriedOverClasses.contains(classResults.getId()) && classPage.isFile()) {
+                    // The class results have not changed since the page was generated
+                    continue;
                 }
+                pages.add(new Page<ClassTestResults>(classResults, new ClassPageRenderer(classResults.getId(), resultsProvider), classPage));
             }
+        }
+        try {
+            executer.execute("Test HTML report writer", pages, new Action<Runnable>() {
+                public void execute(Runnable page) {
+                    page.run();
+                }
+            });
         } catch (Exception e) {
             throw new GradleException(String.format("Could not generate test report to '%s'.", reportDir), e);
         }
     }
 
-    private <T extends CompositeTestResults> void generatePage(T model, PageRenderer<T> renderer, File outputFile) throws Exception {
-        htmlRenderer.renderer(renderer).writeTo(model, outputFile);
+    private class Page<T extends CompositeTestResults> implements Runnable {
+        private final T model;
+        private final PageRenderer<T> renderer;
+        private final File outputFile;
+
+        private Page(T model, PageRenderer<T> renderer, File outputFile) {
+            this.model = model;
+            this.renderer = renderer;
+            this.outputFile = outputFile;
+        }
+
+        public void run() {
+            htmlRenderer.renderer(renderer).writeTo(model, outputFile);
+        }
     }
 }
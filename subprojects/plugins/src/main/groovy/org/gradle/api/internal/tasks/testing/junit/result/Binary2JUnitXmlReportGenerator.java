@@ -23,6 +23,8 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.util.Clock;
 import org.gradle.internal.FileUtils;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ParallelActionExecuter;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
@@ -30,25 +32,45 @@ import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Binary2JUnitXmlReportGenerator {
 
     private final File testResultsDir;
     private final TestResultsProvider testResultsProvider;
     JUnitXmlResultWriter saxWriter;
+    private final ParallelActionExecuter executer;
     private final static Logger LOG = Logging.getLogger(Binary2JUnitXmlReportGenerator.class);
 
-    public Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider, TestOutputAssociation outputAssociation) {
+    public Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider, TestOutputAssociation outputAssociation, ExecutorFactory executorFactory) {
+        this(testResultsDir, testResultsProvider, outputAssociation, new ParallelActionExecuter(executorFactory, Runtime.getRuntime().availableProcessors()));
+    }
+
+    Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider, TestOutputAssociation outputAssociation, ParallelActionExecuter executer) {
         this.testResultsDir = testResultsDir;
         this.testResultsProvider = testResultsProvider;
+        this.executer = executer;
         this.saxWriter = new JUnitXmlResultWriter(getHostname(), testResultsProvider, outputAssociation);
     }
 
     public void generate() {
         Clock clock = new Clock();
+        final List<TestClassResult> results = new ArrayList<TestClassResult>();
         testResultsProvider.visitClasses(new Action<TestClassResult>() {
+            public void execute(TestClassResult result) {
+                results.add(result);
+            }
+        });
+        final AtomicInteger skipped = new AtomicInteger();
+        executer.execute("Test XML report writer", results, new Action<TestClassResult>() {
             public void execute(TestClassResult result) {
                 File file = new File(testResultsDir, getReportFileName(result));
+                if (result.isCarriedOver() && file.isFile()) {
+                    skipped.incrementAndGet();
+                    return;
+                }
                 OutputStream output = null;
                 try {
                     output = new BufferedOutputStream(new FileOutputStream(file));
@@ -61,7 +83,7 @@ public class Binary2JUnitXmlReportGenerator {
                 }
             }
         });
-        LOG.info("Finished generating test XML results ({}) into: {}", clock.getTime(), testResultsDir);
+        LOG.info("Finished generating test XML results ({}, {} unchanged files kept) into: {}", clock.getTime(), skipped.get(), testResultsDir);
     }
 
     private String getReportFileName(TestClassResult result) {
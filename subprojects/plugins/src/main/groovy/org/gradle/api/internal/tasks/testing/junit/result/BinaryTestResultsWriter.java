@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the results of a {@link TestResultsProvider} to a binary results directory, for example to combine the results of several
+ * test executions into one directory that can be read in the same way as the results of a single test execution.
+ */
+public class BinaryTestResultsWriter {
+    private final File resultsDir;
+
+    public BinaryTestResultsWriter(File resultsDir) {
+        this.resultsDir = resultsDir;
+    }
+
+    public void write(final TestResultsProvider provider) {
+        final List<TestClassResult> results = new ArrayList<TestClassResult>();
+        final TestOutputStore.Writer outputWriter = new TestOutputStore(resultsDir).writer();
+        try {
+            provider.visitClasses(new Action<TestClassResult>() {
+                long nextId = 1;
+
+                public void execute(TestClassResult original) {
+                    TestClassResult classResult = new TestClassResult(nextId++, original.getClassName(), original.getStartTime());
+                    classResult.setCarriedOver(original.isCarriedOver());
+                    copyOutput(provider, original.getId(), 0, outputWriter, classResult.getId(), 0);
+                    for (TestMethodResult originalMethod : original.getResults()) {
+                        TestMethodResult methodResult = new TestMethodResult(nextId++, originalMethod.getName(), originalMethod.getResultType(), originalMethod.getDuration(), originalMethod.getEndTime());
+                        for (TestFailure failure : originalMethod.getFailures()) {
+                            methodResult.addFailure(failure.getMessage(), failure.getStackTrace(), failure.getExceptionType());
+                        }
+                        classResult.add(methodResult);
+                        copyOutput(provider, original.getId(), originalMethod.getId(), outputWriter, classResult.getId(), methodResult.getId());
+                    }
+                    outputWriter.onClassCompleted(classResult.getId());
+                    results.add(classResult);
+                }
+            });
+        } finally {
+            outputWriter.close();
+        }
+        new TestResultSerializer(resultsDir).write(results);
+    }
+
+    private void copyOutput(TestResultsProvider provider, long classId, long testId, TestOutputStore.Writer writer, long newClassId, long newTestId) {
+        for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+            StringWriter output = new StringWriter();
+            if (testId == 0) {
+                provider.writeNonTestOutput(classId, destination, output);
+            } else {
+                provider.writeTestOutput(classId, testId, destination, output);
+            }
+            if (output.getBuffer().length() > 0) {
+                writer.onOutput(newClassId, newTestId, new DefaultTestOutputEvent(destination, output.toString()));
+            }
+        }
+    }
+}
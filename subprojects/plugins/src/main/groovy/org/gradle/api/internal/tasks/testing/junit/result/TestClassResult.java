@@ -28,6 +28,7 @@ public class TestClassResult {
     private int failuresCount;
     private int skippedCount;
     private long id;
+    private boolean carriedOver;
 
     public TestClassResult(long id, String className, long startTime) {
         if (id < 1) {
@@ -91,4 +92,16 @@ public class TestClassResult {
     public void setStartTime(long startTime) {
         this.startTime = startTime;
     }
+
+    /**
+     * Returns true when this result has been carried over unchanged from the previous run, in which case any report already generated for this
+     * test class is still up to date. This is not persisted with the result.
+     */
+    public boolean isCarriedOver() {
+        return carriedOver;
+    }
+
+    public void setCarriedOver(boolean carriedOver) {
+        this.carriedOver = carriedOver;
+    }
 }
@@ -21,17 +21,24 @@ import com.esotericsoftware.kryo.io.Output;
 import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
+import org.gradle.internal.io.ByteBufferInputStream;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
 import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class TestOutputStore {
+    // Version 2: the end of a region is the position after its last event, rather than the position of its last event
+    private static final int INDEX_VERSION = 2;
+    private static final long MAX_BUFFERED_REGION_SIZE = 1024 * 1024;
 
     private final File resultsDir;
     private final Charset messageStorageCharset;
@@ -58,9 +65,20 @@ public class TestOutputStore {
             stop = -1;
         }
 
-        private Region(long start, long stop) {
-            this.start = start;
-            this.stop = stop;
+        void add(long start, long stop) {
+            if (start < 0) {
+                return;
+            }
+            if (this.start < 0 || start < this.start) {
+                this.start = start;
+            }
+            if (stop > this.stop) {
+                this.stop = stop;
+            }
+        }
+
+        void add(Region region) {
+            add(region.start, region.stop);
         }
     }
 
@@ -69,22 +87,36 @@ public class TestOutputStore {
         Region stdErrRegion = new Region();
     }
 
+    /**
+     * Writes the test output. The index entries of a test are written to the index file as soon as the test has completed, so that the writer
+     * only holds on to the entries of the tests that are currently running.
+     */
     public class Writer implements Closeable {
         private final KryoBackedEncoder output;
+        private final Output indexOutput;
 
-        private final Map<Long, Map<Long, TestCaseRegion>> index = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
+        private final Map<Long, Map<Long, TestCaseRegion>> openRegions = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
 
         public Writer() {
             try {
                 output = new KryoBackedEncoder(new FileOutputStream(getOutputsFile()));
+                indexOutput = new Output(new FileOutputStream(getIndexFile()));
             } catch (FileNotFoundException e) {
                 throw new UncheckedIOException(e);
             }
+            indexOutput.writeInt(INDEX_VERSION, true);
         }
 
         public void close() {
-            output.close();
-            writeIndex();
+            try {
+                output.close();
+                for (Long classId : new ArrayList<Long>(openRegions.keySet())) {
+                    onClassCompleted(classId);
+                }
+                indexOutput.writeBoolean(false);
+            } finally {
+                indexOutput.close();
+            }
         }
 
         public void onOutput(long classId, TestOutputEvent outputEvent) {
@@ -93,7 +125,11 @@ public class TestOutputStore {
 
         public void onOutput(long classId, long testId, TestOutputEvent outputEvent) {
             boolean stdout = outputEvent.getDestination() == TestOutputEvent.Destination.StdOut;
-            mark(classId, testId, stdout);
+            TestCaseRegion region = openRegion(classId, testId);
+            Region streamRegion = stdout ? region.stdOutRegion : region.stdErrRegion;
+            if (streamRegion.start < 0) {
+                streamRegion.start = output.getWritePosition();
+            }
 
             output.writeBoolean(stdout);
             output.writeSmallLong(classId);
@@ -107,62 +143,62 @@ public class TestOutputStore {
             }
             output.writeSmallInt(bytes.length);
             output.writeBytes(bytes, 0, bytes.length);
+
+            streamRegion.stop = output.getWritePosition();
         }
 
-        private void mark(long classId, long testId, boolean isStdout) {
-            if (!index.containsKey(classId)) {
-                index.put(classId, new LinkedHashMap<Long, TestCaseRegion>());
+        /**
+         * Writes the index entry for the given test, if it has produced any output. Output received for the test after this is still recorded.
+         */
+        public void onTestCompleted(long classId, long testId) {
+            Map<Long, TestCaseRegion> testCaseRegions = openRegions.get(classId);
+            if (testCaseRegions == null) {
+                return;
             }
-
-            Map<Long, TestCaseRegion> testCaseRegions = index.get(classId);
-            if (!testCaseRegions.containsKey(testId)) {
-                TestCaseRegion region = new TestCaseRegion();
-                testCaseRegions.put(testId, region);
+            TestCaseRegion region = testCaseRegions.remove(testId);
+            if (region != null) {
+                writeIndexEntry(classId, testId, region);
             }
-
-            TestCaseRegion region = testCaseRegions.get(testId);
-
-            Region streamRegion = isStdout ? region.stdOutRegion : region.stdErrRegion;
-
-            int total = output.getWritePosition();
-            if (streamRegion.start < 0) {
-                streamRegion.start = total;
+            if (testCaseRegions.isEmpty()) {
+                openRegions.remove(classId);
             }
-            streamRegion.stop = total;
         }
 
-        private void writeIndex() {
-            Output indexOutput;
-            try {
-                indexOutput = new Output(new FileOutputStream(getIndexFile()));
-            } catch (FileNotFoundException e) {
-                throw new UncheckedIOException(e);
+        /**
+         * Writes the index entries for the given class and all of its tests that have produced any output.
+         */
+        public void onClassCompleted(long classId) {
+            Map<Long, TestCaseRegion> testCaseRegions = openRegions.remove(classId);
+            if (testCaseRegions == null) {
+                return;
             }
+            for (Map.Entry<Long, TestCaseRegion> entry : testCaseRegions.entrySet()) {
+                writeIndexEntry(classId, entry.getKey(), entry.getValue());
+            }
+        }
 
-
-            try {
-                indexOutput.writeInt(index.size(), true);
-
-                for (Map.Entry<Long, Map<Long, TestCaseRegion>> classEntry : index.entrySet()) {
-                    Long classId = classEntry.getKey();
-                    Map<Long, TestCaseRegion> regions = classEntry.getValue();
-
-                    indexOutput.writeLong(classId, true);
-                    indexOutput.writeInt(regions.size(), true);
-
-                    for (Map.Entry<Long, TestCaseRegion> testCaseEntry : regions.entrySet()) {
-                        long id = testCaseEntry.getKey();
-                        TestCaseRegion region = testCaseEntry.getValue();
-                        indexOutput.writeLong(id, true);
-                        indexOutput.writeLong(region.stdOutRegion.start);
-                        indexOutput.writeLong(region.stdOutRegion.stop);
-                        indexOutput.writeLong(region.stdErrRegion.start);
-                        indexOutput.writeLong(region.stdErrRegion.stop);
-                    }
-                }
-            } finally {
-                indexOutput.close();
+        private TestCaseRegion openRegion(long classId, long testId) {
+            Map<Long, TestCaseRegion> testCaseRegions = openRegions.get(classId);
+            if (testCaseRegions == null) {
+                testCaseRegions = new LinkedHashMap<Long, TestCaseRegion>();
+                openRegions.put(classId, testCaseRegions);
             }
+            TestCaseRegion region = testCaseRegions.get(testId);
+            if (region == null) {
+                region = new TestCaseRegion();
+                testCaseRegions.put(testId, region);
+            }
+            return region;
+        }
+
+        private void writeIndexEntry(long classId, long testId, TestCaseRegion region) {
+            indexOutput.writeBoolean(true);
+            indexOutput.writeLong(classId, true);
+            indexOutput.writeLong(testId, true);
+            indexOutput.writeLong(region.stdOutRegion.start);
+            indexOutput.writeLong(region.stdOutRegion.stop);
+            indexOutput.writeLong(region.stdErrRegion.start);
+            indexOutput.writeLong(region.stdErrRegion.stop);
         }
     }
 
@@ -195,19 +231,8 @@ public class TestOutputStore {
         private final ImmutableMap.Builder<Long, Index> children = ImmutableMap.builder();
 
         void add(long key, Index index) {
-            if (stdOut.start < 0) {
-                stdOut.start = index.stdOut.start;
-            }
-            if (stdErr.start < 0) {
-                stdErr.start = index.stdErr.start;
-            }
-            if (index.stdOut.stop > stdOut.stop) {
-                stdOut.stop = index.stdOut.stop;
-            }
-            if (index.stdErr.stop > stdErr.stop) {
-                stdErr.stop = index.stdErr.stop;
-            }
-
+            stdOut.add(index.stdOut);
+            stdErr.add(index.stdErr);
             children.put(key, index);
         }
 
@@ -216,11 +241,22 @@ public class TestOutputStore {
         }
     }
 
+    /**
+     * Reads the test output. Can be used by multiple threads concurrently.
+     *
+     * <p>Each read reads the region of the output file that holds the requested output. Small regions are read into a buffer with a single positional
+     * read. Larger regions are mapped into memory, so the memory used by a read does not depend on the amount of output. On Windows, a mapped file
+     * cannot be deleted until the mapping has been garbage collected, so larger regions are streamed from the file channel instead.</p>
+     */
     public class Reader implements Closeable {
         private final Index index;
-        private final RandomAccessFile dataFile;
+        private final FileChannel dataChannel;
+        private final boolean memoryMapped;
+        private final long maxBufferedRegionSize;
 
-        public Reader() {
+        private Reader(boolean memoryMapped, long maxBufferedRegionSize) {
+            this.memoryMapped = memoryMapped;
+            this.maxBufferedRegionSize = maxBufferedRegionSize;
             File indexFile = getIndexFile();
             File outputsFile = getOutputsFile();
 
@@ -229,40 +265,9 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' exists but the index file '%s' does not", outputsFile, indexFile));
                 }
 
-                Input input;
+                index = readIndex(indexFile);
                 try {
-                    input = new Input(new FileInputStream(indexFile));
-                } catch (FileNotFoundException e) {
-                    throw new UncheckedIOException(e);
-                }
-
-                IndexBuilder rootBuilder = null;
-                try {
-                    int numClasses = input.readInt(true);
-                    rootBuilder = new IndexBuilder();
-
-                    for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
-                        long classId = input.readLong(true);
-                        IndexBuilder classBuilder = new IndexBuilder();
-
-                        int numEntries = input.readInt(true);
-                        for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
-                            long testId = input.readLong(true);
-                            Region stdOut = new Region(input.readLong(), input.readLong());
-                            Region stdErr = new Region(input.readLong(), input.readLong());
-                            classBuilder.add(testId, new Index(stdOut, stdErr));
-                        }
-
-                        rootBuilder.add(classId, classBuilder.build());
-                    }
-                } finally {
-                    input.close();
-                }
-
-                index = rootBuilder.build();
-
-                try {
-                    dataFile = new RandomAccessFile(getOutputsFile(), "r");
+                    dataChannel = new RandomAccessFile(outputsFile, "r").getChannel();
                 } catch (FileNotFoundException e) {
                     throw new UncheckedIOException(e);
                 }
@@ -272,18 +277,65 @@ public class TestOutputStore {
                 }
 
                 index = null;
-                dataFile = null;
+                dataChannel = null;
             }
         }
 
+        private Index readIndex(File indexFile) {
+            Input input;
+            try {
+                input = new Input(new FileInputStream(indexFile));
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            // A test may have several entries, when it produced output after its entry was written
+            Map<Long, Map<Long, TestCaseRegion>> regions = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
+            try {
+                int version = input.readInt(true);
+                if (version != INDEX_VERSION) {
+                    throw new IllegalArgumentException(String.format("Unexpected test output index version %d found in %s.", version, indexFile));
+                }
+                while (input.readBoolean()) {
+                    long classId = input.readLong(true);
+                    long testId = input.readLong(true);
+                    Map<Long, TestCaseRegion> testCaseRegions = regions.get(classId);
+                    if (testCaseRegions == null) {
+                        testCaseRegions = new LinkedHashMap<Long, TestCaseRegion>();
+                        regions.put(classId, testCaseRegions);
+                    }
+                    TestCaseRegion region = testCaseRegions.get(testId);
+                    if (region == null) {
+                        region = new TestCaseRegion();
+                        testCaseRegions.put(testId, region);
+                    }
+                    region.stdOutRegion.add(input.readLong(), input.readLong());
+                    region.stdErrRegion.add(input.readLong(), input.readLong());
+                }
+            } finally {
+                input.close();
+            }
+
+            IndexBuilder rootBuilder = new IndexBuilder();
+            for (Map.Entry<Long, Map<Long, TestCaseRegion>> classEntry : regions.entrySet()) {
+                IndexBuilder classBuilder = new IndexBuilder();
+                for (Map.Entry<Long, TestCaseRegion> testCaseEntry : classEntry.getValue().entrySet()) {
+                    TestCaseRegion region = testCaseEntry.getValue();
+                    classBuilder.add(testCaseEntry.getKey(), new Index(region.stdOutRegion, region.stdErrRegion));
+                }
+                rootBuilder.add(classEntry.getKey(), classBuilder.build());
+            }
+            return rootBuilder.build();
+        }
+
         public void close() throws IOException {
-            if (dataFile != null) {
-                dataFile.close();
+            if (dataChannel != null) {
+                dataChannel.close();
             }
         }
 
         public boolean hasOutput(long classId, TestOutputEvent.Destination destination) {
-            if (dataFile == null) {
+            if (dataChannel == null) {
                 return false;
             }
 
@@ -309,7 +361,7 @@ public class TestOutputStore {
         }
 
         private void doRead(long classId, long testId, boolean allClassOutput, TestOutputEvent.Destination destination, java.io.Writer writer) {
-            if (dataFile == null) {
+            if (dataChannel == null) {
                 return;
             }
 
@@ -333,10 +385,9 @@ public class TestOutputStore {
             boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
             try {
-                dataFile.seek(region.start);
-                long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
-                while (decoder.getReadPosition() <= maxPos) {
+                long length = region.stop - region.start;
+                KryoBackedDecoder decoder = new KryoBackedDecoder(openRegion(region));
+                while (decoder.getReadPosition() < length) {
                     boolean readStdout = decoder.readBoolean();
                     long readClassId = decoder.readSmallLong();
                     long readTestId = decoder.readSmallLong();
@@ -379,10 +430,74 @@ public class TestOutputStore {
                 throw new UncheckedIOException(e1);
             }
         }
+
+        private InputStream openRegion(Region region) throws IOException {
+            long length = region.stop - region.start;
+            if (length <= maxBufferedRegionSize) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) length);
+                while (buffer.hasRemaining()) {
+                    if (dataChannel.read(buffer, region.start + buffer.position()) < 0) {
+                        throw new EOFException(String.format("Unexpected end of test output file %s.", getOutputsFile()));
+                    }
+                }
+                return new ByteArrayInputStream(buffer.array());
+            }
+            // A single mapping cannot be larger than Integer.MAX_VALUE bytes
+            if (memoryMapped && length <= Integer.MAX_VALUE) {
+                return new ByteBufferInputStream(dataChannel.map(FileChannel.MapMode.READ_ONLY, region.start, length));
+            }
+            return new FileChannelRegionInputStream(dataChannel, region.start, region.stop);
+        }
+    }
+
+    /**
+     * Reads a region of a file channel using positional reads, so that several streams can read from the same channel concurrently.
+     */
+    private static class FileChannelRegionInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        private FileChannelRegionInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+            return read(buffer, 0, 1) < 0 ? -1 : buffer[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int count = (int) Math.min(length, end - position);
+            int read = channel.read(ByteBuffer.wrap(bytes, offset, count), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            long count = Math.max(0, Math.min(n, end - position));
+            position += count;
+            return count;
+        }
     }
 
     // IMPORTANT: return must be closed when done with.
     public Reader reader() {
-        return new Reader();
+        return reader(!OperatingSystem.current().isWindows(), MAX_BUFFERED_REGION_SIZE);
+    }
+
+    // IMPORTANT: return must be closed when done with.
+    Reader reader(boolean memoryMapped, long maxBufferedRegionSize) {
+        return new Reader(memoryMapped, maxBufferedRegionSize);
     }
 }
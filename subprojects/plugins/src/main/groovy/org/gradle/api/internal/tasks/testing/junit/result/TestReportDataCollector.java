@@ -54,6 +54,11 @@ public class TestReportDataCollector implements TestListener, TestOutputListener
             TestClassResult classResult = new TestClassResult(internalIdCounter++, suite.getName(), result.getStartTime());
             classResult.add(methodResult);
             results.put(suite.getName(), classResult);
+        } else if (suite.getClassName() != null) {
+            TestClassResult classResult = results.get(suite.getClassName());
+            if (classResult != null) {
+                outputWriter.onClassCompleted(classResult.getId());
+            }
         }
     }
 
@@ -77,6 +82,7 @@ public class TestReportDataCollector implements TestListener, TestOutputListener
             classResult.setStartTime(result.getStartTime());
         }
         classResult.add(methodResult);
+        outputWriter.onTestCompleted(classResult.getId(), methodResult.getId());
     }
 
     private String failureMessage(Throwable throwable) {
@@ -17,64 +17,254 @@
 package org.gradle.api.internal.tasks.testing.processors;
 
 import org.gradle.internal.Factory;
-import org.gradle.api.internal.tasks.testing.TestClassProcessor;
-import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
-import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.testing.TestOutputEvent;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.messaging.actor.Actor;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.messaging.dispatch.DispatchException;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors. Test classes are queued and handed out to whichever processor becomes
+ * idle first, so that a slow test class does not hold up the test classes queued behind it. When the durations of a
+ * previous run are known, the queued test classes are handed out longest first. Test classes with no known duration
+ * are handed out ahead of these, in the order they were received. Prioritized test classes, such as those that failed
+ * recently, are handed out ahead of all others. To make sure of this, no test classes are handed out until all of the
+ * prioritized test classes have been received, or until all test classes have been received.
+ *
+ * <p>When fail fast is enabled, no more test classes are handed out once a test has failed. The test classes that are
+ * being executed at that point are completed.</p>
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
+    private static final Logger LOGGER = Logging.getLogger(MaxNParallelTestClassProcessor.class);
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final Map<String, Long> previousDurations;
+    private final Map<String, Integer> priorities = new HashMap<String, Integer>();
+    private final Set<String> prioritizedClassesToReceive = new HashSet<String>();
+    private final boolean failFast;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final PriorityQueue<QueuedTestClass> queue = new PriorityQueue<QueuedTestClass>();
+    private final LinkedList<TestClassProcessor> idleProcessors = new LinkedList<TestClassProcessor>();
     private TestResultProcessor resultProcessor;
-    private int pos;
+    private long received;
+    private boolean failed;
+    private int skipped;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
     private Actor resultProcessorActor;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, Collections.<String, Long>emptyMap());
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, Map<String, Long> previousDurations) {
+        this(maxProcessors, factory, actorFactory, previousDurations, Collections.<String>emptyList(), false);
+    }
+
+    /**
+     * @param prioritizedClasses The test classes to hand out first, highest priority first.
+     * @param failFast Whether to stop handing out test classes once a test has failed.
+     */
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, Map<String, Long> previousDurations,
+                                          List<String> prioritizedClasses, boolean failFast) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.previousDurations = previousDurations;
+        this.failFast = failFast;
+        for (int i = 0; i < prioritizedClasses.size(); i++) {
+            priorities.put(prioritizedClasses.get(i), prioritizedClasses.size() - i);
+        }
+        prioritizedClassesToReceive.addAll(prioritizedClasses);
     }
 
     public void startProcessing(TestResultProcessor resultProcessor) {
-        resultProcessorActor = actorFactory.createActor(resultProcessor);
-        this.resultProcessor = resultProcessorActor.getProxy(TestResultProcessor.class);
+        // Forked test processors hand over their events in batches, so that each batch is a single actor message
+        if (failFast) {
+            resultProcessor = new FailureNotifyingTestResultProcessor(resultProcessor);
+        }
+        resultProcessorActor = actorFactory.createActor(new ReplayingTestEventBatchProcessor(resultProcessor));
+        this.resultProcessor = resultProcessorActor.getProxy(TestEventBatchProcessor.class);
     }
 
     public void processTestClass(TestClassRunInfo testClass) {
-        TestClassProcessor processor;
-        if (processors.size() < maxProcessors) {
-            processor = factory.create();
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
-            actors.add(actor);
-            processors.add(processor);
-            processor.startProcessing(resultProcessor);
-        } else {
-            processor = processors.get(pos);
-            pos = (pos + 1) % processors.size();
+        lock.lock();
+        try {
+            if (failed) {
+                skipped++;
+                return;
+            }
+            String className = testClass.getTestClassName();
+            Long duration = previousDurations.get(className);
+            Integer priority = priorities.get(className);
+            queue.add(new QueuedTestClass(testClass, priority == null ? 0 : priority, duration == null ? Long.MAX_VALUE : duration, received++));
+            prioritizedClassesToReceive.remove(className);
+            if (prioritizedClassesToReceive.isEmpty()) {
+                handOutQueuedTestClasses();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void handOutQueuedTestClasses() {
+        while (!queue.isEmpty()) {
+            if (!idleProcessors.isEmpty()) {
+                idleProcessors.removeFirst().processTestClass(queue.poll().testClass);
+            } else if (processors.size() < maxProcessors) {
+                startProcessor().processTestClass(queue.poll().testClass);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private TestClassProcessor startProcessor() {
+        IdleNotifyingTestClassProcessor idleNotifyingProcessor = new IdleNotifyingTestClassProcessor(factory.create());
+        Actor actor = actorFactory.createActor(idleNotifyingProcessor);
+        TestClassProcessor processor = actor.getProxy(TestClassProcessor.class);
+        idleNotifyingProcessor.asyncProcessor = processor;
+        actors.add(actor);
+        processors.add(processor);
+        processor.startProcessing(resultProcessor);
+        return processor;
+    }
+
+    private void processorIdle(TestClassProcessor processor) {
+        lock.lock();
+        try {
+            QueuedTestClass next = queue.poll();
+            if (next != null) {
+                processor.processTestClass(next.testClass);
+            } else {
+                idleProcessors.add(processor);
+            }
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void testFailed() {
+        lock.lock();
+        try {
+            if (!failed) {
+                failed = true;
+                skipped += queue.size();
+                queue.clear();
+                condition.signalAll();
+            }
+        } finally {
+            lock.unlock();
         }
-        processor.processTestClass(testClass);
     }
 
     public void stop() {
+        lock.lock();
+        try {
+            // All test classes have been received
+            prioritizedClassesToReceive.clear();
+            handOutQueuedTestClasses();
+            while (!queue.isEmpty()) {
+                condition.await();
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
         try {
             CompositeStoppable.stoppable(processors).add(actors).add(resultProcessorActor).stop();
         } catch (DispatchException e) {
             throw UncheckedException.throwAsUncheckedException(e.getCause());
         }
+        if (skipped > 0) {
+            LOGGER.lifecycle("Skipped {} test classes after a test failure, as fail fast is enabled.", skipped);
+        }
+    }
+
+    private class FailureNotifyingTestResultProcessor implements TestResultProcessor {
+        private final TestResultProcessor processor;
+
+        private FailureNotifyingTestResultProcessor(TestResultProcessor processor) {
+            this.processor = processor;
+        }
+
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            processor.started(test, event);
+        }
+
+        public void completed(Object testId, TestCompleteEvent event) {
+            processor.completed(testId, event);
+        }
+
+        public void output(Object testId, TestOutputEvent event) {
+            processor.output(testId, event);
+        }
+
+        public void failure(Object testId, Throwable result) {
+            testFailed();
+            processor.failure(testId, result);
+        }
+    }
+
+    private class IdleNotifyingTestClassProcessor implements TestClassProcessor {
+        private final TestClassProcessor processor;
+        private TestClassProcessor asyncProcessor;
+
+        private IdleNotifyingTestClassProcessor(TestClassProcessor processor) {
+            this.processor = processor;
+        }
+
+        public void startProcessing(TestResultProcessor resultProcessor) {
+            processor.startProcessing(resultProcessor);
+        }
+
+        public void processTestClass(TestClassRunInfo testClass) {
+            try {
+                processor.processTestClass(testClass);
+            } finally {
+                processorIdle(asyncProcessor);
+            }
+        }
+
+        public void stop() {
+            processor.stop();
+        }
+    }
+
+    private static class QueuedTestClass implements Comparable<QueuedTestClass> {
+        private final TestClassRunInfo testClass;
+        private final int priority;
+        private final long duration;
+        private final long sequence;
+
+        private QueuedTestClass(TestClassRunInfo testClass, int priority, long duration, long sequence) {
+            this.testClass = testClass;
+            this.priority = priority;
+            this.duration = duration;
+            this.sequence = sequence;
+        }
+
+        public int compareTo(QueuedTestClass other) {
+            if (priority != other.priority) {
+                return priority > other.priority ? -1 : 1;
+            }
+            if (duration != other.duration) {
+                return duration > other.duration ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : sequence == other.sequence ? 0 : 1;
+        }
     }
 }
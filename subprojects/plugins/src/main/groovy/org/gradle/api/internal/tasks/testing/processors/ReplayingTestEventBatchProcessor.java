@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+/**
+ * Adapts a {@link TestResultProcessor} to receive batches of test events, by replaying each batch to it.
+ */
+public class ReplayingTestEventBatchProcessor implements TestEventBatchProcessor {
+    private final TestResultProcessor processor;
+
+    public ReplayingTestEventBatchProcessor(TestResultProcessor processor) {
+        this.processor = processor;
+    }
+
+    public void processBatch(TestEventBatch batch) {
+        batch.replay(processor);
+    }
+
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        processor.started(test, event);
+    }
+
+    public void completed(Object testId, TestCompleteEvent event) {
+        processor.completed(testId, event);
+    }
+
+    public void output(Object testId, TestOutputEvent event) {
+        processor.output(testId, event);
+    }
+
+    public void failure(Object testId, Throwable result) {
+        processor.failure(testId, result);
+    }
+}
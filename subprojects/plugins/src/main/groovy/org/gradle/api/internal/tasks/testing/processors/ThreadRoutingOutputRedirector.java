@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.logging.StandardOutputListener;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.logging.StandardOutputCapture;
+import org.gradle.logging.StandardOutputRedirector;
+
+import java.io.PrintStream;
+
+/**
+ * Redirects stdout and stderr while several test classes are executed concurrently in the same process. The output is
+ * captured once for all test classes, and each line is handed to the redirector started on the thread that wrote it, or
+ * on the thread that created that thread. Output of any other thread goes to the original stdout and stderr.
+ */
+public class ThreadRoutingOutputRedirector implements Stoppable {
+    private final StandardOutputRedirector redirector;
+    private final InheritableThreadLocal<ThreadRedirector> current = new InheritableThreadLocal<ThreadRedirector>();
+    private PrintStream originalStdOut;
+    private PrintStream originalStdErr;
+
+    public ThreadRoutingOutputRedirector(StandardOutputRedirector redirector) {
+        this.redirector = redirector;
+    }
+
+    public void start() {
+        originalStdOut = System.out;
+        originalStdErr = System.err;
+        redirector.redirectStandardOutputTo(new RoutingListener(true));
+        redirector.redirectStandardErrorTo(new RoutingListener(false));
+        redirector.start();
+    }
+
+    public void stop() {
+        redirector.stop();
+    }
+
+    /**
+     * Creates a redirector that captures the output of the thread it is started on. It does not replace stdout and stderr itself.
+     */
+    public StandardOutputRedirector createRedirector() {
+        return new ThreadRedirector();
+    }
+
+    private class RoutingListener implements StandardOutputListener {
+        private final boolean stdOut;
+
+        private RoutingListener(boolean stdOut) {
+            this.stdOut = stdOut;
+        }
+
+        public void onOutput(CharSequence output) {
+            ThreadRedirector target = current.get();
+            StandardOutputListener destination = null;
+            if (target != null) {
+                destination = stdOut ? target.stdOutDestination : target.stdErrDestination;
+            }
+            if (destination != null) {
+                destination.onOutput(output);
+            } else {
+                (stdOut ? originalStdOut : originalStdErr).print(output);
+            }
+        }
+    }
+
+    private class ThreadRedirector implements StandardOutputRedirector {
+        private volatile StandardOutputListener stdOutDestination;
+        private volatile StandardOutputListener stdErrDestination;
+
+        public void redirectStandardOutputTo(StandardOutputListener stdOutDestination) {
+            this.stdOutDestination = stdOutDestination;
+        }
+
+        public void redirectStandardErrorTo(StandardOutputListener stdErrDestination) {
+            this.stdErrDestination = stdErrDestination;
+        }
+
+        public StandardOutputCapture start() {
+            current.set(this);
+            return this;
+        }
+
+        public StandardOutputCapture stop() {
+            // Hand over the partial lines buffered for this thread before it moves on to the next test class
+            System.out.flush();
+            System.err.flush();
+            stdOutDestination = null;
+            stdErrDestination = null;
+            return this;
+        }
+    }
+}
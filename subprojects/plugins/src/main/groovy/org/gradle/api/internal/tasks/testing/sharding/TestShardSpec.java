@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.sharding;
+
+import org.gradle.api.specs.Spec;
+
+import java.util.*;
+
+/**
+ * Accepts the test classes that belong to one shard of a test suite that is split across several test executions. Test
+ * classes with a known duration are spread over the shards so that each shard has roughly the same total duration, and
+ * the remaining test classes are assigned by the hash of their name. Every shard must use the same durations to end up
+ * with the same assignment.
+ */
+public class TestShardSpec implements Spec<String> {
+    private final int shardIndex;
+    private final int shardCount;
+    private final Map<String, Integer> assignedShards = new HashMap<String, Integer>();
+
+    /**
+     * @param shardIndex The shard to accept test classes for, from 1 to shardCount.
+     */
+    public TestShardSpec(int shardIndex, int shardCount, Map<String, Long> durations) {
+        if (shardCount < 1 || shardIndex < 1 || shardIndex > shardCount) {
+            throw new IllegalArgumentException(String.format("Cannot select shard %s of %s.", shardIndex, shardCount));
+        }
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        assignByDuration(durations);
+    }
+
+    private void assignByDuration(final Map<String, Long> durations) {
+        List<String> classNames = new ArrayList<String>(durations.keySet());
+        Collections.sort(classNames, new Comparator<String>() {
+            public int compare(String left, String right) {
+                int result = durations.get(right).compareTo(durations.get(left));
+                return result != 0 ? result : left.compareTo(right);
+            }
+        });
+        // Longest first, each to the shard with the smallest total so far
+        long[] totals = new long[shardCount];
+        for (String className : classNames) {
+            int shard = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (totals[i] < totals[shard]) {
+                    shard = i;
+                }
+            }
+            totals[shard] += durations.get(className);
+            assignedShards.put(className, shard + 1);
+        }
+    }
+
+    public boolean isSatisfiedBy(String className) {
+        return shardOf(className) == shardIndex;
+    }
+
+    int shardOf(String className) {
+        Integer shard = assignedShards.get(className);
+        if (shard != null) {
+            return shard;
+        }
+        return (className.hashCode() & Integer.MAX_VALUE) % shardCount + 1;
+    }
+}
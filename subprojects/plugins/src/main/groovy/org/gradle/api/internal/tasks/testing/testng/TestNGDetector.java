@@ -17,12 +17,10 @@ package org.gradle.api.internal.tasks.testing.testng;
 
 import org.gradle.api.internal.tasks.testing.detection.AbstractTestFrameworkDetector;
 import org.gradle.api.internal.tasks.testing.detection.ClassFileExtractionManager;
-import org.gradle.api.internal.tasks.testing.detection.TestClassVisitor;
+import org.gradle.api.internal.tasks.testing.detection.DetectedClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-
 class TestNGDetector extends AbstractTestFrameworkDetector<TestNGTestClassDetecter> {
     private static final Logger LOGGER = LoggerFactory.getLogger(TestNGDetector.class);
 
@@ -39,25 +37,23 @@ class TestNGDetector extends AbstractTestFrameworkDetector<TestNGTestClassDetect
      * class is a test class. First the package of the parent class is checked, if it is a java.lang or groovy.lang the class can't be a test class, otherwise the parent class is scanned. <p/> When a
      * parent class is a test class all the extending classes are marked as test classes.
      */
-    protected boolean processTestClass(final File testClassFile, boolean superClass) {
-        final TestClassVisitor classVisitor = classVisitor(testClassFile);
-
-        boolean isTest = classVisitor.isTest();
+    protected boolean processTestClass(final DetectedClass testClass, boolean superClass) {
+        boolean isTest = testClass.isTest();
 
         if (!isTest) {
-            final String superClassName = classVisitor.getSuperClassName();
+            final String superClassName = testClass.getSuperClassName();
 
-            final File superClassFile = getSuperTestClassFile(superClassName);
+            final DetectedClass superTestClass = getSuperTestClass(superClassName);
 
-            if (superClassFile != null) {
-                isTest = processSuperClass(superClassFile);
+            if (superTestClass != null) {
+                isTest = processSuperClass(superTestClass);
             } else {
                 LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
                         superClassName);
             }
         }
 
-        publishTestClass(isTest, classVisitor, superClass);
+        publishTestClass(isTest, testClass, superClass);
 
         return isTest;
     }
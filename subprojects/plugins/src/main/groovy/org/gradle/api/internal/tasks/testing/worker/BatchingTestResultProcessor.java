@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers the test events of a test worker, and sends them to the build in batches. A batch is sent when it is full,
+ * when {@link #flush()} is called, and periodically, so that the events of a long running test are not held back.
+ */
+public class BatchingTestResultProcessor implements TestResultProcessor, Stoppable {
+    static final int MAX_BATCH_SIZE = 1000;
+    static final long FLUSH_INTERVAL_MILLIS = 100;
+
+    private final TestEventBatchProcessor target;
+    private final StoppableExecutor executor;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private TestEventBatch batch = new TestEventBatch();
+    private boolean stopped;
+
+    public BatchingTestResultProcessor(TestEventBatchProcessor target, ExecutorFactory executorFactory) {
+        this.target = target;
+        executor = executorFactory.create("Test event batch flusher");
+        executor.execute(new Runnable() {
+            public void run() {
+                flushPeriodically();
+            }
+        });
+    }
+
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        lock.lock();
+        try {
+            batch.started(test, event);
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void completed(Object testId, TestCompleteEvent event) {
+        lock.lock();
+        try {
+            batch.completed(testId, event);
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void output(Object testId, TestOutputEvent event) {
+        lock.lock();
+        try {
+            batch.output(testId, event);
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void failure(Object testId, Throwable result) {
+        lock.lock();
+        try {
+            batch.failure(testId, result);
+            flushIfFull();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends the buffered events to the build.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            doFlush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushIfFull() {
+        if (batch.size() >= MAX_BATCH_SIZE) {
+            doFlush();
+        }
+    }
+
+    private void doFlush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        TestEventBatch events = batch;
+        batch = new TestEventBatch();
+        target.processBatch(events);
+    }
+
+    private void flushPeriodically() {
+        lock.lock();
+        try {
+            while (!stopped) {
+                condition.await(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                doFlush();
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends the buffered events to the build, and stops sending events periodically.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            doFlush();
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        executor.stop();
+    }
+}
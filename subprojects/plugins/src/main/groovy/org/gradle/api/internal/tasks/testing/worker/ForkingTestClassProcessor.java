@@ -19,36 +19,74 @@ package org.gradle.api.internal.tasks.testing.worker;
 import org.gradle.api.Action;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestEventBatchProcessor;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.processors.ReplayingTestEventBatchProcessor;
 import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
 import org.gradle.messaging.remote.ObjectConnection;
 import org.gradle.process.JavaForkOptions;
 import org.gradle.process.internal.WorkerProcess;
 import org.gradle.process.internal.WorkerProcessBuilder;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class ForkingTestClassProcessor implements TestClassProcessor {
+/**
+ * Runs test classes in a forked worker process. {@link #processTestClass(TestClassRunInfo)} blocks until the worker is
+ * ready for another test class, so that callers can hand out the next test class only to a worker that is idle. A worker
+ * that executes several test classes concurrently is ready as soon as one of them has finished.
+ */
+public class ForkingTestClassProcessor implements TestClassProcessor, TestClassProcessedListener {
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final WorkerTestClassProcessorFactory processorFactory;
     private final JavaForkOptions options;
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
+    private final boolean reuseProcess;
+    private final int maxParallelClasses;
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
-    private TestResultProcessor resultProcessor;
+    private TestEventBatchProcessor resultProcessor;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private int pending;
 
     public ForkingTestClassProcessor(Factory<WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction) {
+        this(workerFactory, processorFactory, options, classPath, buildConfigAction, false);
+    }
+
+    /**
+     * @param reuseProcess true to run the tests in a worker process that is kept alive and reused by later test executions.
+     */
+    public ForkingTestClassProcessor(Factory<WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, boolean reuseProcess) {
+        this(workerFactory, processorFactory, options, classPath, buildConfigAction, reuseProcess, 1);
+    }
+
+    /**
+     * @param reuseProcess true to run the tests in a worker process that is kept alive and reused by later test executions.
+     * @param maxParallelClasses The maximum number of test classes the worker process executes concurrently.
+     */
+    public ForkingTestClassProcessor(Factory<WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, boolean reuseProcess,
+                                     int maxParallelClasses) {
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
         this.options = options;
         this.classPath = classPath;
         this.buildConfigAction = buildConfigAction;
+        this.reuseProcess = reuseProcess;
+        this.maxParallelClasses = maxParallelClasses;
     }
 
     public void startProcessing(TestResultProcessor resultProcessor) {
-        this.resultProcessor = resultProcessor;
+        // The worker sends its events in batches
+        this.resultProcessor = resultProcessor instanceof TestEventBatchProcessor
+                ? (TestEventBatchProcessor) resultProcessor
+                : new ReplayingTestEventBatchProcessor(resultProcessor);
     }
 
     public void processTestClass(TestClassRunInfo testClass) {
@@ -56,7 +94,38 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             remoteProcessor = forkProcess();
         }
 
+        lock.lock();
+        try {
+            pending++;
+        } finally {
+            lock.unlock();
+        }
         remoteProcessor.processTestClass(testClass);
+        waitForWorker();
+    }
+
+    public void testClassProcessed() {
+        lock.lock();
+        try {
+            pending--;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void waitForWorker() {
+        lock.lock();
+        try {
+            // Stop waiting if the worker has crashed, the failure is reported when the worker is stopped
+            while (pending >= maxParallelClasses && workerProcess != null && workerProcess.isRunning()) {
+                condition.await(1, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
     }
 
     RemoteTestClassProcessor forkProcess() {
@@ -64,7 +133,8 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         builder.setBaseName("Gradle Test Executor");
         builder.applicationClasspath(classPath);
         builder.setLoadApplicationInSystemClassLoader(true);
-        builder.worker(new TestWorker(processorFactory));
+        builder.setReuseProcess(reuseProcess);
+        builder.worker(new TestWorker(processorFactory, maxParallelClasses));
         options.copyTo(builder.getJavaCommand());
         buildConfigAction.execute(builder);
 
@@ -73,7 +143,8 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
         ObjectConnection connection = workerProcess.getConnection();
         connection.useParameterSerializer(new TestEventSerializer());
-        connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        connection.addIncoming(TestEventBatchProcessor.class, resultProcessor);
+        connection.addIncoming(TestClassProcessedListener.class, this);
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.messaging.actor.Actor;
+import org.gradle.messaging.actor.ActorFactory;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Executes test classes concurrently in the worker process, each on one of a fixed set of test class processors.
+ * {@link #processTestClass(TestClassRunInfo)} returns as soon as the test class has been handed to an idle processor,
+ * and the given listener is notified when the test class has been executed.
+ */
+class ParallelTestClassProcessor implements TestClassProcessor {
+    private final List<TestClassProcessor> processors;
+    private final ActorFactory actorFactory;
+    private final TestClassProcessedListener processedListener;
+    private final BlockingQueue<TestClassProcessor> idleProcessors;
+    private final StoppableExecutor executor;
+    private ClassLoader applicationClassLoader;
+    private Actor resultProcessorActor;
+    private volatile Throwable failure;
+
+    ParallelTestClassProcessor(List<TestClassProcessor> processors, ExecutorFactory executorFactory, ActorFactory actorFactory, TestClassProcessedListener processedListener) {
+        this.processors = processors;
+        this.actorFactory = actorFactory;
+        this.processedListener = processedListener;
+        this.idleProcessors = new LinkedBlockingQueue<TestClassProcessor>(processors);
+        this.executor = executorFactory.create("Test class executor");
+    }
+
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        applicationClassLoader = Thread.currentThread().getContextClassLoader();
+        resultProcessorActor = actorFactory.createBlockingActor(resultProcessor);
+        TestResultProcessor threadSafeResultProcessor = resultProcessorActor.getProxy(TestResultProcessor.class);
+        for (TestClassProcessor processor : processors) {
+            processor.startProcessing(threadSafeResultProcessor);
+        }
+    }
+
+    public void processTestClass(final TestClassRunInfo testClass) {
+        final TestClassProcessor processor;
+        try {
+            processor = idleProcessors.take();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                Thread.currentThread().setContextClassLoader(applicationClassLoader);
+                try {
+                    processor.processTestClass(testClass);
+                } catch (Throwable t) {
+                    if (failure == null) {
+                        failure = t;
+                    }
+                } finally {
+                    // Clean the interrupted status
+                    Thread.interrupted();
+                    idleProcessors.add(processor);
+                    processedListener.testClassProcessed();
+                }
+            }
+        });
+    }
+
+    public void stop() {
+        try {
+            executor.stop();
+            CompositeStoppable.stoppable(processors).add(resultProcessorActor).stop();
+        } finally {
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+        }
+    }
+}
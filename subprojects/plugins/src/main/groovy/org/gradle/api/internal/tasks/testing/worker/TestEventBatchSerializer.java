@@ -0,0 +1,285 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.*;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.UncheckedException;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.Encoder;
+import org.gradle.messaging.serialize.Serializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes the batches of test events sent over a single connection. Keeps state between batches, so a separate
+ * instance must be used for each connection and direction:
+ *
+ * <ul>
+ *     <li>A test id is written in full the first time it is used, using the serializer for the other values, and as a small
+ *     index after that. The index is released once the test has completed.</li>
+ *     <li>Test class names are written in full once, and as a small index after that.</li>
+ *     <li>Timestamps are written as variable length differences to the previous timestamp.</li>
+ * </ul>
+ */
+class TestEventBatchSerializer implements Serializer<TestEventBatch> {
+    private static final byte STARTED = 0;
+    private static final byte COMPLETED = 1;
+    private static final byte OUTPUT = 2;
+    private static final byte FAILURE = 3;
+
+    private static final byte SUITE_DESCRIPTOR = 0;
+    private static final byte WORKER_SUITE_DESCRIPTOR = 1;
+    private static final byte CLASS_DESCRIPTOR = 2;
+    private static final byte METHOD_DESCRIPTOR = 3;
+    private static final byte TEST_DESCRIPTOR = 4;
+    private static final byte OTHER_DESCRIPTOR = 5;
+
+    private static final int NULL_ID = 0;
+    private static final int NEW_ID = 1;
+    private static final int FIRST_ID_INDEX = 2;
+
+    private final Serializer<Object> paramSerializer;
+    private final Map<Object, Integer> writtenIds = new HashMap<Object, Integer>();
+    private final Map<Integer, Object> readIds = new HashMap<Integer, Object>();
+    private final Map<String, Integer> writtenClassNames = new HashMap<String, Integer>();
+    private final List<String> readClassNames = new ArrayList<String>();
+    private int nextIdIndex = FIRST_ID_INDEX;
+    private long previousTime;
+
+    /**
+     * @param paramSerializer Used for the test ids, the failures and for any descriptors of unknown type.
+     */
+    TestEventBatchSerializer(Serializer<Object> paramSerializer) {
+        this.paramSerializer = paramSerializer;
+    }
+
+    public TestEventBatch read(Decoder decoder) throws Exception {
+        int count = decoder.readSmallInt();
+        TestEventBatch batch = new TestEventBatch();
+        for (int i = 0; i < count; i++) {
+            byte type = decoder.readByte();
+            switch (type) {
+                case STARTED:
+                    TestDescriptorInternal test = readDescriptor(decoder);
+                    Object parentId = readId(decoder);
+                    batch.started(test, new TestStartEvent(readTime(decoder), parentId));
+                    break;
+                case COMPLETED:
+                    int index = decoder.readSmallInt();
+                    Object testId = readId(decoder, index);
+                    // The id is not used again once the test has completed
+                    readIds.remove(index == NEW_ID ? nextIdIndex - 1 : index);
+                    long endTime = readTime(decoder);
+                    byte resultType = decoder.readByte();
+                    batch.completed(testId, new TestCompleteEvent(endTime, resultType < 0 ? null : TestResult.ResultType.values()[resultType]));
+                    break;
+                case OUTPUT:
+                    Object outputTestId = readId(decoder);
+                    TestOutputEvent.Destination destination = TestOutputEvent.Destination.values()[decoder.readByte()];
+                    batch.output(outputTestId, new DefaultTestOutputEvent(destination, decoder.readString()));
+                    break;
+                case FAILURE:
+                    Object failedTestId = readId(decoder);
+                    batch.failure(failedTestId, (Throwable) paramSerializer.read(decoder));
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Unexpected test event type %d found.", type));
+            }
+        }
+        return batch;
+    }
+
+    public void write(final Encoder encoder, TestEventBatch batch) throws Exception {
+        encoder.writeSmallInt(batch.size());
+        batch.replay(new TestResultProcessor() {
+            public void started(TestDescriptorInternal test, TestStartEvent event) {
+                try {
+                    encoder.writeByte(STARTED);
+                    writeDescriptor(encoder, test);
+                    writeId(encoder, event.getParentId());
+                    writeTime(encoder, event.getStartTime());
+                } catch (Exception e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+
+            public void completed(Object testId, TestCompleteEvent event) {
+                try {
+                    encoder.writeByte(COMPLETED);
+                    writeId(encoder, testId);
+                    // The id is not used again once the test has completed
+                    writtenIds.remove(testId);
+                    writeTime(encoder, event.getEndTime());
+                    TestResult.ResultType resultType = event.getResultType();
+                    encoder.writeByte(resultType == null ? -1 : (byte) resultType.ordinal());
+                } catch (Exception e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+
+            public void output(Object testId, TestOutputEvent event) {
+                try {
+                    encoder.writeByte(OUTPUT);
+                    writeId(encoder, testId);
+                    encoder.writeByte((byte) event.getDestination().ordinal());
+                    encoder.writeString(event.getMessage());
+                } catch (Exception e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+
+            public void failure(Object testId, Throwable result) {
+                try {
+                    encoder.writeByte(FAILURE);
+                    writeId(encoder, testId);
+                    paramSerializer.write(encoder, result);
+                } catch (Exception e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        });
+    }
+
+    private TestDescriptorInternal readDescriptor(Decoder decoder) throws Exception {
+        byte kind = decoder.readByte();
+        if (kind == OTHER_DESCRIPTOR) {
+            return (TestDescriptorInternal) paramSerializer.read(decoder);
+        }
+        Object id = readId(decoder);
+        switch (kind) {
+            case SUITE_DESCRIPTOR:
+                return new DefaultTestSuiteDescriptor(id, decoder.readString());
+            case WORKER_SUITE_DESCRIPTOR:
+                return new WorkerTestClassProcessor.WorkerTestSuiteDescriptor(id, decoder.readString());
+            case CLASS_DESCRIPTOR:
+                return new DefaultTestClassDescriptor(id, readClassName(decoder));
+            case METHOD_DESCRIPTOR:
+                return new DefaultTestMethodDescriptor(id, readClassName(decoder), decoder.readString());
+            case TEST_DESCRIPTOR:
+                return new DefaultTestDescriptor(id, readClassName(decoder), decoder.readString());
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected test descriptor type %d found.", kind));
+        }
+    }
+
+    private void writeDescriptor(Encoder encoder, TestDescriptorInternal descriptor) throws Exception {
+        Class<?> type = descriptor.getClass();
+        if (type == DefaultTestSuiteDescriptor.class) {
+            encoder.writeByte(SUITE_DESCRIPTOR);
+            writeId(encoder, descriptor.getId());
+            encoder.writeString(descriptor.getName());
+        } else if (type == WorkerTestClassProcessor.WorkerTestSuiteDescriptor.class) {
+            encoder.writeByte(WORKER_SUITE_DESCRIPTOR);
+            writeId(encoder, descriptor.getId());
+            encoder.writeString(descriptor.getName());
+        } else if (type == DefaultTestClassDescriptor.class) {
+            encoder.writeByte(CLASS_DESCRIPTOR);
+            writeId(encoder, descriptor.getId());
+            writeClassName(encoder, descriptor.getName());
+        } else if (type == DefaultTestMethodDescriptor.class) {
+            encoder.writeByte(METHOD_DESCRIPTOR);
+            writeId(encoder, descriptor.getId());
+            writeClassName(encoder, descriptor.getClassName());
+            encoder.writeString(descriptor.getName());
+        } else if (type == DefaultTestDescriptor.class) {
+            encoder.writeByte(TEST_DESCRIPTOR);
+            writeId(encoder, descriptor.getId());
+            writeClassName(encoder, descriptor.getClassName());
+            encoder.writeString(descriptor.getName());
+        } else {
+            encoder.writeByte(OTHER_DESCRIPTOR);
+            paramSerializer.write(encoder, descriptor);
+        }
+    }
+
+    private Object readId(Decoder decoder) throws Exception {
+        return readId(decoder, decoder.readSmallInt());
+    }
+
+    private Object readId(Decoder decoder, int index) throws Exception {
+        if (index == NULL_ID) {
+            return null;
+        }
+        if (index == NEW_ID) {
+            Object id = paramSerializer.read(decoder);
+            readIds.put(nextIdIndex++, id);
+            return id;
+        }
+        Object id = readIds.get(index);
+        if (id == null) {
+            throw new IllegalArgumentException(String.format("Unexpected test id index %d found.", index));
+        }
+        return id;
+    }
+
+    private void writeId(Encoder encoder, Object id) throws Exception {
+        if (id == null) {
+            encoder.writeSmallInt(NULL_ID);
+            return;
+        }
+        Integer index = writtenIds.get(id);
+        if (index != null) {
+            encoder.writeSmallInt(index);
+            return;
+        }
+        writtenIds.put(id, nextIdIndex++);
+        encoder.writeSmallInt(NEW_ID);
+        paramSerializer.write(encoder, id);
+    }
+
+    private String readClassName(Decoder decoder) throws IOException {
+        int index = decoder.readSmallInt();
+        if (index < readClassNames.size()) {
+            return readClassNames.get(index);
+        }
+        String className = decoder.readString();
+        readClassNames.add(className);
+        return className;
+    }
+
+    private void writeClassName(Encoder encoder, String className) throws IOException {
+        Integer index = writtenClassNames.get(className);
+        if (index != null) {
+            encoder.writeSmallInt(index);
+            return;
+        }
+        index = writtenClassNames.size();
+        writtenClassNames.put(className, index);
+        encoder.writeSmallInt(index);
+        encoder.writeString(className);
+    }
+
+    private long readTime(Decoder decoder) throws IOException {
+        long encoded = decoder.readSmallLong();
+        long delta = (encoded >>> 1) ^ -(encoded & 1);
+        previousTime += delta;
+        return previousTime;
+    }
+
+    private void writeTime(Encoder encoder, long time) throws IOException {
+        long delta = time - previousTime;
+        previousTime = time;
+        // Zig-zag encode the difference, so that small negative differences are also written as a few bytes
+        encoder.writeSmallLong((delta << 1) ^ (delta >> 63));
+    }
+}
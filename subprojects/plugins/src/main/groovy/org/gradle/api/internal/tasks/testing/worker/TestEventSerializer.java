@@ -28,6 +28,10 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
     private final Serializer<Object> paramSerializer;
 
     public TestEventSerializer() {
+        paramSerializer = createRegistry().build();
+    }
+
+    private static DefaultSerializerRegistry<Object> createRegistry() {
         DefaultSerializerRegistry<Object> registry = new DefaultSerializerRegistry<Object>();
         registry.register(DefaultTestClassRunInfo.class, new DefaultTestClassRunInfoSerializer());
         registry.register(CompositeIdGenerator.CompositeId.class, new IdSerializer());
@@ -40,16 +44,27 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
         registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
         registry.register(Throwable.class, new ThrowableSerializer());
-        paramSerializer = registry.build();
+        return registry;
+    }
+
+    /**
+     * Creates the serializer for a single connection and direction. Batches of test events are serialized using state
+     * kept for the connection.
+     */
+    private Serializer<Object> createConnectionSerializer() {
+        DefaultSerializerRegistry<Object> registry = createRegistry();
+        registry.register(TestEventBatch.class, new TestEventBatchSerializer(paramSerializer));
+        return registry.build();
     }
 
     public ObjectReader<Object[]> newReader(final Decoder decoder) {
+        final Serializer<Object> connectionSerializer = createConnectionSerializer();
         return new ObjectReader<Object[]>() {
             public Object[] read() throws Exception {
                 int count = decoder.readSmallInt();
                 Object[] params = new Object[count];
                 for (int i = 0; i < params.length; i++) {
-                    params[i] = paramSerializer.read(decoder);
+                    params[i] = connectionSerializer.read(decoder);
                 }
                 return params;
             }
@@ -57,11 +72,12 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
     }
 
     public ObjectWriter<Object[]> newWriter(final Encoder encoder) {
+        final Serializer<Object> connectionSerializer = createConnectionSerializer();
         return new ObjectWriter<Object[]>() {
             public void write(Object[] value) throws Exception {
                 encoder.writeSmallInt(value.length);
                 for (int i = 0; i < value.length; i++) {
-                    paramSerializer.write(encoder, value[i]);
+                    connectionSerializer.write(encoder, value[i]);
                 }
             }
         };
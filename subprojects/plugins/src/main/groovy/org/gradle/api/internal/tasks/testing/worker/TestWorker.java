@@ -19,8 +19,10 @@ package org.gradle.api.internal.tasks.testing.worker;
 import org.gradle.api.Action;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
-import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestEventBatchProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.junit.JULRedirector;
+import org.gradle.api.internal.tasks.testing.processors.ThreadRoutingOutputRedirector;
 import org.gradle.internal.TrueTimeProvider;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.DefaultExecutorFactory;
@@ -31,6 +33,7 @@ import org.gradle.internal.id.LongIdGenerator;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.listener.ContextClassLoaderProxy;
+import org.gradle.logging.StandardOutputRedirector;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.messaging.actor.internal.DefaultActorFactory;
 import org.gradle.messaging.remote.ObjectConnection;
@@ -39,18 +42,31 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClassProcessor, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(TestWorker.class);
     public static final String WORKER_ID_SYS_PROPERTY = "org.gradle.test.worker";
     private final WorkerTestClassProcessorFactory factory;
+    private final int maxParallelClasses;
     private CountDownLatch completed;
     private TestClassProcessor processor;
-    private TestResultProcessor resultProcessor;
+    private BatchingTestResultProcessor resultProcessor;
+    private TestClassProcessedListener processedListener;
+    private ThreadRoutingOutputRedirector outputRedirector;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
+        this(factory, 1);
+    }
+
+    /**
+     * @param maxParallelClasses The maximum number of test classes to execute concurrently in the worker process.
+     */
+    public TestWorker(WorkerTestClassProcessorFactory factory, int maxParallelClasses) {
         this.factory = factory;
+        this.maxParallelClasses = maxParallelClasses;
     }
 
     public void execute(final WorkerProcessContext workerProcessContext) {
@@ -78,7 +94,7 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     }
 
     private void startReceivingTests(WorkerProcessContext workerProcessContext, ServiceRegistry testServices) {
-        TestClassProcessor targetProcessor = factory.create(testServices);
+        TestClassProcessor targetProcessor = maxParallelClasses > 1 ? createParallelProcessor(testServices) : factory.create(testServices);
         IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
 
         targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
@@ -89,31 +105,69 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
 
         ObjectConnection serverConnection = workerProcessContext.getServerConnection();
         serverConnection.useParameterSerializer(new TestEventSerializer());
-        this.resultProcessor = serverConnection.addOutgoing(TestResultProcessor.class);
+        this.resultProcessor = new BatchingTestResultProcessor(serverConnection.addOutgoing(TestEventBatchProcessor.class),
+                testServices.get(ExecutorFactory.class));
+        this.processedListener = serverConnection.addOutgoing(TestClassProcessedListener.class);
         serverConnection.addIncoming(RemoteTestClassProcessor.class, this);
         serverConnection.connect();
     }
 
+    private TestClassProcessor createParallelProcessor(ServiceRegistry testServices) {
+        // Each test class processor captures the output of the threads it executes test classes on
+        outputRedirector = new ThreadRoutingOutputRedirector(testServices.get(StandardOutputRedirector.class));
+        List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>(maxParallelClasses);
+        for (int i = 0; i < maxParallelClasses; i++) {
+            DefaultServiceRegistry processorServices = new DefaultServiceRegistry(testServices);
+            processorServices.add(StandardOutputRedirector.class, outputRedirector.createRedirector());
+            processors.add(factory.create(processorServices));
+        }
+        return new ParallelTestClassProcessor(processors, testServices.get(ExecutorFactory.class), testServices.get(ActorFactory.class),
+                new TestClassProcessedListener() {
+                    public void testClassProcessed() {
+                        testClassCompleted();
+                    }
+                });
+    }
+
     public void startProcessing() {
         Thread.currentThread().setName("Test worker");
+        if (outputRedirector != null) {
+            outputRedirector.start();
+        }
         processor.startProcessing(resultProcessor);
     }
 
     public void processTestClass(final TestClassRunInfo testClass) {
         Thread.currentThread().setName("Test worker");
+        if (maxParallelClasses > 1) {
+            // Returns once the test class has been handed to an idle test class processor, which reports when it has been executed
+            processor.processTestClass(testClass);
+            return;
+        }
         try {
             processor.processTestClass(testClass);
         } finally {
             // Clean the interrupted status
             Thread.interrupted();
+            testClassCompleted();
         }
     }
 
+    private void testClassCompleted() {
+        // Send the events of the test class before reporting that the worker is ready for another one
+        resultProcessor.flush();
+        processedListener.testClassProcessed();
+    }
+
     public void stop() {
         Thread.currentThread().setName("Test worker");
         try {
             processor.stop();
         } finally {
+            if (outputRedirector != null) {
+                outputRedirector.stop();
+            }
+            resultProcessor.stop();
             completed.countDown();
         }
     }
@@ -136,5 +190,9 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         protected ActorFactory createActorFactory() {
             return new DefaultActorFactory(get(ExecutorFactory.class));
         }
+
+        protected StandardOutputRedirector createStandardOutputRedirector() {
+            return new JULRedirector();
+        }
     }
 }
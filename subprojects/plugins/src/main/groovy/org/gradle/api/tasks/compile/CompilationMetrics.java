@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.tasks.compile;
+
+import org.gradle.api.Incubating;
+import org.gradle.api.Nullable;
+
+import java.util.Map;
+
+/**
+ * Describes the work done by the most recent execution of a compile task. The metrics are also included in the profile report.
+ */
+@Incubating
+public interface CompilationMetrics {
+    /**
+     * Returns true when only the sources affected by the changes since the previous compilation were compiled.
+     */
+    boolean isIncremental();
+
+    /**
+     * Returns the reason why all sources were compiled, or null when the compilation was incremental.
+     */
+    @Nullable
+    String getFullRebuildReason();
+
+    /**
+     * Returns the number of source files that were compiled.
+     */
+    int getCompiledSourceCount();
+
+    /**
+     * Returns the number of classes that were recompiled because they depend on a changed class, rather than because their
+     * own source changed. Zero when the compilation was not incremental.
+     */
+    int getDependentClassCount();
+
+    /**
+     * Returns true when the compiler ran in a compiler daemon that was started by an earlier compilation, rather than in a
+     * newly started daemon or in the build process.
+     */
+    boolean isCompilerDaemonReused();
+
+    /**
+     * Returns the elapsed times in milliseconds of the phases of the compilation, by description, in the order the phases
+     * were first measured. The phases of the compiler itself, such as those of javac, are only measured by the in-process
+     * compilers and the compiler daemons. When the sources are compiled in several concurrent compilations, the times
+     * of their phases are added up.
+     */
+    Map<String, Long> getPhaseTimes();
+}
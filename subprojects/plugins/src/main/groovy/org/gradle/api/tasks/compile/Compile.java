@@ -17,29 +17,28 @@
 package org.gradle.api.tasks.compile;
 
 import org.gradle.api.AntBuilder;
+import org.gradle.api.Incubating;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess;
 import org.gradle.api.internal.file.FileOperations;
-import org.gradle.api.internal.hash.DefaultHasher;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.tasks.TaskMetricsListener;
 import org.gradle.api.internal.tasks.compile.*;
 import org.gradle.api.internal.tasks.compile.Compiler;
 import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonManager;
 import org.gradle.api.internal.tasks.compile.incremental.CompilationSourceDirs;
-import org.gradle.api.internal.tasks.compile.incremental.IncrementalCompilationSupport;
-import org.gradle.api.internal.tasks.compile.incremental.SourceToNameConverter;
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
-import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfoExtractor;
+import org.gradle.api.internal.tasks.compile.incremental.IncrementalCompilerFactory;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfoSerializer;
-import org.gradle.api.internal.tasks.compile.incremental.jar.ClassSnapshotter;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
-import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotFeeder;
-import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotter;
-import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpecProvider;
+import org.gradle.api.internal.tasks.compile.parallel.ParallelJavaCompiler;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.listener.ListenerManager;
 import org.gradle.util.DeprecationLogger;
 import org.gradle.util.SingleMessageLogger;
 
@@ -53,15 +52,17 @@ import java.io.File;
 @Deprecated
 public class Compile extends AbstractCompile {
 
+    private final Factory<AntBuilder> antBuilderFactory;
     private Compiler<JavaCompileSpec> cleaningCompiler;
     private File dependencyCacheDir;
     private final CompileOptions compileOptions = new CompileOptions();
+    private DefaultCompilationMetrics compilationMetrics;
 
     public Compile() {
         if (!(this instanceof JavaCompile)) {
             DeprecationLogger.nagUserOfReplacedTaskType("Compile", "JavaCompile task type");
         }
-        Factory<AntBuilder> antBuilderFactory = getServices().getFactory(AntBuilder.class);
+        antBuilderFactory = getServices().getFactory(AntBuilder.class);
         JavaCompilerFactory inProcessCompilerFactory = new InProcessJavaCompilerFactory();
         ProjectInternal projectInternal = (ProjectInternal) getProject();
         CompilerDaemonManager compilerDaemonManager = getServices().get(CompilerDaemonManager.class);
@@ -72,26 +73,26 @@ public class Compile extends AbstractCompile {
 
     @TaskAction
     protected void compile(IncrementalTaskInputs inputs) {
+        compilationMetrics = new DefaultCompilationMetrics();
         if (!compileOptions.isIncremental()) {
+            compilationMetrics.fullRebuild("incremental compilation is not enabled");
             compile();
             return;
         }
 
         SingleMessageLogger.incubatingFeatureUsed("Incremental java compilation");
 
-        //bunch of services that enable incremental java compilation. Should be pushed out to services/factories.
-        ClassDependenciesAnalyzer analyzer = new ClassDependenciesAnalyzer(); //TODO SF needs caching
-        ClassDependencyInfoExtractor extractor = new ClassDependencyInfoExtractor(analyzer);
-        JarSnapshotCache jarSnapshotCache = new JarSnapshotCache(new File(getProject().getRootProject().getProjectDir(), ".gradle/jar-snapshot-cache.bin")); //TODO SF cannot be global
-        JarSnapshotFeeder jarSnapshotFeeder = new JarSnapshotFeeder(jarSnapshotCache, new JarSnapshotter(new ClassSnapshotter(new DefaultHasher(), analyzer)));
-        ClassDependencyInfoSerializer dependencyInfoSerializer = new ClassDependencyInfoSerializer(new File(getProject().getBuildDir(), "class-info.bin"));
-        CompilationSourceDirs sourceDirs = new CompilationSourceDirs(source);
-        SourceToNameConverter sourceToNameConverter = new SourceToNameConverter(sourceDirs); //can be replaced with converter that parses input source class
-        RecompilationSpecProvider recompilationSpecProvider = new RecompilationSpecProvider(sourceToNameConverter, dependencyInfoSerializer, (FileOperations) getProject(), jarSnapshotFeeder);
-        IncrementalCompilationSupport incrementalSupport = new IncrementalCompilationSupport(jarSnapshotFeeder, dependencyInfoSerializer, (FileOperations) getProject(),
-                extractor, (CleaningJavaCompiler) cleaningCompiler, getPath(), recompilationSpecProvider);
-        Compiler<JavaCompileSpec> compiler = incrementalSupport.prepareCompiler(inputs, sourceDirs);
-        performCompilation(compiler);
+        CleaningJavaCompiler compiler = (CleaningJavaCompiler) cleaningCompiler;
+        if (compileOptions.isParallel()) {
+            ClassDependencyInfoSerializer dependencyInfoSerializer = new ClassDependencyInfoSerializer(new File(getTemporaryDir(), IncrementalCompilerFactory.CLASS_DEPENDENCY_INFO_FILE));
+            ParallelJavaCompiler parallelCompiler = new ParallelJavaCompiler(compiler.getCompiler(), new CompilationSourceDirs(source), dependencyInfoSerializer,
+                    getServices().get(ExecutorFactory.class), Runtime.getRuntime().availableProcessors(), new File(getTemporaryDir(), "parallel-compilation"));
+            compiler = new CleaningJavaCompiler(parallelCompiler, antBuilderFactory, getOutputs());
+        }
+        IncrementalCompilerFactory<JavaCompileSpec> incrementalCompilerFactory = new IncrementalCompilerFactory<JavaCompileSpec>(
+                (FileOperations) getProject(), getPath(), compiler, getServices().get(JarSnapshotCache.class),
+                getServices().get(TaskArtifactStateCacheAccess.class), getServices().get(FileSnapshotter.class), getTemporaryDir(), compilationMetrics);
+        performCompilation(incrementalCompilerFactory.createCompiler(inputs, source));
     }
 
     protected void compile() {
@@ -107,7 +108,15 @@ public class Compile extends AbstractCompile {
         spec.setSourceCompatibility(getSourceCompatibility());
         spec.setTargetCompatibility(getTargetCompatibility());
         spec.setCompileOptions(compileOptions);
+        if (compilationMetrics == null) {
+            // compile() was called directly rather than through the task action
+            compilationMetrics = new DefaultCompilationMetrics();
+            compilationMetrics.fullRebuild("the compilation was not started by the task action");
+        }
+        compilationMetrics.setCompiledSourceCount(spec.getSource().getFiles().size());
         WorkResult result = compiler.execute(spec);
+        compilationMetrics.compilerFinished(result);
+        getServices().get(ListenerManager.class).getBroadcaster(TaskMetricsListener.class).taskMeasured(this, compilationMetrics.getSummary(), compilationMetrics.getPhaseTimes());
         setDidWork(result.getDidWork());
     }
 
@@ -130,6 +139,14 @@ public class Compile extends AbstractCompile {
         return compileOptions;
     }
 
+    /**
+     * Returns the metrics of the most recent execution of this task, or null if the task has not executed.
+     */
+    @Incubating
+    public CompilationMetrics getCompilationMetrics() {
+        return compilationMetrics;
+    }
+
     public Compiler<JavaCompileSpec> getJavaCompiler() {
         return cleaningCompiler;
     }
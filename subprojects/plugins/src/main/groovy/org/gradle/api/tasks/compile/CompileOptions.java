@@ -35,7 +35,7 @@ public class CompileOptions extends AbstractOptions {
     private static final long serialVersionUID = 0;
 
     private static final ImmutableSet<String> EXCLUDE_FROM_ANT_PROPERTIES =
-            ImmutableSet.of("debugOptions", "forkOptions", "compilerArgs", "dependOptions", "useDepend", "useAnt", "incremental");
+            ImmutableSet.of("debugOptions", "forkOptions", "compilerArgs", "dependOptions", "useDepend", "useAnt", "incremental", "parallel");
 
     private boolean failOnError = true;
 
@@ -75,6 +75,7 @@ public class CompileOptions extends AbstractOptions {
 
     private boolean useAnt;
     private boolean incremental;
+    private boolean parallel;
 
     /**
      * Tells whether to fail the build when compilation fails. Defaults to {@code true}.
@@ -486,6 +487,7 @@ public class CompileOptions extends AbstractOptions {
     @Incubating
     /**
      * Configure the java compilation to be incremental (e.g. compiles only those java classes that were changed or that are dependencies to the changed classes).
+     * When set on a {@link GroovyCompile} task, the joint Groovy and Java compilation is incremental.
      * The feature is incubating and does not yet satisfies all compilation scenarios.
      */
     public CompileOptions setIncremental(boolean incremental) {
@@ -494,6 +496,28 @@ public class CompileOptions extends AbstractOptions {
         return this;
     }
 
+    @Incubating
+    /**
+     * Configure the java compilation of large source sets to run as several compilations on multiple cores. The sources are split into
+     * groups of classes that do not depend on each other, using the class dependencies recorded by the previous compilation, so this only
+     * takes effect together with {@link #setIncremental(boolean) incremental} compilation, and requires a Java 6 or later compiler.
+     * Sources that may be processed by annotation processors are compiled in a single compilation.
+     * The feature is incubating.
+     */
+    public CompileOptions setParallel(boolean parallel) {
+        SingleMessageLogger.incubatingFeatureUsed("Parallel java compilation");
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * informs whether to compile large source sets on multiple cores. See {@link #setParallel(boolean)}
+     */
+    @Incubating
+    public boolean isParallel() {
+        return parallel;
+    }
+
     /**
      * Internal method.
      */
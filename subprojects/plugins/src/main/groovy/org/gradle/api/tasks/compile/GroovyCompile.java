@@ -17,22 +17,32 @@
 package org.gradle.api.tasks.compile;
 
 import org.gradle.api.AntBuilder;
+import org.gradle.api.Incubating;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.ClassPathRegistry;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess;
+import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.api.internal.project.IsolatedAntBuilder;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.tasks.TaskMetricsListener;
 import org.gradle.api.internal.tasks.compile.Compiler;
 import org.gradle.api.internal.tasks.compile.*;
 import org.gradle.api.internal.tasks.compile.daemon.CompilerDaemonManager;
 import org.gradle.api.internal.tasks.compile.daemon.InProcessCompilerDaemonFactory;
+import org.gradle.api.internal.tasks.compile.incremental.IncrementalCompilerFactory;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.Factory;
+import org.gradle.listener.ListenerManager;
 import org.gradle.util.GFileUtils;
+import org.gradle.util.SingleMessageLogger;
 
 import java.io.File;
 
@@ -43,6 +53,7 @@ public class GroovyCompile extends AbstractCompile {
     private Compiler<GroovyJavaJointCompileSpec> compiler;
     private FileCollection groovyClasspath;
     private final CompileOptions compileOptions = new CompileOptions();
+    private DefaultCompilationMetrics compilationMetrics;
     private final GroovyCompileOptions groovyCompileOptions = new GroovyCompileOptions();
     private final TemporaryFileProvider tempFileProvider;
 
@@ -62,7 +73,33 @@ public class GroovyCompile extends AbstractCompile {
     }
 
     @TaskAction
+    protected void compile(IncrementalTaskInputs inputs) {
+        compilationMetrics = new DefaultCompilationMetrics();
+        if (!compileOptions.isIncremental()) {
+            compilationMetrics.fullRebuild("incremental compilation is not enabled");
+            compile();
+            return;
+        }
+        if (!(compiler instanceof CleaningGroovyCompiler)) {
+            //a compiler set with setCompiler() does not clean the stale classes
+            compilationMetrics.fullRebuild("the compiler does not support incremental compilation");
+            compile();
+            return;
+        }
+
+        SingleMessageLogger.incubatingFeatureUsed("Incremental groovy compilation");
+
+        IncrementalCompilerFactory<GroovyJavaJointCompileSpec> incrementalCompilerFactory = new IncrementalCompilerFactory<GroovyJavaJointCompileSpec>(
+                (FileOperations) getProject(), getPath(), (CleaningGroovyCompiler) compiler, getServices().get(JarSnapshotCache.class),
+                getServices().get(TaskArtifactStateCacheAccess.class), getServices().get(FileSnapshotter.class), getTemporaryDir(), compilationMetrics);
+        performCompilation(incrementalCompilerFactory.createCompiler(inputs, source));
+    }
+
     protected void compile() {
+        performCompilation(compiler);
+    }
+
+    private void performCompilation(Compiler<GroovyJavaJointCompileSpec> compiler) {
         checkGroovyClasspathIsNonEmpty();
         DefaultGroovyJavaJointCompileSpec spec = new DefaultGroovyJavaJointCompileSpec();
         spec.setSource(getSource());
@@ -78,7 +115,15 @@ public class GroovyCompile extends AbstractCompile {
             GFileUtils.mkdirs(dir);
             spec.getGroovyCompileOptions().setStubDir(dir);
         }
+        if (compilationMetrics == null) {
+            // compile() was called directly rather than through the task action
+            compilationMetrics = new DefaultCompilationMetrics();
+            compilationMetrics.fullRebuild("the compilation was not started by the task action");
+        }
+        compilationMetrics.setCompiledSourceCount(spec.getSource().getFiles().size());
         WorkResult result = compiler.execute(spec);
+        compilationMetrics.compilerFinished(result);
+        getServices().get(ListenerManager.class).getBroadcaster(TaskMetricsListener.class).taskMeasured(this, compilationMetrics.getSummary(), compilationMetrics.getPhaseTimes());
         setDidWork(result.getDidWork());
     }
 
@@ -110,6 +155,14 @@ public class GroovyCompile extends AbstractCompile {
         return compileOptions;
     }
 
+    /**
+     * Returns the metrics of the most recent execution of this task, or null if the task has not executed.
+     */
+    @Incubating
+    public CompilationMetrics getCompilationMetrics() {
+        return compilationMetrics;
+    }
+
     /**
      * Returns the classpath containing the version of Groovy to use for compilation.
      *
@@ -20,10 +20,13 @@ import groovy.lang.Closure;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.Incubating;
+import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.internal.changedetection.state.FileSnapshotter;
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.tasks.options.Option;
 import org.gradle.api.internal.tasks.testing.DefaultTestTaskReports;
@@ -31,8 +34,12 @@ import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
+import org.gradle.api.internal.tasks.testing.detection.TestClassDetectionCache;
 import org.gradle.api.internal.tasks.testing.detection.TestExecuter;
+import org.gradle.api.internal.tasks.testing.incremental.IncrementalTestExecution;
+import org.gradle.api.internal.tasks.testing.sharding.TestShardSpec;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
+import org.gradle.api.internal.tasks.testing.history.TestFailureHistory;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junit.report.DefaultTestReport;
 import org.gradle.api.internal.tasks.testing.junit.report.TestReporter;
@@ -44,13 +51,18 @@ import org.gradle.api.logging.LogLevel;
 import org.gradle.api.reporting.DirectoryReport;
 import org.gradle.api.reporting.Reporting;
 import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
 import org.gradle.api.tasks.*;
 import org.gradle.api.tasks.testing.logging.TestLogging;
 import org.gradle.api.tasks.testing.logging.TestLoggingContainer;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.FileLockManager;
 import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.listener.ClosureBackedMethodInvocationDispatch;
 import org.gradle.listener.ListenerBroadcast;
@@ -70,6 +82,8 @@ import javax.inject.Inject;
 import java.io.File;
 import java.util.*;
 
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
 /**
  * Executes JUnit (3.8.x or 4.x) or TestNG tests. Test are always run in (one or more) separate JVMs.
  * The sample below shows various configuration options.
@@ -136,8 +150,16 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private FileCollection classpath;
     private TestFramework testFramework;
     private boolean scanForTestClasses = true;
+    private boolean runOnlyAffectedTests;
+    private boolean runFailedTestsFirst;
+    private boolean failFast;
     private long forkEvery;
     private int maxParallelForks = 1;
+    private int maxParallelClassesPerFork = 1;
+    private boolean reuseForkedProcesses;
+    private int shardIndex = 1;
+    private int shardCount = 1;
+    private FileCollection shardDurationResults;
     private TestReporter testReporter;
 
     @Nested
@@ -146,7 +168,7 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     @Inject
     public Test(ListenerManager listenerManager, StyledTextOutputFactory textOutputFactory, FileResolver fileResolver,
                 Factory<WorkerProcessBuilder> processBuilderFactory, ActorFactory actorFactory, Instantiator instantiator,
-                ProgressLoggerFactory progressLoggerFactory) {
+                ProgressLoggerFactory progressLoggerFactory, TestClassDetectionCache testClassDetectionCache) {
         this.progressLoggerFactory = progressLoggerFactory;
         this.instantiator = instantiator;
         testListenerBroadcaster = listenerManager.createAnonymousBroadcaster(TestListener.class);
@@ -154,9 +176,10 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.textOutputFactory = textOutputFactory;
         forkOptions = new DefaultJavaForkOptions(fileResolver);
         forkOptions.setEnableAssertions(true);
-        testExecuter = new DefaultTestExecuter(processBuilderFactory, actorFactory);
+        testExecuter = new DefaultTestExecuter(processBuilderFactory, actorFactory, testClassDetectionCache,
+                getServices().get(TaskArtifactStateCacheAccess.class), getServices().get(FileSnapshotter.class));
         testLogging = instantiator.newInstance(DefaultTestLoggingContainer.class, instantiator);
-        testReporter = new DefaultTestReport();
+        testReporter = new DefaultTestReport(getServices().get(ExecutorFactory.class));
 
         reports = instantiator.newInstance(DefaultTestTaskReports.class, this);
         reports.getJunitXml().setEnabled(true);
@@ -452,6 +475,26 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
 
         File binaryResultsDir = getBinResultsDir();
+        Map<String, Long> previousDurations = readPreviousDurations(binaryResultsDir);
+        IncrementalTestExecution incrementalExecution = new IncrementalTestExecution(binaryResultsDir, getTemporaryDir(),
+                getServices().get(TaskArtifactStateCacheAccess.class), getServices().get(FileSnapshotter.class));
+        Spec<String> testClassSpec = Specs.satisfyAll();
+        if (isRunOnlyAffectedTests() && getFilter().getIncludePatterns().isEmpty()) {
+            testClassSpec = incrementalExecution.selectTestClasses(getClasspath(), getInputs().getProperties());
+        } else {
+            incrementalExecution.discard();
+        }
+        if (getShardCount() > 1) {
+            testClassSpec = Specs.<String>and(createShardSpec(), testClassSpec);
+        }
+        final List<String> recentFailures = new ArrayList<String>();
+        if (isRunFailedTestsFirst()) {
+            useFailureHistory(new Action<TestFailureHistory>() {
+                public void execute(TestFailureHistory history) {
+                    recentFailures.addAll(history.getRecentFailures());
+                }
+            });
+        }
         getProject().delete(binaryResultsDir);
         getProject().mkdir(binaryResultsDir);
 
@@ -471,7 +514,8 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
                 getTestListenerBroadcaster().getSource(), testOutputListenerBroadcaster.getSource());
 
         try {
-            testExecuter.execute(this, resultProcessor);
+            testExecuter.execute(this, resultProcessor, testClassSpec, previousDurations, recentFailures);
+            incrementalExecution.carryOverResults(results, outputWriter);
         } finally {
             testListenerBroadcaster.removeAll();
             testOutputListenerBroadcaster.removeAll();
@@ -479,6 +523,10 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
 
         new TestResultSerializer(binaryResultsDir).write(results.values());
+        incrementalExecution.complete();
+        if (isRunFailedTestsFirst()) {
+            recordFailures(results.values());
+        }
 
         TestResultsProvider testResultsProvider = new InMemoryTestResultsProvider(results.values(), testOutputStore.reader());
 
@@ -488,7 +536,7 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
                 TestOutputAssociation outputAssociation = junitXml.isOutputPerTestCase()
                         ? TestOutputAssociation.WITH_TESTCASE
                         : TestOutputAssociation.WITH_SUITE;
-                Binary2JUnitXmlReportGenerator binary2JUnitXmlReportGenerator = new Binary2JUnitXmlReportGenerator(junitXml.getDestination(), testResultsProvider, outputAssociation);
+                Binary2JUnitXmlReportGenerator binary2JUnitXmlReportGenerator = new Binary2JUnitXmlReportGenerator(junitXml.getDestination(), testResultsProvider, outputAssociation, getServices().get(ExecutorFactory.class));
                 binary2JUnitXmlReportGenerator.generate();
             }
 
@@ -1008,6 +1056,75 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.scanForTestClasses = scanForTestClasses;
     }
 
+    /**
+     * Specifies whether only the test classes affected by changes since the previous run should be executed. When {@code true}, a test class is
+     * executed when it, or any class it refers to directly or transitively, has changed. The results of the other test classes are carried over
+     * from the previous run. All test classes are executed when any jar or resource on the test runtime classpath, or any other input of this task,
+     * has changed, and when test name include patterns are specified.
+     *
+     * <p>Only references visible in the compiled classes are followed, so a test class that depends on another class only through reflection or
+     * configuration files may not be executed when that class changes. Delete the binary results, for example by running {@code cleanTest}, to
+     * execute all test classes. The default value is {@code false}.
+     */
+    @Input
+    @Incubating
+    public boolean isRunOnlyAffectedTests() {
+        return runOnlyAffectedTests;
+    }
+
+    /**
+     * Sets whether only the test classes affected by changes since the previous run should be executed.
+     *
+     * @see #isRunOnlyAffectedTests()
+     */
+    @Incubating
+    public void setRunOnlyAffectedTests(boolean runOnlyAffectedTests) {
+        this.runOnlyAffectedTests = runOnlyAffectedTests;
+    }
+
+    /**
+     * Specifies whether the test classes that failed during the recent executions of this task are executed before the other test classes, so that a
+     * build that is going to fail does so as early as possible. The most recent failures are executed first. The failures are remembered for the last
+     * {@value org.gradle.api.internal.tasks.testing.history.TestFailureHistory#MAX_EXECUTIONS} executions of the task with this option enabled. The
+     * default value is {@code false}.
+     *
+     * @see #isFailFast()
+     */
+    @Incubating
+    public boolean isRunFailedTestsFirst() {
+        return runFailedTestsFirst;
+    }
+
+    /**
+     * Sets whether the test classes that failed recently are executed before the other test classes.
+     *
+     * @see #isRunFailedTestsFirst()
+     */
+    @Incubating
+    public void setRunFailedTestsFirst(boolean runFailedTestsFirst) {
+        this.runFailedTestsFirst = runFailedTestsFirst;
+    }
+
+    /**
+     * Specifies whether to stop executing test classes once a test has failed. The test classes that are being executed at that point are
+     * completed, and the remaining test classes are skipped. The default value is {@code false}.
+     */
+    @Input
+    @Incubating
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    /**
+     * Sets whether to stop executing test classes once a test has failed.
+     *
+     * @see #isFailFast()
+     */
+    @Incubating
+    public void setFailFast(boolean failFast) {
+        this.failFast = failFast;
+    }
+
     /**
      * Returns the maximum number of test classes to execute in a forked test process. The forked test process will be restarted when this limit is reached. The default value is 0 (no maximum).
      *
@@ -1050,6 +1167,131 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.maxParallelForks = maxParallelForks;
     }
 
+    /**
+     * Returns the maximum number of test classes each forked test process executes concurrently, on separate threads. Executing test classes
+     * concurrently in fewer processes uses less memory than forking more processes, but the test classes must not interfere with each other
+     * through static state, system properties or files. The standard output and error of each test class is captured separately, including the
+     * output of threads started by the test class. The default value is 1 (test classes are executed one at a time).
+     *
+     * @return The maximum number of test classes executed concurrently by a forked test process.
+     */
+    @Incubating
+    public int getMaxParallelClassesPerFork() {
+        return maxParallelClassesPerFork;
+    }
+
+    /**
+     * Sets the maximum number of test classes each forked test process executes concurrently. Set to 1 to execute the test classes one at a time.
+     *
+     * @param maxParallelClassesPerFork The maximum number of test classes executed concurrently by a forked test process.
+     */
+    @Incubating
+    public void setMaxParallelClassesPerFork(int maxParallelClassesPerFork) {
+        if (maxParallelClassesPerFork < 1) {
+            throw new IllegalArgumentException("Cannot set maxParallelClassesPerFork to a value less than 1.");
+        }
+        this.maxParallelClassesPerFork = maxParallelClassesPerFork;
+    }
+
+    /**
+     * Specifies whether the forked test processes are kept alive once the tests have been executed, so that later executions of test tasks with the same
+     * java executable, JVM arguments, bootstrap classpath, working directory and environment can reuse them instead of starting new processes. This is
+     * most useful when running builds with the Gradle daemon, which keeps the processes alive between builds.
+     *
+     * <p>Each execution loads the test classes and the test framework in new ClassLoaders, which are discarded afterwards, and the system properties
+     * and security manager are reset once the tests have been executed. The test classes are not loaded by the system ClassLoader of a reused process,
+     * and static state kept by the JDK or by threads that the tests leave running is shared between executions. Processes are never reused when
+     * {@link #getForkEvery()} is set. A process is discarded when its execution fails, and after a limited number of executions. The default value is
+     * {@code false}.</p>
+     */
+    @Incubating
+    public boolean isReuseForkedProcesses() {
+        return reuseForkedProcesses;
+    }
+
+    /**
+     * Sets whether the forked test processes are kept alive and reused by later executions of test tasks.
+     *
+     * @see #isReuseForkedProcesses()
+     */
+    @Incubating
+    public void setReuseForkedProcesses(boolean reuseForkedProcesses) {
+        this.reuseForkedProcesses = reuseForkedProcesses;
+    }
+
+    /**
+     * Returns which shard of the test classes this task executes, from 1 to {@link #getShardCount()}. The default value is 1.
+     */
+    @Input
+    @Incubating
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    /**
+     * Sets which shard of the test classes this task executes, from 1 to {@link #getShardCount()}.
+     *
+     * @param shardIndex The shard to execute.
+     */
+    @Incubating
+    public void setShardIndex(int shardIndex) {
+        if (shardIndex < 1) {
+            throw new IllegalArgumentException("Cannot set shardIndex to a value less than 1.");
+        }
+        this.shardIndex = shardIndex;
+    }
+
+    /**
+     * Returns the number of shards the test classes are split into, so that the test suite can be executed by several builds, for example on different
+     * machines. Each build executes the test classes of the shard given by {@link #getShardIndex()}, and every test class is executed by exactly one of
+     * the shards. The results of the shards can be combined using {@link TestReport}. The default value is 1 (no sharding).
+     *
+     * <p>When {@link #getShardDurationResults()} is set, the test classes are spread over the shards so that each shard takes roughly the same time.
+     * Otherwise, and for test classes that have no previous result, the test classes are assigned to the shards by the hash of their name.</p>
+     */
+    @Input
+    @Incubating
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Sets the number of shards the test classes are split into. Set to 1 to execute all test classes.
+     *
+     * @param shardCount The number of shards.
+     */
+    @Incubating
+    public void setShardCount(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Cannot set shardCount to a value less than 1.");
+        }
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Returns the binary test results directories used to balance the test shards, by the duration of each test class. These are usually the binary
+     * results of all shards of a previous build, or those written by {@link TestReport#getBinResultsDir()}. All shards must use the same results,
+     * otherwise a test class may be executed by several shards or by none. The default value is {@code null} (shards are not balanced).
+     *
+     * @see #getShardCount()
+     */
+    @InputFiles
+    @Optional
+    @Incubating
+    public FileCollection getShardDurationResults() {
+        return shardDurationResults;
+    }
+
+    /**
+     * Sets the binary test results directories used to balance the test shards.
+     *
+     * @see #getShardDurationResults()
+     */
+    @Incubating
+    public void setShardDurationResults(FileCollection shardDurationResults) {
+        this.shardDurationResults = shardDurationResults;
+    }
+
     /**
      * Returns the classes files to scan for test classes.
      *
@@ -1140,6 +1382,79 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         throw new AssertionError("could not determine current log level");
     }
 
+    private Map<String, Long> readPreviousDurations(File binaryResultsDir) {
+        Map<String, Long> durations = new HashMap<String, Long>();
+        if (!readDurations(binaryResultsDir, durations)) {
+            // The durations are only used to order the test classes, so run in the default order
+            durations.clear();
+        }
+        return durations;
+    }
+
+    private void recordFailures(Collection<TestClassResult> results) {
+        final List<String> failedClasses = new ArrayList<String>();
+        for (TestClassResult result : results) {
+            if (result.getFailuresCount() > 0) {
+                failedClasses.add(result.getClassName());
+            }
+        }
+        useFailureHistory(new Action<TestFailureHistory>() {
+            public void execute(TestFailureHistory history) {
+                history.recordExecution(failedClasses);
+            }
+        });
+    }
+
+    private void useFailureHistory(Action<TestFailureHistory> action) {
+        // Kept with the task history, so that it survives cleaning the build directory
+        PersistentCache cache = getServices().get(CacheRepository.class)
+                .store(this, "testFailureHistory")
+                .withDisplayName("test failure history")
+                .withLockOptions(mode(FileLockManager.LockMode.Exclusive))
+                .open();
+        try {
+            action.execute(new TestFailureHistory(new File(cache.getBaseDir(), "failures.bin")));
+        } finally {
+            cache.close();
+        }
+    }
+
+    private TestShardSpec createShardSpec() {
+        if (getShardIndex() > getShardCount()) {
+            throw new InvalidUserDataException(String.format("Cannot run shard %s of %s for %s.", getShardIndex(), getShardCount(), this));
+        }
+        Map<String, Long> durations = new HashMap<String, Long>();
+        if (getShardDurationResults() != null) {
+            for (File resultsDir : getShardDurationResults()) {
+                if (!new TestResultSerializer(resultsDir).isHasResults()) {
+                    continue;
+                }
+                if (!readDurations(resultsDir, durations)) {
+                    // The other shards may be able to read the results, and would then assign the test classes differently
+                    throw new GradleException(String.format("Could not read the test results in %s to balance the test shards.", resultsDir));
+                }
+            }
+        }
+        return new TestShardSpec(getShardIndex(), getShardCount(), durations);
+    }
+
+    private boolean readDurations(File binaryResultsDir, final Map<String, Long> durations) {
+        try {
+            new TestResultSerializer(binaryResultsDir).read(new Action<TestClassResult>() {
+                public void execute(TestClassResult result) {
+                    Long duration = durations.get(result.getClassName());
+                    if (duration == null || duration < result.getDuration()) {
+                        durations.put(result.getClassName(), result.getDuration());
+                    }
+                }
+            });
+            return true;
+        } catch (Exception e) {
+            getLogger().debug("Could not read the test results of the previous run from " + binaryResultsDir, e);
+            return false;
+        }
+    }
+
     private TestExceptionFormatter getExceptionFormatter(TestLogging testLogging) {
         switch (testLogging.getExceptionFormat()) {
             case SHORT:
@@ -24,11 +24,14 @@ import org.gradle.api.internal.file.UnionFileCollection;
 import org.gradle.api.internal.tasks.testing.junit.report.DefaultTestReport;
 import org.gradle.api.internal.tasks.testing.junit.result.AggregateTestResultsProvider;
 import org.gradle.api.internal.tasks.testing.junit.result.BinaryResultBackedTestResultsProvider;
+import org.gradle.api.internal.tasks.testing.junit.result.BinaryTestResultsWriter;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.SkipWhenEmpty;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.internal.concurrent.ExecutorFactory;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -44,6 +47,7 @@ import static org.gradle.util.CollectionUtils.collect;
 @Incubating
 public class TestReport extends DefaultTask {
     private File destinationDir;
+    private File binResultsDir;
     private List<Object> results = new ArrayList<Object>();
 
     /**
@@ -61,6 +65,23 @@ public class TestReport extends DefaultTask {
         this.destinationDir = destinationDir;
     }
 
+    /**
+     * Returns the directory to write the combined binary test results to, or {@code null} when they are not written. The combined results can be
+     * used in the same way as the binary results of a single {@link Test} task, for example to balance the shards of a test task that is split
+     * using {@link Test#getShardCount()}.
+     */
+    @OutputDirectory @Optional
+    public File getBinResultsDir() {
+        return binResultsDir;
+    }
+
+    /**
+     * Sets the directory to write the combined binary test results to.
+     */
+    public void setBinResultsDir(File binResultsDir) {
+        this.binResultsDir = binResultsDir;
+    }
+
     /**
      * Returns the set of binary test results to include in the report.
      */
@@ -126,8 +147,11 @@ public class TestReport extends DefaultTask {
         TestResultsProvider resultsProvider = createAggregateProvider();
         try {
             if (resultsProvider.isHasResults()) {
-                DefaultTestReport testReport = new DefaultTestReport();
+                DefaultTestReport testReport = new DefaultTestReport(getServices().get(ExecutorFactory.class));
                 testReport.generateReport(resultsProvider, getDestinationDir());
+                if (getBinResultsDir() != null) {
+                    new BinaryTestResultsWriter(getBinResultsDir()).write(resultsProvider);
+                }
             } else {
                 setDidWork(false);
             }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.tasks.WorkResult
+import spock.lang.Specification
+
+class DefaultCompilationMetricsTest extends Specification {
+    def metrics = new DefaultCompilationMetrics()
+
+    def "summarizes a full rebuild"() {
+        when:
+        metrics.fullRebuild("a change to foo.jar")
+        metrics.compiledSourceCount = 10
+
+        then:
+        !metrics.incremental
+        metrics.summary == ["Compilation": "full rebuild, a change to foo.jar", "Sources compiled": "10", "Compiler daemon reused": "no"]
+    }
+
+    def "summarizes an incremental compilation"() {
+        when:
+        metrics.incremental(3)
+        metrics.compiledSourceCount = 4
+        def result = new MeasuredWorkResult(true, [:])
+        result.daemonReused = true
+        metrics.compilerFinished(result)
+
+        then:
+        metrics.incremental
+        metrics.fullRebuildReason == null
+        metrics.summary == ["Compilation": "incremental", "Sources compiled": "4", "Dependent classes recompiled": "3", "Compiler daemon reused": "yes"]
+    }
+
+    def "accumulates the phase times reported by the compiler"() {
+        when:
+        metrics.addPhaseTime("detection of classes to compile", 5)
+        metrics.compilerFinished(new MeasuredWorkResult(true, ["javac analyze": 100L, "javac generate": 20L]))
+        metrics.compilerFinished(new MeasuredWorkResult(true, ["javac analyze": 50L]))
+
+        then:
+        metrics.phaseTimes == ["detection of classes to compile": 5L, "javac analyze": 150L, "javac generate": 20L]
+    }
+
+    def "ignores results without measurements"() {
+        when:
+        metrics.compilerFinished({ true } as WorkResult)
+
+        then:
+        metrics.phaseTimes.isEmpty()
+        !metrics.compilerDaemonReused
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.compile.daemon
 
+import org.gradle.internal.TimeProvider
 import org.gradle.util.ConcurrentSpecification
 import spock.lang.Subject
 
@@ -25,8 +26,10 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
 
     def options = Stub(DaemonForkOptions)
     def starter = Stub(CompilerDaemonStarter)
+    def timeProvider = Stub(TimeProvider)
+    def systemMemory = Stub(SystemMemory)
 
-    @Subject manager = new CompilerClientsManager(starter)
+    @Subject manager = new CompilerClientsManager(timeProvider, systemMemory)
 
     def "does not reserve idle client when no clients"() {
         expect:
@@ -35,6 +38,7 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
 
     def "does not reserve idle client when no matching client found"() {
         def noMatch = Stub(CompilerDaemonClient) {
+            isRunning() >> true
             isCompatibleWith(_) >> false
         }
 
@@ -43,8 +47,8 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
     }
 
     def "reserves idle client when match found"() {
-        def noMatch = Stub(CompilerDaemonClient) { isCompatibleWith(_) >> false }
-        def match = Stub(CompilerDaemonClient) { isCompatibleWith(_) >> true }
+        def noMatch = Stub(CompilerDaemonClient) { isRunning() >> true; isCompatibleWith(_) >> false }
+        def match = Stub(CompilerDaemonClient) { isRunning() >> true; isCompatibleWith(_) >> true }
         def input = [noMatch, match]
 
         expect:
@@ -52,12 +56,21 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
         input == [noMatch] //match removed from input
     }
 
+    def "discards idle clients that have stopped"() {
+        def stopped = Stub(CompilerDaemonClient) { isRunning() >> false; isCompatibleWith(_) >> true }
+        def input = [stopped]
+
+        expect:
+        manager.reserveIdleClient(options, input) == null
+        input.isEmpty()
+    }
+
     def "reserves new client"() {
         def newClient = Stub(CompilerDaemonClient)
         starter.startDaemon(workingDir, options) >> newClient
 
         when:
-        def client = manager.reserveNewClient(workingDir, options)
+        def client = manager.reserveNewClient(starter, workingDir, options)
 
         then:
         newClient == client
@@ -69,8 +82,8 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
         starter.startDaemon(workingDir, options) >>> [client1, client2]
 
         when:
-        manager.reserveNewClient(workingDir, options)
-        manager.reserveNewClient(workingDir, options)
+        manager.reserveNewClient(starter, workingDir, options)
+        manager.reserveNewClient(starter, workingDir, options)
         manager.stop()
 
         then:
@@ -79,11 +92,11 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
     }
 
     def "clients can be released for further use"() {
-        def client = Mock(CompilerDaemonClient) { isCompatibleWith(_) >> true }
+        def client = Mock(CompilerDaemonClient) { isRunning() >> true; isCompatibleWith(_) >> true }
         starter.startDaemon(workingDir, options) >> client
 
         when:
-        manager.reserveNewClient(workingDir, options)
+        manager.reserveNewClient(starter, workingDir, options)
 
         then:
         manager.reserveIdleClient(options) == null
@@ -94,4 +107,45 @@ class CompilerClientsManagerTest extends ConcurrentSpecification {
         then:
         manager.reserveIdleClient(options) == client
     }
+
+    def "stops clients that have been idle for too long"() {
+        def client1 = Mock(CompilerDaemonClient) { isRunning() >> true; isCompatibleWith(_) >> true }
+        def client2 = Mock(CompilerDaemonClient) { isRunning() >> true; isCompatibleWith(_) >> true }
+        starter.startDaemon(workingDir, options) >>> [client1, client2]
+        timeProvider.currentTime >>> [1000, 2000, 1000 + CompilerClientsManager.MAX_IDLE_TIME]
+
+        manager.reserveNewClient(starter, workingDir, options)
+        manager.reserveNewClient(starter, workingDir, options)
+        manager.release(client1)
+        manager.release(client2)
+
+        when:
+        manager.expireIdleClients()
+
+        then:
+        1 * client1.stop()
+        0 * client2.stop()
+        manager.idleClientCount == 1
+        manager.reserveIdleClient(options) == client2
+    }
+
+    def "stops all idle clients when low on memory"() {
+        def client1 = Mock(CompilerDaemonClient) { isRunning() >> true }
+        def client2 = Mock(CompilerDaemonClient) { isRunning() >> true }
+        starter.startDaemon(workingDir, options) >>> [client1, client2]
+        timeProvider.currentTime >> 1000
+        systemMemory.isLow(_) >> true
+
+        manager.reserveNewClient(starter, workingDir, options)
+        manager.reserveNewClient(starter, workingDir, options)
+        manager.release(client1)
+
+        when:
+        manager.expireIdleClients()
+
+        then:
+        1 * client1.stop()
+        0 * client2.stop()
+        manager.idleClientCount == 0
+    }
 }
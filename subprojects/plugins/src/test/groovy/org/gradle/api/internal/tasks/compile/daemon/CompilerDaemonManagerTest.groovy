@@ -25,8 +25,9 @@ class CompilerDaemonManagerTest extends Specification {
 
     def clientsManager = Mock(CompilerClientsManager)
     def client = Mock(CompilerDaemonClient)
+    def starter = Stub(CompilerDaemonStarter)
 
-    @Subject manager = new CompilerDaemonManager(clientsManager)
+    @Subject manager = new CompilerDaemonManager(clientsManager, starter)
 
     def workingDir = new File("some-dir")
     def compiler = Stub(Compiler)
@@ -49,7 +50,7 @@ class CompilerDaemonManagerTest extends Specification {
         1 * clientsManager.reserveIdleClient(options) >> null
 
         then:
-        1 * clientsManager.reserveNewClient(workingDir, options) >> client
+        1 * clientsManager.reserveNewClient(starter, workingDir, options) >> client
 
         then:
         1 * client.execute(compiler, compileSpec)
@@ -90,11 +91,12 @@ class CompilerDaemonManagerTest extends Specification {
         0 * _._
     }
 
-    def "stops clients"() {
+    def "expires idle clients when the build completes"() {
         when:
         manager.stop()
 
         then:
-        clientsManager.stop()
+        1 * clientsManager.expireIdleClients()
+        0 * clientsManager.stop()
     }
 }
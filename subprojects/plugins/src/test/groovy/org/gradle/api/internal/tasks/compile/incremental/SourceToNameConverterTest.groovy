@@ -18,18 +18,23 @@
 
 package org.gradle.api.internal.tasks.compile.incremental
 
+import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
+import org.objectweb.asm.ClassWriter
 import spock.lang.Specification
 import spock.lang.Subject
 
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC
+import static org.objectweb.asm.Opcodes.V1_5
+
 class SourceToNameConverterTest extends Specification {
 
     @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
     def srcDirs = Stub(CompilationSourceDirs) {
         getSourceDirs() >> [temp.file("src/main/java"), temp.file("src/main/java2")]
     }
-    @Subject converter = new SourceToNameConverter(srcDirs)
+    @Subject converter = new SourceToNameConverter(srcDirs, new ClassSourceFileReader())
 
     def "knows java source class relative path"() {
         expect:
@@ -40,4 +45,37 @@ class SourceToNameConverterTest extends Specification {
         when: converter.getClassName(temp.file("src/main/unknown/Xxx.java"))
         then: thrown(IllegalArgumentException)
     }
+
+    def "knows groovy source class relative path"() {
+        expect:
+        converter.getClassName(temp.file("src/main/java/Foo.groovy")) == "Foo"
+        converter.getClassName(temp.file("src/main/java/org/bar/BarSpec.groovy")) == "org.bar.BarSpec"
+    }
+
+    def "knows all top level classes compiled from a source file"() {
+        def classesDir = temp.file("classes")
+        writeClass(classesDir, "org/bar/Bar", "Bar.groovy")
+        writeClass(classesDir, "org/bar/Helper", "Bar.groovy")
+        writeClass(classesDir, "org/bar/Helper\$Inner", "Bar.groovy")
+        writeClass(classesDir, "org/bar/Other", "Other.groovy")
+
+        expect:
+        converter.getClassNames(temp.file("src/main/java/org/bar/Bar.groovy"), classesDir) as Set == ["org.bar.Bar", "org.bar.Helper"] as Set
+        converter.getClassNames(temp.file("src/main/java/org/bar/Other.groovy"), classesDir) as List == ["org.bar.Other"]
+    }
+
+    def "knows the class of a source file that was not compiled yet"() {
+        expect:
+        converter.getClassNames(temp.file("src/main/java/org/bar/Bar.groovy"), temp.file("classes")) as List == ["org.bar.Bar"]
+    }
+
+    private static void writeClass(TestFile classesDir, String internalName, String sourceFile) {
+        def writer = new ClassWriter(0)
+        writer.visit(V1_5, ACC_PUBLIC, internalName, null, "java/lang/Object", null)
+        writer.visitSource(sourceFile, null)
+        writer.visitEnd()
+        def classFile = classesDir.file(internalName + ".class")
+        classFile.parentFile.mkdirs()
+        classFile.bytes = writer.toByteArray()
+    }
 }
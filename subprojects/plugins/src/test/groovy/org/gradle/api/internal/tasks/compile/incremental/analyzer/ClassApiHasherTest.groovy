@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer
+
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.MethodVisitor
+import spock.lang.Specification
+import spock.lang.Subject
+
+import static org.objectweb.asm.Opcodes.*
+
+class ClassApiHasherTest extends Specification {
+
+    @Subject hasher = new ClassApiHasher()
+
+    def "hash does not change when only method bodies and private members change"() {
+        expect:
+        hash(createClass(1, ["foo"], [])) == hash(createClass(2, ["foo"], ["bar"]))
+    }
+
+    def "hash changes when non-private members change"() {
+        expect:
+        hash(createClass(1, ["foo"], [])) != hash(createClass(1, ["foo", "bar"], []))
+        hash(createClass(1, ["foo"], [])) != hash(createClass(1, ["bar"], []))
+    }
+
+    def "hash does not depend on the order of the members"() {
+        expect:
+        hash(createClass(1, ["foo", "bar"], [])) == hash(createClass(1, ["bar", "foo"], []))
+    }
+
+    def "hash changes when a constant value changes"() {
+        expect:
+        hash(createClass(1, [], [], 1)) != hash(createClass(1, [], [], 2))
+    }
+
+    private byte[] hash(byte[] classBytes) {
+        hasher.hash(new ByteArrayInputStream(classBytes))
+    }
+
+    private static byte[] createClass(int returnValue, List<String> publicMethods, List<String> privateMethods, Integer constant = null) {
+        def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+        writer.visit(V1_5, ACC_PUBLIC | ACC_SUPER, "org/gradle/Foo", null, "java/lang/Object", null)
+        if (constant != null) {
+            writer.visitField(ACC_PUBLIC | ACC_STATIC | ACC_FINAL, "CONSTANT", "I", null, constant).visitEnd()
+        }
+        publicMethods.each { addMethod(writer, ACC_PUBLIC, it, returnValue) }
+        privateMethods.each { addMethod(writer, ACC_PRIVATE, it, returnValue) }
+        writer.visitEnd()
+        writer.toByteArray()
+    }
+
+    private static void addMethod(ClassWriter writer, int access, String name, int returnValue) {
+        MethodVisitor method = writer.visitMethod(access, name, "()I", null, null)
+        method.visitCode()
+        method.visitLdcInsn(returnValue)
+        method.visitInsn(IRETURN)
+        method.visitMaxs(0, 0)
+        method.visitEnd()
+    }
+}
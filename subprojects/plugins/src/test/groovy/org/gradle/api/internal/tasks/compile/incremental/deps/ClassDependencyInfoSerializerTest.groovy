@@ -18,6 +18,7 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps
 
+import org.gradle.api.UncheckedIOException
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
@@ -39,4 +40,120 @@ class ClassDependencyInfoSerializerTest extends Specification {
         then:
         info.getRelevantDependents("foo.Foo").dependentClasses == ["bar.Bar"] as Set
     }
+
+    def "stores dependency graph"() {
+        def s = new ClassDependencyInfoSerializer(temp.file("foo.bin"))
+
+        when:
+        s.writeInfo(new ClassDependencyInfo([
+                "a": new DefaultDependentsSet(['b', 'a$c']),
+                "b": new DefaultDependentsSet(true, ['d']),
+                'a$c': new DefaultDependentsSet(['e']),
+                "x": new DefaultDependentsSet(true, [])
+        ]))
+        def info = s.provideInfo()
+
+        then:
+        info.getRelevantDependents("a").dependentClasses == ['b', 'd', 'e'] as Set
+        info.getRelevantDependents("b").dependencyToAll
+        info.getRelevantDependents("x").dependencyToAll
+        info.getRelevantDependents("d").dependentClasses.isEmpty()
+        info.getRelevantDependents("unknown").dependentClasses.isEmpty()
+    }
+
+    def "looks up classes whose names have the same hash"() {
+        def s = new ClassDependencyInfoSerializer(temp.file("foo.bin"))
+        assert "Aa".hashCode() == "BB".hashCode()
+
+        when:
+        s.writeInfo(new ClassDependencyInfo([
+                "Aa": new DefaultDependentsSet(["c"]),
+                "BB": new DefaultDependentsSet(true, []),
+                "c": new DefaultDependentsSet(["BB"])
+        ]))
+        def info = s.provideInfo()
+
+        then:
+        info.getRelevantDependents("Aa").dependentClasses == ["c", "BB"] as Set
+        info.getRelevantDependents("BB").dependencyToAll
+        info.getRelevantDependents("c").dependentClasses == ["BB"] as Set
+        info.getRelevantDependents("Ab").dependentClasses.isEmpty()
+    }
+
+    def "provides stored direct dependents"() {
+        def s = new ClassDependencyInfoSerializer(temp.file("foo.bin"))
+
+        when:
+        s.writeInfo(new ClassDependencyInfo([
+                "Foo": new DefaultDependentsSet(["Bar", 'Foo$Inner']),
+                "Bar": new DefaultDependentsSet(["Baz"]),
+                "Baz": new DefaultDependentsSet([]),
+                "Qux": new DefaultDependentsSet(true, [])
+        ]))
+
+        then:
+        s.provideInfo().directDependents == ["Foo": ["Bar", 'Foo$Inner'] as Set, "Bar": ["Baz"] as Set]
+    }
+
+    def "reads the stored file only for dependents once the info is provided"() {
+        def s = new ClassDependencyInfoSerializer(temp.file("foo.bin"))
+        s.writeInfo(new ClassDependencyInfo([
+                "a": new DefaultDependentsSet(['b']),
+                "b": new DefaultDependentsSet([]),
+                "c": new DefaultDependentsSet(true, [])
+        ]))
+
+        when:
+        def info = s.provideInfo()
+        temp.file("foo.bin").delete()
+
+        then:
+        info.getRelevantDependents("b").dependentClasses.isEmpty()
+        info.getRelevantDependents("c").dependencyToAll
+        info.getRelevantDependents("unknown").dependentClasses.isEmpty()
+
+        when:
+        info.getRelevantDependents("a")
+
+        then:
+        thrown(UncheckedIOException)
+    }
+
+    def "stores class names with non-ascii characters"() {
+        def s = new ClassDependencyInfoSerializer(temp.file("foo.bin"))
+
+        when:
+        s.writeInfo(new ClassDependencyInfo([
+                "foo.F\u00f6\u00f6": new DefaultDependentsSet(["bar.B\u00e4r"])
+        ]))
+
+        then:
+        s.provideInfo().getRelevantDependents("foo.F\u00f6\u00f6").dependentClasses == ["bar.B\u00e4r"] as Set
+    }
+
+    def "info is available only when stored in the current format"() {
+        def s = new ClassDependencyInfoSerializer(temp.file("foo.bin"))
+
+        expect:
+        !s.infoAvailable
+
+        when:
+        temp.file("foo.bin").bytes = [0xAC, 0xED, 0x00, 0x05] as byte[]
+
+        then:
+        !s.infoAvailable
+
+        when:
+        temp.file("foo.bin").bytes = [0x01, 0x00, 0x00, 0x00] as byte[]
+
+        then:
+        !s.infoAvailable
+
+        when:
+        s.writeInfo(new ClassDependencyInfo([:]))
+
+        then:
+        s.infoAvailable
+        s.provideInfo().getRelevantDependents("Foo").dependentClasses.isEmpty()
+    }
 }
@@ -123,4 +123,15 @@ class ClassDependencyInfoTest extends Specification {
         expect:
         deps.dependentClasses == ["c"] as Set
     }
+
+    def "provides direct dependents of each class"() {
+        def info = new ClassDependencyInfo([
+                "Foo": new DefaultDependentsSet(["Bar", 'Foo$Inner']),
+                "Bar": new DefaultDependentsSet(["Baz"]),
+                "Baz": new DefaultDependentsSet([]),
+        ])
+
+        expect:
+        info.directDependents == ["Foo": ["Bar", 'Foo$Inner'] as Set, "Bar": ["Baz"] as Set]
+    }
 }
@@ -19,8 +19,6 @@ package org.gradle.api.internal.tasks.compile.incremental.jar
 import org.gradle.api.internal.hash.Hasher
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
-import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo
-import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -28,12 +26,11 @@ class ClassSnapshotterTest extends Specification {
 
     def hasher = Mock(Hasher)
     def analyzer = Mock(ClassDependenciesAnalyzer)
-    def info = Mock(ClassDependencyInfo)
     @Subject snapshotter = new ClassSnapshotter(hasher, analyzer)
 
     def "creates snapshot for class that is dependent to all"() {
         when:
-        def s = snapshotter.createSnapshot("Foo", new File("f"), info)
+        def s = snapshotter.createSnapshot("Foo", new File("f"))
 
         then:
         1 * analyzer.getClassAnalysis("Foo", new File("f")) >> Mock(ClassAnalysis) {
@@ -42,24 +39,22 @@ class ClassSnapshotterTest extends Specification {
         1 * hasher.hash(new File("f")) >> "f".bytes
         0 * _
 
-        s.dependents.dependentClasses.isEmpty()
-        s.dependents.dependencyToAll
+        s.dependencyToAll
         s.hash == "f".bytes
     }
 
     def "creates snapshot for a class"() {
         when:
-        def s = snapshotter.createSnapshot("Foo", new File("f"), info)
+        def s = snapshotter.createSnapshot("Foo", new File("f"))
 
         then:
         1 * analyzer.getClassAnalysis("Foo", new File("f")) >> Mock(ClassAnalysis) {
             isDependencyToAll() >> false
         }
-        1 * info.getRelevantDependents("Foo") >> new DefaultDependentsSet(["X", "Y"])
         1 * hasher.hash(new File("f")) >> "f".bytes
         0 * _
 
-        s.dependents.dependentClasses == ["X", "Y"] as Set
+        !s.dependencyToAll
         s.hash == "f".bytes
     }
 }
@@ -18,37 +18,36 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
-import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
-import org.junit.Rule
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder
 import spock.lang.Specification
-import spock.lang.Subject
 
 class JarSnapshotCacheTest extends Specification {
 
-    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
-    @Subject cache = new JarSnapshotCache(temp.file("cache.bin"))
+    def serializer = new JarSnapshotCache.JarSnapshotSerializer()
 
-    def "empty cache"() {
+    def "serializes empty snapshot"() {
         expect:
-        !cache.getSnapshot(new File("foo.jar"))
+        serialize(new JarSnapshot([:])).classSnapshots.isEmpty()
     }
 
-    def "caches snapshots"() {
+    def "serializes snapshot"() {
         when:
-        cache.putSnapshots([(new File("foo.jar")): new JarSnapshot(["Foo": new ClassSnapshot("f".bytes, ['a', 'b'])])])
-        def sn = cache.getSnapshot(new File("foo.jar")).classSnapshots["Foo"]
+        def snapshot = serialize(new JarSnapshot(["Foo": new ClassSnapshot("f".bytes, false), "com.Bar": new ClassSnapshot("b".bytes, true)]))
 
         then:
-        sn.hash == "f".bytes
-        sn.dependentClasses == ['a', 'b']
+        snapshot.classSnapshots.keySet() == ["Foo", "com.Bar"] as Set
+        snapshot.classSnapshots["Foo"].hash == "f".bytes
+        !snapshot.classSnapshots["Foo"].dependencyToAll
+        snapshot.classSnapshots["com.Bar"].hash == "b".bytes
+        snapshot.classSnapshots["com.Bar"].dependencyToAll
     }
 
-    def "caches snapshots in file"() {
-        when:
-        cache.putSnapshots([(new File("foo.jar")): new JarSnapshot(["Foo": new ClassSnapshot("f".bytes, [])])])
-
-        then:
-        def cache2 = new JarSnapshotCache(temp.file("cache.bin"))
-        cache2.getSnapshot(new File("foo.jar")).classSnapshots["Foo"].hash == "f".bytes
+    private JarSnapshot serialize(JarSnapshot snapshot) {
+        def bytes = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(bytes)
+        serializer.write(encoder, snapshot)
+        encoder.flush()
+        return serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(bytes.toByteArray())))
     }
 }
@@ -19,30 +19,39 @@
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
 import org.gradle.api.file.FileTree
-import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo
+import org.gradle.api.internal.changedetection.state.FileSnapshotter
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess
+import org.gradle.internal.Factory
 import spock.lang.Specification
 import spock.lang.Subject
 
 class JarSnapshotFeederTest extends Specification {
 
-    def cache = Mock(JarSnapshotCache)
-    def info = Mock(ClassDependencyInfo)
+    def cache = Mock(JarSnapshotCache) {
+        useCache(_, _) >> { String name, Runnable action -> action.run() }
+    }
+    def cacheAccess = Mock(TaskArtifactStateCacheAccess) {
+        useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+        useCache(_, _ as Factory) >> { String name, Factory action -> action.create() }
+    }
+    def fileSnapshotter = Mock(FileSnapshotter)
+    def localJarHashes = Mock(LocalJarHashesStore)
     def snapshotter = Mock(JarSnapshotter)
 
-    @Subject feeder = new JarSnapshotFeeder(cache, snapshotter)
+    @Subject feeder = new JarSnapshotFeeder(cache, cacheAccess, fileSnapshotter, localJarHashes, snapshotter)
 
     def "stores jar snapshot"() {
         def jar1 = new JarArchive(new File("jar1.jar"), Mock(FileTree))
         def snapshot = Mock(JarSnapshot)
 
         when:
-        feeder.storeJarSnapshots([jar1], info)
+        feeder.storeJarSnapshots([jar1])
 
         then:
-        1 * cache.getSnapshot(jar1.file)
-        1 * snapshotter.createSnapshot(jar1.contents, info) >> snapshot
-        1 * cache.putSnapshots([(jar1.file): snapshot])
-        0 * _
+        1 * fileSnapshotter.snapshot(jar1.file) >> fileSnapshot("1")
+        1 * cache.getSnapshot("1".bytes, _) >> { hash, factory -> factory.create() }
+        1 * snapshotter.createSnapshot(jar1.contents) >> snapshot
+        1 * localJarHashes.put({ it.keySet() == [jar1.file] as Set && it[jar1.file] == "1".bytes })
     }
 
     def "stores multiple snapshots"() {
@@ -50,27 +59,67 @@ class JarSnapshotFeederTest extends Specification {
         def jar2 = new JarArchive(new File("jar2.jar"), Mock(FileTree))
 
         when:
-        feeder.storeJarSnapshots([jar1, jar2], info)
+        feeder.storeJarSnapshots([jar1, jar2])
 
         then:
-        1 * snapshotter.createSnapshot(jar1.contents, info) >> Mock(JarSnapshot)
-        1 * snapshotter.createSnapshot(jar2.contents, info) >> Mock(JarSnapshot)
-        1 * cache.putSnapshots({ it.size() == 2})
+        1 * fileSnapshotter.snapshot(jar1.file) >> fileSnapshot("1")
+        1 * fileSnapshotter.snapshot(jar2.file) >> fileSnapshot("2")
+        2 * cache.getSnapshot(_, _) >> { hash, factory -> factory.create() }
+        1 * snapshotter.createSnapshot(jar1.contents) >> Mock(JarSnapshot)
+        1 * snapshotter.createSnapshot(jar2.contents) >> Mock(JarSnapshot)
+        1 * localJarHashes.put({ it.size() == 2 })
     }
 
-    def "avoids storing unchanged jar snapshots"() {
+    def "avoids snapshotting jars with known content"() {
         def jar1 = new JarArchive(new File("jar1.jar"), Mock(FileTree))
-        def jar2 = new JarArchive(new File("jar2.jar"), Mock(FileTree))
 
         when:
-        feeder.changedJar(jar2.file)
-        feeder.storeJarSnapshots([jar1, jar2], info)
+        feeder.storeJarSnapshots([jar1])
 
         then:
-        1 * cache.getSnapshot(jar1.file) >> Mock(JarSnapshot)
-        1 * cache.getSnapshot(jar2.file) >> Mock(JarSnapshot)
-        1 * snapshotter.createSnapshot(jar2.contents, info) >> Mock(JarSnapshot)
-        1 * cache.putSnapshots({ it[jar2.file] })
-        0 * _
+        1 * fileSnapshotter.snapshot(jar1.file) >> fileSnapshot("1")
+        1 * cache.getSnapshot("1".bytes, _) >> Mock(JarSnapshot)
+        0 * snapshotter._
+    }
+
+    def "provides snapshot of changed jar from the previous compilation"() {
+        def snapshot = Mock(JarSnapshot)
+
+        when:
+        def result = feeder.changedJar(new File("jar1.jar"))
+
+        then:
+        1 * localJarHashes.get() >> [(new File("jar1.jar")): "1".bytes]
+        1 * cache.getSnapshot("1".bytes) >> snapshot
+        result == snapshot
+    }
+
+    def "no snapshot for a jar unknown to the previous compilation"() {
+        when:
+        def result = feeder.changedJar(new File("jar2.jar"))
+
+        then:
+        1 * localJarHashes.get() >> [(new File("jar1.jar")): "1".bytes]
+        0 * cache.getSnapshot(_)
+        result == null
+    }
+
+    def "creates snapshot of a jar using the shared file hashes"() {
+        def jar1 = new JarArchive(new File("jar1.jar"), Mock(FileTree))
+        def snapshot = Mock(JarSnapshot)
+
+        when:
+        def result = feeder.createSnapshot(jar1)
+
+        then:
+        1 * fileSnapshotter.snapshot(jar1.file) >> fileSnapshot("1")
+        1 * cache.getSnapshot("1".bytes, _) >> snapshot
+        result == snapshot
+    }
+
+    private FileSnapshotter.FileSnapshot fileSnapshot(String hash) {
+        Stub(FileSnapshotter.FileSnapshot) {
+            getHash() >> hash.bytes
+        }
     }
 }
@@ -18,49 +18,78 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo
+import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet
 import spock.lang.Specification
 
 class JarSnapshotTest extends Specification {
 
+    def info = new ClassDependencyInfo([
+            "com.Foo": new DefaultDependentsSet(['x.X', 'y.Y']),
+            "Bar": new DefaultDependentsSet(['X', 'Y']),
+            "Car": new DefaultDependentsSet(['Z']),
+            "x.X": new DefaultDependentsSet(),
+            "y.Y": new DefaultDependentsSet(),
+            "X": new DefaultDependentsSet(),
+            "Y": new DefaultDependentsSet(),
+            "Z": new DefaultDependentsSet()])
+
     def "knows when snapshots are the same"() {
-        JarSnapshot s1 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, ['x.X', 'y.Y']), "Bar": new ClassSnapshot("b".bytes, [])])
-        JarSnapshot s2 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, ['x.X', 'y.Y']), "Bar": new ClassSnapshot("b".bytes, [])])
+        JarSnapshot s1 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, false), "Bar": new ClassSnapshot("b".bytes, false)])
+        JarSnapshot s2 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, false), "Bar": new ClassSnapshot("b".bytes, false)])
 
         expect:
-        s1.getDependentsDelta(s2).dependentClasses.isEmpty()
-        s2.getDependentsDelta(s1).dependentClasses.isEmpty()
+        s1.getDependentsDelta(s2, info).dependentClasses.isEmpty()
+        s2.getDependentsDelta(s1, info).dependentClasses.isEmpty()
     }
 
     def "knows when other snapshots have extra/missing classes"() {
-        JarSnapshot s1 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, ['X']),
-                                              "Bar": new ClassSnapshot("b".bytes, ['X', 'Y']),
-                                              "Car": new ClassSnapshot("c".bytes, ['Z'])])
-        JarSnapshot s2 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, ['X'])])
+        JarSnapshot s1 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, false),
+                                              "Bar": new ClassSnapshot("b".bytes, false),
+                                              "Car": new ClassSnapshot("c".bytes, false)])
+        JarSnapshot s2 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, false)])
 
         expect:
-        s1.getDependentsDelta(s2).dependentClasses == ["X", "Y", "Z"] as Set
-        s2.getDependentsDelta(s1).dependentClasses == [] as Set //ignore class additions
+        s1.getDependentsDelta(s2, info).dependentClasses == ["X", "Y", "Z"] as Set
+        s2.getDependentsDelta(s1, info).dependentClasses == [] as Set //ignore class additions
     }
 
     def "knows when other snapshots have class with different hash"() {
-        JarSnapshot s1 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, ['X']),
-                "Bar": new ClassSnapshot("b".bytes, ['X', 'Y']),
-                "Car": new ClassSnapshot("yyy".bytes, ['Z'])])
-        JarSnapshot s2 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, ['X']),
-                "Car": new ClassSnapshot("xxx".bytes, ['Z'])])
+        JarSnapshot s1 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, false),
+                "Bar": new ClassSnapshot("b".bytes, false),
+                "Car": new ClassSnapshot("yyy".bytes, false)])
+        JarSnapshot s2 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, false),
+                "Car": new ClassSnapshot("xxx".bytes, false)])
+
+        expect:
+        s1.getDependentsDelta(s2, info).dependentClasses == ["X", "Y", "Z"] as Set
+        s2.getDependentsDelta(s1, info).dependentClasses == ["Z"] as Set
+    }
+
+    def "classes not used by the compiled classes have no dependents"() {
+        JarSnapshot s1 = new JarSnapshot(["Unused": new ClassSnapshot("u".bytes, false)])
+        JarSnapshot s2 = new JarSnapshot([:])
 
         expect:
-        s1.getDependentsDelta(s2).dependentClasses == ["X", "Y", "Z"] as Set
-        s2.getDependentsDelta(s1).dependentClasses == ["Z"] as Set
+        s1.getDependentsDelta(s2, info).dependentClasses.isEmpty()
     }
 
     def "informs that all classes are dependent"() {
-        JarSnapshot s1 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, ['X']),
-                "Bar": new ClassSnapshot("b".bytes)])
+        JarSnapshot s1 = new JarSnapshot(["com.Foo": new ClassSnapshot("f".bytes, false),
+                "Bar": new ClassSnapshot("b".bytes, true)])
+        JarSnapshot s2 = new JarSnapshot([:])
+
+        expect:
+        s1.getDependentsDelta(s2, info).dependencyToAll
+        s2.getDependentsDelta(s1, info).dependentClasses == [] as Set
+    }
+
+    def "informs that all classes are dependent when the dependency info says so"() {
+        def info = new ClassDependencyInfo(["Bar": new DefaultDependentsSet(true)])
+        JarSnapshot s1 = new JarSnapshot(["Bar": new ClassSnapshot("b".bytes, false)])
         JarSnapshot s2 = new JarSnapshot([:])
 
         expect:
-        s1.getDependentsDelta(s2).dependencyToAll
-        s2.getDependentsDelta(s1).dependentClasses == [] as Set
+        s1.getDependentsDelta(s2, info).dependencyToAll
     }
 }
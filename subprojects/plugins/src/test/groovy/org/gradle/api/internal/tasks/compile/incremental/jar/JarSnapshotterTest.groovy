@@ -20,7 +20,6 @@ package org.gradle.api.internal.tasks.compile.incremental.jar
 
 import org.gradle.api.internal.file.collections.DirectoryFileTree
 import org.gradle.api.internal.file.collections.FileTreeAdapter
-import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
@@ -30,12 +29,11 @@ class JarSnapshotterTest extends Specification {
 
     @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
     def classSnapshotter = Mock(ClassSnapshotter)
-    def info = Mock(ClassDependencyInfo)
     @Subject snapshotter = new JarSnapshotter(classSnapshotter);
 
     def "creates snapshot of an empty jar"() {
         expect:
-        def snapshot = snapshotter.createSnapshot(new FileTreeAdapter(new DirectoryFileTree(new File("missing"))), null)
+        def snapshot = snapshotter.createSnapshot(new FileTreeAdapter(new DirectoryFileTree(new File("missing"))))
         snapshot.classSnapshots.isEmpty()
     }
 
@@ -45,11 +43,11 @@ class JarSnapshotterTest extends Specification {
         def sn1 = Mock(ClassSnapshot); def sn2 = Mock(ClassSnapshot)
 
         when:
-        def snapshot = snapshotter.createSnapshot(new FileTreeAdapter(new DirectoryFileTree(temp.file("foo"))), info)
+        def snapshot = snapshotter.createSnapshot(new FileTreeAdapter(new DirectoryFileTree(temp.file("foo"))))
 
         then:
-        1 * classSnapshotter.createSnapshot("Foo", f1, info) >> sn1
-        1 * classSnapshotter.createSnapshot("com.Foo2", f2, info) >> sn2
+        1 * classSnapshotter.createSnapshot("Foo", f1) >> sn1
+        1 * classSnapshotter.createSnapshot("com.Foo2", f2) >> sn2
 
         snapshot.classSnapshots["Foo"] == sn1
         snapshot.classSnapshots["com.Foo2"] == sn2
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.jar
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+class LocalJarHashesStoreTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    @Subject store = new LocalJarHashesStore(temp.file("build/jar-hashes.bin"))
+
+    def "no hashes before the first compilation"() {
+        expect:
+        store.get().isEmpty()
+    }
+
+    def "remembers hashes"() {
+        when:
+        store.put([(new File("foo.jar")): "f".bytes, (new File("bar.jar")): "b".bytes])
+        def hashes = new LocalJarHashesStore(temp.file("build/jar-hashes.bin")).get()
+
+        then:
+        hashes.keySet() == [new File("foo.jar"), new File("bar.jar")] as Set
+        hashes[new File("foo.jar")] == "f".bytes
+        hashes[new File("bar.jar")] == "b".bytes
+    }
+
+    def "replaces hashes"() {
+        when:
+        store.put([(new File("foo.jar")): "f".bytes])
+        store.put([(new File("bar.jar")): "b".bytes])
+
+        then:
+        store.get().keySet() == [new File("bar.jar")] as Set
+    }
+}
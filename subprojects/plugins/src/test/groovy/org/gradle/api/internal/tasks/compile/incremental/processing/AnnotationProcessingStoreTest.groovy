@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.processing
+
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class AnnotationProcessingStoreTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def detector = Mock(AnnotationProcessorDetector)
+    def processorPathSnapshotter = Stub(ProcessorPathSnapshotter)
+
+    def "annotation processing is not known before the first compilation"() {
+        expect:
+        newStore().previousResult == null
+    }
+
+    def "remembers the files generated by a full compilation"() {
+        def store = newStore()
+
+        when:
+        compile(store, [generated("Gen_A", "A"), generated(null, "B", "C")])
+
+        then:
+        def result = newStore().previousResult
+        result.generatedFiles*.typeName == ["Gen_A", null]
+        result.generatedFiles*.originatingTypes == [["A"] as Set, ["B", "C"] as Set]
+        result.generatedFiles*.file == [temp.file("Gen_A"), temp.file("B,C")]
+    }
+
+    def "forgets the generated files when the compiler did not record them"() {
+        compile(newStore(), [generated("Gen_A", "A")])
+        def store = newStore()
+
+        when:
+        store.startCompilation(spec())
+        store.compilationCompleted()
+
+        then:
+        newStore().previousResult == null
+    }
+
+    def "selective compilation deletes and replaces the files generated from the recompiled types"() {
+        compile(newStore(), [generated("Gen_A", "A"), generated("Gen_B", "B")])
+        def store = newStore()
+
+        when:
+        store.selectiveCompilation(["A"])
+
+        then:
+        !temp.file("Gen_A").exists()
+        temp.file("Gen_B").exists()
+
+        when:
+        compile(store, [generated("Gen_A2", "A")])
+
+        then:
+        newStore().previousResult.generatedFiles*.typeName as Set == ["Gen_A2", "Gen_B"] as Set
+    }
+
+    def "keeps the generated files when there is nothing to compile"() {
+        compile(newStore(), [generated("Gen_A", "A")])
+        def store = newStore()
+
+        when:
+        store.startCompilation(spec())
+        store.selectiveCompilation([])
+        store.nothingToCompile()
+        store.compilationCompleted()
+
+        then:
+        newStore().previousResult.generatedFiles*.typeName == ["Gen_A"]
+    }
+
+    def "needs a full rebuild when processors may run and annotation processing is not known"() {
+        detector.hasProcessors(_, _) >> processors
+
+        expect:
+        (newStore().getFullRebuildCause(spec()) != null) == processors
+
+        where:
+        processors << [true, false]
+    }
+
+    def "does not need a full rebuild once annotation processing is known"() {
+        detector.hasProcessors(_, _) >> true
+        compile(newStore(), [])
+
+        expect:
+        newStore().getFullRebuildCause(spec()) == null
+    }
+
+    def "needs a full rebuild when the annotation processor path has changed"() {
+        processorPathSnapshotter.snapshot(_) >>> [[1, 2] as byte[], [1, 3] as byte[]]
+        compile(newStore(), [])
+
+        expect:
+        newStore().getFullRebuildCause(spec()) == "the annotation processor path has changed"
+    }
+
+    def "does not need a full rebuild when the annotation processor path has not changed"() {
+        processorPathSnapshotter.snapshot(_) >> ([1, 2] as byte[])
+        compile(newStore(), [])
+
+        expect:
+        newStore().getFullRebuildCause(spec()) == null
+    }
+
+    def "needs a full rebuild when a processor path is set for the first time"() {
+        processorPathSnapshotter.snapshot(_) >>> [null, [1, 2] as byte[]]
+        compile(newStore(), [])
+
+        expect:
+        newStore().getFullRebuildCause(spec()) == "the annotation processor path has changed"
+    }
+
+    private JavaCompileSpec spec() {
+        Stub(JavaCompileSpec) {
+            getCompileOptions() >> new CompileOptions()
+        }
+    }
+
+    private AnnotationProcessingStore newStore() {
+        new AnnotationProcessingStore(temp.file("work"), detector, processorPathSnapshotter)
+    }
+
+    private void compile(AnnotationProcessingStore store, List<AnnotationProcessingResult.GeneratedFile> generatedFiles) {
+        def resultFile = store.startCompilation(spec())
+        new AnnotationProcessingResultSerializer(resultFile).write(new AnnotationProcessingResult(generatedFiles))
+        store.compilationCompleted()
+    }
+
+    private AnnotationProcessingResult.GeneratedFile generated(String typeName, String... originatingTypes) {
+        def file = temp.createFile(typeName ?: originatingTypes.join(","))
+        new AnnotationProcessingResult.GeneratedFile(file, typeName, originatingTypes as Set)
+    }
+}
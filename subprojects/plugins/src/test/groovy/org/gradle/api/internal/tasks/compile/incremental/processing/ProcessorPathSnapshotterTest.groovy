@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.processing
+
+import org.gradle.api.internal.changedetection.state.FileSnapshotter
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ProcessorPathSnapshotterTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def cacheAccess = Stub(TaskArtifactStateCacheAccess) {
+        useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+    }
+    def fileSnapshotter = Stub(FileSnapshotter) {
+        snapshot(_) >> { File file -> snapshot(file.text.bytes) }
+    }
+    def snapshotter = new ProcessorPathSnapshotter(cacheAccess, fileSnapshotter)
+    def jar = tmpDir.file("processor.jar")
+    def classes = tmpDir.createDir("classes")
+
+    def setup() {
+        jar.write("jar")
+        classes.file("org/Processor.class").write("class")
+    }
+
+    def "has no snapshot without a processor path"() {
+        expect:
+        snapshotter.snapshot(["-g"]) == null
+    }
+
+    def "snapshot does not change while the processor path is unchanged"() {
+        expect:
+        snapshotter.snapshot(args(jar, classes)) == snapshotter.snapshot(args(jar, classes))
+    }
+
+    def "snapshot changes when a jar changes"() {
+        def before = snapshotter.snapshot(args(jar, classes))
+
+        when:
+        jar.write("changed jar")
+
+        then:
+        snapshotter.snapshot(args(jar, classes)) != before
+    }
+
+    def "snapshot changes when a class file of a directory changes or is added"() {
+        def before = snapshotter.snapshot(args(jar, classes))
+
+        when:
+        classes.file("org/Processor.class").write("changed class")
+        def changed = snapshotter.snapshot(args(jar, classes))
+        classes.file("org/Other.class").write("class")
+
+        then:
+        changed != before
+        snapshotter.snapshot(args(jar, classes)) != changed
+    }
+
+    def "snapshot changes when the processor path changes"() {
+        expect:
+        snapshotter.snapshot(args(jar, classes)) != snapshotter.snapshot(args(classes, jar))
+        snapshotter.snapshot(args(jar, classes)) != snapshotter.snapshot(args(jar))
+    }
+
+    private static List<String> args(File... path) {
+        ["-g", "-processorpath", path*.path.join(File.pathSeparator)]
+    }
+
+    private FileSnapshotter.FileSnapshot snapshot(byte[] hash) {
+        Stub(FileSnapshotter.FileSnapshot) {
+            getHash() >> hash
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.recomp
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo
+import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingResult
+import spock.lang.Specification
+
+class AnnotationProcessingChangeProcessorTest extends Specification {
+
+    def spec = new DefaultRecompilationSpec()
+    def info = new ClassDependencyInfo([
+            "Gen_A": new DefaultDependentsSet(["UsesGen"]),
+            "UsesGen": new DefaultDependentsSet([]),
+            "Gen_B": new DefaultDependentsSet(true, [])
+    ])
+
+    def "does nothing when annotation processing is not known"() {
+        spec.classesToCompile << "A"
+
+        when:
+        new AnnotationProcessingChangeProcessor(null, info).processChanges(spec)
+
+        then:
+        spec.classesToCompile == ["A"] as Set
+        !spec.fullRebuildNeeded
+    }
+
+    def "recompiles the types generated from recompiled types along with their dependents"() {
+        spec.classesToCompile << "A"
+
+        when:
+        processor(generated("Gen_A", "A"), generated("Gen_C", "C")).processChanges(spec)
+
+        then:
+        spec.classesToCompile == ["A", "Gen_A", "UsesGen"] as Set
+    }
+
+    def "recompiles the types a stale generated type was generated from"() {
+        spec.classesToCompile << "Gen_A"
+
+        when:
+        processor(generated("Gen_A", "A", "B"), generated("Gen_B2", "B")).processChanges(spec)
+
+        then:
+        spec.classesToCompile == ["Gen_A", "A", "B", "Gen_B2"] as Set
+    }
+
+    def "needs a full rebuild when a file was generated without originating types"() {
+        spec.classesToCompile << "A"
+        def aggregated = generated("Index", [] as String[])
+
+        when:
+        processor(generated("Gen_A", "A"), aggregated).processChanges(spec)
+
+        then:
+        spec.fullRebuildCause == aggregated.file
+    }
+
+    def "needs a full rebuild when a regenerated type is a dependency to all"() {
+        spec.classesToCompile << "B"
+        def genB = generated("Gen_B", "B")
+
+        when:
+        processor(genB).processChanges(spec)
+
+        then:
+        spec.fullRebuildCause == genB.file
+    }
+
+    def "does nothing when no class is recompiled"() {
+        when:
+        processor(generated("Index", [] as String[])).processChanges(spec)
+
+        then:
+        spec.classesToCompile.empty
+        !spec.fullRebuildNeeded
+    }
+
+    private AnnotationProcessingChangeProcessor processor(AnnotationProcessingResult.GeneratedFile... generatedFiles) {
+        new AnnotationProcessingChangeProcessor(new AnnotationProcessingResult(generatedFiles as List), info)
+    }
+
+    private static AnnotationProcessingResult.GeneratedFile generated(String typeName, String... originatingTypes) {
+        new AnnotationProcessingResult.GeneratedFile(new File(typeName + ".java"), typeName, originatingTypes as Set)
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.jdk6
+
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingResultSerializer
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.annotation.processing.Processor
+import javax.annotation.processing.RoundEnvironment
+import javax.lang.model.element.*
+import javax.tools.*
+
+class AnnotationProcessingRecorderTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def recorder = new AnnotationProcessingRecorder()
+    def compiler = ToolProvider.getSystemJavaCompiler()
+    def task = Mock(JavaCompiler.CompilationTask)
+    def fileManager = Mock(JavaFileManager)
+    def recordingFileManager = recorder.wrap(fileManager)
+    def resultFile = tmpDir.file("processing.bin")
+    def pkg = Stub(PackageElement) {
+        getKind() >> ElementKind.PACKAGE
+        getEnclosingElement() >> null
+    }
+
+    def cleanup() {
+        recorder.close()
+    }
+
+    def "discovers the processors declared on the classpath"() {
+        def processors = tmpDir.createDir("processors")
+        processors.file("META-INF/services/javax.annotation.processing.Processor").createFile().text = GeneratingProcessor.name
+
+        when:
+        def setUp = recorder.setupProcessors(compiler, task, [], [processors] + processorClasspath())
+
+        then:
+        setUp
+        1 * task.setProcessors({ it.size() == 1 && it[0].supportedAnnotationTypes == ["java.lang.Deprecated"] as Set })
+    }
+
+    def "uses the processors named by the -processor option"() {
+        when:
+        def setUp = recorder.setupProcessors(compiler, task, ["-processor", GeneratingProcessor.name, "-processorpath", processorClasspath().join(File.pathSeparator)], [])
+
+        then:
+        setUp
+        1 * task.setProcessors({ it.size() == 1 && it[0].supportedAnnotationTypes == ["java.lang.Deprecated"] as Set })
+    }
+
+    def "leaves annotation processing to the compiler when a processor cannot be loaded"() {
+        when:
+        def setUp = recorder.setupProcessors(compiler, task, ["-processor", "org.Unknown"], [])
+
+        then:
+        !setUp
+        0 * task.setProcessors(_)
+    }
+
+    def "sets up no processors when annotation processing is disabled"() {
+        when:
+        def setUp = recorder.setupProcessors(compiler, task, ["-proc:none"], [])
+
+        then:
+        setUp
+        0 * task.setProcessors(_)
+    }
+
+    def "records the files created through the file manager while a processor runs"() {
+        def annotation = Stub(TypeElement)
+        def foo = type("org.Foo", pkg)
+        def roundEnv = Stub(RoundEnvironment) {
+            getElementsAnnotatedWith(annotation) >> ([foo] as Set)
+        }
+        def generatedSource = tmpDir.file("generated/org/FooGenerated.java")
+        def generatedResource = tmpDir.file("classes/org/foo.txt")
+        fileManager.getJavaFileForOutput(StandardLocation.SOURCE_OUTPUT, "org.FooGenerated", JavaFileObject.Kind.SOURCE, null) >> javaFileObject(generatedSource)
+        fileManager.getFileForOutput(StandardLocation.CLASS_OUTPUT, "org", "foo.txt", null) >> javaFileObject(generatedResource)
+        fileManager.getJavaFileForOutput(StandardLocation.CLASS_OUTPUT, "org.Foo", JavaFileObject.Kind.CLASS, _) >> javaFileObject(tmpDir.file("classes/org/Foo.class"))
+        def processor = Stub(Processor) {
+            getSupportedAnnotationTypes() >> (["org.Annotation"] as Set)
+            process(_, _) >> {
+                recordingFileManager.getJavaFileForOutput(StandardLocation.SOURCE_OUTPUT, "org.FooGenerated", JavaFileObject.Kind.SOURCE, null)
+                recordingFileManager.getFileForOutput(StandardLocation.CLASS_OUTPUT, "org", "foo.txt", null)
+                true
+            }
+        }
+
+        when:
+        recorder.track([processor])[0].process([annotation] as Set, roundEnv)
+        recordingFileManager.getJavaFileForOutput(StandardLocation.CLASS_OUTPUT, "org.Foo", JavaFileObject.Kind.CLASS, null)
+        recorder.writeResult(resultFile)
+
+        then:
+        def generatedFiles = new AnnotationProcessingResultSerializer(resultFile).read().generatedFiles
+        generatedFiles*.file == [generatedSource, generatedResource]
+        generatedFiles*.typeName == ["org.FooGenerated", null]
+        generatedFiles*.originatingTypes == [["org.Foo"] as Set, ["org.Foo"] as Set]
+    }
+
+    def "a processor of all annotations generates files from all root types"() {
+        def roundEnv = Stub(RoundEnvironment) {
+            getRootElements() >> ([type("org.Foo", pkg), type("org.Bar", pkg)] as Set)
+        }
+        def generated = tmpDir.file("generated/org/Generated.java")
+        fileManager.getJavaFileForOutput(StandardLocation.SOURCE_OUTPUT, "org.Generated", JavaFileObject.Kind.SOURCE, null) >> javaFileObject(generated)
+        def processor = Stub(Processor) {
+            getSupportedAnnotationTypes() >> (["*"] as Set)
+            process(_, _) >> {
+                recordingFileManager.getJavaFileForOutput(StandardLocation.SOURCE_OUTPUT, "org.Generated", JavaFileObject.Kind.SOURCE, null)
+                false
+            }
+        }
+
+        when:
+        recorder.track([processor])[0].process([] as Set, roundEnv)
+        recorder.writeResult(resultFile)
+
+        then:
+        def generatedFiles = new AnnotationProcessingResultSerializer(resultFile).read().generatedFiles
+        generatedFiles*.originatingTypes == [["org.Bar", "org.Foo"] as Set]
+    }
+
+    def "ignores the files that are not on the file system"() {
+        def inMemory = Stub(JavaFileObject) {
+            toUri() >> new URI("mem:///org/Generated.java")
+        }
+        fileManager.getJavaFileForOutput(_, _, _, _) >> inMemory
+        def processor = Stub(Processor) {
+            getSupportedAnnotationTypes() >> (["*"] as Set)
+            process(_, _) >> {
+                recordingFileManager.getJavaFileForOutput(StandardLocation.SOURCE_OUTPUT, "org.Generated", JavaFileObject.Kind.SOURCE, null)
+                false
+            }
+        }
+
+        when:
+        recorder.track([processor])[0].process([] as Set, Stub(RoundEnvironment))
+        recorder.writeResult(resultFile)
+
+        then:
+        new AnnotationProcessingResultSerializer(resultFile).read().generatedFiles.empty
+    }
+
+    def "resolves the top level types that enclose the originating elements"() {
+        def foo = type("org.Foo", pkg)
+        def inner = type("org.Foo.Inner", foo)
+        def method = Stub(ExecutableElement) {
+            getKind() >> ElementKind.METHOD
+            getEnclosingElement() >> inner
+        }
+        def bar = type("org.Bar", pkg)
+
+        expect:
+        AnnotationProcessingRecorder.topLevelTypes([method, inner, bar]) == ["org.Bar", "org.Foo"] as Set
+        AnnotationProcessingRecorder.topLevelTypes([pkg]).empty
+    }
+
+    private TypeElement type(String qualifiedName, Element enclosingElement) {
+        Stub(TypeElement) {
+            getKind() >> ElementKind.CLASS
+            getQualifiedName() >> new SimpleName(qualifiedName)
+            getEnclosingElement() >> enclosingElement
+        }
+    }
+
+    private JavaFileObject javaFileObject(File file) {
+        Stub(JavaFileObject) {
+            toUri() >> file.toURI()
+        }
+    }
+
+    private static List<File> processorClasspath() {
+        [GeneratingProcessor, GroovyObject].collect { new File(it.protectionDomain.codeSource.location.toURI()) }
+    }
+
+    private static class SimpleName implements Name {
+        private final String name
+
+        SimpleName(String name) {
+            this.name = name
+        }
+
+        boolean contentEquals(CharSequence cs) {
+            name == cs.toString()
+        }
+
+        int length() {
+            name.length()
+        }
+
+        char charAt(int index) {
+            name.charAt(index)
+        }
+
+        CharSequence subSequence(int start, int end) {
+            name.subSequence(start, end)
+        }
+
+        String toString() {
+            name
+        }
+    }
+}
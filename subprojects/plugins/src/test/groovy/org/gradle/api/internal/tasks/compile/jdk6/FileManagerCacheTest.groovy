@@ -0,0 +1,212 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.jdk6
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.JavaFileObject
+import javax.tools.StandardJavaFileManager
+import javax.tools.StandardLocation
+import javax.tools.ToolProvider
+import java.nio.charset.Charset
+
+class FileManagerCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def cache = new FileManagerCache(true)
+    def utf8 = Charset.forName("UTF-8")
+    def latin1 = Charset.forName("ISO-8859-1")
+
+    def "reuses a released file manager"() {
+        def compiler = Mock(JavaCompiler)
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = cache.reserve(compiler, utf8)
+        cache.release(first)
+        def second = cache.reserve(compiler, utf8)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, utf8) >> fileManager
+        second.is(first)
+        second.fileManager.is(fileManager)
+    }
+
+    def "does not share a file manager between concurrent compilations"() {
+        def compiler = Mock(JavaCompiler)
+
+        when:
+        def first = cache.reserve(compiler, utf8)
+        def second = cache.reserve(compiler, utf8)
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, utf8) >> { Mock(StandardJavaFileManager) }
+        !second.is(first)
+        !second.fileManager.is(first.fileManager)
+    }
+
+    def "does not reuse a file manager for another charset"() {
+        def compiler = Mock(JavaCompiler)
+
+        when:
+        cache.release(cache.reserve(compiler, utf8))
+        def other = cache.reserve(compiler, latin1)
+        def noCharset = cache.reserve(compiler, null)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, utf8) >> Mock(StandardJavaFileManager)
+        1 * compiler.getStandardFileManager(null, null, latin1) >> Mock(StandardJavaFileManager)
+        1 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        cache.idleCount == 1
+    }
+
+    def "keeps the jars open and clears the locations when a file manager is released"() {
+        def compiler = Stub(JavaCompiler)
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, utf8) >> fileManager
+
+        when:
+        cache.release(cache.reserve(compiler, utf8))
+
+        then:
+        0 * fileManager.close()
+        1 * fileManager.setLocation(StandardLocation.CLASS_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.PLATFORM_CLASS_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.SOURCE_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.ANNOTATION_PROCESSOR_PATH, null)
+    }
+
+    def "closes the jars when a file manager is released if jars are not kept open"() {
+        def cache = new FileManagerCache(false)
+        def compiler = Stub(JavaCompiler)
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, utf8) >> fileManager
+
+        when:
+        cache.release(cache.reserve(compiler, utf8))
+
+        then:
+        1 * fileManager.close()
+
+        then:
+        1 * fileManager.setLocation(StandardLocation.CLASS_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.PLATFORM_CLASS_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.SOURCE_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.ANNOTATION_PROCESSOR_PATH, null)
+    }
+
+    def "closes the jars of a reused file manager only when one of its jars has changed"() {
+        def compiler = Stub(JavaCompiler)
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, utf8) >> fileManager
+        def jar = tmpDir.file("lib.jar") << "jar"
+        def processorJar = tmpDir.file("processor.jar") << "processor"
+        def classesDir = tmpDir.createDir("classes")
+
+        when:
+        cache.release(cache.reserve(compiler, utf8))
+        cache.release(cache.reserve(compiler, utf8))
+
+        then:
+        _ * fileManager.getLocation(StandardLocation.CLASS_PATH) >> [jar, classesDir]
+        _ * fileManager.getLocation(StandardLocation.ANNOTATION_PROCESSOR_PATH) >> [processorJar]
+        0 * fileManager.close()
+
+        when:
+        processorJar << "changed"
+        cache.reserve(compiler, utf8)
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "closes the jars of a reused file manager when one of its jars is gone"() {
+        def compiler = Stub(JavaCompiler)
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, utf8) >> fileManager
+        def jar = tmpDir.file("lib.jar") << "jar"
+        fileManager.getLocation(StandardLocation.CLASS_PATH) >> [jar]
+
+        when:
+        cache.release(cache.reserve(compiler, utf8))
+        assert jar.delete()
+        cache.reserve(compiler, utf8)
+
+        then:
+        1 * fileManager.close()
+    }
+
+    def "discards the least recently used file managers when too many are idle"() {
+        def compiler = Stub(JavaCompiler)
+        compiler.getStandardFileManager(null, null, utf8) >> { Mock(StandardJavaFileManager) }
+        def fileManagers = (0..FileManagerCache.MAX_IDLE_FILE_MANAGERS).collect { cache.reserve(compiler, utf8) }
+
+        when:
+        fileManagers.each { cache.release(it) }
+
+        then:
+        cache.idleCount == FileManagerCache.MAX_IDLE_FILE_MANAGERS
+        1 * fileManagers[0].fileManager.close()
+
+        when:
+        def reused = (1..FileManagerCache.MAX_IDLE_FILE_MANAGERS).collect { cache.reserve(compiler, utf8) }
+
+        then:
+        reused as Set == fileManagers.subList(1, fileManagers.size()) as Set
+        !reused.contains(fileManagers[0])
+    }
+
+    def "a reused file manager sees the current content of a changed jar"() {
+        def cache = new FileManagerCache(keepJarsOpen)
+        def compiler = ToolProvider.getSystemJavaCompiler()
+        def jar = tmpDir.file("lib.jar")
+        tmpDir.file("v1/org/A.class").write("A")
+        tmpDir.file("v1").zipTo(jar)
+
+        when:
+        def first = cache.reserve(compiler, utf8)
+        def classesBefore = listClasses(first.fileManager, jar)
+        cache.release(first)
+
+        assert jar.delete()
+        tmpDir.file("v2/org/B.class").write("B")
+        tmpDir.file("v2").zipTo(jar)
+        jar.setLastModified(jar.lastModified() + 2000)
+
+        def second = cache.reserve(compiler, utf8)
+        def classesAfter = listClasses(second.fileManager, jar)
+        cache.release(second)
+
+        then:
+        second.is(first)
+        classesBefore == ["A"]
+        classesAfter == ["B"]
+
+        where:
+        keepJarsOpen << [true, false]
+    }
+
+    private static List<String> listClasses(StandardJavaFileManager fileManager, File jar) {
+        fileManager.setLocation(StandardLocation.CLASS_PATH, [jar])
+        fileManager.list(StandardLocation.CLASS_PATH, "org", EnumSet.of(JavaFileObject.Kind.CLASS), false).collect {
+            fileManager.inferBinaryName(StandardLocation.CLASS_PATH, it) - "org."
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.jdk6
+
+import javax.annotation.processing.AbstractProcessor
+import javax.annotation.processing.RoundEnvironment
+import javax.annotation.processing.SupportedAnnotationTypes
+import javax.lang.model.SourceVersion
+import javax.lang.model.element.Element
+import javax.lang.model.element.TypeElement
+
+/**
+ * Generates a class for each deprecated element, which holds the name of the processing environment class that the processor was given.
+ */
+@SupportedAnnotationTypes("java.lang.Deprecated")
+class GeneratingProcessor extends AbstractProcessor {
+    SourceVersion getSupportedSourceVersion() {
+        SourceVersion.latestSupported()
+    }
+
+    boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Deprecated)) {
+            String name = element.simpleName.toString().capitalize() + "Generated"
+            Writer writer = processingEnv.filer.createSourceFile("org." + name, element).openWriter()
+            writer.write("package org; public class " + name + " { public static final String ENVIRONMENT = \"" + processingEnv.getClass().name + "\"; }")
+            writer.close()
+        }
+        false
+    }
+}
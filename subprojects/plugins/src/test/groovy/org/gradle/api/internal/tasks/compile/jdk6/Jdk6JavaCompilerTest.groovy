@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.jdk6
+
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec
+import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingResultSerializer
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+
+class Jdk6JavaCompilerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def compiler = new Jdk6JavaCompiler()
+    def spec = new DefaultJavaCompileSpec()
+    def classesDir = tmpDir.createDir("classes")
+    def generatedDir = tmpDir.createDir("generated")
+    def resultFile = tmpDir.file("processing.bin")
+
+    def setup() {
+        def source = tmpDir.file("src/org/Foo.java")
+        source.write("package org; public class Foo { @Deprecated void foo() {} }")
+        spec.source = new SimpleFileCollection(source)
+        spec.destinationDir = classesDir
+        spec.classpath = []
+        spec.compileOptions = new CompileOptions()
+        spec.compileOptions.compilerArgs = ["-s", generatedDir.path, "-processor", GeneratingProcessor.name, "-processorpath", processorPath()]
+        spec.annotationProcessingResultFile = resultFile
+    }
+
+    def "records the files generated by the annotation processors"() {
+        when:
+        compiler.execute(spec)
+
+        then:
+        def generatedFiles = new AnnotationProcessingResultSerializer(resultFile).read().generatedFiles
+        generatedFiles*.file == [generatedDir.file("org/FooGenerated.java")]
+        generatedFiles*.typeName == ["org.FooGenerated"]
+        generatedFiles*.originatingTypes == [["org.Foo"] as Set]
+        classesDir.file("org/FooGenerated.class").file
+    }
+
+    def "processors are initialized with the environment of the compiler"() {
+        when:
+        compiler.execute(spec)
+
+        then:
+        def loader = new URLClassLoader([classesDir.toURI().toURL()] as URL[], (ClassLoader) null)
+        loader.loadClass("org.FooGenerated").getDeclaredField("ENVIRONMENT").get(null) == "com.sun.tools.javac.processing.JavacProcessingEnvironment"
+    }
+
+    def "does not record the generated files unless asked to"() {
+        spec.annotationProcessingResultFile = null
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        generatedDir.file("org/FooGenerated.java").file
+        !resultFile.exists()
+    }
+
+    def "records no files when annotation processing is disabled"() {
+        spec.compileOptions.compilerArgs << "-proc:none"
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        new AnnotationProcessingResultSerializer(resultFile).read().generatedFiles.empty
+        !generatedDir.file("org/FooGenerated.java").exists()
+    }
+
+    private static String processorPath() {
+        [GeneratingProcessor, GroovyObject].collect { new File(it.protectionDomain.codeSource.location.toURI()).path }.join(File.pathSeparator)
+    }
+}
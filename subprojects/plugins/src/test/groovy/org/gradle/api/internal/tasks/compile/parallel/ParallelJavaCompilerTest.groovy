@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.parallel
+
+import org.gradle.api.file.SourceDirectorySet
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.Compiler
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec
+import org.gradle.api.internal.tasks.compile.incremental.CompilationSourceDirs
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfoSerializer
+import org.gradle.api.internal.tasks.compile.jdk6.Jdk6JavaCompiler
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ParallelJavaCompilerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def srcDir = tmpDir.createDir("src")
+    def classesDir = tmpDir.createDir("classes")
+    def stagingDir = tmpDir.file("staging")
+    def executorFactory = new DefaultExecutorFactory()
+    def compilations = [].asSynchronized()
+    def javac = new Jdk6JavaCompiler()
+    def compiler
+
+    def setup() {
+        def recordingCompiler = { JavaCompileSpec spec ->
+            compilations << spec
+            javac.execute(spec)
+        } as Compiler
+        def sourceDirs = new CompilationSourceDirs([Stub(SourceDirectorySet) { getSrcDirs() >> ([srcDir] as Set) }])
+        def dependencyInfo = new ClassDependencyInfoSerializer(tmpDir.file("dependency-info.bin"))
+        // The previous compilation recorded no dependencies between the classes
+        dependencyInfo.writeInfo(new ClassDependencyInfo([:]))
+        compiler = new ParallelJavaCompiler(recordingCompiler, sourceDirs, dependencyInfo, executorFactory, 2, stagingDir)
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "compiles a source that gained a dependency on a class compiled concurrently"() {
+        def sources = (0..<2 * ParallelJavaCompiler.MIN_SOURCES_PER_COMPILATION).collect {
+            srcDir.file("org/C${it}.java").write("package org; public class C${it} { public static int value() { return ${it}; } }")
+        }
+        srcDir.file("org/C1.java").write("package org; public class C1 { public static int value() { return C0.value() + 1; } }")
+
+        when:
+        compiler.execute(spec(sources))
+
+        then:
+        compilations.size() == 2
+        def dependency = compilations.find { it.source.contains(srcDir.file("org/C0.java")) }
+        def dependent = compilations.find { it.source.contains(srcDir.file("org/C1.java")) }
+        !dependency.is(dependent)
+
+        and:
+        def compilationDirs = compilations*.destinationDir
+        !compilationDirs.contains(classesDir)
+        compilations.every { compilation -> compilationDirs.every { !compilation.classpath.iterator().toList().contains(it) } }
+        sources.every { classesDir.file("org/${it.name - '.java'}.class").file }
+        classesDir.file("org").list().length == sources.size()
+        !stagingDir.exists()
+    }
+
+    private DefaultJavaCompileSpec spec(List<File> sources) {
+        def spec = new DefaultJavaCompileSpec()
+        spec.source = new SimpleFileCollection(sources)
+        spec.destinationDir = classesDir
+        spec.classpath = []
+        spec.compileOptions = new CompileOptions()
+        spec
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.parallel
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependencyInfo
+import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet
+import spock.lang.Specification
+
+class SourcePartitionerTest extends Specification {
+
+    def sources = new TreeMap<File, String>()
+
+    def info = new ClassDependencyInfo([
+            "A": new DefaultDependentsSet(["B", "C", "F"]),
+            'A$Inner': new DefaultDependentsSet(["G"]),
+            "B": new DefaultDependentsSet(["D"]),
+            "E": new DefaultDependentsSet(["F"]),
+            "F": new DefaultDependentsSet(["E"])
+    ])
+
+    def setup() {
+        ["A", "B", "C", "D", "E", "F", "G", "H"].each { sources.put(new File("${it}.java"), it) }
+    }
+
+    def "compiles each source after the sources it depends on"() {
+        expect:
+        files(new SourcePartitioner(2, 1).partition(sources, info)) == [
+                [["A"], ["H"]],
+                [["E", "F", "G"], ["B", "C"]],
+                [["D"]]
+        ]
+    }
+
+    def "merges waves that are too small and compiles the sources that depend on each other together"() {
+        expect:
+        files(new SourcePartitioner(2, 2).partition(sources, info)) == [
+                [["A", "B", "C", "D", "E", "F", "G"], ["H"]]
+        ]
+    }
+
+    def "compiles small source sets in a single compilation"() {
+        expect:
+        files(new SourcePartitioner(2, 10).partition(sources, info)) == [
+                [["A", "B", "C", "D", "E", "F", "G", "H"]]
+        ]
+    }
+
+    def "compiles a long chain of dependencies in a single compilation per wave"() {
+        def chain = new TreeMap<File, String>()
+        def dependents = [:]
+        10000.times {
+            chain.put(new File("C${it}.java"), "C${it}".toString())
+            dependents.put("C${it}".toString(), new DefaultDependentsSet(["C${it + 1}".toString()]))
+        }
+
+        when:
+        def waves = new SourcePartitioner(4, 25).partition(chain, new ClassDependencyInfo(dependents))
+
+        then:
+        waves.size() == 100
+        waves.every { wave -> wave.size() == 1 && wave[0].size() == 100 }
+    }
+
+    def "compiles independent chains of dependencies concurrently"() {
+        def chains = new TreeMap<File, String>()
+        def dependents = [:]
+        4.times { chain ->
+            25.times {
+                chains.put(new File("C${chain}_${it}.java"), "C${chain}_${it}".toString())
+                dependents.put("C${chain}_${it}".toString(), new DefaultDependentsSet(["C${chain}_${it + 1}".toString()]))
+            }
+        }
+
+        when:
+        def waves = files(new SourcePartitioner(4, 25).partition(chains, new ClassDependencyInfo(dependents)))
+
+        then:
+        waves.size() == 1
+        waves[0].size() == 4
+        waves[0].collect { compilation -> compilation.collect { it - ~/_\d+$/ } as Set } as Set == ["C0", "C1", "C2", "C3"].collect { [it] as Set } as Set
+    }
+
+    def "never compiles a source concurrently with a source it depends on"() {
+        def random = new Random(42)
+        def graph = new TreeMap<File, String>()
+        def dependents = [:]
+        500.times {
+            graph.put(new File("S${it}.java"), "S${it}".toString())
+        }
+        500.times { dependency ->
+            def names = (0..<random.nextInt(4)).collect { "S${dependency + 1 + random.nextInt(50)}".toString() }
+            dependents.put("S${dependency}".toString(), new DefaultDependentsSet(names))
+        }
+
+        when:
+        def waves = files(new SourcePartitioner(4, 5).partition(graph, new ClassDependencyInfo(dependents)))
+
+        then:
+        waves.flatten().size() == 500
+        def compiledBefore = [] as Set
+        waves.every { wave ->
+            def ok = wave.every { compilation ->
+                compilation.every { source ->
+                    dependents.findAll { dependency, dependentsOf -> source in dependentsOf.dependentClasses }.keySet().every { dependency ->
+                        dependency in compiledBefore || dependency in compilation || !graph.containsValue(dependency)
+                    }
+                }
+            }
+            compiledBefore.addAll(wave.flatten())
+            ok
+        }
+    }
+
+    def files(List<List<List<File>>> waves) {
+        waves.collect { wave -> wave.collect { compilation -> compilation.collect { it.name - ".java" } } }
+    }
+}
@@ -18,8 +18,11 @@ package org.gradle.api.internal.tasks.testing.detection
 
 import org.gradle.api.file.FileCollection
 import org.gradle.api.file.FileTree
+import org.gradle.api.internal.changedetection.state.FileSnapshotter
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess
 import org.gradle.api.internal.tasks.testing.TestFramework
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.specs.Specs
 import org.gradle.api.tasks.testing.Test
 import org.gradle.messaging.actor.Actor
 import org.gradle.messaging.actor.ActorFactory
@@ -37,8 +40,11 @@ class DefaultTestExecuterTest extends Specification {
     TestFrameworkDetector testFrameworkTestDetector = Mock()
     File testClassesDir = Mock()
     FileCollection testClasspath = Mock()
+    TestClassDetectionCache detectionCache = Mock()
+    TaskArtifactStateCacheAccess cacheAccess = Mock()
+    FileSnapshotter fileSnapshotter = Mock()
 
-    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory)
+    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory, detectionCache, cacheAccess, fileSnapshotter)
 
     def setup() {
         _ * testTask.testFramework >> testFramework
@@ -51,7 +57,7 @@ class DefaultTestExecuterTest extends Specification {
 
     def "testClassDirectory for testclassdetector is configured before executing"() {
         when:
-        executer.execute(testTask, testResultProcessor);
+        executer.execute(testTask, testResultProcessor, Specs.satisfyAll(), [:], []);
         then:
         1 * testFramework.getDetector() >> testFrameworkTestDetector
         1 * testTask.getTestClassesDir() >> testClassesDir
@@ -60,9 +66,18 @@ class DefaultTestExecuterTest extends Specification {
 
     def "testClasspath for testclassdetector is configured before executing"() {
         when:
-        executer.execute(testTask, testResultProcessor);
+        executer.execute(testTask, testResultProcessor, Specs.satisfyAll(), [:], []);
         then:
         1 * testTask.getClasspath() >> testClasspath
         1 * testFrameworkTestDetector.setTestClasspath(testClasspath)
     }
+
+    def "testclassdetector scans for test classes using the detection cache"() {
+        when:
+        executer.execute(testTask, testResultProcessor, Specs.satisfyAll(), [:], []);
+        then:
+        1 * testFrameworkTestDetector.setDetectionCache(detectionCache, fileSnapshotter)
+        1 * cacheAccess.useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+        1 * detectionCache.useCache(_, _ as Runnable)
+    }
 }
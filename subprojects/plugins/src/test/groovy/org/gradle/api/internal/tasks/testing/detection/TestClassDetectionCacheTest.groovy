@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.CacheUsage
+import org.gradle.api.internal.changedetection.state.NoOpDecorator
+import org.gradle.cache.internal.CacheScopeMapping
+import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.HashValue
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.InMemoryCacheFactory
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestClassDetectionCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def mapping = Stub(CacheScopeMapping) {
+        getBaseDirectory(_, _, _) >> { tmpDir.createDir("detection-cache") }
+    }
+    def cache = new TestClassDetectionCache(new DefaultCacheRepository(mapping, CacheUsage.ON, new InMemoryCacheFactory()), new NoOpDecorator())
+    def hash1 = new HashValue("1234")
+    def hash2 = new HashValue("5678")
+
+    def cleanup() {
+        cache.stop()
+    }
+
+    def "detects a class file once per content hash"() {
+        Factory<DetectedClass> detector = Mock()
+        def detectedClass = new DetectedClass("org/gradle/SomeTest", "junit/framework/TestCase", false, true)
+        DetectedClass first
+        DetectedClass second
+
+        when:
+        cache.useCache("test") {
+            first = cache.getClassFileDetails("JUnitDetector", hash1, detector)
+            second = cache.getClassFileDetails("JUnitDetector", hash1, detector)
+        }
+
+        then:
+        1 * detector.create() >> detectedClass
+
+        and:
+        first.className == "org/gradle/SomeTest"
+        first.superClassName == "junit/framework/TestCase"
+        !first.abstract
+        first.test
+        second.className == "org/gradle/SomeTest"
+    }
+
+    def "detects a class file again when its content or the detector changes"() {
+        Factory<DetectedClass> detector = Mock()
+
+        when:
+        cache.useCache("test") {
+            cache.getClassFileDetails("JUnitDetector", hash1, detector)
+            cache.getClassFileDetails("JUnitDetector", hash2, detector)
+            cache.getClassFileDetails("TestNGDetector", hash1, detector)
+        }
+
+        then:
+        3 * detector.create() >> new DetectedClass("org/gradle/SomeTest", null, true, false)
+    }
+
+    def "remembers the classes detected in a jar"() {
+        DetectedClass beforePut
+        DetectedClass afterPut
+        DetectedClass otherJar
+
+        when:
+        cache.useCache("test") {
+            beforePut = cache.getJarClassDetails("JUnitDetector", hash1, "org/gradle/BaseTest")
+            cache.putJarClassDetails("JUnitDetector", hash1, new DetectedClass("org/gradle/BaseTest", "junit/framework/TestCase", true, false))
+            afterPut = cache.getJarClassDetails("JUnitDetector", hash1, "org/gradle/BaseTest")
+            otherJar = cache.getJarClassDetails("JUnitDetector", hash2, "org/gradle/BaseTest")
+        }
+
+        then:
+        beforePut == null
+        afterPut.className == "org/gradle/BaseTest"
+        afterPut.abstract
+        otherJar == null
+    }
+
+    def "lists the packages of a jar once per jar hash"() {
+        Factory<List<String>> lister = Mock()
+        List<String> first
+        List<String> second
+
+        when:
+        cache.useCache("test") {
+            first = cache.getJarPackages(hash1, lister)
+            second = cache.getJarPackages(hash1, lister)
+        }
+
+        then:
+        1 * lister.create() >> ["org/gradle/", "org/gradle/base/"]
+
+        and:
+        first == ["org/gradle/", "org/gradle/base/"]
+        second == ["org/gradle/", "org/gradle/base/"]
+    }
+}
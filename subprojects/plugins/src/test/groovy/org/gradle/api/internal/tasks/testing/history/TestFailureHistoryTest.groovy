@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.history
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestFailureHistoryTest extends Specification {
+    @Rule
+    private TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+    def historyFile = tmp.file("failures.bin")
+
+    def "has no recent failures when there is no history"() {
+        expect:
+        new TestFailureHistory(historyFile).recentFailures.empty
+    }
+
+    def "returns the recent failures most recent first"() {
+        when:
+        new TestFailureHistory(historyFile).recordExecution(["Older", "Both"])
+        new TestFailureHistory(historyFile).recordExecution([])
+        new TestFailureHistory(historyFile).recordExecution(["Recent", "Both"])
+
+        then:
+        new TestFailureHistory(historyFile).recentFailures == ["Both", "Recent", "Older"]
+    }
+
+    def "forgets test classes that have not failed recently"() {
+        def history = new TestFailureHistory(historyFile)
+
+        when:
+        history.recordExecution(["Old"])
+        (TestFailureHistory.MAX_EXECUTIONS - 1).times { history.recordExecution([]) }
+
+        then:
+        new TestFailureHistory(historyFile).recentFailures == ["Old"]
+
+        when:
+        history.recordExecution(["Recent"])
+
+        then:
+        new TestFailureHistory(historyFile).recentFailures == ["Recent"]
+    }
+}
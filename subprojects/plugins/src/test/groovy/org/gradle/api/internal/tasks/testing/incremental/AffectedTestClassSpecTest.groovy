@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.incremental
+
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
+import org.gradle.api.tasks.testing.TestResult
+import spock.lang.Specification
+
+class AffectedTestClassSpecTest extends Specification {
+    def spec = new AffectedTestClassSpec(["AffectedTest"] as Set, [
+            AffectedTest: result("AffectedTest", TestResult.ResultType.SUCCESS),
+            UnaffectedTest: result("UnaffectedTest", TestResult.ResultType.SUCCESS),
+            FailedTest: result("FailedTest", TestResult.ResultType.FAILURE)])
+
+    def "runs affected test classes and test classes without a successful previous result"() {
+        expect:
+        spec.isSatisfiedBy("AffectedTest")
+        spec.isSatisfiedBy("FailedTest")
+        spec.isSatisfiedBy("NewTest")
+        !spec.isSatisfiedBy("UnaffectedTest")
+        spec.skippedClasses == ["UnaffectedTest"] as Set
+    }
+
+    def result(String className, TestResult.ResultType resultType) {
+        def method = new TestMethodResult(2, "test", resultType, 10, 20)
+        if (resultType == TestResult.ResultType.FAILURE) {
+            method.addFailure("failed", "stack", "Exception")
+        }
+        return new TestClassResult(1, className, 10).add(method)
+    }
+}
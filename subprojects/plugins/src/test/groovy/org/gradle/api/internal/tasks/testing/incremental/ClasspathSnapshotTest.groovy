@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.incremental
+
+import org.gradle.internal.hash.HashUtil
+import spock.lang.Specification
+
+class ClasspathSnapshotTest extends Specification {
+    def "detects added, removed and changed classes"() {
+        def previous = new ClasspathSnapshot([A: hash("a"), B: hash("b"), C: hash("c")], [:])
+        def current = new ClasspathSnapshot([A: hash("a"), B: hash("b2"), D: hash("d")], [:])
+
+        expect:
+        current.getChangedClasses(previous) == ["B", "C", "D"] as Set
+        !current.hasChangedFiles(previous)
+    }
+
+    def "detects changed files"() {
+        def previous = new ClasspathSnapshot([:], ["lib.jar": hash("1")])
+
+        expect:
+        new ClasspathSnapshot([:], ["lib.jar": hash("2")]).hasChangedFiles(previous)
+        new ClasspathSnapshot([:], [:]).hasChangedFiles(previous)
+        !new ClasspathSnapshot([:], ["lib.jar": hash("1")]).hasChangedFiles(previous)
+    }
+
+    def "finds classes that depend on given classes transitively"() {
+        def snapshot = new ClasspathSnapshot([:], [:], [
+                ATest: ["A", "org.junit.Test"],
+                BTest: ["B"],
+                A: ["C"],
+                B: [],
+                C: ["A"]], [] as Set)
+
+        expect:
+        snapshot.getDependentClasses(["C"] as Set) == ["C", "A", "ATest"] as Set
+        snapshot.getDependentClasses(["B"] as Set) == ["B", "BTest"] as Set
+        snapshot.getDependentClasses(["Unknown"] as Set) == ["Unknown"] as Set
+    }
+
+    def "detects changes to classes that all classes may depend on"() {
+        def previous = new ClasspathSnapshot([:], [:], ["Removed"] as Set)
+        def current = new ClasspathSnapshot([:], [:], ["Constants"] as Set)
+
+        expect:
+        current.isDependencyToAll(["A", "Constants"] as Set, previous)
+        current.isDependencyToAll(["Removed"] as Set, previous)
+        !current.isDependencyToAll(["A", "B"] as Set, previous)
+    }
+
+    def hash(String value) {
+        return HashUtil.createHash(value, "SHA1")
+    }
+}
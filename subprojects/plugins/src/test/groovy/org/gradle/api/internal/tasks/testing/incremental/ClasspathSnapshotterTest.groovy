@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.incremental
+
+import org.gradle.api.internal.changedetection.state.FileSnapshotter
+import org.gradle.api.internal.changedetection.state.TaskArtifactStateCacheAccess
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ClasspathSnapshotterTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def analyzer = Mock(ClassDependenciesAnalyzer)
+    def cacheAccess = Stub(TaskArtifactStateCacheAccess) {
+        useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+    }
+    def fileSnapshotter = Stub(FileSnapshotter) {
+        snapshot(_) >> { File file -> snapshot(file.text.bytes) }
+    }
+    def snapshotter = new ClasspathSnapshotter(analyzer, cacheAccess, fileSnapshotter)
+    def classes = tmpDir.createDir("classes")
+    def jar = tmpDir.file("lib.jar")
+
+    def setup() {
+        classes.file("org/A.class").write("a")
+        classes.file("org/B.class").write("b")
+        classes.file("org/resource.txt").write("resource")
+        jar.write("jar")
+    }
+
+    def "hashes the classes, jars and resources of the classpath and analyzes every class"() {
+        when:
+        def snapshot = snapshotter.snapshot([classes, jar], [:], null)
+
+        then:
+        1 * analyzer.getClassAnalysis("org.A", classes.file("org/A.class")) >> new ClassAnalysis(["org.B"], false)
+        1 * analyzer.getClassAnalysis("org.B", classes.file("org/B.class")) >> new ClassAnalysis([], true)
+        0 * analyzer._
+
+        snapshot.classHashes.keySet() == ["org.A", "org.B"] as Set
+        snapshot.fileHashes.keySet() == [classes.file("org/resource.txt").absolutePath, jar.absolutePath, ClasspathSnapshotter.INPUT_PROPERTIES_KEY] as Set
+        snapshot.classDependencies == ["org.A": ["org.B"], "org.B": []]
+        snapshot.dependencyToAllClasses == ["org.B"] as Set
+    }
+
+    def "analyzes only the classes that have changed since the previous snapshot"() {
+        given:
+        analyzer.getClassAnalysis("org.A", _ as File) >> new ClassAnalysis(["org.B"], false)
+        analyzer.getClassAnalysis("org.B", _ as File) >> new ClassAnalysis([], true)
+        def previous = snapshotter.snapshot([classes, jar], [:], null)
+
+        when:
+        classes.file("org/A.class").write("changed a")
+        classes.file("org/C.class").write("c")
+        def snapshot = snapshotter.snapshot([classes, jar], [:], previous)
+
+        then:
+        1 * analyzer.getClassAnalysis("org.A", classes.file("org/A.class")) >> new ClassAnalysis(["org.C"], false)
+        1 * analyzer.getClassAnalysis("org.C", classes.file("org/C.class")) >> new ClassAnalysis([], false)
+        0 * analyzer._
+
+        snapshot.classDependencies == ["org.A": ["org.C"], "org.B": [], "org.C": []]
+        snapshot.dependencyToAllClasses == ["org.B"] as Set
+        snapshot.getChangedClasses(previous) == ["org.A", "org.C"] as Set
+    }
+
+    def "uses the dependencies of a previous snapshot that has been read back"() {
+        given:
+        analyzer.getClassAnalysis("org.A", _ as File) >> new ClassAnalysis(["org.B"], false)
+        analyzer.getClassAnalysis("org.B", _ as File) >> new ClassAnalysis([], true)
+        def serializer = new ClasspathSnapshotSerializer(tmpDir.file("snapshot.bin"))
+        serializer.write(snapshotter.snapshot([classes, jar], [:], null))
+
+        when:
+        def snapshot = snapshotter.snapshot([classes, jar], [:], serializer.read())
+
+        then:
+        0 * analyzer._
+
+        snapshot.classDependencies == ["org.A": ["org.B"], "org.B": []]
+        snapshot.dependencyToAllClasses == ["org.B"] as Set
+        snapshot.getDependentClasses(["org.B"] as Set) == ["org.A", "org.B"] as Set
+    }
+
+    private FileSnapshotter.FileSnapshot snapshot(byte[] hash) {
+        Stub(FileSnapshotter.FileSnapshot) {
+            getHash() >> hash
+        }
+    }
+}
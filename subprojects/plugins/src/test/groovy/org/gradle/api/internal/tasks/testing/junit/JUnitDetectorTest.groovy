@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.junit
+
+import org.gradle.api.file.FileCollection
+import org.gradle.api.internal.changedetection.state.FileSnapshotter
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.detection.ClassFileExtractionManager
+import org.gradle.api.internal.tasks.testing.detection.DetectedClass
+import org.gradle.api.internal.tasks.testing.detection.TestClassDetectionCache
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.HashValue
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class JUnitDetectorTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    TestClassDetectionCache detectionCache = Mock()
+    FileSnapshotter fileSnapshotter = Mock()
+    TestClassProcessor testClassProcessor = Mock()
+    def detector = new JUnitDetector(new ClassFileExtractionManager({ tmpDir.createDir("extracted") } as Factory<File>))
+
+    def setup() {
+        detector.startDetection(testClassProcessor)
+        detector.setDetectionCache(detectionCache, fileSnapshotter)
+    }
+
+    def "uses the cached result for a class file with known content"() {
+        def classFile = tmpDir.file("classes/org/gradle/SomeTest.class")
+        detector.testClassesDirectory = tmpDir.file("classes")
+
+        when:
+        detector.processTestClass(classFile)
+
+        then:
+        1 * fileSnapshotter.snapshot(classFile) >> snapshot("1234")
+        1 * detectionCache.getClassFileDetails("JUnitDetector", new HashValue("1234"), _) >> new DetectedClass("org/gradle/SomeTest", "junit/framework/TestCase", false, false)
+        1 * testClassProcessor.processTestClass({ TestClassRunInfo info -> info.testClassName == "org.gradle.SomeTest" })
+    }
+
+    def "uses the cached result for a super class in a jar"() {
+        def classFile = tmpDir.file("classes/org/gradle/SomeTest.class")
+        def jar = tmpDir.createFile("lib/base.jar")
+        FileCollection classpath = Stub() {
+            iterator() >> { [jar].iterator() }
+        }
+        detector.testClassesDirectory = tmpDir.file("classes")
+        detector.testClasspath = classpath
+
+        when:
+        detector.processTestClass(classFile)
+
+        then:
+        _ * fileSnapshotter.snapshot(classFile) >> snapshot("1234")
+        _ * fileSnapshotter.snapshot(jar) >> snapshot("5678")
+        1 * detectionCache.getClassFileDetails("JUnitDetector", new HashValue("1234"), _) >> new DetectedClass("org/gradle/SomeTest", "org/gradle/base/BaseTest", false, false)
+        1 * detectionCache.getJarPackages(new HashValue("5678"), _) >> ["org/gradle/base/"]
+        1 * detectionCache.getJarClassDetails("JUnitDetector", new HashValue("5678"), "org/gradle/base/BaseTest") >> new DetectedClass("org/gradle/base/BaseTest", "junit/framework/TestCase", true, false)
+        0 * detectionCache.putJarClassDetails(_, _, _)
+        1 * testClassProcessor.processTestClass({ TestClassRunInfo info -> info.testClassName == "org.gradle.SomeTest" })
+    }
+
+    def "does not publish a cached abstract test class"() {
+        def classFile = tmpDir.file("classes/org/gradle/AbstractTest.class")
+        detector.testClassesDirectory = tmpDir.file("classes")
+
+        when:
+        detector.processTestClass(classFile)
+
+        then:
+        1 * fileSnapshotter.snapshot(classFile) >> snapshot("1234")
+        1 * detectionCache.getClassFileDetails("JUnitDetector", new HashValue("1234"), _) >> new DetectedClass("org/gradle/AbstractTest", "junit/framework/TestCase", true, false)
+        0 * testClassProcessor._
+    }
+
+    private FileSnapshotter.FileSnapshot snapshot(String hash) {
+        Stub(FileSnapshotter.FileSnapshot) {
+            getHash() >> new HashValue(hash).asByteArray()
+        }
+    }
+}
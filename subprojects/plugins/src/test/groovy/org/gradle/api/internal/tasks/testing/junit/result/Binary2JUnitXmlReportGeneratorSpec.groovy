@@ -19,6 +19,8 @@ package org.gradle.api.internal.tasks.testing.junit.result
 import org.gradle.api.Action
 import org.gradle.api.GradleException
 import org.gradle.api.tasks.testing.TestResult
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ParallelActionExecuter
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
@@ -27,7 +29,7 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
 
     @Rule private TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
     private resultsProvider = Mock(TestResultsProvider)
-    private generator = new Binary2JUnitXmlReportGenerator(temp.testDirectory, resultsProvider, TestOutputAssociation.WITH_SUITE)
+    private generator = new Binary2JUnitXmlReportGenerator(temp.testDirectory, resultsProvider, TestOutputAssociation.WITH_SUITE, new ParallelActionExecuter(new DefaultExecutorFactory(), 1))
 
     def setup() {
         generator.saxWriter = Mock(JUnitXmlResultWriter)
@@ -72,4 +74,31 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
         ex.message.startsWith('Could not write XML test results for FooTest')
         ex.cause.message == "Boo!"
     }
+
+    def "keeps existing file of result carried over from previous run"() {
+        def fooTest = new TestClassResult(1, 'FooTest', 100)
+                .add(new TestMethodResult(1, "foo"))
+        def barTest = new TestClassResult(2, 'BarTest', 100)
+                .add(new TestMethodResult(2, "bar"))
+        def bazTest = new TestClassResult(3, 'BazTest', 100)
+                .add(new TestMethodResult(3, "baz"))
+        fooTest.carriedOver = true
+        bazTest.carriedOver = true
+        temp.file("TEST-FooTest.xml").text = "previous"
+
+        resultsProvider.visitClasses(_) >> { Action action ->
+            action.execute(fooTest)
+            action.execute(barTest)
+            action.execute(bazTest)
+        }
+
+        when:
+        generator.generate()
+
+        then:
+        1 * generator.saxWriter.write(barTest, _)
+        1 * generator.saxWriter.write(bazTest, _)
+        0 * generator.saxWriter._
+        temp.file("TEST-FooTest.xml").text == "previous"
+    }
 }
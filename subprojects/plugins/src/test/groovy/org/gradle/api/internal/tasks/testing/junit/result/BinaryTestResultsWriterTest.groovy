@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.result
+
+import org.gradle.api.Action
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
+
+class BinaryTestResultsWriterTest extends Specification {
+    @Rule
+    private TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+
+    def "writes the combined results and output of several providers"() {
+        def shard1 = provider("shard1", "Class1") { TestOutputStore.Writer writer ->
+            writer.onOutput(1, new DefaultTestOutputEvent(StdOut, "class output"))
+            writer.onOutput(1, 2, new DefaultTestOutputEvent(StdErr, "method output"))
+        }
+        def shard2 = provider("shard2", "Class2") {}
+        def aggregate = new AggregateTestResultsProvider([shard1, shard2])
+        def dir = tmp.createDir("merged")
+        def merged = null
+
+        when:
+        new BinaryTestResultsWriter(dir).write(aggregate)
+        merged = new BinaryResultBackedTestResultsProvider(dir)
+        def read = []
+        merged.visitClasses({ read << it } as Action)
+
+        then:
+        read*.className == ["Class1", "Class2"]
+        read[0].results*.name == ["method1"]
+        read[0].results[0].resultType == TestResult.ResultType.FAILURE
+        read[0].results[0].duration == 100
+        read[0].results[0].failures*.message == ["message"]
+
+        and:
+        output { merged.writeNonTestOutput(read[0].id, StdOut, it) } == "class output"
+        output { merged.writeTestOutput(read[0].id, read[0].results[0].id, StdErr, it) } == "method output"
+        output { merged.writeAllOutput(read[1].id, StdOut, it) } == ""
+
+        cleanup:
+        aggregate.close()
+        merged?.close()
+    }
+
+    TestResultsProvider provider(String name, String className, Closure output) {
+        def store = new TestOutputStore(tmp.createDir(name))
+        def writer = store.writer()
+        output.call(writer)
+        writer.close()
+        def classResult = new TestClassResult(1, className, 1000)
+        classResult.add(new TestMethodResult(2, "method1", TestResult.ResultType.FAILURE, 100, 1100).addFailure("message", "stack-trace", "ExceptionType"))
+        return new InMemoryTestResultsProvider([classResult], store.reader())
+    }
+
+    String output(Closure write) {
+        def writer = new StringWriter()
+        write.call(writer)
+        return writer.toString()
+    }
+}
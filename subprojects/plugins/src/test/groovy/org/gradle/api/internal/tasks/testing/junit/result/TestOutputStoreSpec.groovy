@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.tasks.testing.junit.result
 
+import com.esotericsoftware.kryo.io.Output
 import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
 import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
 import org.gradle.api.tasks.testing.TestOutputEvent
@@ -89,6 +90,73 @@ class TestOutputStoreSpec extends WorkspaceTest {
         collectOutput(reader, 2, StdOut) == "[out-6]"
     }
 
+    def "reads output of tests whose index entries were written before the writer was closed"() {
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, output(StdOut, "[out-1]"))
+        writer.onOutput(1, 1, output(StdOut, "[out-2]"))
+        writer.onOutput(1, 2, output(StdOut, "[out-3]"))
+        writer.onTestCompleted(1, 1)
+        writer.onOutput(1, 2, output(StdErr, "[err-1]"))
+        writer.onOutput(1, 1, output(StdOut, "[out-4]"))
+        writer.onClassCompleted(1)
+        writer.onOutput(2, output(StdOut, "[out-5]"))
+        writer.close()
+        def reader = output.reader(memoryMapped, maxBufferedRegionSize)
+
+        then:
+        collectAllOutput(reader, 1, StdOut) == "[out-1][out-2][out-3][out-4]"
+        collectOutput(reader, 1, StdOut) == "[out-1]"
+        collectOutput(reader, 1, 1, StdOut) == "[out-2][out-4]"
+        collectOutput(reader, 1, 2, StdOut) == "[out-3]"
+        collectOutput(reader, 1, 2, StdErr) == "[err-1]"
+        collectAllOutput(reader, 2, StdOut) == "[out-5]"
+
+        cleanup:
+        reader?.close()
+
+        where:
+        memoryMapped | maxBufferedRegionSize
+        true         | 0
+        false        | 0
+        true         | 1024
+    }
+
+    def "can read output from multiple threads"() {
+        when:
+        def writer = output.writer()
+        100.times { testId ->
+            writer.onOutput(1, testId + 1, output(StdOut, "[out-${testId + 1}]"))
+            writer.onTestCompleted(1, testId + 1)
+        }
+        writer.close()
+        def reader = output.reader(memoryMapped, maxBufferedRegionSize)
+        def collected = Collections.synchronizedMap([:])
+        def threads = (1..4).collect { threadNum ->
+            Thread.start {
+                (1..100).each { testId ->
+                    if (testId % 4 == threadNum - 1) {
+                        collected[testId] = collectOutput(reader, 1, testId, StdOut)
+                    }
+                }
+            }
+        }
+        threads*.join()
+
+        then:
+        collected.size() == 100
+        collected.every { testId, text -> text == "[out-${testId}]" }
+
+        cleanup:
+        reader?.close()
+
+        where:
+        memoryMapped | maxBufferedRegionSize
+        true         | 0
+        false        | 0
+        true         | 1024
+    }
+
     def DefaultTestOutputEvent output(TestOutputEvent.Destination destination, String msg) {
         new DefaultTestOutputEvent(destination, msg)
     }
@@ -160,6 +228,23 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader?.close()
     }
 
+    def "exception if index was written by a different version"() {
+        when:
+        output.outputsFile.createNewFile()
+        def index = new Output(new FileOutputStream(output.indexFile))
+        index.writeInt(1, true)
+        index.writeBoolean(false)
+        index.close()
+        def reader = output.reader()
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "Unexpected test output index version 1 found in ${output.indexFile}."
+
+        cleanup:
+        reader?.close()
+    }
+
     String collectAllOutput(TestOutputStore.Reader reader, long classId, TestOutputEvent.Destination destination) {
         def writer = new StringWriter()
         reader.writeAllOutput(classId, destination, writer)
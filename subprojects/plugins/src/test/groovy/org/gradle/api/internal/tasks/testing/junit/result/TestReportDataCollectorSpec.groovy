@@ -219,4 +219,22 @@ class TestReportDataCollectorSpec extends Specification {
         then:
         results.get("FooTest").startTime == 100
     }
+
+    def "notifies output writer when tests and classes complete"() {
+        def testClass = new DefaultTestClassDescriptor("1.1", "FooTest")
+        def test = new DefaultTestDescriptor("1.1.1", "FooTest", "testMethod")
+
+        when:
+        collector.beforeSuite(testClass)
+        collector.beforeTest(test)
+        collector.afterTest(test, new DefaultTestResult(SUCCESS, 100, 200, 1, 1, 0, asList()))
+        collector.afterSuite(testClass, new DefaultTestResult(SUCCESS, 100, 200, 1, 1, 0, asList()))
+
+        then:
+        1 * writer.onTestCompleted(2, 1)
+
+        then:
+        1 * writer.onClassCompleted(2)
+        0 * writer._
+    }
 }
@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks.testing.processors
 
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestEventBatchProcessor
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.messaging.actor.Actor
 import org.gradle.messaging.actor.ActorFactory
@@ -27,18 +28,19 @@ import org.gradle.internal.Factory
 class MaxNParallelTestClassProcessorTest extends Specification {
     private final Factory<TestClassProcessor> factory = Mock()
     private final TestResultProcessor resultProcessor = Mock()
-    private final TestResultProcessor asyncResultProcessor = Mock()
+    private final TestEventBatchProcessor asyncResultProcessor = Mock()
     private final Actor resultProcessorActor = Mock()
     private final ActorFactory actorFactory = Mock()
-    private final MaxNParallelTestClassProcessor processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory)
+    private MaxNParallelTestClassProcessor processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, [slow: 100L, quick: 10L])
+    private final List<TestClassProcessor> idleNotifyingProcessors = []
 
     def createsThreadSafeWrapperForResultProcessorOnStart() {
         when:
         processor.startProcessing(resultProcessor)
 
         then:
-        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
-        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        1 * actorFactory.createActor({ it instanceof ReplayingTestEventBatchProcessor && it.processor == resultProcessor }) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestEventBatchProcessor) >> asyncResultProcessor
     }
 
     def doesNothingWhenNoTestsProcessed() {
@@ -53,8 +55,8 @@ class MaxNParallelTestClassProcessorTest extends Specification {
     }
 
     def startProcessor() {
-        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
-        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        1 * actorFactory.createActor(_ as ReplayingTestEventBatchProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestEventBatchProcessor) >> asyncResultProcessor
         processor.startProcessing(resultProcessor)
     }
 
@@ -71,7 +73,7 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> { TestClassProcessor p -> idleNotifyingProcessors << p; actor1 }
         1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
         1 * asyncProcessor1.startProcessing(asyncResultProcessor)
         1 * asyncProcessor1.processTestClass(test)
@@ -87,12 +89,8 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
     def startsMultipleProcessorsOnDemandAndStopsAtEnd() {
         TestClassRunInfo test = Mock()
-        TestClassProcessor processor1 = Mock()
-        TestClassProcessor processor2 = Mock()
         TestClassProcessor asyncProcessor1 = Mock()
         TestClassProcessor asyncProcessor2 = Mock()
-        Actor actor1 = Mock()
-        Actor actor2 = Mock()
 
         startProcessor()
 
@@ -100,21 +98,17 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         processor.processTestClass(test)
 
         then:
-        1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
-        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
         1 * asyncProcessor1.startProcessing(asyncResultProcessor)
         1 * asyncProcessor1.processTestClass(test)
+        interaction { startsProcessor(asyncProcessor1) }
 
         when:
         processor.processTestClass(test)
 
         then:
-        1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
-        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
         1 * asyncProcessor2.startProcessing(asyncResultProcessor)
         1 * asyncProcessor2.processTestClass(test)
+        interaction { startsProcessor(asyncProcessor2) }
 
         when:
         processor.stop()
@@ -124,47 +118,225 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         1 * asyncProcessor2.stop()
     }
 
-    def roundRobinsTestClassesToProcessors() {
-        TestClassRunInfo test = Mock()
-        TestClassProcessor processor1 = Mock()
-        TestClassProcessor processor2 = Mock()
+    def handsOutQueuedTestClassesToIdleProcessors() {
+        TestClassRunInfo test1 = testClass("test1")
+        TestClassRunInfo test2 = testClass("test2")
+        TestClassRunInfo test3 = testClass("test3")
+        TestClassRunInfo test4 = testClass("test4")
         TestClassProcessor asyncProcessor1 = Mock()
         TestClassProcessor asyncProcessor2 = Mock()
-        Actor actor1 = Mock()
-        Actor actor2 = Mock()
 
         startProcessor()
 
         when:
-        processor.processTestClass(test)
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+        processor.processTestClass(test3)
+        processor.processTestClass(test4)
 
         then:
-        1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
-        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
-        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor1.processTestClass(test)
+        interaction { startsProcessor(asyncProcessor1) }
+        interaction { startsProcessor(asyncProcessor2) }
+        1 * asyncProcessor1.processTestClass(test1)
+        1 * asyncProcessor2.processTestClass(test2)
+        0 * asyncProcessor1.processTestClass(_)
+        0 * asyncProcessor2.processTestClass(_)
 
         when:
-        processor.processTestClass(test)
+        idleNotifyingProcessors[1].processTestClass(test2)
 
         then:
-        1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
-        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
-        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor2.processTestClass(test)
+        1 * asyncProcessor2.processTestClass(test3)
+        0 * asyncProcessor1.processTestClass(_)
 
         when:
-        processor.processTestClass(test)
+        idleNotifyingProcessors[1].processTestClass(test3)
 
         then:
-        1 * asyncProcessor1.processTestClass(test)
+        1 * asyncProcessor2.processTestClass(test4)
+        0 * asyncProcessor1.processTestClass(_)
+    }
+
+    def handsOutIdleProcessorsToNewTestClasses() {
+        TestClassRunInfo test1 = testClass("test1")
+        TestClassRunInfo test2 = testClass("test2")
+        TestClassRunInfo test3 = testClass("test3")
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+
+        startProcessor()
 
         when:
-        processor.processTestClass(test)
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+        idleNotifyingProcessors[0].processTestClass(test1)
+        processor.processTestClass(test3)
 
         then:
-        1 * asyncProcessor2.processTestClass(test)
+        interaction { startsProcessor(asyncProcessor1) }
+        interaction { startsProcessor(asyncProcessor2) }
+        1 * asyncProcessor1.processTestClass(test1)
+        1 * asyncProcessor2.processTestClass(test2)
+        1 * asyncProcessor1.processTestClass(test3)
+    }
+
+    def handsOutLongestQueuedTestClassFirst() {
+        TestClassRunInfo test1 = testClass("test1")
+        TestClassRunInfo test2 = testClass("test2")
+        TestClassRunInfo quick = testClass("quick")
+        TestClassRunInfo slow = testClass("slow")
+        TestClassRunInfo unknown = testClass("unknown")
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+
+        startProcessor()
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+        processor.processTestClass(quick)
+        processor.processTestClass(slow)
+        processor.processTestClass(unknown)
+
+        then:
+        interaction { startsProcessor(asyncProcessor1) }
+        interaction { startsProcessor(asyncProcessor2) }
+
+        when:
+        idleNotifyingProcessors[0].processTestClass(test1)
+        idleNotifyingProcessors[0].processTestClass(unknown)
+        idleNotifyingProcessors[0].processTestClass(slow)
+
+        then:
+        1 * asyncProcessor1.processTestClass(unknown)
+
+        then:
+        1 * asyncProcessor1.processTestClass(slow)
+
+        then:
+        1 * asyncProcessor1.processTestClass(quick)
+    }
+
+    def handsOutPrioritizedTestClassesFirst() {
+        processor = new MaxNParallelTestClassProcessor(1, factory, actorFactory, [slow: 100L], ["recent", "older"], false)
+        TestClassRunInfo test1 = testClass("test1")
+        TestClassRunInfo slow = testClass("slow")
+        TestClassRunInfo older = testClass("older")
+        TestClassRunInfo recent = testClass("recent")
+        TestClassProcessor asyncProcessor1 = Mock()
+
+        startProcessor()
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(slow)
+        processor.processTestClass(older)
+
+        then:
+        0 * factory.create()
+
+        when:
+        processor.processTestClass(recent)
+
+        then:
+        interaction { startsProcessor(asyncProcessor1) }
+        1 * asyncProcessor1.processTestClass(recent)
+        0 * asyncProcessor1.processTestClass(_)
+
+        when:
+        idleNotifyingProcessors[0].processTestClass(recent)
+        idleNotifyingProcessors[0].processTestClass(older)
+        idleNotifyingProcessors[0].processTestClass(test1)
+
+        then:
+        1 * asyncProcessor1.processTestClass(older)
+
+        then:
+        1 * asyncProcessor1.processTestClass(test1)
+
+        then:
+        1 * asyncProcessor1.processTestClass(slow)
+    }
+
+    def handsOutTestClassesOnceAllTestClassesHaveBeenReceivedWhenAPrioritizedTestClassIsMissing() {
+        processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, [:], ["recent", "removed"], false)
+        TestClassRunInfo test1 = testClass("test1")
+        TestClassRunInfo recent = testClass("recent")
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+
+        startProcessor()
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(recent)
+
+        then:
+        0 * factory.create()
+
+        when:
+        processor.stop()
+
+        then:
+        interaction { startsProcessor(asyncProcessor1) }
+        1 * asyncProcessor1.processTestClass(recent)
+
+        then:
+        interaction { startsProcessor(asyncProcessor2) }
+        1 * asyncProcessor2.processTestClass(test1)
+
+        then:
+        1 * asyncProcessor1.stop()
+        1 * asyncProcessor2.stop()
+    }
+
+    def stopsHandingOutTestClassesOnceATestHasFailedWhenFailFastIsEnabled() {
+        processor = new MaxNParallelTestClassProcessor(1, factory, actorFactory, [:], [], true)
+        TestClassRunInfo test1 = testClass("test1")
+        TestClassRunInfo test2 = testClass("test2")
+        TestClassRunInfo test3 = testClass("test3")
+        TestClassProcessor asyncProcessor1 = Mock()
+        def failure = new RuntimeException()
+        ReplayingTestEventBatchProcessor events = null
+
+        when:
+        processor.startProcessing(resultProcessor)
+
+        then:
+        1 * actorFactory.createActor(_ as ReplayingTestEventBatchProcessor) >> { ReplayingTestEventBatchProcessor p -> events = p; resultProcessorActor }
+        1 * resultProcessorActor.getProxy(TestEventBatchProcessor) >> asyncResultProcessor
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+        events.failure("test", failure)
+        idleNotifyingProcessors[0].processTestClass(test1)
+        processor.processTestClass(test3)
+
+        then:
+        interaction { startsProcessor(asyncProcessor1) }
+        1 * asyncProcessor1.processTestClass(test1)
+        1 * resultProcessor.failure("test", failure)
+        0 * asyncProcessor1.processTestClass(_)
+
+        when:
+        processor.stop()
+
+        then:
+        1 * asyncProcessor1.stop()
+        1 * resultProcessorActor.stop()
+    }
+
+    def startsProcessor(TestClassProcessor asyncProcessor) {
+        Actor actor = Mock()
+        1 * factory.create() >> Mock(TestClassProcessor)
+        1 * actorFactory.createActor(_ as TestClassProcessor) >> { TestClassProcessor p -> idleNotifyingProcessors << p; actor }
+        1 * actor.getProxy(TestClassProcessor) >> asyncProcessor
+    }
+
+    def testClass(String className) {
+        TestClassRunInfo test = Mock()
+        _ * test.testClassName >> className
+        return test
     }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.logging.StandardOutputListener
+import org.gradle.logging.StandardOutputRedirector
+import org.gradle.util.RedirectStdOutAndErr
+import org.junit.Rule
+import spock.lang.Specification
+
+class ThreadRoutingOutputRedirectorTest extends Specification {
+    @Rule RedirectStdOutAndErr outputs = new RedirectStdOutAndErr()
+    def target = Mock(StandardOutputRedirector)
+    def router = new ThreadRoutingOutputRedirector(target)
+    StandardOutputListener stdOut
+    StandardOutputListener stdErr
+
+    def setup() {
+        _ * target.redirectStandardOutputTo(_) >> { StandardOutputListener l -> stdOut = l }
+        _ * target.redirectStandardErrorTo(_) >> { StandardOutputListener l -> stdErr = l }
+    }
+
+    def "routes output to the redirector started on the writing thread"() {
+        def destination1 = Mock(StandardOutputListener)
+        def destination2 = Mock(StandardOutputListener)
+        def errDestination = Mock(StandardOutputListener)
+        def redirector1 = router.createRedirector()
+        def redirector2 = router.createRedirector()
+
+        when:
+        router.start()
+        def thread = new Thread({
+            redirector2.redirectStandardOutputTo(destination2)
+            redirector2.start()
+            stdOut.onOutput("from thread 2")
+        })
+        redirector1.redirectStandardOutputTo(destination1)
+        redirector1.redirectStandardErrorTo(errDestination)
+        redirector1.start()
+        thread.start()
+        thread.join()
+        stdOut.onOutput("from thread 1")
+        stdErr.onOutput("error from thread 1")
+
+        then:
+        1 * destination1.onOutput("from thread 1")
+        1 * destination2.onOutput("from thread 2")
+        1 * errDestination.onOutput("error from thread 1")
+        0 * destination1._
+        0 * destination2._
+    }
+
+    def "routes output of threads started by the test to the redirector of the thread that started them"() {
+        def destination = Mock(StandardOutputListener)
+        def redirector = router.createRedirector()
+
+        when:
+        router.start()
+        redirector.redirectStandardOutputTo(destination)
+        redirector.start()
+        def thread = new Thread({ stdOut.onOutput("from child thread") })
+        thread.start()
+        thread.join()
+
+        then:
+        1 * destination.onOutput("from child thread")
+    }
+
+    def "writes output of other threads and of stopped redirectors to the original streams"() {
+        def destination = Mock(StandardOutputListener)
+        def redirector = router.createRedirector()
+
+        when:
+        router.start()
+        stdOut.onOutput("[no redirector]")
+        redirector.redirectStandardOutputTo(destination)
+        redirector.start()
+        redirector.stop()
+        stdOut.onOutput("[stopped]")
+        stdErr.onOutput("[error]")
+
+        then:
+        0 * destination._
+        outputs.stdOut == "[no redirector][stopped]"
+        outputs.stdErr == "[error]"
+    }
+
+    def "starts and stops the target redirector"() {
+        when:
+        router.start()
+        router.stop()
+
+        then:
+        1 * target.start()
+        1 * target.stop()
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.sharding
+
+import spock.lang.Specification
+
+class TestShardSpecTest extends Specification {
+    def durations = [Slow: 100L, Medium: 60L, Fast1: 30L, Fast2: 30L, Fast3: 20L]
+
+    def "balances test classes with known durations across shards"() {
+        def spec = new TestShardSpec(1, 2, durations)
+
+        expect:
+        spec.shardOf("Slow") == 1
+        spec.shardOf("Medium") == 2
+        spec.shardOf("Fast1") == 2
+        spec.shardOf("Fast2") == 2
+        spec.shardOf("Fast3") == 1
+        spec.isSatisfiedBy("Slow")
+        !spec.isSatisfiedBy("Medium")
+    }
+
+    def "every test class is accepted by exactly one shard"() {
+        def shards = (1..3).collect { new TestShardSpec(it, 3, durations) }
+
+        expect:
+        (durations.keySet() + ["NewTest", "OtherNewTest", "org.gradle.SomeTest"]).every { className ->
+            shards.count { it.isSatisfiedBy(className) } == 1
+        }
+    }
+
+    def "assigns test classes without a known duration by name"() {
+        expect:
+        new TestShardSpec(1, 3, [:]).shardOf("NewTest") == new TestShardSpec(2, 3, durations).shardOf("NewTest")
+    }
+
+    def "accepts all test classes when there is a single shard"() {
+        def spec = new TestShardSpec(1, 1, durations)
+
+        expect:
+        spec.isSatisfiedBy("Slow")
+        spec.isSatisfiedBy("NewTest")
+    }
+
+    def "cannot select a shard outside of the shard count"() {
+        when:
+        new TestShardSpec(3, 2, durations)
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message == "Cannot select shard 3 of 2."
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
+import org.gradle.api.internal.tasks.testing.TestEventBatch
+import org.gradle.api.internal.tasks.testing.TestEventBatchProcessor
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
+import spock.lang.Specification
+
+class BatchingTestResultProcessorTest extends Specification {
+    def target = Mock(TestEventBatchProcessor)
+    def executor = Mock(StoppableExecutor)
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_) >> executor
+    }
+    def processor = new BatchingTestResultProcessor(target, executorFactory)
+
+    def "sends buffered events in a single batch on flush"() {
+        def test = Mock(TestDescriptorInternal)
+        def startEvent = new TestStartEvent(100L)
+        def outputEvent = new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "output")
+        def completeEvent = new TestCompleteEvent(200L)
+        def failure = new RuntimeException()
+        def replayed = Mock(TestResultProcessor)
+        TestEventBatch batch = null
+
+        when:
+        processor.started(test, startEvent)
+        processor.output("id", outputEvent)
+        processor.failure("id", failure)
+        processor.completed("id", completeEvent)
+
+        then:
+        0 * target._
+
+        when:
+        processor.flush()
+        batch.replay(replayed)
+
+        then:
+        1 * target.processBatch(_) >> { batch = it[0] }
+
+        then:
+        1 * replayed.started(test, startEvent)
+
+        then:
+        1 * replayed.output("id", outputEvent)
+
+        then:
+        1 * replayed.failure("id", failure)
+
+        then:
+        1 * replayed.completed("id", completeEvent)
+    }
+
+    def "does not send empty batches"() {
+        when:
+        processor.flush()
+
+        then:
+        0 * target._
+    }
+
+    def "sends batch when it is full"() {
+        when:
+        BatchingTestResultProcessor.MAX_BATCH_SIZE.times {
+            processor.output("id", new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "output"))
+        }
+
+        then:
+        1 * target.processBatch({ it.size() == BatchingTestResultProcessor.MAX_BATCH_SIZE })
+
+        when:
+        processor.output("id", new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "output"))
+
+        then:
+        0 * target._
+    }
+
+    def "sends buffered events and stops flushing periodically on stop"() {
+        processor.completed("id", new TestCompleteEvent(200L))
+
+        when:
+        processor.stop()
+
+        then:
+        1 * target.processBatch({ it.size() == 1 })
+
+        then:
+        1 * executor.stop()
+    }
+}
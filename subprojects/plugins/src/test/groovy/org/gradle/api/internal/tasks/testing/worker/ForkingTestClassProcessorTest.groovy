@@ -20,7 +20,10 @@ import org.gradle.api.Action
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
 import org.gradle.internal.Factory
+import org.gradle.messaging.remote.ObjectConnection
 import org.gradle.process.JavaForkOptions
+import org.gradle.process.internal.WorkerProcess
+import org.gradle.process.internal.WorkerProcessBuilder
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -43,4 +46,23 @@ class ForkingTestClassProcessorTest extends Specification {
         1 * remoteProcessor.processTestClass(test2)
         0 * remoteProcessor._
     }
+
+    def "requests a reusable worker process when processes are reused"() {
+        def workerFactory = Mock(Factory)
+        def builder = Mock(WorkerProcessBuilder)
+        def workerProcess = Mock(WorkerProcess)
+        def connection = Mock(ObjectConnection)
+        def reusingProcessor = new ForkingTestClassProcessor(workerFactory, Mock(WorkerTestClassProcessorFactory), Mock(JavaForkOptions), [new File("classpath.jar")], Mock(Action), true)
+
+        when:
+        reusingProcessor.forkProcess()
+
+        then:
+        1 * workerFactory.create() >> builder
+        1 * builder.setReuseProcess(true)
+        1 * builder.build() >> workerProcess
+        1 * workerProcess.start()
+        _ * workerProcess.getConnection() >> connection
+        1 * connection.addOutgoing(RemoteTestClassProcessor) >> Mock(RemoteTestClassProcessor)
+    }
 }
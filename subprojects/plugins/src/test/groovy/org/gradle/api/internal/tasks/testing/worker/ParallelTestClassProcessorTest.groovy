@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.messaging.actor.Actor
+import org.gradle.messaging.actor.ActorFactory
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class ParallelTestClassProcessorTest extends ConcurrentSpec {
+    def resultProcessor = Mock(TestResultProcessor)
+    def threadSafeResultProcessor = Mock(TestResultProcessor)
+    def actor = Stub(Actor) {
+        getProxy(TestResultProcessor) >> threadSafeResultProcessor
+    }
+    def actorFactory = Stub(ActorFactory) {
+        createBlockingActor(resultProcessor) >> actor
+    }
+    def listener = Mock(TestClassProcessedListener)
+
+    def "executes test classes concurrently and notifies the listener as each test class is executed"() {
+        def started = []
+        def stopped = []
+        def processor1 = processor(started, stopped) {
+            instant.class1Started
+            thread.blockUntil.class2Started
+        }
+        def processor2 = processor(started, stopped) {
+            thread.blockUntil.class1Started
+            instant.class2Started
+        }
+
+        when:
+        async {
+            def processor = new ParallelTestClassProcessor([processor1, processor2], executorFactory, actorFactory, listener)
+            processor.startProcessing(resultProcessor)
+            processor.processTestClass(testClass("Class1"))
+            processor.processTestClass(testClass("Class2"))
+            processor.stop()
+        }
+
+        then:
+        2 * listener.testClassProcessed()
+        started == [threadSafeResultProcessor, threadSafeResultProcessor]
+        stopped == [processor1, processor2]
+    }
+
+    def "rethrows the failure of a test class when stopped"() {
+        def failure = new RuntimeException("broken")
+        def processor1 = processor([], []) { throw failure }
+        def caught = null
+
+        when:
+        async {
+            def processor = new ParallelTestClassProcessor([processor1], executorFactory, actorFactory, listener)
+            processor.startProcessing(resultProcessor)
+            processor.processTestClass(testClass("Class1"))
+            try {
+                processor.stop()
+            } catch (RuntimeException e) {
+                caught = e
+            }
+        }
+
+        then:
+        1 * listener.testClassProcessed()
+        caught == failure
+    }
+
+    TestClassProcessor processor(List started, List stopped, Closure action) {
+        def processor
+        processor = [
+                startProcessing: { TestResultProcessor p -> started << p },
+                processTestClass: { TestClassRunInfo c -> action.call() },
+                stop: { stopped << processor }
+        ] as TestClassProcessor
+        return processor
+    }
+
+    TestClassRunInfo testClass(String className) {
+        return Stub(TestClassRunInfo) {
+            getTestClassName() >> className
+        }
+    }
+}
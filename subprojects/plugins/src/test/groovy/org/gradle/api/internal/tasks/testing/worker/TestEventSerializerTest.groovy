@@ -24,6 +24,8 @@ import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor
 import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
 import org.gradle.api.internal.tasks.testing.DefaultTestSuiteDescriptor
 import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestEventBatch
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.TestStartEvent
 import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.api.tasks.testing.TestResult
@@ -193,6 +195,78 @@ class TestEventSerializerTest extends Specification {
         result[0].cause.message == "cause"
     }
 
+    def "serializes TestEventBatch"() {
+        def suiteId = new CompositeIdGenerator.CompositeId(1L, 1L)
+        def classId = new CompositeIdGenerator.CompositeId(1L, 2L)
+        def testId = new CompositeIdGenerator.CompositeId(1L, 3L)
+        def batch = new TestEventBatch()
+        batch.started(new WorkerTestClassProcessor.WorkerTestSuiteDescriptor(suiteId, "worker"), new TestStartEvent(100L))
+        batch.started(new DefaultTestClassDescriptor(classId, "some-class"), new TestStartEvent(110L, suiteId))
+        batch.started(new DefaultTestMethodDescriptor(testId, "some-class", "some-test"), new TestStartEvent(120L, classId))
+        batch.output(testId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "output"))
+        batch.failure(testId, new RuntimeException("broken"))
+        batch.completed(testId, new TestCompleteEvent(115L, TestResult.ResultType.FAILURE))
+        batch.completed(classId, new TestCompleteEvent(130L))
+        def processor = Mock(TestResultProcessor)
+
+        when:
+        def result = serialize(batch)
+        result[0].replay(processor)
+
+        then:
+        1 * processor.started({ it instanceof WorkerTestClassProcessor.WorkerTestSuiteDescriptor && it.id == suiteId && it.name == "worker" }, { it.startTime == 100L && it.parentId == null })
+
+        then:
+        1 * processor.started({ it instanceof DefaultTestClassDescriptor && it.id == classId && it.className == "some-class" }, { it.startTime == 110L && it.parentId == suiteId })
+
+        then:
+        1 * processor.started({ it instanceof DefaultTestMethodDescriptor && it.id == testId && it.className == "some-class" && it.name == "some-test" }, { it.startTime == 120L && it.parentId == classId })
+
+        then:
+        1 * processor.output(testId, { it.destination == TestOutputEvent.Destination.StdOut && it.message == "output" })
+
+        then:
+        1 * processor.failure(testId, { it instanceof RuntimeException && it.message == "broken" })
+
+        then:
+        1 * processor.completed(testId, { it.endTime == 115L && it.resultType == TestResult.ResultType.FAILURE })
+
+        then:
+        1 * processor.completed(classId, { it.endTime == 130L && it.resultType == null })
+        0 * processor._
+    }
+
+    def "reuses ids and class names of earlier batches sent over the same connection"() {
+        def classId = new CompositeIdGenerator.CompositeId(1L, 2L)
+        def batch1 = new TestEventBatch()
+        batch1.started(new DefaultTestClassDescriptor(classId, "some-class"), new TestStartEvent(100L))
+        def batch2 = new TestEventBatch()
+        batch2.started(new DefaultTestMethodDescriptor(new CompositeIdGenerator.CompositeId(1L, 3L), "some-class", "some-test"), new TestStartEvent(110L, classId))
+        batch2.output(classId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "output"))
+        batch2.completed(classId, new TestCompleteEvent(130L))
+        def batch3 = new TestEventBatch()
+        batch3.started(new DefaultTestClassDescriptor(classId, "some-class"), new TestStartEvent(140L))
+        def processor = Mock(TestResultProcessor)
+
+        when:
+        def outstr = new ByteArrayOutputStream()
+        def writer = serializer.newWriter(new OutputStreamBackedEncoder(outstr))
+        writer.write([batch1] as Object[])
+        writer.write([batch2] as Object[])
+        writer.write([batch3] as Object[])
+        def reader = serializer.newReader(new InputStreamBackedDecoder(new ByteArrayInputStream(outstr.toByteArray())))
+        reader.read()[0].replay(processor)
+        reader.read()[0].replay(processor)
+        reader.read()[0].replay(processor)
+
+        then:
+        1 * processor.started({ it.id == classId && it.className == "some-class" }, { it.startTime == 100L })
+        1 * processor.started({ it.className == "some-class" && it.name == "some-test" }, { it.startTime == 110L && it.parentId == classId })
+        1 * processor.output(classId, { it.message == "output" })
+        1 * processor.completed(classId, { it.endTime == 130L })
+        1 * processor.started({ it.id == classId && it.className == "some-class" }, { it.startTime == 140L })
+    }
+
     def Object[] serialize(Object... source) {
         def outstr = new ByteArrayOutputStream()
         serializer.newWriter(new OutputStreamBackedEncoder(outstr)).write(source)
@@ -22,6 +22,7 @@ import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.tasks.compile.Compiler;
 import org.gradle.api.internal.tasks.compile.GroovyJavaJointCompileSpec;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.util.GFileUtils;
 import org.gradle.util.JUnit4GroovyMockery;
 import org.hamcrest.core.IsNull;
@@ -80,6 +81,8 @@ public class GroovyCompileTest extends AbstractCompileTest {
     public void testExecuteDoingWork() {
         testExecute(7);
         assertTrue(testObj.getDidWork());
+        assertFalse(testObj.getCompilationMetrics().isIncremental());
+        assertEquals(1, testObj.getCompilationMetrics().getCompiledSourceCount());
     }
 
     @Test
@@ -88,6 +91,27 @@ public class GroovyCompileTest extends AbstractCompileTest {
         assertFalse(testObj.getDidWork());
     }
 
+    @Test
+    public void testIncrementalCompileWithCustomCompilerFallsBackToFullCompile() {
+        final IncrementalTaskInputs inputs = context.mock(IncrementalTaskInputs.class);
+        testObj.getOptions().setIncremental(true);
+        setUpMocksAndAttributes(testObj, false);
+        context.checking(new Expectations(){{
+            WorkResult result = context.mock(WorkResult.class);
+
+            one(groovyCompilerMock).execute((GroovyJavaJointCompileSpec) with(IsNull.notNullValue()));
+            will(returnValue(result));
+            allowing(result).getDidWork();
+            will(returnValue(true));
+        }});
+
+        testObj.compile(inputs);
+
+        assertTrue(testObj.getDidWork());
+        assertFalse(testObj.getCompilationMetrics().isIncremental());
+        assertThat(testObj.getCompilationMetrics().getFullRebuildReason(), containsString("does not support incremental compilation"));
+    }
+
     @Test
     public void testMoansIfGroovyClasspathIsEmpty() {
         setUpMocksAndAttributes(testObj, true);
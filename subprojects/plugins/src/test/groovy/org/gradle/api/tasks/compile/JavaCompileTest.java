@@ -31,6 +31,7 @@ import org.junit.runner.RunWith;
 
 import java.io.File;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -72,6 +73,8 @@ public class JavaCompileTest extends AbstractCompileTest {
     public void testExecuteDoingWork() {
         testExecute(7);
         assertTrue(compile.getDidWork());
+        assertFalse(compile.getCompilationMetrics().isIncremental());
+        assertEquals(1, compile.getCompilationMetrics().getCompiledSourceCount());
     }
 
     @Test
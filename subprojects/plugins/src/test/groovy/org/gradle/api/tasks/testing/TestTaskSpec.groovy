@@ -20,6 +20,7 @@ import org.gradle.api.internal.tasks.testing.TestFramework
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.detection.TestExecuter
 import org.gradle.api.internal.tasks.testing.junit.report.TestReporter
+import org.gradle.api.specs.Spec
 import org.gradle.listener.ListenerBroadcast
 import org.gradle.util.TestUtil
 import spock.lang.Specification
@@ -50,7 +51,7 @@ class TestTaskSpec extends Specification {
         2 * testOutputListenerBroadcaster.add(_)
 
         then:
-        1 * testExecuter.execute(task, _ as TestResultProcessor)
+        1 * testExecuter.execute(task, _ as TestResultProcessor, _ as Spec, _ as Map, _ as List)
 
         then:
         1 * testListenerBroadcaster.removeAll()
@@ -58,7 +59,7 @@ class TestTaskSpec extends Specification {
     }
 
     def "removes listeners even if execution fails"() {
-        testExecuter.execute(task, _ as TestResultProcessor) >> { throw new RuntimeException("Boo!")}
+        testExecuter.execute(task, _ as TestResultProcessor, _ as Spec, _ as Map, _ as List) >> { throw new RuntimeException("Boo!")}
 
         when:
         task.executeTests()
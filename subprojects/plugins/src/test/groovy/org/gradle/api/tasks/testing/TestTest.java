@@ -34,6 +34,7 @@ import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junit.report.TestReporter;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.internal.tasks.testing.results.TestListenerAdapter;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.AbstractConventionTaskTest;
 import org.gradle.process.internal.WorkerProcessBuilder;
 import org.gradle.util.GFileUtils;
@@ -53,6 +54,7 @@ import java.io.File;
 import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.gradle.util.Matchers.isEmpty;
@@ -193,7 +195,7 @@ public class TestTest extends AbstractConventionTaskTest {
             }
         });
         context.checking(new Expectations() {{
-            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)));
+            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)), with(notNullValue(Spec.class)), with(notNullValue(Map.class)), with(notNullValue(List.class)));
         }});
 
         WeakReference<TestFramework> weakRef = new WeakReference<TestFramework>(test.getTestFramework());
@@ -318,7 +320,7 @@ public class TestTest extends AbstractConventionTaskTest {
 
     private void expectTestsExecuted() {
         context.checking(new Expectations() {{
-            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)));
+            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)), with(notNullValue(Spec.class)), with(notNullValue(Map.class)), with(notNullValue(List.class)));
         }});
     }
 
@@ -339,7 +341,7 @@ public class TestTest extends AbstractConventionTaskTest {
 
             ignoring(testDescriptor);
 
-            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)));
+            one(testExecuterMock).execute(with(sameInstance(test)), with(notNullValue(TestListenerAdapter.class)), with(notNullValue(Spec.class)), with(notNullValue(Map.class)), with(notNullValue(List.class)));
             will(new Action() {
                 public void describeTo(Description description) {
                     description.appendText("fail tests");
@@ -169,6 +169,8 @@ public class ScalaCompile extends AbstractCompile {
                     File publishedCode = task.getScalaCompileOptions().getIncrementalOptions().getPublishedCode();
                     File analysisFile = task.getScalaCompileOptions().getIncrementalOptions().getAnalysisFile();
                     analysisMap.put(publishedCode, analysisFile);
+                    // source sets of the same project, e.g. 'test', have the classes directory rather than the jar on their class path
+                    analysisMap.put(task.getDestinationDir(), analysisFile);
                 }
             }
             extraProperties.set("scalaCompileAnalysisMap", Collections.unmodifiableMap(analysisMap));
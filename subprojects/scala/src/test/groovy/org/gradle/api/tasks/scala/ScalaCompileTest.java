@@ -16,14 +16,20 @@
 package org.gradle.api.tasks.scala;
 
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Project;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.internal.tasks.compile.Compiler;
 import org.gradle.api.internal.tasks.scala.ScalaJavaJointCompileSpec;
+import org.gradle.api.plugins.JavaPluginConvention;
+import org.gradle.api.plugins.scala.ScalaPlugin;
+import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.compile.AbstractCompile;
 import org.gradle.api.tasks.compile.AbstractCompileTest;
 import org.gradle.util.GFileUtils;
 import org.gradle.util.JUnit4GroovyMockery;
+import org.gradle.util.TestUtil;
 import org.hamcrest.core.IsNull;
 import org.jmock.Expectations;
 import org.jmock.integration.junit4.JUnit4Mockery;
@@ -33,6 +39,11 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
 
 public class ScalaCompileTest extends AbstractCompileTest {
     @Rule
@@ -88,6 +99,32 @@ public class ScalaCompileTest extends AbstractCompileTest {
         scalaCompile.compile();
     }
 
+    @Test
+    public void testSourceSetCompiledAgainstClassesDirOfAnotherGetsItsAnalysisFile() {
+        Project project = TestUtil.createRootProject();
+        project.getPlugins().apply(ScalaPlugin.class);
+        ScalaCompile compileScala = (ScalaCompile) project.getTasks().getByName("compileScala");
+        ScalaCompile compileTestScala = (ScalaCompile) project.getTasks().getByName("compileTestScala");
+        File analysisFile = new File(project.getBuildDir(), "main.analysis");
+        compileScala.getScalaCompileOptions().setUseAnt(false);
+        compileScala.getScalaCompileOptions().getIncrementalOptions().setAnalysisFile(analysisFile);
+        compileTestScala.getScalaCompileOptions().setUseAnt(false);
+        compileTestScala.setScalaClasspath(project.files("scala-library.jar"));
+        final List<ScalaJavaJointCompileSpec> specs = new ArrayList<ScalaJavaJointCompileSpec>();
+        compileTestScala.setCompiler(new Compiler<ScalaJavaJointCompileSpec>() {
+            public WorkResult execute(ScalaJavaJointCompileSpec spec) {
+                specs.add(spec);
+                return new SimpleWorkResult(true);
+            }
+        });
+
+        compileTestScala.compile();
+
+        File mainClassesDir = project.getConvention().getPlugin(JavaPluginConvention.class).getSourceSets().getByName("main").getOutput().getClassesDir();
+        assertThat(specs.size(), equalTo(1));
+        assertThat(specs.get(0).getAnalysisMap().get(mainClassesDir), equalTo(analysisFile));
+    }
+
     protected void setUpMocksAndAttributes(final ScalaCompile compile) {
         compile.source(srcDir);
         compile.setIncludes(TEST_INCLUDES);